@@ -0,0 +1,96 @@
+package UnitTesting;
+
+import banking.*;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import util.Date;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * The AccountCacheTest class tests that an AccountCache stays within its size, counts hits and misses,
+ * and writes changed Accounts back to the store when they are evicted.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class AccountCacheTest {
+
+    /**
+     * The record file of the store used for testing.
+     */
+    File file;
+
+    /**
+     * Creates an empty temporary record file.
+     *
+     * @throws IOException if the file cannot be created
+     */
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("accounts", ".db");
+        file.deleteOnExit();
+    }
+
+    /**
+     * Deletes the record file, its side segment and its activity log.
+     */
+    @After
+    public void tearDown() {
+        file.delete();
+        new File(file.getPath() + ".profiles").delete();
+        new File(file.getPath() + ".activities").delete();
+    }
+
+    /**
+     * Test case #1:
+     * Tests the case where a cache with room for one Account is asked for two, so the second lookup of each misses.
+     *
+     * @throws IOException if the store cannot be opened
+     */
+    @Test
+    public void testGet_EvictsWhenFull() throws IOException {
+        MappedAccountStore store = new MappedAccountStore(file);
+        Profile holder = new Profile("John", "Doe", new Date(1, 1, 2000));
+        int first = store.append(new Checking(Branch.EDISON, AccountType.CHECKING, holder, 500.0));
+        int second = store.append(new Checking(Branch.WARREN, AccountType.CHECKING, holder, 700.0));
+        AccountCache cache = new AccountCache(store, 300);
+        cache.get(first);
+        cache.get(first);
+        cache.get(second);
+        cache.get(first);
+        assertEquals(1, cache.getHits());
+        assertEquals(3, cache.getMisses());
+        assertEquals(2, cache.getEvictions());
+        assertEquals(1, cache.size());
+        assertTrue(cache.getBytes() <= 300);
+    }
+
+    /**
+     * Test case #2:
+     * Tests the case where a changed Account is evicted and its balance and Activity are read back from the store.
+     *
+     * @throws IOException if the store cannot be opened
+     */
+    @Test
+    public void testUpdate_WritesBackOnEviction() throws IOException {
+        MappedAccountStore store = new MappedAccountStore(file);
+        Profile holder = new Profile("Jane", "Doe", new Date(2, 2, 2002));
+        int first = store.append(new Savings(Branch.EDISON, AccountType.SAVINGS, holder, 1000.0));
+        int second = store.append(new Savings(Branch.BRIDGEWATER, AccountType.SAVINGS, holder, 2000.0));
+        AccountCache cache = new AccountCache(store, 300);
+        Account account = cache.get(first);
+        account.deposit(250.0);
+        cache.update(first, account);
+        assertEquals(1000.0, store.read(first).getBalance(), 0.001);
+        cache.get(second);
+        assertEquals(1, cache.getWriteBacks());
+        Account read = new MappedAccountStore(file).read(first);
+        assertEquals(1250.0, read.getBalance(), 0.001);
+        assertEquals(1, read.getActivities().size());
+    }
+}
@@ -7,6 +7,11 @@ import static org.junit.Assert.*;
 import org.junit.Before;
 import org.junit.Test;
 import util.Date;
+import util.List;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 
 /**
  * The AccountDatabaseTest class is a test suite for validating the behavior of the AccountDatabase class.
@@ -113,4 +118,300 @@ public class AccountDatabaseTest {
         assertEquals(accountMoneyMarketLoyal.getBalance(), 4900.0, 0.01);
         assertEquals(accountMoneyMarketLoyal.isLoyal(), false);
     }
+
+    /**
+     * Test case #6:
+     * Tests the case where interest is accrued from the start of the month into the next month
+     * and a new statement cycle clears it.
+     */
+    @Test
+    public void testAccrueInterest_NewCycle() {
+        db.accrueInterest(new Date(2, 10, 2025));
+        assertEquals(accountReg.dailyInterest() * 10, accountReg.getAccruedInterest(), 0.01);
+        db.accrueInterest(new Date(3, 12, 2025));
+        assertEquals(accountReg.dailyInterest() * 40, accountReg.getAccruedInterest(), 0.01);
+        db.startCycle();
+        assertEquals(0.0, accountReg.getAccruedInterest(), 0.01);
+    }
+
+    /**
+     * Test case #7:
+     * Tests the case where interest is posted twice on the same date and the second posting is skipped.
+     */
+    @Test
+    public void testPostInterest_Idempotent() {
+        Date date = new Date(2, 28, 2025);
+        double expected = accountReg.getBalance() + Math.round(accountReg.dailyInterest() * 28 * 100) / 100.0;
+        assertEquals(3, db.postInterest(date));
+        assertEquals(0, db.postInterest(date));
+        assertEquals(expected, accountReg.getBalance(), 0.001);
+        assertEquals(1, accountReg.getActivities().size());
+    }
+
+    /**
+     * Test case #8:
+     * Tests the case where a withdrawal moves a MoneyMarket account below $5,000 and the aggregates follow it.
+     */
+    @Test
+    public void testAggregates_UpdatedByWithdrawal() {
+        BalanceAggregates aggregates = db.getAggregates();
+        assertEquals(11000.0, aggregates.total(Branch.EDISON), 0.01);
+        assertEquals(1, aggregates.range(AccountType.MONEY_MARKET, 0, 5000).size());
+        db.withdraw(accountMoneyMarketLoyal.getAccountNumber(), 500);
+        assertEquals(10500.0, aggregates.total("middlesex"), 0.01);
+        assertEquals(2, aggregates.range(AccountType.MONEY_MARKET, 0, 5000).size());
+        assertSame(accountMoneyMarketNonLoyal, aggregates.top(1).get(0));
+        db.remove(accountReg);
+        assertEquals(2, aggregates.count(Branch.EDISON));
+        assertEquals(0, aggregates.count(AccountType.SAVINGS));
+    }
+
+    /**
+     * Test case #9:
+     * Tests the case where ATM activities before a horizon are compacted into a monthly summary
+     * and the activity after it is kept in detail.
+     */
+    @Test
+    public void testCompactActivities_MonthlySummary() {
+        accountReg.deposit(new Date(1, 5, 2025), Branch.EDISON, 100.0);
+        accountReg.withdraw(new Date(1, 20, 2025), Branch.WARREN, 40.0);
+        accountReg.deposit(new Date(3, 2, 2025), Branch.EDISON, 10.0);
+        assertEquals(2, db.compactActivities(new Date(2, 1, 2025), RollupPeriod.MONTH));
+        assertEquals(1, accountReg.getActivities().size());
+        ActivityRollup rollup = accountReg.getRollups().get(0);
+        assertEquals(2, rollup.getCount());
+        assertEquals(100.0, rollup.getDeposits(), 0.01);
+        assertEquals(40.0, rollup.getWithdrawals(), 0.01);
+        assertEquals(1, rollup.getAtmCount(Branch.WARREN));
+        assertEquals(0, db.compactActivities(new Date(2, 1, 2025), RollupPeriod.MONTH));
+    }
+
+    /**
+     * Test case #10:
+     * Tests the case where a transfer takes a loyal MoneyMarket account below $5,000, counting the withdrawal,
+     * both halves are recorded as a transfer on its date, and a transfer larger than the balance leaves both
+     * Accounts unchanged.
+     */
+    @Test
+    public void testTransfer_MoneyMarketToSavings() {
+        Date date = new Date(3, 14, 2025);
+        assertTrue(db.transfer(accountMoneyMarketLoyal.getAccountNumber(), accountReg.getAccountNumber(), 200.0, date));
+        assertEquals(4900.0, accountMoneyMarketLoyal.getBalance(), 0.01);
+        assertEquals(1200.0, accountReg.getBalance(), 0.01);
+        assertFalse(accountMoneyMarketLoyal.isLoyal());
+        assertEquals(1, accountMoneyMarketLoyal.getWithdrawals());
+        assertEquals('S', accountMoneyMarketLoyal.getActivities().get(0).getType());
+        assertEquals('R', accountReg.getActivities().get(0).getType());
+        assertEquals(date, accountReg.getActivities().get(0).getDate());
+        assertTrue(accountReg.getActivities().get(0).isTransfer());
+        assertFalse(db.transfer(accountReg.getAccountNumber(), accountMoneyMarketLoyal.getAccountNumber(), 5000.0, date));
+        assertEquals(1200.0, accountReg.getBalance(), 0.01);
+        assertEquals(4900.0, accountMoneyMarketLoyal.getBalance(), 0.01);
+    }
+
+    /**
+     * Test case #11:
+     * Tests the case where a Savings account and a Checking account of the same holder are opened in one batch,
+     * making the Savings account loyal, and closing the Checking account in a batch takes the loyalty away.
+     */
+    @Test
+    public void testOpenAccounts_BatchLoyalty() {
+        Profile holder = new Profile("Ann", "Lee", new Date(1, 1, 1990));
+        Savings savings = new Savings(Branch.WARREN, AccountType.SAVINGS, holder, 500.0);
+        Checking checking = new Checking(Branch.WARREN, AccountType.CHECKING, holder, 900.0);
+        List<Account> batch = new List<>();
+        batch.add(savings);
+        batch.add(checking);
+        db.openAccounts(batch);
+        assertEquals(5, db.size());
+        assertTrue(savings.isLoyal());
+        assertTrue(db.contains(holder, AccountType.CHECKING));
+        List<Account> closing = new List<>();
+        closing.add(checking);
+        db.closeAccounts(closing, new Date(3, 1, 2025));
+        assertFalse(savings.isLoyal());
+        assertFalse(db.contains(holder, AccountType.CHECKING));
+        assertEquals(4, db.size());
+    }
+
+    /**
+     * Test case #12:
+     * Tests the case where the Accounts of two Branches are exported to one file per Branch,
+     * each holding the statements the Accounts print.
+     *
+     * @throws IOException if the files cannot be written
+     */
+    @Test
+    public void testExportStatements_OneFilePerBranch() throws IOException {
+        Savings warren = new Savings(Branch.WARREN, AccountType.SAVINGS, new Profile("Ann", "Lee", new Date(1, 1, 1990)), 500.0);
+        db.add(warren);
+        File directory = Files.createTempDirectory("statements").toFile();
+        try {
+            assertEquals(2, db.exportStatements(directory, false));
+            String edison = Files.readString(new File(directory, "EDISON.txt").toPath());
+            assertTrue(edison.contains(accountReg.getStatement()));
+            assertFalse(edison.contains("Ann Lee"));
+            assertTrue(Files.readString(new File(directory, "WARREN.txt").toPath()).contains(warren.getStatement()));
+        } finally {
+            for (File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+
+    /**
+     * Test case #13:
+     * Tests the case where a query with a balance bound is answered from the balance index,
+     * and a query without one scans a book large enough to be split across tasks, with the same Accounts selected.
+     */
+    @Test
+    public void testQuery_IndexAndScanAgree() {
+        for (int i = 0; i < 3000; i++) {
+            Branch branch = i % 2 == 0 ? Branch.WARREN : Branch.PRINCETON;
+            db.add(new Checking(branch, AccountType.CHECKING, new Profile("Holder", "No" + i, new Date(1, 1, 1990)), i));
+        }
+        List<Account> indexed = new AccountQuery(new String[]{"PQ", "county=somerset", "balance<100"}, 1).run(db);
+        assertEquals(50, indexed.size());
+        assertEquals(0.0, indexed.get(0).getBalance(), 0.01);
+        List<Account> scanned = new AccountQuery(new String[]{"PQ", "county=somerset"}, 1).run(db);
+        assertEquals(1500, scanned.size());
+        List<Account> loyal = new AccountQuery(new String[]{"PQ", "loyal=false", "branch=edison"}, 1).run(db);
+        assertEquals(2, loyal.size());
+        assertEquals(accountReg, loyal.get(0));
+    }
+
+    /**
+     * Test case #14:
+     * Tests the case where a back-dated Activity is found in date order by a date range,
+     * while the statement keeps the order the Activities were added in, and compacting drops it from the range.
+     */
+    @Test
+    public void testActivityRange_BackDated() {
+        accountReg.deposit(new Date(3, 5, 2025), Branch.EDISON, 10.0);
+        accountReg.deposit(new Date(3, 9, 2025), Branch.EDISON, 20.0);
+        assertEquals(2, accountReg.getActivities(new Date(3, 1, 2025), new Date(3, 31, 2025)).size());
+        accountReg.deposit(new Date(3, 2, 2025), Branch.WARREN, 30.0);
+        accountReg.deposit(new Date(3, 5, 2025), Branch.WARREN, 40.0);
+        List<Activity> range = accountReg.getActivities(new Date(3, 2, 2025), new Date(3, 5, 2025));
+        assertEquals(3, range.size());
+        assertEquals(30.0, range.get(0).getAmount(), 0.01);
+        assertEquals(10.0, range.get(1).getAmount(), 0.01);
+        assertEquals(40.0, range.get(2).getAmount(), 0.01);
+        assertEquals(30.0, accountReg.getActivities().get(2).getAmount(), 0.01);
+        accountReg.compact(new Date(3, 3, 2025), RollupPeriod.DAY);
+        assertEquals(2, accountReg.getActivities(new Date(3, 2, 2025), new Date(3, 5, 2025)).size());
+    }
+
+    /**
+     * Test case #15:
+     * Tests the case where ATM and teller deposits and withdrawals are counted by Branch and day in the traffic
+     * of the AccountDatabase holding the Account, not of another one, and compacting the Activities leaves the counts.
+     */
+    @Test
+    public void testTraffic_CountedByBranchAndDay() {
+        Date day = new Date(6, 15, 2025);
+        accountReg.deposit(day, Branch.WARREN, 10.0);
+        accountReg.deposit(day, Branch.WARREN, 15.5);
+        accountReg.withdraw(day, Branch.PRINCETON, 5.0);
+        accountReg.deposit(new Date(6, 16, 2025), Branch.WARREN, 1.0);
+        ActivityTraffic traffic = db.getTraffic();
+        int epochDay = day.toEpochDay();
+        assertEquals(2, traffic.count(epochDay, Branch.WARREN, true, true));
+        assertEquals(25.5, traffic.total(epochDay, Branch.WARREN, true, true), 0.001);
+        assertEquals(1, traffic.count(epochDay, Branch.PRINCETON, true, false));
+        assertEquals(0, traffic.count(epochDay, Branch.WARREN, false, true));
+        assertEquals(2, traffic.days(epochDay, epochDay + 1).size());
+        assertEquals(0, new AccountDatabase().getTraffic().count(epochDay, Branch.WARREN, true, true));
+        accountReg.compact(new Date(7, 1, 2025), RollupPeriod.MONTH);
+        assertEquals(2, traffic.count(epochDay, Branch.WARREN, true, true));
+    }
+
+    /**
+     * Test case #16:
+     * Tests the case where the checksum does not depend on the order Accounts were added in,
+     * and comparing with a saved checksum after a deposit finds only the range of the Account deposited to.
+     *
+     * @throws IOException if the checksum file cannot be written or read
+     */
+    @Test
+    public void testChecksum_OrderFreeAndLocalized() throws IOException {
+        AccountDatabase reversed = new AccountDatabase();
+        reversed.add(accountMoneyMarketLoyal);
+        reversed.add(accountMoneyMarketNonLoyal);
+        reversed.add(accountReg);
+        assertEquals(db.getChecksum().total(), reversed.getChecksum().total());
+        assertEquals(db.getChecksum().root(Branch.EDISON), reversed.getChecksum().root(Branch.EDISON));
+        File file = Files.createTempFile("checksum", ".txt").toFile();
+        try {
+            db.getChecksum().save(file);
+            assertTrue(db.getChecksum().diff(BookChecksum.load(file)).isEmpty());
+            db.deposit(accountReg.getAccountNumber(), 100);
+            List<String> ranges = db.getChecksum().diff(BookChecksum.load(file));
+            assertEquals(1, ranges.size());
+            assertTrue(ranges.get(0).startsWith("EDISON SAVINGS "));
+            assertEquals(0, db.getChecksum().root(Branch.WARREN));
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    /**
+     * Test case #17:
+     * Tests the case where rolling the book forward accrues the fee of a Checking account below $1,000,
+     * the statement shows the fee accrued so far, and posting charges the fee accrued over the cycle.
+     */
+    @Test
+    public void testRollTo_AccruesFees() {
+        Checking checking = new Checking(Branch.EDISON, AccountType.CHECKING, new Profile("Ann", "Lee", new Date(3, 3, 2003)), 500.0);
+        db.add(checking);
+        db.rollTo(new Date(2, 10, 2025));
+        assertEquals(checking.dailyFee() * 10, checking.getAccruedFee(), 0.001);
+        assertTrue(checking.getStatement().contains("[Fee] $" + String.format("%.2f", checking.dailyFee() * 10)));
+        db.rollTo(new Date(2, 5, 2025));
+        assertEquals(checking.dailyFee() * 10, checking.getAccruedFee(), 0.001);
+        double interest = Math.round(checking.dailyInterest() * 28 * 100) / 100.0;
+        double fee = Math.round(checking.dailyFee() * 28 * 100) / 100.0;
+        db.postInterest(new Date(2, 28, 2025));
+        assertEquals(500.0 + interest - fee, checking.getBalance(), 0.001);
+        assertEquals(0.0, checking.getAccruedFee(), 0.001);
+    }
+
+    /**
+     * Test case #18:
+     * Tests the case where statements are printed straight after the Accounts are loaded, before the book is rolled,
+     * and show the monthly interest and fee as the baseline did.
+     *
+     * @throws IOException if the accounts file cannot be written or read
+     */
+    @Test
+    public void testStatement_AfterLoadShowsMonthlyFigures() throws IOException {
+        File file = Files.createTempFile("accounts", ".txt").toFile();
+        try {
+            Files.writeString(file.toPath(), "checking,bridgewater,Ann,Lee,3/3/2003,600.0\n");
+            AccountDatabase loaded = new AccountDatabase();
+            loaded.loadAccounts(file);
+            Account checking = loaded.get(0);
+            String statement = checking.getStatement();
+            assertTrue(statement.contains("[interest] $" + String.format("%.2f", checking.interest())));
+            assertTrue(statement.contains("[Fee] $" + String.format("%.2f", checking.fee())));
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    /**
+     * Test case #19:
+     * Tests the case where a teller deposit accrues through the book day rather than the clock,
+     * so a later roll still accrues the days after the book day at the new balance.
+     */
+    @Test
+    public void testDeposit_AccruesThroughBookDay() {
+        db.rollTo(new Date(2, 10, 2025));
+        double before = accountReg.getAccruedInterest();
+        db.deposit(accountReg.getAccountNumber(), 1000.0);
+        assertEquals(before, accountReg.getAccruedInterest(), 0.0001);
+        db.rollTo(new Date(2, 20, 2025));
+        assertEquals(before + accountReg.dailyInterest() * 10, accountReg.getAccruedInterest(), 0.0001);
+    }
 }
@@ -0,0 +1,159 @@
+package UnitTesting;
+
+import banking.*;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import util.Date;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * The ActivityFeedTest class tests that activity processing saves checkpoints, rejects lines it cannot apply,
+ * and never applies or rejects a line twice when a run is resumed.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class ActivityFeedTest {
+
+    /**
+     * The activities file used for testing.
+     */
+    File file;
+
+    /**
+     * The AccountDatabase the activities are applied to.
+     */
+    AccountDatabase db;
+
+    /**
+     * The Checking account the activities are applied to.
+     */
+    Checking checking;
+
+    /**
+     * Creates a temporary activities file and an AccountDatabase with one Checking account.
+     *
+     * @throws IOException if the file cannot be created
+     */
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("activities", ".txt");
+        db = new AccountDatabase();
+        checking = new Checking(Branch.EDISON, AccountType.CHECKING, new Profile("John", "Doe", new Date(1, 1, 2000)), 1000.0);
+        db.add(checking);
+    }
+
+    /**
+     * Deletes the activities file, its checkpoint and its dead-letter file.
+     */
+    @After
+    public void tearDown() {
+        file.delete();
+        new File(file.getPath() + ".checkpoint").delete();
+        new File(file.getPath() + ".rejects").delete();
+    }
+
+    /**
+     * Writes lines to the activities file.
+     *
+     * @param lines the lines of the file
+     * @throws IOException if the file cannot be written
+     */
+    private void write(String... lines) throws IOException {
+        Files.writeString(file.toPath(), String.join("\n", lines) + "\n");
+    }
+
+    /**
+     * Test case #1:
+     * Tests the case where the checkpoint is lost after every line was applied, and resuming skips every line.
+     *
+     * @throws IOException if the feed cannot be read
+     */
+    @Test
+    public void testResume_SkipsAppliedLines() throws IOException {
+        String number = checking.getAccountNumber().toString();
+        write("D," + number + ",2/2/2025,edison,100", "W," + number + ",2/3/2025,warren,50", "D," + number + ",2/4/2025,edison,10");
+        ActivityFeed feed = db.processActivities(file, false);
+        assertEquals(3, feed.getApplied());
+        assertEquals(1060.0, checking.getBalance(), 0.001);
+        Files.writeString(new File(file.getPath() + ".checkpoint").toPath(), feed.getRun() + ",0,0,0,0,false\n");
+        feed = db.processActivities(file, true);
+        assertEquals(0, feed.getApplied());
+        assertEquals(3, feed.getSkipped());
+        assertEquals(1060.0, checking.getBalance(), 0.001);
+    }
+
+    /**
+     * Test case #2:
+     * Tests the case where lines with an unknown branch and an unknown account are rejected while the others
+     * are applied, and resuming from a checkpoint before them does not reject them twice.
+     *
+     * @throws IOException if the feed cannot be read
+     */
+    @Test
+    public void testReject_KeepsGoodLinesFlowing() throws IOException {
+        String number = checking.getAccountNumber().toString();
+        write("D," + number + ",2/2/2025,edison,100", "D," + number + ",2/3/2025,nowhere,50",
+                "D,100019999,2/3/2025,edison,50", "W," + number + ",2/4/2025,warren,30");
+        ActivityFeed feed = db.processActivities(file, false);
+        assertEquals(2, feed.getApplied());
+        assertEquals(2, feed.getRejected());
+        assertEquals(1, feed.getRejected(ValidationResult.INVALID_BRANCH));
+        assertEquals(1, feed.getRejected(ValidationResult.ACCOUNT_NOT_FOUND));
+        assertEquals(1070.0, checking.getBalance(), 0.001);
+        File rejects = new File(file.getPath() + ".rejects");
+        String rejected = Files.readString(rejects.toPath());
+        Files.writeString(new File(file.getPath() + ".checkpoint").toPath(), feed.getRun() + ",0,0,0,0,0,0,false\n");
+        feed = db.processActivities(file, true);
+        assertEquals(2, feed.getSkipped());
+        assertEquals(2, feed.getRejected());
+        assertEquals(rejected, Files.readString(rejects.toPath()));
+        assertTrue(rejected.startsWith("2,INVALID_BRANCH,"));
+    }
+
+    /**
+     * Test case #3:
+     * Tests the case where a followed feed ends in half a line, which is only read once the rest of it arrives.
+     *
+     * @throws IOException if the feed cannot be read
+     */
+    @Test
+    public void testFollow_HoldsPartialLine() throws IOException {
+        String number = checking.getAccountNumber().toString();
+        Files.writeString(file.toPath(), "D," + number + ",2/2/2025,edison,100\nD," + number + ",2/3/2025,war");
+        try (ActivityFeed feed = new ActivityFeed(file, false, true)) {
+            assertEquals(1, feed.next().getLine());
+            assertNull(feed.next());
+            Files.writeString(file.toPath(), "D," + number + ",2/2/2025,edison,100\nD," + number + ",2/3/2025,warren,50\n");
+            FeedLine line = feed.next();
+            assertTrue(line.isValid());
+            assertEquals(2, line.getLine());
+            assertEquals(file.length(), line.getEnd());
+            feed.done(line);
+            assertEquals(0, feed.getBytesBehind());
+        }
+    }
+
+    /**
+     * Test case #4:
+     * Tests the case where a checkpoint saved by another in-memory AccountDatabase, as after a restart,
+     * cannot be resumed, while the AccountDatabase that saved it can resume it.
+     *
+     * @throws IOException if the feed cannot be read
+     */
+    @Test
+    public void testCanResume_OnlyOwnRunInMemory() throws IOException {
+        String number = checking.getAccountNumber().toString();
+        write("D," + number + ",2/2/2025,edison,100");
+        assertTrue(new AccountDatabase().canResume(file));
+        db.processActivities(file, false);
+        assertTrue(db.canResume(file));
+        assertFalse(new AccountDatabase().canResume(file));
+    }
+}
@@ -0,0 +1,170 @@
+package UnitTesting;
+
+import banking.*;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import util.Date;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The AnomalyDetectorTest class tests that ATM withdrawals at several Branches within the window,
+ * and a large deposit mostly withdrawn within the window, each raise one alert in the sink file.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class AnomalyDetectorTest {
+
+    /**
+     * The sink file alerts are appended to.
+     */
+    File alerts;
+
+    /**
+     * The AccountDatabase holding the Account, whose AnomalyDetector is tested.
+     */
+    AccountDatabase db;
+
+    /**
+     * The Account observed.
+     */
+    Checking checking;
+
+    /**
+     * Opens the sink of a new AccountDatabase on a new temporary file and adds an Account to it.
+     *
+     * @throws IOException if the file cannot be created
+     */
+    @Before
+    public void setUp() throws IOException {
+        alerts = File.createTempFile("alerts", ".txt");
+        db = new AccountDatabase();
+        db.getDetector().open(alerts);
+        Profile holder = new Profile("Roy", "Brooks", new Date(2, 28, 2002));
+        checking = new Checking(Branch.EDISON, AccountType.CHECKING, holder, 5000.0);
+        db.add(checking);
+    }
+
+    /**
+     * Closes the sink and deletes its file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @After
+    public void tearDown() throws IOException {
+        db.getDetector().close();
+        Files.deleteIfExists(alerts.toPath());
+    }
+
+    /**
+     * Test case #1:
+     * Tests the case where ATM withdrawals at a third Branch within the window raise one alert,
+     * and more withdrawals in the same burst or outside the window raise none.
+     *
+     * @throws IOException if the sink file cannot be read
+     */
+    @Test
+    public void testAtmVelocity_OneAlertPerBurst() throws IOException {
+        checking.withdraw(new Date(2, 1, 2025), Branch.EDISON, 20);
+        checking.withdraw(new Date(2, 5, 2025), Branch.WARREN, 20);
+        checking.withdraw(new Date(2, 10, 2025), Branch.PRINCETON, 20);
+        checking.withdraw(new Date(2, 10, 2025), Branch.BRIDGEWATER, 20);
+        checking.withdraw(new Date(2, 11, 2025), Branch.PISCATAWAY, 20);
+        checking.withdraw(new Date(2, 11, 2025), Branch.PRINCETON, 20);
+        db.getDetector().flush();
+        List<String> lines = Files.readAllLines(alerts.toPath());
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).startsWith("2/11/2025," + checking.getAccountNumber() + ",ATM_VELOCITY,20.00,"));
+    }
+
+    /**
+     * Test case #2:
+     * Tests the case where withdrawals reaching half of a large deposit within the window raise one alert,
+     * and the same withdrawals after a small deposit raise none.
+     *
+     * @throws IOException if the sink file cannot be read
+     */
+    @Test
+    public void testDepositWithdrawal_LargeDepositOnly() throws IOException {
+        checking.deposit(new Date(3, 1, 2025), Branch.EDISON, 500);
+        checking.withdraw(new Date(3, 1, 2025), Branch.EDISON, 300);
+        checking.deposit(new Date(3, 2, 2025), Branch.EDISON, 2000);
+        checking.withdraw(new Date(3, 2, 2025), Branch.EDISON, 600);
+        checking.withdraw(new Date(3, 3, 2025), Branch.EDISON, 400);
+        checking.withdraw(new Date(3, 3, 2025), Branch.EDISON, 400);
+        db.getDetector().flush();
+        List<String> lines = Files.readAllLines(alerts.toPath());
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).startsWith("3/3/2025," + checking.getAccountNumber() + ",DEPOSIT_WITHDRAWAL,400.00,"));
+        assertTrue(db.getDetector().report().startsWith("1 alerts"));
+    }
+
+    /**
+     * Test case #3:
+     * Tests the case where an Account held by another AccountDatabase is not watched by this one's detector.
+     *
+     * @throws IOException if the sink file cannot be read
+     */
+    @Test
+    public void testObserve_OnlyOwnDatabase() throws IOException {
+        Checking other = new Checking(Branch.EDISON, AccountType.CHECKING, new Profile("Ann", "Lee", new Date(3, 3, 2003)), 5000.0);
+        AccountDatabase otherDb = new AccountDatabase();
+        otherDb.add(other);
+        other.withdraw(new Date(2, 1, 2025), Branch.EDISON, 20);
+        other.withdraw(new Date(2, 1, 2025), Branch.WARREN, 20);
+        other.withdraw(new Date(2, 1, 2025), Branch.PRINCETON, 20);
+        db.getDetector().flush();
+        assertTrue(Files.readAllLines(alerts.toPath()).isEmpty());
+        assertTrue(otherDb.getDetector().report().startsWith("Anomaly detection is off"));
+    }
+
+    /**
+     * Test case #4:
+     * Tests the case where alerts held by a thread are counted but only reach the sink when written back.
+     *
+     * @throws IOException if the sink file cannot be read
+     */
+    @Test
+    public void testHold_WrittenWhenHandedBack() throws IOException {
+        AnomalyDetector detector = db.getDetector();
+        detector.hold();
+        checking.withdraw(new Date(2, 1, 2025), Branch.EDISON, 20);
+        checking.withdraw(new Date(2, 1, 2025), Branch.WARREN, 20);
+        checking.withdraw(new Date(2, 1, 2025), Branch.PRINCETON, 20);
+        ArrayList<String> held = detector.release();
+        detector.flush();
+        assertEquals(1, held.size());
+        assertTrue(Files.readAllLines(alerts.toPath()).isEmpty());
+        assertTrue(detector.report().startsWith("1 alerts"));
+        detector.write(held);
+        detector.flush();
+        assertEquals(held, Files.readAllLines(alerts.toPath()));
+    }
+
+    /**
+     * Test case #5:
+     * Tests the case where a large deposit is sent on by a transfer within the window, which raises no alert
+     * and is not counted as Branch traffic.
+     *
+     * @throws IOException if the sink file cannot be read
+     */
+    @Test
+    public void testTransfer_NoPassThroughAlert() throws IOException {
+        Savings savings = new Savings(Branch.EDISON, AccountType.SAVINGS, checking.getHolder(), 100.0);
+        db.add(savings);
+        Date date = new Date(3, 2, 2025);
+        checking.deposit(date, Branch.EDISON, 2000);
+        assertTrue(db.transfer(checking.getAccountNumber(), savings.getAccountNumber(), 1800.0, date));
+        db.getDetector().flush();
+        assertTrue(Files.readAllLines(alerts.toPath()).isEmpty());
+        assertEquals(0, db.getTraffic().count(date.toEpochDay(), Branch.EDISON, false, false));
+    }
+}
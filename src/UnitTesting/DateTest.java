@@ -71,4 +71,16 @@ public class DateTest {
         Date date = new Date(2, 29, 2024);
         assertTrue(date.isValid());
     }
+
+    /**
+     * Test case #7
+     * Tests the case where the days between two dates cross the end of February in a leap year.
+     */
+    @Test
+    public void testDate_DaysFromLeapYear() {
+        Date date = new Date(3, 1, 2024);
+        assertEquals(30, date.daysFrom(new Date(2, 1, 2024)));
+        assertEquals(1, new Date(2, 1, 2024).daysFrom(date));
+        assertEquals(0, new Date(1, 1, 1970).toEpochDay());
+    }
 }
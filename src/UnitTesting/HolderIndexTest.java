@@ -0,0 +1,122 @@
+package UnitTesting;
+
+import banking.*;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import util.Date;
+import util.List;
+
+/**
+ * The HolderIndexTest class tests that holders are found by the start of their last name and by a misspelling of it,
+ * and that closing a holder's last Account takes them out of the index.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class HolderIndexTest {
+
+    /**
+     * The HolderIndex used for testing.
+     */
+    HolderIndex index;
+
+    /**
+     * A holder named Johnson.
+     */
+    Profile johnson;
+
+    /**
+     * A holder named Johnston.
+     */
+    Profile johnston;
+
+    /**
+     * A holder named Jones.
+     */
+    Profile jones;
+
+    /**
+     * Creates a HolderIndex with three holders.
+     */
+    @Before
+    public void setUp() {
+        index = new HolderIndex();
+        johnson = new Profile("Eric", "Johnson", new Date(8, 8, 1999));
+        johnston = new Profile("Ann", "Johnston", new Date(1, 1, 1990));
+        jones = new Profile("Bob", "Jones", new Date(2, 2, 1995));
+        index.add(johnson);
+        index.add(johnston);
+        index.add(jones);
+    }
+
+    /**
+     * Test case #1:
+     * Tests the case where a prefix in any case finds the holders below it in order of last name, up to the count asked for.
+     */
+    @Test
+    public void testPrefix_OrderedAndLimited() {
+        List<Profile> found = index.prefix("JOHN", 10);
+        assertEquals(2, found.size());
+        assertEquals(johnson, found.get(0));
+        assertEquals(johnston, found.get(1));
+        assertEquals(1, index.prefix("jo", 1).size());
+        assertTrue(index.prefix("smith", 10).isEmpty());
+    }
+
+    /**
+     * Test case #2:
+     * Tests the case where a misspelled name finds the closest holder first,
+     * and a removed holder is no longer found while the others still are.
+     */
+    @Test
+    public void testFuzzy_ClosestFirstAndRemoved() {
+        List<Profile> found = index.fuzzy("Jonson", 10);
+        assertEquals(johnson, found.get(0));
+        assertTrue(found.contains(johnston));
+        index.remove(johnson);
+        assertFalse(index.fuzzy("Jonson", 10).contains(johnson));
+        assertFalse(index.prefix("johns", 10).contains(johnson));
+        assertEquals(johnston, index.prefix("johns", 10).get(0));
+        assertEquals(2, index.size());
+    }
+
+    /**
+     * Test case #3:
+     * Tests the case where an AccountDatabase indexes a holder with their first Account
+     * and keeps them until their last Account is closed.
+     */
+    @Test
+    public void testDatabase_IndexesHoldersWithAccounts() {
+        AccountDatabase db = new AccountDatabase();
+        Profile holder = new Profile("Roy", "Brooks", new Date(2, 28, 2002));
+        Checking checking = new Checking(Branch.EDISON, AccountType.CHECKING, holder, 100.0);
+        Savings savings = new Savings(Branch.EDISON, AccountType.SAVINGS, holder, 100.0);
+        db.add(checking);
+        db.add(savings);
+        assertEquals(1, db.getHolders().size());
+        db.remove(checking);
+        assertEquals(holder, db.getHolders().fuzzy("brooke", 1).get(0));
+        db.remove(savings);
+        assertEquals(0, db.getHolders().size());
+        assertTrue(db.getHolders().prefix("b", 10).isEmpty());
+    }
+
+    /**
+     * Test case #4:
+     * Tests the case where a short name one substitution away from a holder's shares no trigram with it,
+     * and the holder is still found, while a name three edits from every holder finds none.
+     */
+    @Test
+    public void testFuzzy_ShortNamesWithoutSharedTrigrams() {
+        Profile tam = new Profile("Ho", "Tam", new Date(3, 3, 1993));
+        Profile li = new Profile("Jet", "Li", new Date(4, 4, 1963));
+        index.add(tam);
+        index.add(li);
+        assertEquals(tam, index.fuzzy("Tom", 5).get(0));
+        assertEquals(li, index.fuzzy("Lu", 5).get(0));
+        assertEquals(1, index.fuzzy("Lu", 5).size());
+        assertTrue(index.fuzzy("Xyz", 5).isEmpty());
+    }
+}
@@ -0,0 +1,269 @@
+package UnitTesting;
+
+import banking.*;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import util.Date;
+import util.List;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.zip.CRC32;
+
+/**
+ * The MappedAccountStoreTest class tests that Accounts written to a MappedAccountStore are read back unchanged,
+ * that a torn write falls back to the previous copy of a record, and that a store in an older format is migrated.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class MappedAccountStoreTest {
+
+    /**
+     * The record file of the store used for testing.
+     */
+    File file;
+
+    /**
+     * Creates an empty temporary record file.
+     *
+     * @throws IOException if the file cannot be created
+     */
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("accounts", ".db");
+        file.deleteOnExit();
+    }
+
+    /**
+     * Deletes the record file, its side segment and its activity log.
+     */
+    @After
+    public void tearDown() {
+        file.delete();
+        new File(file.getPath() + ".profiles").delete();
+        new File(file.getPath() + ".activities").delete();
+    }
+
+    /**
+     * Test case #1:
+     * Tests the case where a Certificate Deposit is written, the store is reopened, and the Account is read back.
+     *
+     * @throws IOException if the store cannot be opened
+     */
+    @Test
+    public void testRead_AfterReopen() throws IOException {
+        Profile holder = new Profile("John", "Doe", new Date(1, 1, 2000));
+        CertificateDeposit cd = new CertificateDeposit(Branch.PRINCETON, AccountType.CD, holder, 9, new Date(3, 28, 2024), 3000.0);
+        new MappedAccountStore(file).append(cd);
+        MappedAccountStore store = new MappedAccountStore(file);
+        assertEquals(1, store.slots());
+        CertificateDeposit read = (CertificateDeposit) store.read(0);
+        assertEquals(cd.getAccountNumber(), read.getAccountNumber());
+        assertEquals(holder, read.getHolder());
+        assertEquals(3000.0, read.getBalance(), 0.001);
+        assertEquals(9, read.getTerm());
+        assertEquals(new Date(3, 28, 2024), read.getOpen());
+    }
+
+    /**
+     * Test case #2:
+     * Tests the case where the newest copy of a record is torn and the previous balance is read back.
+     *
+     * @throws IOException if the store cannot be opened
+     */
+    @Test
+    public void testRead_TornWriteFallsBack() throws IOException {
+        Savings savings = new Savings(Branch.EDISON, AccountType.SAVINGS, new Profile("Jane", "Doe", new Date(2, 2, 2002)), 1000.0);
+        MappedAccountStore store = new MappedAccountStore(file);
+        int slot = store.append(savings);
+        savings.deposit(500.0);
+        store.write(slot, savings);
+        store.force();
+        assertEquals(1500.0, new MappedAccountStore(file).read(slot).getBalance(), 0.001);
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(64 + 104 + 16);
+            raw.writeLong(0x7ff8dead0000L);
+        }
+        assertEquals(1000.0, new MappedAccountStore(file).read(slot).getBalance(), 0.001);
+    }
+
+    /**
+     * Test case #3:
+     * Tests the case where a removed Account is no longer live.
+     *
+     * @throws IOException if the store cannot be opened
+     */
+    @Test
+    public void testDelete_NotLive() throws IOException {
+        Checking checking = new Checking(Branch.WARREN, AccountType.CHECKING, new Profile("Roy", "Brooks", new Date(11, 2, 2005)), 800.0);
+        MappedAccountStore store = new MappedAccountStore(file);
+        int slot = store.append(checking);
+        assertTrue(store.isLive(slot));
+        store.delete(slot);
+        assertFalse(new MappedAccountStore(file).isLive(slot));
+    }
+
+    /**
+     * Test case #4:
+     * Tests the case where an Activity is added to a restored Account before its history is loaded,
+     * and the whole history is read back in order.
+     *
+     * @throws IOException if the store cannot be opened
+     */
+    @Test
+    public void testRead_ActivitiesLoadedLazily() throws IOException {
+        Checking checking = new Checking(Branch.PISCATAWAY, AccountType.CHECKING, new Profile("Ana", "Lim", new Date(5, 6, 2001)), 100.0);
+        checking.deposit(10.0);
+        checking.deposit(20.0);
+        MappedAccountStore store = new MappedAccountStore(file);
+        int slot = store.append(checking);
+        Account restored = new MappedAccountStore(file).read(slot);
+        assertEquals(2, restored.getActivityCount());
+        restored.deposit(30.0);
+        MappedAccountStore reopened = new MappedAccountStore(file);
+        reopened.write(slot, restored);
+        List<Activity> activities = new MappedAccountStore(file).read(slot).getActivities();
+        assertEquals(3, activities.size());
+        assertEquals(10.0, activities.get(0).getAmount(), 0.001);
+        assertEquals(30.0, activities.get(2).getAmount(), 0.001);
+    }
+
+    /**
+     * Test case #5:
+     * Tests the case where a store written in record format 1, with 72-byte copies and no format in the header,
+     * is migrated when opened and its Account is read back.
+     *
+     * @throws IOException if the store cannot be opened
+     */
+    @Test
+    public void testOpen_MigratesFormatOne() throws IOException {
+        Savings savings = new Savings(Branch.EDISON, AccountType.SAVINGS, new Profile("Ida", "West", new Date(4, 4, 1999)), 1200.0);
+        new MappedAccountStore(file).append(savings);
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            byte[] fields = new byte[64];
+            raw.seek(64);
+            raw.readFully(fields);
+            CRC32 crc = new CRC32();
+            crc.update(fields);
+            raw.seek(8);
+            raw.writeInt(0);
+            raw.seek(64);
+            raw.write(fields);
+            raw.writeInt((int) crc.getValue());
+            raw.write(new byte[2 * 72 - 68]);
+        }
+        MappedAccountStore store = new MappedAccountStore(file);
+        assertEquals(1, store.slots());
+        Account read = store.read(0);
+        assertEquals(savings.getAccountNumber(), read.getAccountNumber());
+        assertEquals(1200.0, read.getBalance(), 0.001);
+        assertEquals(1200.0, new MappedAccountStore(file).read(0).getBalance(), 0.001);
+    }
+
+    /**
+     * Test case #6:
+     * Tests the case where a store written in a newer record format is refused instead of read as empty.
+     *
+     * @throws IOException if the store cannot be created
+     */
+    @Test
+    public void testOpen_NewerFormatRefused() throws IOException {
+        new MappedAccountStore(file).append(new Checking(Branch.WARREN, AccountType.CHECKING,
+                new Profile("Roy", "Brooks", new Date(11, 2, 2005)), 800.0));
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(8);
+            raw.writeInt(99);
+        }
+        try {
+            new MappedAccountStore(file);
+            fail("a store in a newer format was opened");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("format 99"));
+        }
+    }
+
+    /**
+     * Test case #7:
+     * Tests the case where an Account is read back while every serial of its branch and type is in use,
+     * and it keeps its stored number without claiming another serial.
+     *
+     * @throws IOException if the store cannot be opened
+     */
+    @Test
+    public void testRead_DoesNotAllocate() throws IOException {
+        SerialAllocator serials = SerialAllocator.of(Branch.BRIDGEWATER, AccountType.MONEY_MARKET);
+        MoneyMarket moneyMarket = new MoneyMarket(Branch.BRIDGEWATER, AccountType.MONEY_MARKET,
+                new Profile("Eve", "Park", new Date(7, 7, 1977)), 3000.0);
+        int slot = new MappedAccountStore(file).append(moneyMarket);
+        List<Integer> reserved = new List<>();
+        for (int serial = 0; serial < SerialAllocator.SERIALS; serial++) {
+            if (!serials.isUsed(serial)) {
+                serials.reserve(serial);
+                reserved.add(serial);
+            }
+        }
+        try {
+            assertEquals(moneyMarket.getAccountNumber(), new MappedAccountStore(file).read(slot).getAccountNumber());
+        } finally {
+            for (int serial : reserved) {
+                serials.release(serial);
+            }
+        }
+    }
+
+    /**
+     * Test case #8:
+     * Tests the case where two Accounts are closed, the store is reopened, and both are found closed
+     * in the order they were closed in, with their close dates and final balances.
+     *
+     * @throws IOException if the store cannot be opened
+     */
+    @Test
+    public void testClose_ReadBackInCloseOrder() throws IOException {
+        Profile holder = new Profile("Kim", "Ross", new Date(8, 8, 1988));
+        Checking checking = new Checking(Branch.EDISON, AccountType.CHECKING, holder, 700.0);
+        Savings savings = new Savings(Branch.EDISON, AccountType.SAVINGS, holder, 900.0);
+        MappedAccountStore store = new MappedAccountStore(file);
+        int first = store.append(checking);
+        int second = store.append(savings);
+        savings.withdraw(100.0);
+        store.close(second, savings, new Date(3, 1, 2025));
+        store.close(first, checking, new Date(4, 1, 2025));
+        MappedAccountStore reopened = new MappedAccountStore(file);
+        assertFalse(reopened.isLive(first));
+        assertTrue(reopened.isClosed(first));
+        int[] closed = reopened.closedSlots();
+        assertEquals(2, closed.length);
+        assertEquals(second, closed[0]);
+        assertEquals(new Date(3, 1, 2025), reopened.closeDate(second));
+        assertEquals(800.0, reopened.read(second).getBalance(), 0.001);
+    }
+
+    /**
+     * Test case #9:
+     * Tests the case where deposits and withdrawals are written, the store is reopened,
+     * and they are counted again in a new ActivityTraffic from the activity log.
+     *
+     * @throws IOException if the store cannot be opened
+     */
+    @Test
+    public void testCountTraffic_AfterReopen() throws IOException {
+        Profile holder = new Profile("Kim", "Ross", new Date(8, 8, 1988));
+        Checking checking = new Checking(Branch.EDISON, AccountType.CHECKING, holder, 700.0);
+        MappedAccountStore store = new MappedAccountStore(file);
+        int slot = store.append(checking);
+        Date day = new Date(3, 3, 2025);
+        checking.deposit(day, Branch.WARREN, 50.0);
+        checking.withdraw(day, Branch.WARREN, 20.0);
+        store.write(slot, checking);
+        ActivityTraffic traffic = new ActivityTraffic();
+        new MappedAccountStore(file).countTraffic(traffic);
+        assertEquals(1, traffic.count(day.toEpochDay(), Branch.WARREN, true, true));
+        assertEquals(20.0, traffic.total(day.toEpochDay(), Branch.WARREN, true, false), 0.001);
+    }
+}
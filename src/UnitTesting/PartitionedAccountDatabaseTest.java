@@ -0,0 +1,171 @@
+package UnitTesting;
+
+import banking.*;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import util.Date;
+
+/**
+ * The PartitionedAccountDatabaseTest class tests that the shards and position index of a PartitionedAccountDatabase
+ * stay in step with its list of Accounts.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class PartitionedAccountDatabaseTest {
+
+    /**
+     * The PartitionedAccountDatabase instance used for testing.
+     */
+    PartitionedAccountDatabase db;
+
+    /**
+     * Represents a Checking account at the Edison branch.
+     */
+    Checking checking;
+
+    /**
+     * Represents a Savings account at the Edison branch.
+     */
+    Savings savings;
+
+    /**
+     * Represents a Money Market account at the Warren branch.
+     */
+    MoneyMarket moneyMarket;
+
+    /**
+     * Creates a PartitionedAccountDatabase object with two Edison accounts and one Warren account.
+     */
+    @Before
+    public void setUp() {
+        db = new PartitionedAccountDatabase();
+        Profile holder = new Profile("John", "Doe", new Date(1, 1, 2000));
+        checking = new Checking(Branch.EDISON, AccountType.CHECKING, holder, 500.0);
+        savings = new Savings(Branch.EDISON, AccountType.SAVINGS, holder, 1000.0);
+        moneyMarket = new MoneyMarket(Branch.WARREN, AccountType.MONEY_MARKET, holder, 6000.0);
+        db.add(checking);
+        db.add(savings);
+        db.add(moneyMarket);
+    }
+
+    /**
+     * Test case #1:
+     * Tests the case where the first Account is removed and the last Account is found at its new index.
+     */
+    @Test
+    public void testRemove_PositionUpdated() {
+        db.remove(checking);
+        assertEquals(-1, db.find(checking.getAccountNumber()));
+        assertEquals(0, db.find(moneyMarket.getAccountNumber()));
+        assertSame(moneyMarket, db.get(db.find(moneyMarket.getAccountNumber())));
+        assertEquals(1, db.shard(Branch.EDISON).size());
+    }
+
+    /**
+     * Test case #2:
+     * Tests the case where the Accounts of one type are read from a shard without the other types.
+     */
+    @Test
+    public void testShard_AccountsOfType() {
+        BranchShard edison = db.shard(Branch.EDISON);
+        assertEquals(2, edison.size());
+        assertEquals(1, edison.accounts(AccountType.SAVINGS).size());
+        assertSame(savings, edison.accounts(AccountType.SAVINGS).iterator().next());
+        assertTrue(edison.accounts(AccountType.MONEY_MARKET).isEmpty());
+    }
+
+    /**
+     * Test case #3:
+     * Tests the case where interest is posted one shard per job and a second posting on the same date is skipped.
+     */
+    @Test
+    public void testPostInterest_AllShards() {
+        Date date = new Date(2, 28, 2025);
+        assertEquals(3, db.postInterest(date));
+        assertEquals(0, db.postInterest(date));
+        assertEquals(1, moneyMarket.getActivities().size());
+    }
+
+    /**
+     * Test case #4:
+     * Tests the case where two threads transfer between shards in opposite directions,
+     * and both finish with the total balance unchanged.
+     *
+     * @throws InterruptedException if the test is interrupted while waiting for the threads
+     */
+    @Test
+    public void testTransfer_OppositeDirections() throws InterruptedException {
+        Thread forward = new Thread(() -> {
+            for (int i = 0; i < 1000; i++) {
+                db.transfer(savings.getAccountNumber(), moneyMarket.getAccountNumber(), 1.0, new Date(1, 2, 2025));
+            }
+        });
+        Thread backward = new Thread(() -> {
+            for (int i = 0; i < 1000; i++) {
+                db.transfer(moneyMarket.getAccountNumber(), savings.getAccountNumber(), 1.0, new Date(1, 2, 2025));
+            }
+        });
+        forward.start();
+        backward.start();
+        forward.join(10000);
+        backward.join(10000);
+        assertFalse(forward.isAlive() || backward.isAlive());
+        assertEquals(7000.0, savings.getBalance() + moneyMarket.getBalance(), 0.01);
+    }
+
+    /**
+     * Test case #5:
+     * Tests the case where two threads deposit into Accounts of different shards at the same time,
+     * and the Branch totals of the aggregates still match the balances.
+     *
+     * @throws InterruptedException if the test is interrupted while waiting for the threads
+     */
+    @Test
+    public void testDeposit_AggregatesKeptAcrossShards() throws InterruptedException {
+        Thread edison = new Thread(() -> {
+            for (int i = 0; i < 1000; i++) {
+                db.deposit(checking.getAccountNumber(), 1.0);
+            }
+        });
+        Thread warren = new Thread(() -> {
+            for (int i = 0; i < 1000; i++) {
+                db.deposit(moneyMarket.getAccountNumber(), 1.0);
+            }
+        });
+        edison.start();
+        warren.start();
+        edison.join(10000);
+        warren.join(10000);
+        assertFalse(edison.isAlive() || warren.isAlive());
+        assertEquals(checking.getBalance() + savings.getBalance(), db.getAggregates().total(Branch.EDISON), 0.01);
+        assertEquals(moneyMarket.getBalance(), db.getAggregates().total(Branch.WARREN), 0.01);
+    }
+
+    /**
+     * Test case #6:
+     * Tests the case where a thread deposits into the last Account of the list while Accounts of another shard
+     * are removed and added again, moving it in the list, and every deposit still reaches it.
+     *
+     * @throws InterruptedException if the test is interrupted while waiting for the thread
+     */
+    @Test
+    public void testDeposit_WhileOtherShardRemoves() throws InterruptedException {
+        Thread warren = new Thread(() -> {
+            for (int i = 0; i < 1000; i++) {
+                db.deposit(moneyMarket.getAccountNumber(), 1.0);
+            }
+        });
+        warren.start();
+        for (int i = 0; i < 1000; i++) {
+            db.remove(checking);
+            db.add(checking);
+        }
+        warren.join(10000);
+        assertFalse(warren.isAlive());
+        assertEquals(7000.0, moneyMarket.getBalance(), 0.01);
+        assertEquals(moneyMarket.getBalance(), db.getAggregates().total(Branch.WARREN), 0.01);
+    }
+}
@@ -1,6 +1,7 @@
 package UnitTesting;
 
 import banking.Profile;
+import banking.ProfileRegistry;
 import org.junit.Test;
 import util.Date;
 import static org.junit.Assert.*;
@@ -109,4 +110,40 @@ public class ProfileTest {
         Profile profile2 = new Profile("Alice", "Smith", date2);
         assertEquals(0, profile1.compareTo(profile2));
     }
+
+    /**
+     * Test case #8
+     * Tests the case where the same holder is interned twice and with a different case.
+     */
+    @Test
+    public void testProfile_Interned() {
+        Profile profile1 = ProfileRegistry.intern("Chris", "Young", new Date(9, 20, 2004));
+        Profile profile2 = ProfileRegistry.intern("Chris", "Young", new Date(9, 20, 2004));
+        Profile profile3 = ProfileRegistry.intern("chris", "young", new Date(9, 20, 2004));
+        assertSame(profile1, profile2);
+        assertNotSame(profile1, profile3);
+        assertEquals(profile1, profile3);
+        assertEquals(profile1, new Profile("CHRIS", "YOUNG", new Date(9, 20, 2004)));
+        assertFalse(profile1.equals(ProfileRegistry.intern("Chris", "Young", new Date(9, 21, 2004))));
+    }
+
+    /**
+     * Test case #9
+     * Tests the case where a holder no Account refers to any more is dropped from the registry,
+     * while a holder still in use keeps their Profile and id.
+     *
+     * @throws InterruptedException if the test is interrupted while waiting for the collector
+     */
+    @Test
+    public void testProfile_UnusedDropped() throws InterruptedException {
+        Profile kept = ProfileRegistry.intern("Kept", "Holder", new Date(5, 5, 1985));
+        ProfileRegistry.intern("Gone", "Holder", new Date(6, 6, 1986));
+        int before = ProfileRegistry.holders();
+        for (int i = 0; i < 50 && ProfileRegistry.holders() >= before; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertTrue(ProfileRegistry.holders() < before);
+        assertSame(kept, ProfileRegistry.intern("Kept", "Holder", new Date(5, 5, 1985)));
+    }
 }
@@ -0,0 +1,62 @@
+package UnitTesting;
+
+import banking.AccountType;
+import banking.Branch;
+import banking.SerialAllocator;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * The SerialAllocatorTest class tests that the SerialAllocator never gives out a serial twice,
+ * reclaims the serials of archived Accounts once the serials run out, and reports when none is left.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class SerialAllocatorTest {
+
+    /**
+     * Test case #1
+     * Tests the case where every serial of a Branch and AccountType is allocated, none is left while
+     * reclaiming is off, one is archived, and the next allocation reclaims it.
+     */
+    @Test
+    public void testAllocate_UniqueThenReclaimed() {
+        SerialAllocator allocator = SerialAllocator.of(Branch.WARREN, AccountType.COLLEGE_CHECKING);
+        boolean[] seen = new boolean[SerialAllocator.SERIALS];
+        int free = 0;
+        for (int i = 0; i < SerialAllocator.SERIALS; i++) {
+            seen[i] = allocator.isUsed(i);
+            free += seen[i] ? 0 : 1;
+        }
+        for (int i = 0; i < free; i++) {
+            int serial = allocator.allocate();
+            assertFalse(seen[serial]);
+            seen[serial] = true;
+        }
+        SerialAllocator.setReclaimArchived(false);
+        allocator.archive(42);
+        assertEquals(SerialAllocator.NONE, allocator.allocate());
+        SerialAllocator.setReclaimArchived(true);
+        assertEquals(42, allocator.allocate());
+        for (int i = 0; i < SerialAllocator.SERIALS; i++) {
+            allocator.archive(i);
+        }
+    }
+
+    /**
+     * Test case #2
+     * Tests the case where another process has made more draws from the shared sequence,
+     * and skipping to its count leaves both at the same number of draws.
+     */
+    @Test
+    public void testSkipTo_SameDraws() {
+        SerialAllocator allocator = SerialAllocator.of(Branch.EDISON, AccountType.SAVINGS);
+        long before = SerialAllocator.draws();
+        allocator.release(allocator.allocate());
+        assertEquals(before + 1, SerialAllocator.draws());
+        SerialAllocator.skipTo(before + 3);
+        assertEquals(before + 3, SerialAllocator.draws());
+        SerialAllocator.skipTo(before);
+        assertEquals(before + 3, SerialAllocator.draws());
+    }
+}
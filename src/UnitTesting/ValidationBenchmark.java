@@ -0,0 +1,165 @@
+package UnitTesting;
+
+import banking.AccountType;
+import banking.Branch;
+import banking.Campus;
+import banking.Validator;
+
+import java.util.Random;
+
+/**
+ * ValidationBenchmark compares the Validator against exception-based parsing on a reject-heavy stream.
+ * The stream is made of deposit and open command lines where about half of the lines are rejected
+ * for a missing token, an invalid amount, an invalid branch, or an invalid campus code.
+ * Nothing is printed for each line, so the timing only measures validation.
+ * It is run by hand from the test sources and is not part of the banking package.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class ValidationBenchmark {
+
+    /**
+     * Number of command lines in the generated stream.
+     */
+    private static final int LINES = 200_000;
+
+    /**
+     * Number of passes over the stream before timing, so the JIT has compiled both paths.
+     */
+    private static final int WARMUP_ROUNDS = 5;
+
+    /**
+     * Number of timed passes over the stream.
+     */
+    private static final int TIMED_ROUNDS = 10;
+
+    /**
+     * Fraction of the generated command lines that are rejected.
+     */
+    private static final double REJECT_RATE = 0.5;
+
+    /**
+     * for a fix sequence of random numbers
+     */
+    private static final int SEED = 9999;
+
+    /**
+     * Number of nanoseconds in one second.
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * Runs the benchmark and prints the time per line and lines per second for both paths.
+     *
+     * @param args command-line arguments passed to the program, not used
+     */
+    public static void main(String[] args) {
+        String[][] stream = createStream();
+        int accepted = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            accepted += runExceptions(stream) + runValidator(stream);
+        }
+        long exceptionNanos = 0;
+        long validatorNanos = 0;
+        for (int i = 0; i < TIMED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            accepted += runExceptions(stream);
+            exceptionNanos += System.nanoTime() - start;
+            start = System.nanoTime();
+            accepted += runValidator(stream);
+            validatorNanos += System.nanoTime() - start;
+        }
+        System.out.println("Lines: " + LINES + ", reject rate: " + REJECT_RATE + ", accepted (checksum): " + accepted);
+        printResult("Exceptions", exceptionNanos);
+        printResult("Validator ", validatorNanos);
+    }
+
+    /**
+     * Prints the time per line and lines per second of one path.
+     *
+     * @param name  name of the path
+     * @param nanos total time of the timed rounds in nanoseconds
+     */
+    private static void printResult(String name, long nanos) {
+        double lines = (double) LINES * TIMED_ROUNDS;
+        System.out.printf("%s: %.1f ns/line, %.0f lines/sec%n", name, nanos / lines, lines * NANOS_PER_SECOND / nanos);
+    }
+
+    /**
+     * Creates the stream of deposit and open command lines already split into tokens.
+     *
+     * @return the command lines of the stream
+     */
+    private static String[][] createStream() {
+        Random random = new Random(SEED);
+        String[][] stream = new String[LINES][];
+        for (int i = 0; i < LINES; i++) {
+            boolean reject = random.nextDouble() < REJECT_RATE;
+            int kind = random.nextInt(4);
+            if (random.nextBoolean()) {
+                String amount = reject && kind < 2 ? "12a" + i : Integer.toString(1 + random.nextInt(5000));
+                stream[i] = reject && kind >= 2
+                        ? new String[]{"D", "200017410"}
+                        : new String[]{"D", "200017410", amount};
+            } else {
+                String branch = reject && kind == 0 ? "newark" : "edison";
+                String amount = reject && kind == 1 ? "1,000" : "1000";
+                String campus = reject && kind >= 2 ? "7" : "1";
+                stream[i] = new String[]{"O", "college", branch, "Stu", "Dent", "1/1/2004", amount, campus};
+            }
+        }
+        return stream;
+    }
+
+    /**
+     * Validates the stream the way the command handlers did before the Validator,
+     * catching the exceptions thrown by parsing.
+     *
+     * @param stream the command lines of the stream
+     * @return number of accepted lines
+     */
+    private static int runExceptions(String[][] stream) {
+        int accepted = 0;
+        for (String[] commandArray : stream) {
+            try {
+                if (commandArray[0].equals("D")) {
+                    if (Double.parseDouble(commandArray[2]) > 0) {
+                        accepted++;
+                    }
+                } else {
+                    Branch.valueOf(commandArray[2].toUpperCase());
+                    Double.parseDouble(commandArray[6]);
+                    Campus.fromCode(commandArray[7]);
+                    accepted++;
+                }
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                // rejected line
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Validates the stream with the Validator.
+     *
+     * @param stream the command lines of the stream
+     * @return number of accepted lines
+     */
+    private static int runValidator(String[][] stream) {
+        int accepted = 0;
+        for (String[] commandArray : stream) {
+            if (commandArray[0].equals("D")) {
+                if (Validator.checkTokens(commandArray, 3).isValid()
+                        && Validator.checkAmount(commandArray[2]).isValid()) {
+                    accepted++;
+                }
+            } else if (Validator.checkOpenTokens(commandArray, AccountType.COLLEGE_CHECKING).isValid()
+                    && Validator.checkBranch(commandArray[2]).isValid()
+                    && Validator.checkAmount(commandArray[6]).isValid()
+                    && Validator.checkCampus(commandArray[7]).isValid()) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+}
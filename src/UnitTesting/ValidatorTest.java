@@ -0,0 +1,106 @@
+package UnitTesting;
+
+import banking.AccountType;
+import banking.Branch;
+import banking.ValidationResult;
+import banking.Validator;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * The ValidatorTest class contains unit tests for the result codes returned by the Validator class.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class ValidatorTest {
+
+    /**
+     * Test case #1
+     * Tests the case where the amount token is not a number.
+     */
+    @Test
+    public void testAmount_NotANumber() {
+        assertEquals(ValidationResult.INVALID_AMOUNT, Validator.checkAmount("12a"));
+        assertEquals(ValidationResult.INVALID_AMOUNT, Validator.checkAmount("."));
+        assertEquals(ValidationResult.INVALID_AMOUNT, Validator.checkAmount("1.2.3"));
+    }
+
+    /**
+     * Test case #2
+     * Tests the case where the amount token is 0 or negative.
+     */
+    @Test
+    public void testAmount_NonPositive() {
+        assertEquals(ValidationResult.NON_POSITIVE_AMOUNT, Validator.checkAmount("0.00"));
+        assertEquals(ValidationResult.NON_POSITIVE_AMOUNT, Validator.checkAmount("-50"));
+        assertEquals(ValidationResult.VALID, Validator.checkAmount("1500.99"));
+    }
+
+    /**
+     * Test case #3
+     * Tests the case where the date token is not formatted as ##/##/####.
+     */
+    @Test
+    public void testDate_Format() {
+        assertEquals(ValidationResult.INVALID_DATE, Validator.checkDate("abc"));
+        assertEquals(ValidationResult.INVALID_DATE, Validator.checkDate("1/1"));
+        assertEquals(ValidationResult.INVALID_DATE, Validator.checkDate("1/1/2000/1"));
+        assertEquals(ValidationResult.VALID, Validator.checkDate("2/19/2000"));
+    }
+
+    /**
+     * Test case #4
+     * Tests the case where the account number token is too short or has an unknown branch code.
+     */
+    @Test
+    public void testAccountNumber_Invalid() {
+        assertEquals(ValidationResult.INVALID_ACCOUNT_NUMBER, Validator.checkAccountNumber("12"));
+        assertEquals(ValidationResult.INVALID_ACCOUNT_NUMBER, Validator.checkAccountNumber("999017410"));
+        assertEquals(ValidationResult.INVALID_ACCOUNT_NUMBER, Validator.checkAccountNumber("200097410"));
+        assertEquals(ValidationResult.VALID, Validator.checkAccountNumber("200017410"));
+    }
+
+    /**
+     * Test case #5
+     * Tests the case where the branch, campus, and term tokens are not known.
+     */
+    @Test
+    public void testLookups_Unknown() {
+        assertEquals(Branch.EDISON, Validator.toBranch("Edison"));
+        assertNull(Validator.toBranch("newark"));
+        assertEquals(ValidationResult.INVALID_CAMPUS, Validator.checkCampus("4"));
+        assertEquals(ValidationResult.INVALID_TERM, Validator.checkTerm("5"));
+        assertEquals(ValidationResult.VALID, Validator.checkTerm("12"));
+    }
+
+    /**
+     * Test case #6
+     * Tests the case where an open command is missing the campus code of a College Checking account.
+     */
+    @Test
+    public void testOpenTokens_MissingCampus() {
+        String[] command = {"O", "college", "edison", "Stu", "Dent", "1/1/2004", "100"};
+        assertEquals(ValidationResult.MISSING_TOKENS, Validator.checkOpenTokens(command, AccountType.COLLEGE_CHECKING));
+        assertEquals(ValidationResult.VALID, Validator.checkOpenTokens(command, AccountType.CHECKING));
+    }
+
+    /**
+     * Test case #7
+     * Tests the case where the amount token has an exponent, which Double.parseDouble reads,
+     * and the forms of Double.parseDouble that are not amounts.
+     */
+    @Test
+    public void testAmount_Exponent() {
+        assertEquals(ValidationResult.VALID, Validator.checkAmount("1e3"));
+        assertEquals(ValidationResult.VALID, Validator.checkAmount("2.5E-1"));
+        assertEquals(ValidationResult.VALID, Validator.checkAmount("1.e+2"));
+        assertEquals(ValidationResult.NON_POSITIVE_AMOUNT, Validator.checkAmount("-1e3"));
+        assertEquals(ValidationResult.NON_POSITIVE_AMOUNT, Validator.checkAmount("1e-400"));
+        assertEquals(ValidationResult.INVALID_AMOUNT, Validator.checkAmount("1e"));
+        assertEquals(ValidationResult.INVALID_AMOUNT, Validator.checkAmount("e3"));
+        assertEquals(ValidationResult.INVALID_AMOUNT, Validator.checkAmount("1e3.5"));
+        assertEquals(ValidationResult.INVALID_AMOUNT, Validator.checkAmount("NaN"));
+        assertEquals(ValidationResult.INVALID_AMOUNT, Validator.checkAmount("Infinity"));
+        assertEquals(ValidationResult.INVALID_AMOUNT, Validator.checkAmount("100d"));
+    }
+}
@@ -4,6 +4,8 @@ import util.Date;
 import util.List;
 
 import java.text.DecimalFormat;
+import java.util.Arrays;
+import java.util.function.Supplier;
 
 /**
  * The Account class holds the information regarding a bank account
@@ -24,15 +26,41 @@ public abstract class Account implements Comparable<Account> {
      */
     public static final double NO_FEE = 0;
 
+    /**
+     * Represents the number of days in a year, used to turn an annual interest rate into a daily one.
+     */
+    public static final double DAYS_IN_YEAR = 365;
+
+    /**
+     * Marks an Account that has never had interest and fees posted.
+     */
+    private static final int NEVER_POSTED = Integer.MIN_VALUE;
+
+    /**
+     * Marks an Account that has not yet accrued any interest.
+     */
+    protected static final int NEVER_ACCRUED = Integer.MIN_VALUE;
+
+    /**
+     * Marks an Account whose Activities are not kept in an activity log.
+     */
+    private static final int NOT_LOGGED = -1;
+
+    /**
+     * Number of cents in a dollar, used to round posted amounts to the cent.
+     */
+    private static final double CENTS = 100;
+
     /**
      * formatted in a readable manner for money
+     * One per thread, since a DecimalFormat is not safe to share and statements are exported in parallel.
      */
-    private static final DecimalFormat df = new DecimalFormat("#,##0.00");
+    private static final ThreadLocal<DecimalFormat> df = ThreadLocal.withInitial(() -> new DecimalFormat("#,##0.00"));
 
     /**
      * AccountNumber object with information about 9-digit number that represents bank account.
      */
-    protected AccountNumber number;
+    protected final AccountNumber number;
 
     /**
      * Profile object with information about account holder.
@@ -50,6 +78,89 @@ public abstract class Account implements Comparable<Account> {
      */
     protected List<Activity> activities;
 
+    /**
+     * Loads the Activities recorded before the Account was restored from storage; null once they are in activities.
+     */
+    private Supplier<List<Activity>> history;
+
+    /**
+     * Number of Activities recorded before the Account was restored that have not been loaded yet.
+     */
+    private int unloaded;
+
+    /**
+     * Summaries of the Activities compacted out of the history, earliest first; null until the first compaction.
+     */
+    private List<ActivityRollup> rollups;
+
+    /**
+     * Number of Activities of the history already in an activity log, or NOT_LOGGED.
+     * Only logged Activities are compacted, so the log keeps the detail of every Activity.
+     */
+    private int logged = NOT_LOGGED;
+
+    /**
+     * Number of Activities compacted out of the history.
+     */
+    private int compacted;
+
+    /**
+     * Index of each Activity of activities in date order, Activities of the same date in the order they were added;
+     * null until a date range is first asked for, and again whenever activities is replaced.
+     */
+    private int[] byDate;
+
+    /**
+     * Day, counted from 1/1/1970, of each Activity in byDate, so a date is found by binary search.
+     */
+    private int[] days;
+
+    /**
+     * Number of Activities of activities in the date index, counted from the first.
+     */
+    private int indexed;
+
+    /**
+     * What the AnomalyDetector remembers of the recent deposits and withdrawals; null until first observed.
+     */
+    private ActivityWindow window;
+
+    /**
+     * The AccountDatabase holding the Account, whose traffic and AnomalyDetector see its deposits and withdrawals;
+     * null until it is held by one.
+     */
+    private AccountDatabase database;
+
+    /**
+     * Run id of the ActivityFeed the last feed Activity applied to the Account came from.
+     */
+    private long feedRun;
+
+    /**
+     * Line number of the last feed Activity applied to the Account.
+     */
+    private long feedLine;
+
+    /**
+     * Interest accrued day by day since the start of the statement cycle.
+     */
+    protected double accruedInterest;
+
+    /**
+     * Fees accrued day by day since the start of the statement cycle.
+     */
+    protected double accruedFee;
+
+    /**
+     * Day, counted from 1/1/1970, through which interest and fees have been accrued, NEVER_ACCRUED before the first accrual.
+     */
+    protected int accruedThrough;
+
+    /**
+     * Day, counted from 1/1/1970, on which interest and fees were last posted.
+     */
+    private int postedOn = NEVER_POSTED;
+
     /**
      * Creates an Account object.
      *
@@ -59,10 +170,23 @@ public abstract class Account implements Comparable<Account> {
      * @param balance amount of money that is in an Account
      */
     public Account(Branch branch, AccountType type, Profile holder, double balance) {
-        this.number = new AccountNumber(branch, type);
+        this(new AccountNumber(branch, type), holder, balance);
+    }
+
+    /**
+     * Creates an Account object with an AccountNumber that has already been given out,
+     * for an Account read back from storage; no serial is allocated.
+     *
+     * @param number  the stored AccountNumber
+     * @param holder  Profile object that represents the full name and date of birth of an Account holder
+     * @param balance amount of money that is in an Account
+     */
+    Account(AccountNumber number, Profile holder, double balance) {
+        this.number = number;
         this.holder = holder;
         this.activities = new List<>();
         this.balance = balance;
+        this.accruedThrough = NEVER_ACCRUED;
     }
 
     /**
@@ -76,22 +200,287 @@ public abstract class Account implements Comparable<Account> {
 
     /**
      * Retrieves the list of activities associated with this account.
+     * An Account restored from storage loads its earlier Activities the first time they are retrieved.
      *
      * @return a List of Activity objects representing the transactions performed on this account
      */
     public List<Activity> getActivities() {
+        loadActivities();
         return activities;
     }
 
+    /**
+     * Returns the number of Activities of the Account, including those that have not been loaded.
+     *
+     * @return the number of Activities
+     */
+    public int getActivityCount() {
+        return compacted + unloaded + activities.size();
+    }
+
+    /**
+     * Returns the number of Activities of the Account held in memory.
+     *
+     * @return the number of loaded Activities
+     */
+    int getResidentActivityCount() {
+        return activities.size();
+    }
+
+    /**
+     * Returns an Activity that is not yet in the activity log, by its index in the whole history.
+     * The history is loaded only if the Activity was recorded before the Account was restored.
+     *
+     * @param index the index of the Activity, the earliest being 0, at least the number of Activities compacted
+     * @return the Activity at the index
+     */
+    Activity getActivity(int index) {
+        if (index - compacted < unloaded) {
+            loadActivities();
+        }
+        return activities.get(index - compacted - unloaded);
+    }
+
+    /**
+     * Checks if the feed Activity with an idempotency key, a run id and a line number, has already been applied.
+     * A run applies its lines in order, so every line up to the last one applied in the same run has been.
+     *
+     * @param run  the run id of the ActivityFeed
+     * @param line the line number of the Activity
+     * @return true if the Activity has been applied to the Account
+     * false otherwise
+     */
+    public boolean isApplied(long run, long line) {
+        return run == feedRun && line <= feedLine;
+    }
+
+    /**
+     * Records the idempotency key of the feed Activity last applied to the Account.
+     *
+     * @param run  the run id of the ActivityFeed
+     * @param line the line number of the Activity
+     */
+    public void markApplied(long run, long line) {
+        this.feedRun = run;
+        this.feedLine = line;
+    }
+
+    /**
+     * Returns the run id of the ActivityFeed the last feed Activity applied came from.
+     *
+     * @return the run id, 0 if no feed Activity has been applied
+     */
+    long getFeedRun() {
+        return feedRun;
+    }
+
+    /**
+     * Returns the line number of the last feed Activity applied.
+     *
+     * @return the line number, 0 if no feed Activity has been applied
+     */
+    long getFeedLine() {
+        return feedLine;
+    }
+
+    /**
+     * Records the AccountDatabase holding the Account, which counts and watches its deposits and withdrawals.
+     *
+     * @param database the AccountDatabase holding the Account
+     */
+    void setDatabase(AccountDatabase database) {
+        this.database = database;
+    }
+
+    /**
+     * Records how many Activities of the history are in the activity log.
+     *
+     * @param count the number of Activities in the log, counted from the earliest
+     */
+    void setLoggedActivities(int count) {
+        this.logged = count;
+    }
+
+    /**
+     * Retrieves the summaries of the Activities compacted out of the history.
+     *
+     * @return the summaries, earliest first
+     */
+    public List<ActivityRollup> getRollups() {
+        return rollups == null ? new List<>() : rollups;
+    }
+
+    /**
+     * Compacts the Activities dated before a horizon into one summary per period,
+     * keeping the Activities on or after it in detail.
+     * An Account kept in an activity log only compacts the Activities already written to the log.
+     *
+     * @param horizon the earliest date kept in detail
+     * @param period  the length of the period each summary covers
+     * @return the number of Activities compacted
+     */
+    public int compact(Date horizon, RollupPeriod period) {
+        loadActivities();
+        int limit = logged == NOT_LOGGED ? activities.size() : logged - compacted;
+        List<Activity> kept = new List<>();
+        int rolled = 0;
+        for (int i = 0; i < activities.size(); i++) {
+            Activity activity = activities.get(i);
+            if (i < limit && activity.getDate().compareTo(horizon) < 0) {
+                rollup(period, activity).add(activity);
+                rolled++;
+            } else {
+                kept.add(activity);
+            }
+        }
+        if (rolled > 0) {
+            activities = kept;
+            compacted += rolled;
+            byDate = null;
+        }
+        return rolled;
+    }
+
+    /**
+     * Returns the summary of the period an Activity falls in, adding it if there is none.
+     *
+     * @param period   the length of the period
+     * @param activity the Activity being compacted
+     * @return the summary the Activity belongs in
+     */
+    private ActivityRollup rollup(RollupPeriod period, Activity activity) {
+        if (rollups == null) {
+            rollups = new List<>();
+        }
+        for (ActivityRollup rollup : rollups) {
+            if (rollup.covers(period, activity)) {
+                return rollup;
+            }
+        }
+        ActivityRollup rollup = new ActivityRollup(period, period.key(activity.getDate()));
+        rollups.add(rollup);
+        return rollup;
+    }
+
+    /**
+     * Defers loading the Activities recorded before the Account was restored until they are first retrieved.
+     * Activities added in the meantime are kept after them.
+     *
+     * @param count   the number of Activities recorded before the Account was restored
+     * @param history loads those Activities, earliest first
+     */
+    void deferActivities(int count, Supplier<List<Activity>> history) {
+        this.unloaded = count;
+        this.history = count == 0 ? null : history;
+    }
+
+    /**
+     * Loads the deferred Activities, if any, in front of the Activities added since the Account was restored.
+     */
+    private void loadActivities() {
+        if (history == null) {
+            return;
+        }
+        List<Activity> loaded = history.get();
+        for (Activity activity : activities) {
+            loaded.add(activity);
+        }
+        activities = loaded;
+        history = null;
+        unloaded = 0;
+        byDate = null;
+    }
+
+    /**
+     * Returns the Activities of the Account dated from one date through another, in date order.
+     * Activities compacted into summaries are not included.
+     * The Activities stay in the order they were added, for statements and the activity log;
+     * a date index of them is built the first time a range is asked for and extended as Activities are added,
+     * so each range is found by binary search.
+     *
+     * @param from the earliest date included
+     * @param to   the latest date included
+     * @return the Activities in the range
+     */
+    public List<Activity> getActivities(Date from, Date to) {
+        loadActivities();
+        indexActivities();
+        List<Activity> found = new List<>();
+        int end = firstOnOrAfter(to.toEpochDay() + 1);
+        for (int i = firstOnOrAfter(from.toEpochDay()); i < end; i++) {
+            found.add(activities.get(byDate[i]));
+        }
+        return found;
+    }
+
+    /**
+     * Adds the Activities not yet in the date index to it. An Activity dated on or after the last one indexed,
+     * as most are, is placed at the end; a back-dated one is placed after the Activities of its date.
+     */
+    private void indexActivities() {
+        if (byDate == null) {
+            byDate = new int[Math.max(1, activities.size())];
+            days = new int[byDate.length];
+            indexed = 0;
+        }
+        for (; indexed < activities.size(); indexed++) {
+            if (indexed == byDate.length) {
+                byDate = Arrays.copyOf(byDate, indexed * 2);
+                days = Arrays.copyOf(days, indexed * 2);
+            }
+            int day = activities.get(indexed).getDate().toEpochDay();
+            int at = firstOnOrAfter(day + 1);
+            System.arraycopy(byDate, at, byDate, at + 1, indexed - at);
+            System.arraycopy(days, at, days, at + 1, indexed - at);
+            byDate[at] = indexed;
+            days[at] = day;
+        }
+    }
+
+    /**
+     * Finds the first position of the date index dated on or after a day.
+     *
+     * @param day the day, counted from 1/1/1970
+     * @return the position, the number of indexed Activities if every one is dated before the day
+     */
+    private int firstOnOrAfter(int day) {
+        int low = 0;
+        int high = indexed;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (days[middle] < day) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
     /**
      * Extracts the statement detailing activities of a bank.
      */
     public final void statement() {
-        printActivities();
-        double interest = interest();
-        double fee = fee();
-        printInterestFee(interest, fee);
-        printBalance(interest, fee);
+        System.out.print(getStatement());
+    }
+
+    /**
+     * Returns the statement detailing activities of a bank, as statement() prints it,
+     * with the interest and fees accrued in the statement cycle so far.
+     * An Account that has not accrued yet, because the book has not been rolled to any date since it was loaded,
+     * shows the monthly interest and fee as an estimate of its cycle.
+     *
+     * @return the lines of the statement, each ending in a line separator
+     */
+    public final String getStatement() {
+        StringBuilder text = new StringBuilder();
+        appendActivities(text);
+        boolean estimated = this.accruedThrough == NEVER_ACCRUED;
+        double interest = estimated ? interest() : this.accruedInterest;
+        double fee = estimated ? fee() : getFeesDue();
+        appendInterestFee(text, interest, fee);
+        appendBalance(text, interest, fee);
+        return text.toString();
     }
 
     /**
@@ -103,6 +492,30 @@ public abstract class Account implements Comparable<Account> {
         this.activities.add(activity);
     }
 
+    /**
+     * Hands a deposit or withdrawal just added to the account's record to the AnomalyDetector and the ActivityTraffic
+     * of the AccountDatabase holding the Account.
+     *
+     * @param activity the deposit or withdrawal
+     */
+    private void observe(Activity activity) {
+        if (database != null) {
+            database.observe(this, activity);
+        }
+    }
+
+    /**
+     * Returns what the AnomalyDetector remembers of the recent deposits and withdrawals, creating it when first asked.
+     *
+     * @return the ActivityWindow of the Account
+     */
+    ActivityWindow getWindow() {
+        if (window == null) {
+            window = new ActivityWindow();
+        }
+        return window;
+    }
+
     /**
      * Has the monthly interest of an Account.
      *
@@ -124,19 +537,219 @@ public abstract class Account implements Comparable<Account> {
      */
     public abstract double interestRate();
 
+    /**
+     * Calculates the interest earned in one day at the current balance and interest rate.
+     *
+     * @return the daily interest amount
+     */
+    public double dailyInterest() {
+        return this.balance * interestRate() / DAYS_IN_YEAR;
+    }
+
+    /**
+     * Calculates the fee charged for one day at the current balance: the monthly fee spread over the days of a year.
+     *
+     * @return the daily fee amount
+     */
+    public double dailyFee() {
+        return fee() * MONTHS_IN_YEAR / DAYS_IN_YEAR;
+    }
+
+    /**
+     * Returns the fee charged once per statement cycle on top of the daily fees, rather than accrued by day.
+     *
+     * @return the cycle fee, NO_FEE unless a subclass charges one
+     */
+    protected double cycleFee() {
+        return NO_FEE;
+    }
+
+    /**
+     * Accrues daily interest and fees at the current balance for every day since they were last accrued.
+     * Called before every change to the balance, with the date of the Activity or the book day of the AccountDatabase,
+     * so each day is accrued at the balance held on that day.
+     * Dates on or before the last accrued day add nothing.
+     * An Account that has never accrued starts its statement cycle on the day cycleStart gives for the first date.
+     *
+     * @param date the date through which interest is accrued
+     */
+    public void accrue(Date date) {
+        int day = date.toEpochDay();
+        if (this.accruedThrough == NEVER_ACCRUED) {
+            this.accruedThrough = cycleStart(date);
+        }
+        if (day > this.accruedThrough) {
+            this.accruedInterest += dailyInterest() * (day - this.accruedThrough);
+            this.accruedFee += dailyFee() * (day - this.accruedThrough);
+            this.accruedThrough = day;
+        }
+    }
+
+    /**
+     * Returns the day the statement cycle of an Account that has never accrued starts on: the start of the month
+     * of the first date it is accrued through.
+     *
+     * @param date the first date the Account is accrued through
+     * @return the day the cycle starts, counted from 1/1/1970
+     */
+    protected int cycleStart(Date date) {
+        return date.toEpochDay() - date.getDay();
+    }
+
+    /**
+     * Starts accruing interest and fees from a day, for an Account opened into a book already rolled forward to it.
+     * An Account that has already accrued keeps the day it accrued through.
+     *
+     * @param day the day, counted from 1/1/1970, the book was rolled to
+     */
+    void startAccruing(int day) {
+        if (this.accruedThrough == NEVER_ACCRUED) {
+            this.accruedThrough = day;
+        }
+    }
+
+    /**
+     * Returns the interest accrued since the start of the statement cycle.
+     *
+     * @return the accrued interest amount
+     */
+    public double getAccruedInterest() {
+        return this.accruedInterest;
+    }
+
+    /**
+     * Returns the daily fees accrued since the start of the statement cycle.
+     *
+     * @return the accrued fee amount
+     */
+    public double getAccruedFee() {
+        return this.accruedFee;
+    }
+
+    /**
+     * Returns the fees owed for the statement cycle so far: the accrued daily fees and the cycle fee.
+     *
+     * @return the fees due
+     */
+    public double getFeesDue() {
+        return this.accruedFee + cycleFee();
+    }
+
+    /**
+     * Accrues interest and fees through the date of the posting, then posts the interest accrued in the statement cycle
+     * and the fees due, rounded to the cent, to the balance and records each as an Activity,
+     * then starts a new statement cycle.
+     * Posting is idempotent: an Account already posted on or after the given date is skipped,
+     * so a batch that was interrupted can be run again with the same date.
+     *
+     * @param date the date of the posting
+     * @return true if interest and fees were posted,
+     * false if the Account was already posted on or after the date
+     */
+    public boolean post(Date date) {
+        int day = date.toEpochDay();
+        if (day <= this.postedOn) {
+            return false;
+        }
+        accrue(date);
+        double interest = Math.round(this.accruedInterest * CENTS) / CENTS;
+        double fee = Math.round(getFeesDue() * CENTS) / CENTS;
+        Branch branch = this.getAccountNumber().getBranch();
+        this.balance += interest - fee;
+        if (interest > 0) {
+            addActivity(new Activity(date, branch, 'I', interest, false));
+        }
+        if (fee > 0) {
+            addActivity(new Activity(date, branch, 'F', fee, false));
+        }
+        this.postedOn = day;
+        startCycle();
+        return true;
+    }
+
+    /**
+     * Returns the day, counted from 1/1/1970, on which interest and fees were last posted.
+     *
+     * @return the day of the last posting, Integer.MIN_VALUE if the Account has never been posted
+     */
+    int getPostedOn() {
+        return this.postedOn;
+    }
+
+    /**
+     * Returns the day, counted from 1/1/1970, through which interest has been accrued.
+     *
+     * @return the last accrued day
+     */
+    int getAccruedThrough() {
+        return this.accruedThrough;
+    }
+
+    /**
+     * Restores the interest state of an Account read back from storage, and claims its stored serial.
+     *
+     * @param accruedInterest the stored interest accrued in the statement cycle
+     * @param accruedFee      the stored fees accrued in the statement cycle
+     * @param accruedThrough  the stored last accrued day
+     * @param postedOn        the stored day of the last posting
+     */
+    void restore(double accruedInterest, double accruedFee, int accruedThrough, int postedOn) {
+        SerialAllocator.of(this.number.getBranch(), this.number.getType()).reserve(this.number.getSerial());
+        this.accruedInterest = accruedInterest;
+        this.accruedFee = accruedFee;
+        this.accruedThrough = accruedThrough;
+        this.postedOn = postedOn;
+    }
+
+    /**
+     * Starts a new statement cycle by clearing the accrued interest and fees.
+     * Subclasses that count activity per cycle also reset their counters.
+     */
+    public void startCycle() {
+        this.accruedInterest = 0;
+        this.accruedFee = 0;
+    }
+
     /**
      * Deducts money from the account and updates the balance.
+     * The AccountDatabase accrues the Account through its book day first, so nothing is accrued here.
      *
      * @param amount quantity of money deducted from the account
      * @return true if successfully withdrawn, false otherwise
      */
     public boolean withdraw(double amount) { //to update the balance
+        return withdraw(new Date(), amount, 'W');
+    }
+
+    /**
+     * Deducts money sent to another Account by a transfer, recording it on the date of the transfer.
+     * The AccountDatabase accrues the Account through its book day first, so nothing is accrued here.
+     *
+     * @param date   the date of the transfer
+     * @param amount quantity of money sent
+     * @return true if the money was deducted, false if the balance is too low
+     */
+    public boolean send(Date date, double amount) {
+        return withdraw(date, amount, 'S');
+    }
+
+    /**
+     * Deducts money at the teller or for a transfer, and records it as an Activity at the Account's own Branch.
+     * Subclasses that count withdrawals or keep a loyal status override this, so both kinds follow their rules.
+     *
+     * @param date   the date recorded with the Activity
+     * @param amount quantity of money deducted from the account
+     * @param type   'W' for a withdrawal, 'S' for money sent by a transfer
+     * @return true if successfully deducted, false otherwise
+     */
+    protected boolean withdraw(Date date, double amount, char type) {
         if (this.balance < amount) {
             return false;
         }
         this.balance -= amount;
-        Activity activity = new Activity(new Date(), this.getAccountNumber().getBranch(), 'W', amount, false);
+        Activity activity = new Activity(date, this.getAccountNumber().getBranch(), type, amount, false);
         addActivity(activity);
+        observe(activity);
         return true;
     }
 
@@ -149,20 +762,47 @@ public abstract class Account implements Comparable<Account> {
      * @param amount the amount to be withdrawn from the account balance
      */
     public void withdraw(Date date, Branch branch, double amount) { //to update the balance
+        accrue(date);
         this.balance -= amount;
         Activity activity = new Activity(date, branch, 'W', amount, true);
         addActivity(activity);
+        observe(activity);
     }
 
     /**
      * Adds money to the account and updates the balance.
+     * The AccountDatabase accrues the Account through its book day first, so nothing is accrued here.
      *
      * @param amount quantity of money added to the account
      */
     public void deposit(double amount) { //to update the balance
+        deposit(new Date(), amount, 'D');
+    }
+
+    /**
+     * Adds money received from another Account by a transfer, recording it on the date of the transfer.
+     * The AccountDatabase accrues the Account through its book day first, so nothing is accrued here.
+     *
+     * @param date   the date of the transfer
+     * @param amount quantity of money received
+     */
+    public void receive(Date date, double amount) {
+        deposit(date, amount, 'R');
+    }
+
+    /**
+     * Adds money at the teller or from a transfer, and records it as an Activity at the Account's own Branch.
+     * Subclasses that keep a loyal status override this, so both kinds follow their rules.
+     *
+     * @param date   the date recorded with the Activity
+     * @param amount quantity of money added to the account
+     * @param type   'D' for a deposit, 'R' for money received by a transfer
+     */
+    protected void deposit(Date date, double amount, char type) {
         this.balance += amount;
-        Activity activity = new Activity(new Date(), this.getAccountNumber().getBranch(), 'D', amount, false);
+        Activity activity = new Activity(date, this.getAccountNumber().getBranch(), type, amount, false);
         addActivity(activity);
+        observe(activity);
     }
 
     /**
@@ -174,9 +814,11 @@ public abstract class Account implements Comparable<Account> {
      * @param amount the amount of money to be deposited into the account
      */
     public void deposit(Date date, Branch branch, double amount) { //to update the balance
+        accrue(date);
         this.balance += amount;
         Activity activity = new Activity(date, branch, 'D', amount, true);
         addActivity(activity);
+        observe(activity);
     }
 
     /**
@@ -277,35 +919,46 @@ public abstract class Account implements Comparable<Account> {
     }
 
     /**
-     * Prints the list of activities associated with this account.
+     * Appends the summaries of compacted activities, then the list of activities associated with this account.
+     *
+     * @param text the statement being built
      */
-    private void printActivities() {
-        if (!this.activities.isEmpty()) {
-            System.out.println("\t[Activity]");
+    private void appendActivities(StringBuilder text) {
+        if (!this.getRollups().isEmpty()) {
+            text.append("\t[Summary]").append(System.lineSeparator());
+        }
+        for (ActivityRollup rollup : this.getRollups()) {
+            text.append("\t\t").append(rollup).append(System.lineSeparator());
+        }
+        if (!this.getActivities().isEmpty()) {
+            text.append("\t[Activity]").append(System.lineSeparator());
         }
         for (Activity activity : this.activities) {
-            System.out.println("\t\t" + activity);
+            text.append("\t\t").append(activity).append(System.lineSeparator());
         }
     }
 
     /**
-     * Prints the interest and fee amounts for the account in a formatted manner.
+     * Appends the interest and fee amounts for the account in a formatted manner.
      *
+     * @param text     the statement being built
      * @param interest the interest amount to be displayed
      * @param fee      the fee amount to be displayed
      */
-    private void printInterestFee(double interest, double fee) {
-        System.out.println("\t[interest] $" + df.format(interest) + " [Fee] $" + df.format(fee));
+    private void appendInterestFee(StringBuilder text, double interest, double fee) {
+        text.append("\t[interest] $").append(df.get().format(interest)).append(" [Fee] $").append(df.get().format(fee))
+                .append(System.lineSeparator());
     }
 
     /**
-     * Prints the account balance after adding the given interest and deducting the given fee.
+     * Appends the account balance after adding the given interest and deducting the given fee.
      *
+     * @param text     the statement being built
      * @param interest the interest amount to be added to the balance
      * @param fee      the fee amount to be deducted from the balance
      */
-    private void printBalance(double interest, double fee) {
-        System.out.println("\t[Balance] $" + df.format(balance + interest - fee));
+    private void appendBalance(StringBuilder text, double interest, double fee) {
+        text.append("\t[Balance] $").append(df.get().format(balance + interest - fee)).append(System.lineSeparator());
     }
 
     /**
@@ -331,9 +984,7 @@ public abstract class Account implements Comparable<Account> {
         if (cmp != 0) {
             return cmp;
         }
-        int aNumber = Integer.parseInt(this.getAccountNumber().toString());
-        int bNumber = Integer.parseInt(other.getAccountNumber().toString());
-        return aNumber - bNumber;
+        return this.getAccountNumber().compareTo(other.getAccountNumber());
     }
 
     /**
@@ -343,7 +994,7 @@ public abstract class Account implements Comparable<Account> {
      */
     @Override
     public String toString() {
-        return "Account#[" + this.number + "] Holder[" + this.holder + "] Balance[$" + df.format(this.balance) + "] Branch[" + this.getAccountNumber().getBranch() + "]";
+        return "Account#[" + this.number + "] Holder[" + this.holder + "] Balance[$" + df.get().format(this.balance) + "] Branch[" + this.getAccountNumber().getBranch() + "]";
     }
 
     /**
@@ -0,0 +1,371 @@
+package banking;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * The AccountCache class keeps the most used Accounts of a MappedAccountStore in memory, up to a size in bytes.
+ * Each cached Account is a frame on a clock: a lookup sets the frame's reference bit, and when the cache is
+ * over its size the hand sweeps the frames, clearing set bits and evicting the first frame whose bit is clear.
+ * Changed Accounts are only written back to the store when they are evicted or the cache is flushed.
+ * The size of an Account is estimated from its fields and the number of Activities it holds in memory.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class AccountCache {
+
+    /**
+     * Estimated bytes of an Account without its Activities: the object, its number, and its list.
+     */
+    static final int ACCOUNT_BYTES = 192;
+
+    /**
+     * Estimated bytes of one Activity: the object, its date, and its slot in the list.
+     */
+    static final int ACTIVITY_BYTES = 72;
+
+    /**
+     * The store the Accounts are read from and written back to.
+     */
+    private final MappedAccountStore store;
+
+    /**
+     * The most bytes the cached Accounts may take.
+     */
+    private final long capacity;
+
+    /**
+     * The frame of each cached Account, by slot.
+     */
+    private final HashMap<Integer, Frame> frames;
+
+    /**
+     * The frames in clock order.
+     */
+    private final ArrayList<Frame> clock;
+
+    /**
+     * Index in clock of the next frame the hand looks at.
+     */
+    private int hand;
+
+    /**
+     * Estimated bytes of the cached Accounts.
+     */
+    private long bytes;
+
+    /**
+     * Number of lookups answered from the cache.
+     */
+    private long hits;
+
+    /**
+     * Number of lookups that read the Account from the store.
+     */
+    private long misses;
+
+    /**
+     * Number of Accounts evicted.
+     */
+    private long evictions;
+
+    /**
+     * Number of changed Accounts written back to the store.
+     */
+    private long writeBacks;
+
+    /**
+     * Creates an empty AccountCache over a store.
+     *
+     * @param store    the store the Accounts are read from and written back to
+     * @param capacity the most bytes the cached Accounts may take
+     */
+    public AccountCache(MappedAccountStore store, long capacity) {
+        this.store = store;
+        this.capacity = capacity;
+        this.frames = new HashMap<>();
+        this.clock = new ArrayList<>();
+    }
+
+    /**
+     * Returns the Account in a slot, reading it from the store if it is not cached.
+     * A hit re-estimates the size of the Account, which grows when it loads its Activities.
+     *
+     * @param slot a live slot of the store
+     * @return the Account in the slot
+     */
+    public synchronized Account get(int slot) {
+        Frame frame = frames.get(slot);
+        if (frame != null) {
+            hits++;
+            frame.referenced = true;
+            int size = size(frame.account);
+            bytes += size - frame.size;
+            frame.size = size;
+            return frame.account;
+        }
+        misses++;
+        Account account = store.read(slot);
+        insert(slot, account, false);
+        return account;
+    }
+
+    /**
+     * Caches an Account that has just been written to the store.
+     *
+     * @param slot    the slot of the Account
+     * @param account the Account in the slot
+     */
+    public synchronized void put(int slot, Account account) {
+        if (!frames.containsKey(slot)) {
+            insert(slot, account, false);
+        }
+    }
+
+    /**
+     * Marks the Account in a slot as changed, so it is written back when it is evicted.
+     * An Account that was evicted before it was changed is cached again.
+     *
+     * @param slot    the slot of the Account
+     * @param account the changed Account
+     */
+    public synchronized void update(int slot, Account account) {
+        Frame frame = frames.get(slot);
+        if (frame == null) {
+            insert(slot, account, true);
+            return;
+        }
+        frame.account = account;
+        frame.referenced = true;
+        frame.dirty = true;
+        int size = size(account);
+        bytes += size - frame.size;
+        frame.size = size;
+        evict();
+    }
+
+    /**
+     * Drops the Account in a slot without writing it back, as when it is removed from the store.
+     *
+     * @param slot the slot of the Account
+     */
+    public synchronized void remove(int slot) {
+        Frame frame = frames.remove(slot);
+        if (frame != null) {
+            drop(frame.index);
+        }
+    }
+
+    /**
+     * Writes every changed Account back to the store.
+     */
+    public synchronized void flush() {
+        for (Frame frame : clock) {
+            if (frame.dirty) {
+                writeBack(frame);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache.
+     *
+     * @return the number of hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that read the Account from the store.
+     *
+     * @return the number of misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of Accounts evicted.
+     *
+     * @return the number of evictions
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the number of changed Accounts written back to the store.
+     *
+     * @return the number of write-backs
+     */
+    public synchronized long getWriteBacks() {
+        return writeBacks;
+    }
+
+    /**
+     * Returns the estimated bytes of the cached Accounts.
+     *
+     * @return the bytes in use
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the number of cached Accounts.
+     *
+     * @return the number of frames
+     */
+    public synchronized int size() {
+        return clock.size();
+    }
+
+    /**
+     * Returns the metrics of the cache in one line.
+     *
+     * @return the hits, misses, hit ratio, evictions, write-backs, and size of the cache
+     */
+    @Override
+    public synchronized String toString() {
+        long lookups = hits + misses;
+        return String.format("hits=%d misses=%d ratio=%.2f evictions=%d writeBacks=%d accounts=%d bytes=%d/%d",
+                hits, misses, lookups == 0 ? 0.0 : (double) hits / lookups, evictions, writeBacks, clock.size(), bytes, capacity);
+    }
+
+    /**
+     * Estimates the bytes an Account takes in memory, counting only the Activities it has loaded.
+     *
+     * @param account the Account being measured
+     * @return the estimated bytes
+     */
+    static int size(Account account) {
+        return ACCOUNT_BYTES + account.getResidentActivityCount() * ACTIVITY_BYTES;
+    }
+
+    /**
+     * Makes room for an Account and adds its frame to the clock with its reference bit clear,
+     * so an Account looked up once is evicted before Accounts that have been looked up again.
+     *
+     * @param slot    the slot of the Account
+     * @param account the Account
+     * @param dirty   whether the Account has changes that are not in the store
+     */
+    private void insert(int slot, Account account, boolean dirty) {
+        Frame frame = new Frame(slot, account, size(account));
+        frame.dirty = dirty;
+        bytes += frame.size;
+        evict();
+        frame.index = clock.size();
+        frames.put(slot, frame);
+        clock.add(frame);
+    }
+
+    /**
+     * Sweeps the hand until the cached Accounts fit in the capacity, writing back changed Accounts as they are evicted.
+     */
+    private void evict() {
+        while (bytes > capacity && !clock.isEmpty()) {
+            if (hand >= clock.size()) {
+                hand = 0;
+            }
+            Frame frame = clock.get(hand);
+            if (frame.referenced) {
+                frame.referenced = false;
+                hand++;
+                continue;
+            }
+            if (frame.dirty) {
+                writeBack(frame);
+            }
+            frames.remove(frame.slot);
+            drop(hand);
+            evictions++;
+        }
+    }
+
+    /**
+     * Removes the frame at an index of the clock by moving the last frame into its place,
+     * which the hand looks at next.
+     *
+     * @param index index of the frame in clock
+     */
+    private void drop(int index) {
+        bytes -= clock.get(index).size;
+        Frame last = clock.remove(clock.size() - 1);
+        if (index < clock.size()) {
+            clock.set(index, last);
+            last.index = index;
+        }
+        if (hand >= clock.size()) {
+            hand = 0;
+        }
+    }
+
+    /**
+     * Writes a changed Account back to its slot.
+     *
+     * @param frame the frame of the changed Account
+     * @throws UncheckedIOException if the store cannot grow
+     */
+    private void writeBack(Frame frame) {
+        try {
+            store.write(frame.slot, frame.account);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        frame.dirty = false;
+        writeBacks++;
+    }
+
+    /**
+     * A cached Account with its reference bit and changed flag.
+     */
+    private static class Frame {
+
+        /**
+         * The slot of the Account in the store.
+         */
+        private final int slot;
+
+        /**
+         * Index of the frame in clock.
+         */
+        private int index;
+
+        /**
+         * The cached Account.
+         */
+        private Account account;
+
+        /**
+         * The estimated bytes of the Account.
+         */
+        private int size;
+
+        /**
+         * Set when the Account is looked up, cleared when the hand passes it.
+         */
+        private boolean referenced;
+
+        /**
+         * Set when the Account has changes that are not in the store.
+         */
+        private boolean dirty;
+
+        /**
+         * Creates a frame for an Account.
+         *
+         * @param slot    the slot of the Account
+         * @param account the Account
+         * @param size    the estimated bytes of the Account
+         */
+        private Frame(int slot, Account account, int size) {
+            this.slot = slot;
+            this.account = account;
+            this.size = size;
+        }
+    }
+}
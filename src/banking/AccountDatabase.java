@@ -6,7 +6,18 @@ import util.Sort;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
 
 /**
  * The AccountDatabase class holds the information regarding all the bank accounts.
@@ -23,6 +34,75 @@ public class AccountDatabase extends List<Account> {
      */
     private final Archive archive;
 
+    /**
+     * Running totals, counts, and balance index of the Accounts in the AccountDatabase.
+     */
+    private final BalanceAggregates aggregates;
+
+    /**
+     * Order-independent checksum of the Accounts, with a Merkle tree of each Branch, for reconciling two books.
+     */
+    private final BookChecksum checksum;
+
+    /**
+     * Number of Accounts of each AccountType held by each holder, indexed by AccountType ordinal,
+     * so the duplicate account and loyalty checks do not scan the list.
+     */
+    private final HashMap<Profile, int[]> holdings;
+
+    /**
+     * Every holder with an Account, by last name, for prefix and fuzzy searches.
+     */
+    private final HolderIndex holders;
+
+    /**
+     * Run ids of the feeds whose lines have been applied to the Accounts held here since they were loaded.
+     */
+    private final Set<Long> runs;
+
+    /**
+     * Deposits and withdrawals made to the Accounts held here, counted by Branch and day.
+     */
+    private final ActivityTraffic traffic;
+
+    /**
+     * Watches the deposits and withdrawals made to the Accounts held here for the patterns of the AlertRules.
+     */
+    private final AnomalyDetector detector;
+
+    /**
+     * Day, counted from 1/1/1970, the book has been rolled forward to; Integer.MIN_VALUE before the first roll.
+     */
+    private int bookDay = Integer.MIN_VALUE;
+
+    /**
+     * Creates the AccountDatabase selected by the "banking.storage" system property.
+     * "partitioned" selects a PartitionedAccountDatabase, "shard" selects the ShardAccountDatabase of a ShardWorker,
+     * "mapped" selects a MappedAccountDatabase over the file named by the "banking.store" system property, "accounts.db" by default,
+     * and "cached" selects a CachedAccountDatabase over the same file, keeping up to the number of bytes named by
+     * the "banking.cache" system property in memory, 1 MiB by default;
+     * anything else selects a plain AccountDatabase.
+     *
+     * @return an empty AccountDatabase
+     */
+    public static AccountDatabase create() {
+        String storage = System.getProperty("banking.storage", "");
+        if ("partitioned".equalsIgnoreCase(storage)) {
+            return new PartitionedAccountDatabase();
+        }
+        if ("shard".equalsIgnoreCase(storage)) {
+            return new ShardAccountDatabase();
+        }
+        if ("mapped".equalsIgnoreCase(storage)) {
+            return new MappedAccountDatabase(new File(System.getProperty("banking.store", "accounts.db")));
+        }
+        if ("cached".equalsIgnoreCase(storage)) {
+            return new CachedAccountDatabase(new File(System.getProperty("banking.store", "accounts.db")),
+                    Long.getLong("banking.cache", 1 << 20));
+        }
+        return new AccountDatabase();
+    }
+
     /**
      * Constructs an empty AccountDatabase object.
      * Initializes a new Archive instance that will store accounts that have been closed.
@@ -30,6 +110,199 @@ public class AccountDatabase extends List<Account> {
     public AccountDatabase() {
         super();
         this.archive = new Archive();
+        this.aggregates = new BalanceAggregates();
+        this.checksum = new BookChecksum();
+        this.holdings = new HashMap<>();
+        this.holders = new HolderIndex();
+        this.runs = ConcurrentHashMap.newKeySet();
+        this.traffic = new ActivityTraffic();
+        this.detector = new AnomalyDetector();
+    }
+
+    /**
+     * Adds an Account to the end of the AccountDatabase and records it in the aggregates, checksum, and holdings.
+     * An Account that has never accrued starts accruing on the day the book has been rolled to,
+     * and its deposits and withdrawals from now on are counted in the traffic of the AccountDatabase.
+     *
+     * @param account the Account to be added
+     */
+    @Override
+    public void add(Account account) {
+        adopt(account);
+        super.add(account);
+        aggregates.add(account);
+        checksum.add(account);
+        hold(account, 1);
+    }
+
+    /**
+     * Prepares an Account being added to the AccountDatabase: an Account that has never accrued starts accruing
+     * on the day the book has been rolled to, and its deposits and withdrawals are observed by the AccountDatabase.
+     *
+     * @param account the Account being added
+     */
+    protected void adopt(Account account) {
+        if (this.bookDay != Integer.MIN_VALUE) {
+            account.startAccruing(this.bookDay);
+        }
+        account.setDatabase(this);
+    }
+
+    /**
+     * Counts a deposit or withdrawal just made to an Account held here in the traffic, and hands it to the detector.
+     *
+     * @param account  the Account the Activity was applied to
+     * @param activity the deposit or withdrawal
+     */
+    void observe(Account account, Activity activity) {
+        detector.observe(account, activity);
+        traffic.record(activity);
+    }
+
+    /**
+     * Removes an Account from the AccountDatabase and from the aggregates, checksum, and holdings.
+     *
+     * @param account the Account to be removed
+     */
+    @Override
+    public void remove(Account account) {
+        int size = super.size();
+        super.remove(account);
+        aggregates.remove(account);
+        checksum.remove(account);
+        if (super.size() < size) {
+            hold(account, -1);
+        }
+    }
+
+    /**
+     * Opens a batch of Accounts at once. The list grows once for the whole batch, each Account is added
+     * to the indexes as it is added, and a single pass afterwards makes the new Savings accounts of holders
+     * with a Checking account loyal, including a Checking account opened in the same batch.
+     * The batch must already be free of duplicate accounts.
+     *
+     * @param accounts the Accounts to be opened
+     */
+    public void openAccounts(List<Account> accounts) {
+        ensureCapacity(this.size() + accounts.size());
+        for (Account account : accounts) {
+            this.add(account);
+        }
+        for (Account account : accounts) {
+            if (account.getAccountNumber().getType() == AccountType.SAVINGS
+                    && contains(account.getHolder(), AccountType.CHECKING)) {
+                int index = find(account.getAccountNumber());
+                ((Savings) this.get(index)).setIsLoyal(true);
+                changed(index);
+            }
+        }
+    }
+
+    /**
+     * Closes a batch of Accounts at once, each moved to the archive on the same date.
+     * The holders losing their Checking account are collected first, so their Savings accounts lose
+     * their loyal status in one pass over the list instead of one pass for each closed Checking account.
+     *
+     * @param accounts  the Accounts to be closed, each in the AccountDatabase
+     * @param closeDate the date the Accounts are closed
+     */
+    public void closeAccounts(List<Account> accounts, Date closeDate) {
+        HashSet<Profile> unloyal = new HashSet<>();
+        for (Account account : accounts) {
+            moveToArchive(account, closeDate);
+            if (account.getAccountNumber().getType() == AccountType.CHECKING) {
+                unloyal.add(account.getHolder());
+            }
+        }
+        unloyal.removeIf(holder -> !contains(holder, AccountType.SAVINGS));
+        if (unloyal.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < this.size(); i++) {
+            Account account = this.get(i);
+            if (account.getAccountNumber().getType() == AccountType.SAVINGS && unloyal.contains(account.getHolder())) {
+                ((Savings) account).setIsLoyal(false);
+                changed(i);
+            }
+        }
+    }
+
+    /**
+     * Counts an Account in or out of its holder's holdings, and adds the holder to the name index with their
+     * first Account or removes them with their last.
+     *
+     * @param account the Account added or removed
+     * @param delta   1 when the Account is added, -1 when it is removed
+     */
+    private void hold(Account account, int delta) {
+        int[] counts = holdings.computeIfAbsent(account.getHolder(), holder -> new int[AccountType.values().length]);
+        counts[account.getAccountNumber().getType().ordinal()] += delta;
+        indexHolder(account.getHolder(), counts, delta);
+    }
+
+    /**
+     * Adds a holder to the name index when an Account gives them their first Account,
+     * or removes them when one takes away their last.
+     *
+     * @param holder the Profile of the holder
+     * @param counts the holder's number of Accounts of each AccountType, after the change
+     * @param delta  1 when an Account was added, -1 when one was removed
+     */
+    protected void indexHolder(Profile holder, int[] counts, int delta) {
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        if (delta > 0 && total == 1) {
+            holders.add(holder);
+        } else if (delta < 0 && total == 0) {
+            holders.remove(holder);
+        }
+    }
+
+    /**
+     * Returns the index of holder names, for prefix and fuzzy searches.
+     *
+     * @return the HolderIndex of the AccountDatabase
+     */
+    public HolderIndex getHolders() {
+        return holders;
+    }
+
+    /**
+     * Returns the running totals, counts, and balance index of the Accounts in the AccountDatabase.
+     *
+     * @return the aggregates of the AccountDatabase
+     */
+    public BalanceAggregates getAggregates() {
+        return aggregates;
+    }
+
+    /**
+     * Returns the deposits and withdrawals made to the Accounts in the AccountDatabase, by Branch and day.
+     *
+     * @return the ActivityTraffic of the AccountDatabase
+     */
+    public ActivityTraffic getTraffic() {
+        return traffic;
+    }
+
+    /**
+     * Returns the AnomalyDetector watching the Accounts in the AccountDatabase.
+     *
+     * @return the AnomalyDetector of the AccountDatabase
+     */
+    public AnomalyDetector getDetector() {
+        return detector;
+    }
+
+    /**
+     * Returns the checksum of the Accounts in the AccountDatabase.
+     *
+     * @return the checksum of the AccountDatabase
+     */
+    public BookChecksum getChecksum() {
+        return checksum;
     }
 
     /**
@@ -41,12 +314,13 @@ public class AccountDatabase extends List<Account> {
      * @param amount value of money that will be deposited
      */
     public void deposit(AccountNumber number, double amount) {
-        for (int i = 0; i < this.size(); i++) {
-            if (this.get(i).getAccountNumber().equals(number)) {
-                this.get(i).deposit(amount);
-                return;
-            }
+        int index = find(number);
+        if (index == -1) {
+            return;
         }
+        accrueToBookDay(this.get(index));
+        this.get(index).deposit(amount);
+        changed(index);
     }
 
     /**
@@ -64,8 +338,188 @@ public class AccountDatabase extends List<Account> {
             return false;
         }
         Account account = this.get(index);
+        accrueToBookDay(account);
+        boolean withdrawn = account.withdraw(amount);
+        changed(index);
+        return withdrawn;
+    }
+
+    /**
+     * Moves money from one Account to another in one step: either the withdrawal and the deposit are both made,
+     * or neither is. The withdrawal is made first, so a Money Market source counts it and may lose its loyal
+     * status, and a Money Market destination may become loyal; each Account records its half as an Activity
+     * of the transfer, sent or received, dated the day of the transfer.
+     *
+     * @param from   AccountNumber of the Account the money is taken from
+     * @param to     AccountNumber of the Account the money is added to
+     * @param amount value of money that will be moved
+     * @param date   the date of the transfer
+     * @return true if the money was moved
+     * false if either Account is missing, they are the same Account, or the source has insufficient funds
+     */
+    public boolean transfer(AccountNumber from, AccountNumber to, double amount, Date date) {
+        int source = find(from);
+        int destination = find(to);
+        if (source == -1 || destination == -1 || source == destination) {
+            return false;
+        }
+        accrueToBookDay(this.get(source));
+        if (!this.get(source).send(date, amount)) {
+            return false;
+        }
+        changed(source);
+        accrueToBookDay(this.get(destination));
+        this.get(destination).receive(date, amount);
+        changed(destination);
+        return true;
+    }
+
+    /**
+     * Called after the Account at an index has been changed by the AccountDatabase,
+     * so the aggregates, the checksum, and any storage that keeps a copy of Account fields can refresh it.
+     *
+     * @param index index of the changed Account
+     */
+    protected void changed(int index) {
+        refresh(this.get(index));
+    }
+
+    /**
+     * Updates the aggregates and the checksum of the book from an Account that has changed.
+     *
+     * @param account the changed Account
+     */
+    protected void refresh(Account account) {
+        aggregates.update(account);
+        checksum.update(account);
+    }
 
-        return account.withdraw(amount);
+    /**
+     * Rolls every Account in the AccountDatabase forward to the given day, accruing daily interest and fees
+     * at each Account's current balance for the days since it was last accrued.
+     *
+     * @param date the date through which interest and fees are accrued
+     */
+    public void accrueInterest(Date date) {
+        for (int i = 0; i < this.size(); i++) {
+            this.get(i).accrue(date);
+            changed(i);
+        }
+    }
+
+    /**
+     * Rolls the book forward to a date carried by a command or an Activity, accruing interest and fees on
+     * every Account through it, so statements, closes, and postings read what has accrued to date.
+     * The book is only rolled when a later day than the last one it was rolled to is seen.
+     *
+     * @param date the date of the command or Activity
+     */
+    public void rollTo(Date date) {
+        int day = date.toEpochDay();
+        if (day > this.bookDay) {
+            this.bookDay = day;
+            accrueInterest(date);
+        }
+    }
+
+    /**
+     * Returns the day the book has been rolled to, the date of a command that carries none.
+     *
+     * @return the day the book has been rolled to; today if it has not been rolled yet
+     */
+    public Date getBookDate() {
+        return this.bookDay == Integer.MIN_VALUE ? new Date() : Date.ofEpochDay(this.bookDay);
+    }
+
+    /**
+     * Accrues an Account through the day the book has been rolled to, before a deposit, withdrawal, or transfer
+     * that carries no date changes its balance, so the book only accrues against the dates of commands and Activities.
+     * Nothing is accrued before the book is first rolled.
+     *
+     * @param account the Account whose balance is about to change
+     */
+    protected void accrueToBookDay(Account account) {
+        if (this.bookDay != Integer.MIN_VALUE) {
+            account.accrue(Date.ofEpochDay(this.bookDay));
+        }
+    }
+
+    /**
+     * Rolls the book forward to the latest date of the Activities of a segment once the segment has been applied,
+     * so each Account accrued at the balance it held before each of its Activities, and at its final balance after.
+     *
+     * @param segment the lines of the segment
+     */
+    void rollPast(List<FeedLine> segment) {
+        Date latest = null;
+        for (FeedLine line : segment) {
+            if (line.isValid() && (latest == null || line.getActivity().getDate().isAfter(latest))) {
+                latest = line.getActivity().getDate();
+            }
+        }
+        if (latest != null) {
+            rollTo(latest);
+        }
+    }
+
+    /**
+     * Starts a new statement cycle for every Account in the AccountDatabase.
+     * Clears accrued interest and resets per-cycle counters such as Money Market withdrawals,
+     * marking each Account as changed so the indexes and stores that mirror it see the reset.
+     */
+    public void startCycle() {
+        for (int i = 0; i < this.size(); i++) {
+            this.get(i).startCycle();
+            changed(i);
+        }
+    }
+
+    /**
+     * Posts interest and fees to every Account in the AccountDatabase as an end-of-month batch.
+     * The book is split into ranges that are posted in parallel on the common fork-join pool.
+     * Accounts already posted on or after the date are skipped, so running the batch again
+     * after an interruption only posts the Accounts that were missed.
+     *
+     * @param date the date of the posting
+     * @return the number of Accounts posted
+     */
+    public int postInterest(Date date) {
+        int posted = ForkJoinPool.commonPool().invoke(new InterestPosting(this, date, 0, this.size()));
+        for (int i = 0; i < this.size(); i++) {
+            changed(i);
+        }
+        return posted;
+    }
+
+    /**
+     * Returns the Accounts that pass a test, in the order of the AccountDatabase.
+     * The book is split into ranges that are scanned in parallel on the common fork-join pool.
+     *
+     * @param test the test an Account must pass
+     * @return the Accounts that pass the test
+     */
+    public List<Account> select(Predicate<Account> test) {
+        return ForkJoinPool.commonPool().invoke(new AccountSelection(this, test, 0, this.size()));
+    }
+
+    /**
+     * Compacts the Activities dated before a horizon, of every Account and every closed Account in the Archive,
+     * into one summary per Account per period. Statements print the summaries before the Activities kept in detail.
+     *
+     * @param horizon the earliest date kept in detail
+     * @param period  the length of the period each summary covers
+     * @return the number of Activities compacted
+     */
+    public int compactActivities(Date horizon, RollupPeriod period) {
+        int compacted = 0;
+        for (int i = 0; i < this.size(); i++) {
+            int rolled = this.get(i).compact(horizon, period);
+            if (rolled > 0) {
+                compacted += rolled;
+                changed(i);
+            }
+        }
+        return compacted + archive.compact(horizon, period);
     }
 
     /**
@@ -76,16 +530,46 @@ public class AccountDatabase extends List<Account> {
      */
     public void closeAccount(Account account, Date closeDate) {
         if (account.getAccountNumber().getType() == AccountType.CHECKING) {
-            for (int i = 0; i < this.size(); i++) {
-                if (this.get(i).getHolder().equals(account.getHolder()) && this.get(i).getAccountNumber().getType() == AccountType.SAVINGS) {
-                    ((Savings) this.get(i)).setIsLoyal(false);
-                }
-            }
+            clearLoyalty(account.getHolder());
         }
+        moveToArchive(account, closeDate);
+    }
+
+    /**
+     * Moves a closed Account to the Archive and removes it from the AccountDatabase.
+     *
+     * @param account   the closed Account
+     * @param closeDate the Date on which the account is closed
+     */
+    protected void moveToArchive(Account account, Date closeDate) {
         archive.add(account, closeDate);
         this.remove(account);
     }
 
+    /**
+     * Puts an Account that was closed before the AccountDatabase was loaded back into the Archive.
+     *
+     * @param account   the closed Account read back from storage
+     * @param closeDate the Date on which the account was closed
+     */
+    protected void restoreToArchive(Account account, Date closeDate) {
+        archive.add(account, closeDate);
+    }
+
+    /**
+     * Removes the loyal status from every Savings account of a holder, as when their Checking account is closed.
+     *
+     * @param holder Profile of the holder whose Savings accounts are no longer loyal
+     */
+    public void clearLoyalty(Profile holder) {
+        for (int i = 0; i < this.size(); i++) {
+            if (this.get(i).getHolder().equals(holder) && this.get(i).getAccountNumber().getType() == AccountType.SAVINGS) {
+                ((Savings) this.get(i)).setIsLoyal(false);
+                changed(i);
+            }
+        }
+    }
+
     /**
      * Finds the index of an account in the AccountDatabase based on the holder's first name,
      * last name, and date of birth. The search is case-insensitive for the names.
@@ -97,10 +581,9 @@ public class AccountDatabase extends List<Account> {
      * -1 if the account is not found
      */
     public int find(String firstName, String lastName, Date dateOfBirth) {
+        Profile holder = new Profile(firstName, lastName, dateOfBirth);
         for (int i = 0; i < this.size(); i++) {
-            if (this.get(i).getFirstName().equalsIgnoreCase(firstName)
-                    && this.get(i).getLastName().equalsIgnoreCase(lastName)
-                    && this.get(i).getDateOfBirth().equals(dateOfBirth)) {
+            if (this.get(i).getHolder().equals(holder)) {
                 return i;
             }
         }
@@ -160,7 +643,7 @@ public class AccountDatabase extends List<Account> {
 
     /**
      * Checks if an Account with the specified holder and account type exists in the AccountDatabase.
-     * Iterates through the list of accounts stored in the database.
+     * Reads the holder's counts in the holdings instead of scanning the list.
      *
      * @param holder Profile object representing the account holder to search for
      * @param type   AccountType object representing the type of account to search for
@@ -168,12 +651,8 @@ public class AccountDatabase extends List<Account> {
      * false otherwise
      */
     public boolean contains(Profile holder, AccountType type) {
-        for (int i = 0; i < this.size(); i++) {
-            if (this.get(i).getAccountNumber().getType().equals(type) && this.get(i).getHolder().equals(holder)) {
-                return true;
-            }
-        }
-        return false;
+        int[] counts = holdings.get(holder);
+        return counts != null && counts[type.ordinal()] > 0;
     }
 
     /**
@@ -266,9 +745,59 @@ public class AccountDatabase extends List<Account> {
         System.out.println("*end of statements.\n");
     }
 
+    /**
+     * Exports the list and the statements of the Accounts of each Branch, or each county, to a file of its own
+     * in a directory, named after the Branch or county; a worker of a sharded run adds its shard to the name.
+     * The Accounts are grouped in one pass, then each group is sorted and written by a StatementExport task
+     * on a fixed pool of up to one thread per processor.
+     *
+     * @param directory the directory the files are written to, created if needed
+     * @param byCounty  true for one file per county, false for one file per Branch
+     * @return the number of files written
+     * @throws IOException if the directory or a file cannot be written
+     */
+    public int exportStatements(File directory, boolean byCounty) throws IOException {
+        HashMap<String, ArrayList<Account>> groups = new HashMap<>();
+        for (int i = 0; i < this.size(); i++) {
+            Account account = this.get(i);
+            Branch branch = account.getAccountNumber().getBranch();
+            groups.computeIfAbsent(byCounty ? branch.getCounty() : branch.name(), name -> new ArrayList<>()).add(account);
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory \"" + directory + "\".");
+        }
+        String shard = System.getProperty("banking.shard", "");
+        ArrayList<StatementExport> exports = new ArrayList<>();
+        for (String name : groups.keySet()) {
+            File file = new File(directory, name + (shard.isEmpty() ? "" : "." + shard) + ".txt");
+            exports.add(new StatementExport(file, name, groups.get(name)));
+        }
+        if (exports.isEmpty()) {
+            return 0;
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(exports.size(), Runtime.getRuntime().availableProcessors()));
+        try {
+            for (Future<Integer> export : pool.invokeAll(exports)) {
+                export.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Export was interrupted.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return exports.size();
+    }
+
     /**
      * Loads account data from the provided file and adds the corresponding Account objects to the database.
      * Each line in the file should represent an account in a comma-separated value format.
+     * An account is skipped if every account number of its Branch and AccountType is in use.
      *
      * @param file the File object containing account information to load
      * @throws IOException if an I/O error occurs while reading the file
@@ -283,7 +812,9 @@ public class AccountDatabase extends List<Account> {
             }
             String[] parts = line.split(",");
             Account account = TransactionManager.createAccount(parts);
-            this.add(account);
+            if (account.getAccountNumber().isAssigned()) {
+                this.add(account);
+            }
         }
 
     }
@@ -292,34 +823,153 @@ public class AccountDatabase extends List<Account> {
      * Processes activities from a file and applies them to accounts in the AccountDatabase.
      * The method reads a file containing activity information in a comma-separated
      * format and performs operations such as deposits or withdrawals on corresponding accounts.
+     * Starts a new run over the file; see processActivities(File, boolean).
      *
      * @param file the File object from which activity data is read
      * @throws IOException if an I/O error occurs while reading the file
      */
     public void processActivities(File file) throws IOException {
-        Scanner scanner = new Scanner(file);
-        while (scanner.hasNextLine()) {
-            String line = scanner.nextLine();
-            if (line.trim().isEmpty()) {
+        processActivities(file, false);
+    }
+
+    /**
+     * Processes activities from a file in segments, saving a checkpoint after each segment so an interrupted run
+     * can be resumed. Each Activity is keyed by the run id and its line number; an Account skips a key it has
+     * already applied, so lines applied after the last checkpoint are not applied twice on resume.
+     * Invalid lines, and lines whose Account is not in the AccountDatabase, are written to the dead-letter file
+     * of the feed with their reason while the other lines keep flowing,
+     * and a progress report is printed at every checkpoint inside the file.
+     *
+     * @param file   the File object from which activity data is read
+     * @param resume true to continue the last run from its checkpoint, false to start a new run
+     * @return the feed, with the counts of the run and of the lines rejected by reason
+     * @throws IOException if an I/O error occurs while reading the file or writing the checkpoint or rejected lines
+     */
+    public ActivityFeed processActivities(File file, boolean resume) throws IOException {
+        try (ActivityFeed feed = new ActivityFeed(file, resume)) {
+            applying(feed);
+            List<FeedLine> segment = new List<>();
+            FeedLine line;
+            while ((line = feed.next()) != null) {
+                segment.add(line);
+                if (segment.size() >= feed.getInterval()) {
+                    applySegment(feed, segment);
+                    rollPast(segment);
+                    force();
+                    feed.checkpoint(false);
+                    detector.flush();
+                    System.out.println(feed.report());
+                    segment = new List<>();
+                }
+            }
+            applySegment(feed, segment);
+            rollPast(segment);
+            force();
+            feed.checkpoint(true);
+            detector.flush();
+            return feed;
+        }
+    }
+
+    /**
+     * Applies a segment of activity lines in file order, rejecting invalid lines and lines whose Account is not
+     * in the AccountDatabase, skipping lines already applied to their Account, and prints each Activity applied.
+     *
+     * @param feed    the feed the lines were read from
+     * @param segment the lines of the segment
+     * @throws IOException if a rejected line cannot be written
+     */
+    protected void applySegment(ActivityFeed feed, List<FeedLine> segment) throws IOException {
+        for (FeedLine line : segment) {
+            if (!line.isValid()) {
+                feed.reject(line, line.getReason());
                 continue;
             }
-            String[] parts = line.split(",");
-            Date date = TransactionManager.createDate(parts[2]);
-            Branch branch = TransactionManager.createBranch(parts[3]);
-            char type = parts[0].charAt(0);
-            double amount = Double.parseDouble(parts[4]);
-            Activity activity = new Activity(date, branch, type, amount, true);
-            AccountNumber accountNumber = new AccountNumber(parts[1]);
-            int index = find(accountNumber);
+            int index = find(line.getNumber());
             if (index == -1) {
+                reject(feed, line);
                 continue;
             }
-            if (type == 'W') {
-                this.get(index).withdraw(date, branch, amount);
-            } else {
-                this.get(index).deposit(date, branch, amount);
+            Account account = this.get(index);
+            if (account.isApplied(feed.getRun(), line.getLine())) {
+                feed.skipped(line);
+                continue;
             }
-            System.out.println(accountNumber + "::" + activity);
+            line.getActivity().applyTo(account);
+            account.markApplied(feed.getRun(), line.getLine());
+            changed(index);
+            System.out.println(line.getNumber() + "::" + line.getActivity());
+            feed.applied(line);
+        }
+    }
+
+    /**
+     * Rejects a line whose Account is not in the AccountDatabase, unless the Account belongs to another shard.
+     *
+     * @param feed the feed the line was read from
+     * @param line the line of the missing Account
+     * @throws IOException if the rejected line cannot be written
+     */
+    protected void reject(ActivityFeed feed, FeedLine line) throws IOException {
+        if (owns(line.getNumber())) {
+            feed.reject(line, ValidationResult.ACCOUNT_NOT_FOUND);
+        } else {
+            feed.done(line);
         }
     }
+
+    /**
+     * Checks if an Account with a number would be held by this AccountDatabase.
+     * Every number is, unless the AccountDatabase only holds some Branches.
+     *
+     * @param accountNumber the number of the Account
+     * @return true if the Account would be held here
+     * false if it belongs to another shard
+     */
+    protected boolean owns(AccountNumber accountNumber) {
+        return true;
+    }
+
+    /**
+     * Forces every change to the Accounts to durable storage, before a checkpoint records it as done.
+     * Does nothing for an AccountDatabase kept only in memory.
+     */
+    public void force() {
+    }
+
+    /**
+     * Checks if the Accounts outlive the Transaction Manager, so a checkpoint saved by an earlier process
+     * describes them.
+     *
+     * @return true if force() writes the Accounts to durable storage
+     * false if they are kept only in memory
+     */
+    public boolean isPersistent() {
+        return false;
+    }
+
+    /**
+     * Records that the lines of a feed's run are being applied to the Accounts held here.
+     *
+     * @param feed the feed being applied
+     */
+    void applying(ActivityFeed feed) {
+        runs.add(feed.getRun());
+    }
+
+    /**
+     * Checks if the last run over a feed can be resumed from its checkpoint against the Accounts held here.
+     * An AccountDatabase kept only in memory is reloaded from "accounts.txt" when the Transaction Manager starts,
+     * so it can only resume a run it applied itself; the lines before a checkpoint saved by an earlier process
+     * were never applied to it.
+     *
+     * @param file the activities file
+     * @return true if the feed has no checkpoint, or its run can be resumed here
+     * false if the checkpoint was saved by a run whose changes this AccountDatabase does not hold
+     * @throws IOException if the checkpoint cannot be read
+     */
+    public boolean canResume(File file) throws IOException {
+        long run = ActivityFeed.checkpointedRun(file);
+        return run == 0 || isPersistent() || runs.contains(run);
+    }
 }
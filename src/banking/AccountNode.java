@@ -52,6 +52,17 @@ public class AccountNode {
         this.next = next;
     }
 
+    /**
+     * Compacts the activities of the closed Account dated before a horizon into summaries.
+     *
+     * @param horizon the earliest date kept in detail
+     * @param period  the length of the period each summary covers
+     * @return the number of activities compacted
+     */
+    public int compact(Date horizon, RollupPeriod period) {
+        return Account.compact(horizon, period);
+    }
+
     /**
      * Converts AccountNode to a string that can be printed.
      *
@@ -61,6 +72,13 @@ public class AccountNode {
     public String toString() {
         String returnString = Account.toString() + " Closed[" + close.toString() + "]";
 
+        if (!Account.getRollups().isEmpty()) {
+            returnString += "\n\t[Summary]";
+            for (ActivityRollup rollup : Account.getRollups()) {
+                returnString += ("\n\t\t" + rollup.toString());
+            }
+        }
+
         if (!Account.getActivities().isEmpty()) {
             returnString += "\n\t[Activity]";
             for (Activity activity : Account.getActivities()) {
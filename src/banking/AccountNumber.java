@@ -1,12 +1,13 @@
 package banking;
 
 import java.text.DecimalFormat;
-import java.util.Random;
+import java.util.Objects;
 
 /**
  * The AccountNumber class holds the Account Number.
  * The account number is a  9-digit number composed of a:
  * 3-digit branch code, a 2-digit account type, and a 4-digit serial number randomly generated by the system.
+ * Serial numbers are claimed from the SerialAllocator of the branch and account type, so they are unique.
  * For the account type, 01 represents checking, 02 represents regular savings, and 03 represents money market savings.
  *
  * @author Vishal Saravanan, Yining Chen
@@ -14,19 +15,14 @@ import java.util.Random;
 public class AccountNumber implements Comparable<AccountNumber> {
 
     /**
-     * for a fix sequence of random numbers
-     */
-    private static final int SEED = 9999;
-
-    /**
-     * Represents the random 4 digit serial number
+     * Formatting for 4 digits
      */
-    private static final Random RANDOM = new Random(SEED);
+    private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("0000");
 
     /**
-     * Formatting for 4 digits
+     * Number of digits in an AccountNumber.
      */
-    private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("0000");
+    private static final int PACKED_DIGITS = 9;
 
     /**
      * Branch object that represents location of bank
@@ -39,12 +35,19 @@ public class AccountNumber implements Comparable<AccountNumber> {
     private AccountType type;
 
     /**
-     * a 4-digit number generated by the Random object
+     * a 4-digit number claimed from the SerialAllocator; null if none was left
      */
     private String number;
 
+    /**
+     * The 9-digit account number packed into an int, so comparisons do not parse Strings.
+     * Is -1 if the number was created from a String that is not 9 digits.
+     */
+    private int packed;
+
     /**
      * Creates an AccountNumber object.
+     * If every serial of the branch and type is in use, the AccountNumber is not assigned; see isAssigned.
      *
      * @param branch 3-digit representation of the branch
      * @param type   2-digit reprsentation of the type of account
@@ -52,8 +55,23 @@ public class AccountNumber implements Comparable<AccountNumber> {
     public AccountNumber(Branch branch, AccountType type) {
         this.branch = branch;
         this.type = type;
-        int num = RANDOM.nextInt(SEED);
+        int num = SerialAllocator.of(branch, type).allocate();
+        if (num == SerialAllocator.NONE) {
+            this.packed = -1;
+            return;
+        }
         this.number = DECIMAL_FORMAT.format(num);
+        this.packed = pack(branch.getBranchCode() + type.getCode() + this.number);
+    }
+
+    /**
+     * Checks if a serial number was claimed for the AccountNumber.
+     *
+     * @return true if the AccountNumber has a serial number
+     * false if every serial of its Branch and AccountType was in use when it was created
+     */
+    public boolean isAssigned() {
+        return this.number != null;
     }
 
     /**
@@ -82,6 +100,47 @@ public class AccountNumber implements Comparable<AccountNumber> {
         }
 
         this.number = serialNumber;
+        this.packed = pack(number);
+    }
+
+    /**
+     * Packs the first 9 digits of a String into an int without throwing.
+     *
+     * @param digits String representation of the AccountNumber
+     * @return the 9-digit number as an int,
+     * -1 if the String does not start with 9 digits
+     */
+    private static int pack(String digits) {
+        if (digits.length() < PACKED_DIGITS) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < PACKED_DIGITS; i++) {
+            char c = digits.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Returns the 4-digit serial number portion of the AccountNumber.
+     *
+     * @return the serial number as an int
+     */
+    public int getSerial() {
+        return this.packed % SerialAllocator.SERIALS;
+    }
+
+    /**
+     * Returns the 9-digit account number packed into an int.
+     *
+     * @return the AccountNumber as an int
+     */
+    public int toInt() {
+        return this.packed;
     }
 
     /**
@@ -112,9 +171,7 @@ public class AccountNumber implements Comparable<AccountNumber> {
      */
     @Override
     public int compareTo(AccountNumber other) {
-        int aNumber = Integer.parseInt(this.branch.getBranchCode() + this.getType().getCode() + this.number);
-        int bNumber = Integer.parseInt(other.getBranch().getBranchCode() + other.getType().getCode() + other.number);
-        return aNumber - bNumber;
+        return Integer.compare(this.packed, other.packed);
     }
 
     /**
@@ -138,8 +195,19 @@ public class AccountNumber implements Comparable<AccountNumber> {
     public boolean equals(Object obj) {
         if (obj instanceof AccountNumber) {
             AccountNumber other = (AccountNumber) obj;
-            return this.branch.equals(other.branch) && this.type.equals(other.type) && this.number.equals(other.number);
+            return this.packed == other.packed && this.branch == other.branch && this.type == other.type
+                    && Objects.equals(this.number, other.number);
         }
         return false;
     }
+
+    /**
+     * Returns a hash code for the AccountNumber that is consistent with equals.
+     *
+     * @return the AccountNumber packed into an int
+     */
+    @Override
+    public int hashCode() {
+        return this.packed;
+    }
 }
@@ -0,0 +1,370 @@
+package banking;
+
+import util.List;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.function.Predicate;
+
+/**
+ * The AccountQuery class selects the Accounts that meet every term of a query, such as
+ * "type=savings branch=princeton balance<500" or "type=moneymarket withdrawals>3".
+ * Each term names a field, a comparison, and a value:
+ * type, branch, county, loyal, and campus only compare with '=';
+ * balance, withdrawals, term, and maturity also compare with '<', '<=', '>', and '>='.
+ * Only Money Market accounts count withdrawals, and only Certificate Deposits have a term and maturity date,
+ * so terms on those fields only match those Accounts.
+ * The terms are compiled once into a chain of tests holding only the fields the query names, cheapest first.
+ * A query with a type or a balance bound reads its candidates from the balance index of the BalanceAggregates,
+ * and any other query scans the book in parallel.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class AccountQuery {
+
+    /**
+     * Orders Accounts by balance, then account number, as the balance index does.
+     */
+    private static final Comparator<Account> BY_BALANCE = Comparator.comparingDouble(Account::getBalance)
+            .thenComparingInt(account -> account.getAccountNumber().toInt());
+
+    /**
+     * The terms of the query as typed.
+     */
+    private final String text;
+
+    /**
+     * The AccountType the Accounts must be; null if any.
+     */
+    private AccountType type;
+
+    /**
+     * The Branch the Accounts must be at; null if any.
+     */
+    private Branch branch;
+
+    /**
+     * The county the Accounts must be in; null if any.
+     */
+    private String county;
+
+    /**
+     * The loyalty status the Accounts must have; null if any.
+     */
+    private Boolean loyal;
+
+    /**
+     * The Campus of the College Checking accounts selected; null if any.
+     */
+    private Campus campus;
+
+    /**
+     * The lowest balance selected.
+     */
+    private double minBalance = Double.NEGATIVE_INFINITY;
+
+    /**
+     * The balance above the highest balance selected.
+     */
+    private double maxBalance = Double.POSITIVE_INFINITY;
+
+    /**
+     * The lowest and one above the highest withdrawal count of the Money Market accounts selected.
+     */
+    private final long[] withdrawals = {Long.MIN_VALUE, Long.MAX_VALUE};
+
+    /**
+     * The lowest and one above the highest term in months of the Certificate Deposits selected.
+     */
+    private final long[] terms = {Long.MIN_VALUE, Long.MAX_VALUE};
+
+    /**
+     * The lowest and one above the highest maturity day, counted from 1/1/1970, of the Certificate Deposits selected.
+     */
+    private final long[] maturities = {Long.MIN_VALUE, Long.MAX_VALUE};
+
+    /**
+     * The compiled test of every term of the query.
+     */
+    private final Predicate<Account> test;
+
+    /**
+     * Parses and compiles the terms of a query.
+     *
+     * @param terms the terms of the query, one per token
+     * @param start index of the first term
+     * @throws IllegalArgumentException if a term cannot be parsed, naming the term
+     */
+    public AccountQuery(String[] terms, int start) {
+        StringBuilder text = new StringBuilder();
+        for (int i = start; i < terms.length; i++) {
+            parse(terms[i]);
+            text.append(text.length() == 0 ? "" : " ").append(terms[i]);
+        }
+        this.text = text.toString();
+        this.test = compile();
+    }
+
+    /**
+     * Returns the terms of the query as typed.
+     *
+     * @return the terms, separated by spaces
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Checks if the query reads its candidates from the balance index instead of scanning the book.
+     *
+     * @return true if the query names a type or a balance bound
+     * false otherwise
+     */
+    public boolean isIndexed() {
+        return type != null || minBalance > Double.NEGATIVE_INFINITY || maxBalance < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the Accounts of an AccountDatabase that meet every term of the query, lowest balance first.
+     *
+     * @param database the AccountDatabase being queried
+     * @return the Accounts selected
+     */
+    public List<Account> run(AccountDatabase database) {
+        if (!isIndexed()) {
+            ArrayList<Account> sorted = new ArrayList<>();
+            for (Account account : database.select(test)) {
+                sorted.add(account);
+            }
+            sorted.sort(BY_BALANCE);
+            List<Account> selected = new List<>();
+            selected.ensureCapacity(sorted.size());
+            for (Account account : sorted) {
+                selected.add(account);
+            }
+            return selected;
+        }
+        List<Account> candidates = type != null
+                ? database.getAggregates().range(type, minBalance, maxBalance)
+                : database.getAggregates().range(minBalance, maxBalance);
+        List<Account> selected = new List<>();
+        for (Account account : candidates) {
+            if (test.test(account)) {
+                selected.add(account);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Parses one term of the query into the field it narrows.
+     *
+     * @param term the term, a field name, a comparison, and a value
+     * @throws IllegalArgumentException if the term cannot be parsed
+     */
+    private void parse(String term) {
+        int at = 0;
+        while (at < term.length() && "<>=".indexOf(term.charAt(at)) == -1) {
+            at++;
+        }
+        int valueAt = at < term.length() - 1 && term.charAt(at + 1) == '=' && term.charAt(at) != '=' ? at + 2 : at + 1;
+        if (at == 0 || valueAt >= term.length()) {
+            throw new IllegalArgumentException(term + " - invalid query term.");
+        }
+        String field = term.substring(0, at).toLowerCase();
+        String comparison = term.substring(at, valueAt);
+        String value = term.substring(valueAt);
+        if (!comparison.equals("=") && !(field.equals("balance") || field.equals("withdrawals")
+                || field.equals("term") || field.equals("maturity"))) {
+            throw new IllegalArgumentException(term + " - " + field + " can only be compared with '='.");
+        }
+        switch (field) {
+            case "type" -> type = require(Validator.toAccountType(value), term);
+            case "branch" -> branch = require(Validator.toBranch(value), term);
+            case "county" -> county = require(county(value), term);
+            case "loyal" -> loyal = require(value.equalsIgnoreCase("true") ? Boolean.TRUE
+                    : value.equalsIgnoreCase("false") ? Boolean.FALSE : null, term);
+            case "campus" -> campus = require(campus(value), term);
+            case "balance" -> {
+                if (Validator.checkAmount(value) == ValidationResult.INVALID_AMOUNT) {
+                    throw new IllegalArgumentException(term + " - invalid query term.");
+                }
+                narrowBalance(comparison, Double.parseDouble(value));
+            }
+            case "withdrawals", "term" -> {
+                if (!value.matches("\\d{1,9}")) {
+                    throw new IllegalArgumentException(term + " - invalid query term.");
+                }
+                narrow(field.equals("term") ? terms : withdrawals, comparison, Integer.parseInt(value));
+            }
+            case "maturity" -> {
+                if (!Validator.checkDate(value).isValid()) {
+                    throw new IllegalArgumentException(term + " - invalid query term.");
+                }
+                narrow(maturities, comparison, TransactionManager.createDate(value).toEpochDay());
+            }
+            default -> throw new IllegalArgumentException(term + " - invalid query term.");
+        }
+    }
+
+    /**
+     * Returns the value of a term, or rejects the term if its value was not recognized.
+     *
+     * @param value the value of the term; null if it was not recognized
+     * @param term  the term
+     * @param <T>   the type of the value
+     * @return the value
+     * @throws IllegalArgumentException if the value is null
+     */
+    private static <T> T require(T value, String term) {
+        if (value == null) {
+            throw new IllegalArgumentException(term + " - invalid query term.");
+        }
+        return value;
+    }
+
+    /**
+     * Finds the county named by a token. Comparison is case-insensitive.
+     *
+     * @param token the name of the county
+     * @return the county as Branch names it, null if no Branch is in it
+     */
+    private static String county(String token) {
+        for (Branch branch : Branch.values()) {
+            if (branch.getCounty().equalsIgnoreCase(token)) {
+                return branch.getCounty();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the Campus named by a code or a name. Comparison of names is case-insensitive.
+     *
+     * @param token the code or name of the Campus
+     * @return the Campus, null if there is no such Campus
+     */
+    private static Campus campus(String token) {
+        Campus campus = Validator.toCampus(token);
+        for (Campus named : Campus.values()) {
+            if (campus == null && named.toString().equalsIgnoreCase(token)) {
+                campus = named;
+            }
+        }
+        return campus;
+    }
+
+    /**
+     * Narrows the balance range by one comparison.
+     *
+     * @param comparison the comparison of the term
+     * @param value      the balance compared with
+     */
+    private void narrowBalance(String comparison, double value) {
+        double above = Math.nextUp(value);
+        switch (comparison) {
+            case "=" -> {
+                minBalance = Math.max(minBalance, value);
+                maxBalance = Math.min(maxBalance, above);
+            }
+            case "<" -> maxBalance = Math.min(maxBalance, value);
+            case "<=" -> maxBalance = Math.min(maxBalance, above);
+            case ">" -> minBalance = Math.max(minBalance, above);
+            default -> minBalance = Math.max(minBalance, value);
+        }
+    }
+
+    /**
+     * Narrows a whole-number range, held as its lowest value and one above its highest, by one comparison.
+     *
+     * @param range      the range being narrowed
+     * @param comparison the comparison of the term
+     * @param value      the number compared with
+     */
+    private static void narrow(long[] range, String comparison, long value) {
+        switch (comparison) {
+            case "=" -> {
+                range[0] = Math.max(range[0], value);
+                range[1] = Math.min(range[1], value + 1);
+            }
+            case "<" -> range[1] = Math.min(range[1], value);
+            case "<=" -> range[1] = Math.min(range[1], value + 1);
+            case ">" -> range[0] = Math.max(range[0], value + 1);
+            default -> range[0] = Math.max(range[0], value);
+        }
+    }
+
+    /**
+     * Checks if a whole-number range has been narrowed by any term.
+     *
+     * @param range the range
+     * @return true if the range is narrower than every long
+     * false otherwise
+     */
+    private static boolean isNarrowed(long[] range) {
+        return range[0] != Long.MIN_VALUE || range[1] != Long.MAX_VALUE;
+    }
+
+    /**
+     * Compiles the terms into one test, chaining a test for each field the query names:
+     * the fields of the account number first, then the balance, then the fields of one kind of Account.
+     *
+     * @return the test an Account must pass to be selected
+     */
+    private Predicate<Account> compile() {
+        List<Predicate<Account>> chain = new List<>();
+        AccountType type = this.type;
+        Branch branch = this.branch;
+        String county = this.county;
+        if (type != null) {
+            chain.add(account -> account.getAccountNumber().getType() == type);
+        }
+        if (branch != null) {
+            chain.add(account -> account.getAccountNumber().getBranch() == branch);
+        }
+        if (county != null) {
+            chain.add(account -> account.getAccountNumber().getBranch().getCounty().equals(county));
+        }
+        double minBalance = this.minBalance;
+        double maxBalance = this.maxBalance;
+        if (minBalance > Double.NEGATIVE_INFINITY || maxBalance < Double.POSITIVE_INFINITY) {
+            chain.add(account -> account.getBalance() >= minBalance && account.getBalance() < maxBalance);
+        }
+        boolean loyal = Boolean.TRUE.equals(this.loyal);
+        if (this.loyal != null) {
+            chain.add(account -> (account instanceof Savings savings && savings.isLoyal()) == loyal);
+        }
+        Campus campus = this.campus;
+        if (campus != null) {
+            chain.add(account -> account instanceof CollegeChecking college && college.getCampus() == campus);
+        }
+        long[] withdrawals = this.withdrawals.clone();
+        if (isNarrowed(withdrawals)) {
+            chain.add(account -> account instanceof MoneyMarket moneyMarket
+                    && moneyMarket.getWithdrawals() >= withdrawals[0] && moneyMarket.getWithdrawals() < withdrawals[1]);
+        }
+        long[] terms = this.terms.clone();
+        if (isNarrowed(terms)) {
+            chain.add(account -> account instanceof CertificateDeposit cd
+                    && cd.getTerm() >= terms[0] && cd.getTerm() < terms[1]);
+        }
+        long[] maturities = this.maturities.clone();
+        if (isNarrowed(maturities)) {
+            chain.add(account -> {
+                if (!(account instanceof CertificateDeposit cd)) {
+                    return false;
+                }
+                int maturity = cd.getOpen().addMonths(cd.getTerm()).toEpochDay();
+                return maturity >= maturities[0] && maturity < maturities[1];
+            });
+        }
+        if (chain.isEmpty()) {
+            return account -> true;
+        }
+        Predicate<Account> test = null;
+        for (Predicate<Account> link : chain) {
+            test = test == null ? link : test.and(link);
+        }
+        return test;
+    }
+}
@@ -0,0 +1,91 @@
+package banking;
+
+import util.List;
+
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+/**
+ * AccountSelection is a fork-join task that collects the Accounts in a range of the AccountDatabase that pass a test.
+ * The range is split in half until it is small enough to scan in one task,
+ * and the halves are joined left to right, so the Accounts come back in the order of the AccountDatabase.
+ * The Accounts are only read, so no locking is needed.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class AccountSelection extends RecursiveTask<List<Account>> {
+
+    /**
+     * Version of the serialized form; tasks are never serialized, but RecursiveTask is Serializable.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Largest number of Accounts scanned by one task without splitting.
+     */
+    private static final int THRESHOLD = 1024;
+
+    /**
+     * The AccountDatabase whose Accounts are scanned.
+     */
+    private final AccountDatabase database;
+
+    /**
+     * The test an Account must pass to be selected.
+     */
+    private final Predicate<Account> test;
+
+    /**
+     * Index of the first Account in the range.
+     */
+    private final int start;
+
+    /**
+     * Index after the last Account in the range.
+     */
+    private final int end;
+
+    /**
+     * Creates an AccountSelection task for a range of Accounts.
+     *
+     * @param database the AccountDatabase whose Accounts are scanned
+     * @param test     the test an Account must pass to be selected
+     * @param start    index of the first Account in the range
+     * @param end      index after the last Account in the range
+     */
+    public AccountSelection(AccountDatabase database, Predicate<Account> test, int start, int end) {
+        this.database = database;
+        this.test = test;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Scans the range, splitting it into two tasks if it is larger than the threshold.
+     *
+     * @return the Accounts in the range that pass the test, in the order of the AccountDatabase
+     */
+    @Override
+    protected List<Account> compute() {
+        if (end - start <= THRESHOLD) {
+            List<Account> selected = new List<>();
+            for (int i = start; i < end; i++) {
+                Account account = database.get(i);
+                if (test.test(account)) {
+                    selected.add(account);
+                }
+            }
+            return selected;
+        }
+        int middle = (start + end) >>> 1;
+        AccountSelection left = new AccountSelection(database, test, start, middle);
+        left.fork();
+        List<Account> right = new AccountSelection(database, test, middle, end).compute();
+        List<Account> selected = left.join();
+        selected.ensureCapacity(selected.size() + right.size());
+        for (Account account : right) {
+            selected.add(account);
+        }
+        return selected;
+    }
+}
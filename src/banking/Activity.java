@@ -15,8 +15,9 @@ public class Activity implements Comparable<Activity> {
 
     /**
      * Formatting numbers for easy readability.
+     * Kept per thread, as every export thread formats the Activities of its statements.
      */
-    private static final DecimalFormat df = new DecimalFormat("#,##0.00");
+    private static final ThreadLocal<DecimalFormat> df = ThreadLocal.withInitial(() -> new DecimalFormat("#,##0.00"));
 
     /**
      * Represents the date of the activity.
@@ -30,7 +31,9 @@ public class Activity implements Comparable<Activity> {
 
     /**
      * Represents the type of activity performed.
-     * The type is denoted by a single character: 'D' for deposit or 'W' for withdrawal.
+     * The type is denoted by a single character: 'D' for deposit, 'W' for withdrawal,
+     * 'I' for posted interest, 'F' for a posted fee, 'S' for money sent by a transfer,
+     * or 'R' for money received by a transfer.
      */
     private char type;
 
@@ -52,7 +55,8 @@ public class Activity implements Comparable<Activity> {
      *
      * @param date     the date of the activity
      * @param location the branch location where the activity took place
-     * @param type     the type of activity, represented as a character ('D' for deposit, 'W' for withdrawal)
+     * @param type     the type of activity, represented as a character ('D' for deposit, 'W' for withdrawal,
+     *                 'I' for interest, 'F' for fee, 'S' for a transfer sent, 'R' for a transfer received)
      * @param amount   the monetary amount involved in the activity
      * @param atm      a boolean indicating whether the activity was performed at an ATM
      */
@@ -76,17 +80,94 @@ public class Activity implements Comparable<Activity> {
         return date.compareTo(o.date);
     }
 
+    /**
+     * Retrieves the date of the Activity.
+     *
+     * @return the date of the Activity
+     */
+    public Date getDate() {
+        return date;
+    }
+
+    /**
+     * Retrieves the Branch where the Activity took place.
+     *
+     * @return the location of the Activity
+     */
+    public Branch getLocation() {
+        return location;
+    }
+
+    /**
+     * Retrieves the type character of the Activity.
+     *
+     * @return 'D', 'W', 'I', 'F', 'S' or 'R'
+     */
+    public char getType() {
+        return type;
+    }
+
+    /**
+     * Checks if the Activity is one half of a transfer between two Accounts.
+     *
+     * @return true if the Activity sent or received money by a transfer
+     * false otherwise
+     */
+    public boolean isTransfer() {
+        return type == 'S' || type == 'R';
+    }
+
+    /**
+     * Retrieves the monetary amount of the Activity.
+     *
+     * @return the amount of the Activity
+     */
+    public double getAmount() {
+        return amount;
+    }
+
+    /**
+     * Checks if the Activity was performed at an ATM.
+     *
+     * @return true if the Activity was performed at an ATM
+     * false otherwise
+     */
+    public boolean isAtm() {
+        return atm;
+    }
+
+    /**
+     * Applies the Activity to an Account as a withdrawal if its type is 'W', or a deposit otherwise.
+     * The Account records its own copy of the Activity.
+     *
+     * @param account the Account the Activity is applied to
+     */
+    public void applyTo(Account account) {
+        if (type == 'W') {
+            account.withdraw(date, location, amount);
+        } else {
+            account.deposit(date, location, amount);
+        }
+    }
+
     /**
      * Converts the Activity object into a formatted string representation.
      * The format includes the date, branch location, ATM indication (if applicable),
-     * transaction type (deposit or withdrawal), and the monetary amount.
+     * transaction type (deposit, withdrawal, interest, fee, or either half of a transfer), and the monetary amount.
      *
      * @return a formatted string representing the Activity object
      */
     @Override
     public String toString() {
-        String transactionType = (type == 'D') ? "deposit" : "withdrawal";
-        return date + "::" + location + (atm ? "[ATM]" : "") + "::" + transactionType + "::$" + df.format(amount);
+        String transactionType = switch (type) {
+            case 'D' -> "deposit";
+            case 'I' -> "interest";
+            case 'F' -> "fee";
+            case 'S' -> "transfer out";
+            case 'R' -> "transfer in";
+            default -> "withdrawal";
+        };
+        return date + "::" + location + (atm ? "[ATM]" : "") + "::" + transactionType + "::$" + df.get().format(amount);
 
     }
 }
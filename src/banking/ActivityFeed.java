@@ -0,0 +1,627 @@
+package banking;
+
+import util.Date;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Scanner;
+
+/**
+ * The ActivityFeed class reads an activities file line by line, keeping the byte offset and line number it has
+ * reached, and saves them to a checkpoint file next to the feed so processing can resume after a failure.
+ * Each run over the feed has a run id, and the run id with a line number is the idempotency key of the Activity
+ * on that line: an Account remembers the last key applied to it, so a line applied after the last checkpoint
+ * is not applied again when the run resumes.
+ * A line that cannot be applied is not fatal: it is written to a dead-letter file next to the feed as
+ * "line,REASON,text" and counted by reason, and the lines after it keep flowing.
+ * The checkpoint is a single line, "run,offset,line,applied,skipped,rejected,rejectsLength,complete",
+ * replaced atomically; the dead-letter file is cut back to the saved length on resume, so no line is rejected twice.
+ * A feed opened to follow a file that is still being written only returns complete lines: a last line without
+ * its terminator is held back until the rest of it arrives, and the end of the feed only means no more has arrived yet.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class ActivityFeed implements Closeable {
+
+    /**
+     * Number of lines between checkpoints, unless the "banking.checkpoint" system property sets another.
+     */
+    public static final int CHECKPOINT_INTERVAL = 10000;
+
+    /**
+     * Number of tokens in an activity line: type, account number, date, branch, and amount.
+     */
+    private static final int ACTIVITY_TOKENS = 5;
+
+    /**
+     * Nanoseconds in one second, for the throughput of the report.
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * Number of bytes read from the feed at a time.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The feed being read.
+     */
+    private final File file;
+
+    /**
+     * The checkpoint file of the feed.
+     */
+    private final File checkpointFile;
+
+    /**
+     * The dead-letter file of the feed.
+     */
+    private final File rejectsFile;
+
+    /**
+     * Number of lines rejected with each reason since the feed was opened, indexed by ValidationResult ordinal.
+     */
+    private final long[] rejectedBy;
+
+    /**
+     * The dead-letter file, positioned at its end; null until a line is rejected.
+     */
+    private FileChannel rejectsChannel;
+
+    /**
+     * Writes the rejected lines to the dead-letter file; null until a line is rejected.
+     */
+    private BufferedWriter rejects;
+
+    /**
+     * The feed, positioned after the bytes in the buffer.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Bytes read from the feed and not yet split into lines.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Bytes of the line being read, without its carriage returns.
+     */
+    private final ByteArrayOutputStream pending;
+
+    /**
+     * True if the feed is still being written, so a line is only returned once its terminator has arrived.
+     */
+    private final boolean follow;
+
+    /**
+     * Id of the run over the feed.
+     */
+    private final long run;
+
+    /**
+     * Line number of the first line read by this ActivityFeed, 1 when the run starts at the top.
+     */
+    private final long firstLine;
+
+    /**
+     * Number of lines between checkpoints.
+     */
+    private final int interval;
+
+    /**
+     * When this ActivityFeed was opened, from System.nanoTime().
+     */
+    private final long started;
+
+    /**
+     * Byte offset after the last line read.
+     */
+    private long offset;
+
+    /**
+     * Number of bytes of the line being read, counting its carriage returns.
+     */
+    private long pendingLength;
+
+    /**
+     * Number of the last line read, counting from 1.
+     */
+    private long line;
+
+    /**
+     * Byte offset after the last line handled; the checkpoint saves this position.
+     */
+    private long doneOffset;
+
+    /**
+     * Number of the last line handled.
+     */
+    private long doneLine;
+
+    /**
+     * Number of Activities applied in the run.
+     */
+    private long applied;
+
+    /**
+     * Number of Activities skipped in the run because their key had already been applied.
+     */
+    private long skipped;
+
+    /**
+     * Number of lines rejected in the run.
+     */
+    private long rejected;
+
+    /**
+     * Opens a feed that has been written in full; see ActivityFeed(File, boolean, boolean).
+     *
+     * @param file   the activities file
+     * @param resume true to continue the last run from its checkpoint, false to start a new run
+     * @throws IOException if the feed or its checkpoint cannot be read
+     */
+    public ActivityFeed(File file, boolean resume) throws IOException {
+        this(file, resume, false);
+    }
+
+    /**
+     * Opens a feed, either at the top with a new run id, or at the position saved by the checkpoint of the last run.
+     * The feed may be a named pipe, which can only be read from the top.
+     *
+     * @param file   the activities file or named pipe
+     * @param resume true to continue the last run from its checkpoint, false to start a new run
+     * @param follow true if the feed is still being written
+     * @throws IOException if the feed or its checkpoint cannot be read
+     */
+    public ActivityFeed(File file, boolean resume, boolean follow) throws IOException {
+        this.file = file;
+        this.checkpointFile = checkpointFile(file);
+        this.rejectsFile = rejectsFile(file);
+        this.rejectedBy = new long[ValidationResult.values().length];
+        this.interval = Integer.getInteger("banking.checkpoint", CHECKPOINT_INTERVAL);
+        this.follow = follow;
+        long[] saved = readCheckpoint(checkpointFile);
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        if (resume && saved != null) {
+            this.run = saved[0];
+            this.offset = saved[1];
+            this.line = saved[2];
+            this.applied = saved[3];
+            this.skipped = saved[4];
+            channel.position(offset);
+            if (saved.length > 6) {
+                this.rejected = saved[5];
+                if (rejectsFile.exists()) {
+                    openRejects(saved[6]);
+                }
+            }
+        } else {
+            this.run = Math.max(System.currentTimeMillis(), saved == null ? 0 : saved[0] + 1);
+            Files.deleteIfExists(rejectsFile.toPath());
+        }
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE).flip();
+        this.pending = new ByteArrayOutputStream();
+        this.doneOffset = offset;
+        this.doneLine = line;
+        this.firstLine = line + 1;
+        this.started = System.nanoTime();
+    }
+
+    /**
+     * Returns the checkpoint file of a feed: the feed's path with ".checkpoint" appended,
+     * with the Branches of the shard in between when the "banking.shard" system property names them.
+     *
+     * @param file the activities file
+     * @return the checkpoint file
+     */
+    static File checkpointFile(File file) {
+        String shard = System.getProperty("banking.shard", "");
+        return new File(file.getPath() + (shard.isEmpty() ? "" : "." + shard) + ".checkpoint");
+    }
+
+    /**
+     * Returns the dead-letter file of a feed: its checkpoint file with ".rejects" in place of ".checkpoint".
+     *
+     * @param file the activities file
+     * @return the dead-letter file
+     */
+    static File rejectsFile(File file) {
+        String checkpoint = checkpointFile(file).getPath();
+        return new File(checkpoint.substring(0, checkpoint.length() - ".checkpoint".length()) + ".rejects");
+    }
+
+    /**
+     * Returns the id of the run.
+     *
+     * @return the run id
+     */
+    public long getRun() {
+        return run;
+    }
+
+    /**
+     * Returns the number of the last line read.
+     *
+     * @return the line number, 0 before the first line
+     */
+    public long getLine() {
+        return line;
+    }
+
+    /**
+     * Returns the number of the last line handled.
+     *
+     * @return the line number, 0 before the first line
+     */
+    public long getDoneLine() {
+        return doneLine;
+    }
+
+    /**
+     * Returns the name of the feed.
+     *
+     * @return the file name
+     */
+    public String getFileName() {
+        return file.getName();
+    }
+
+    /**
+     * Returns the number of the line the run resumed at, 1 if it started at the top.
+     *
+     * @return the first line read
+     */
+    public long getFirstLine() {
+        return firstLine;
+    }
+
+    /**
+     * Returns the number of Activities applied in the run.
+     *
+     * @return the number applied
+     */
+    public long getApplied() {
+        return applied;
+    }
+
+    /**
+     * Returns the number of Activities skipped in the run because they had already been applied.
+     *
+     * @return the number skipped
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Returns the number of lines rejected in the run.
+     *
+     * @return the number rejected
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Returns the number of lines rejected with a reason since the feed was opened.
+     *
+     * @param reason the reason the lines were rejected
+     * @return the number rejected with the reason
+     */
+    public long getRejected(ValidationResult reason) {
+        return rejectedBy[reason.ordinal()];
+    }
+
+    /**
+     * Returns the name of the dead-letter file.
+     *
+     * @return the file name of the rejected lines
+     */
+    public String getRejectsName() {
+        return rejectsFile.getName();
+    }
+
+    /**
+     * Returns the number of bytes of the feed after the last line handled.
+     * A named pipe has no size, so its lag in bytes is always 0.
+     *
+     * @return the number of bytes behind
+     */
+    public long getBytesBehind() {
+        return Math.max(0, file.length() - doneOffset);
+    }
+
+    /**
+     * Estimates the number of lines of the feed after the last line handled,
+     * from the average length of the lines handled so far.
+     *
+     * @return the estimated number of lines behind, 0 before any line has been handled
+     */
+    public long getLinesBehind() {
+        if (doneOffset == 0) {
+            return 0;
+        }
+        return Math.round((double) getBytesBehind() * doneLine / doneOffset);
+    }
+
+    /**
+     * Reads the next line that is not blank and parses it.
+     * When following the feed, returns null if no complete line has arrived yet; calling again later reads on.
+     *
+     * @return the parsed line, null at the end of the feed
+     * @throws IOException if the feed cannot be read
+     */
+    public FeedLine next() throws IOException {
+        while (true) {
+            String text = readLine();
+            if (text == null) {
+                return null;
+            }
+            if (!text.trim().isEmpty()) {
+                return parse(line, offset, text);
+            }
+        }
+    }
+
+    /**
+     * Records that a line, and every line before it, has been handled.
+     *
+     * @param handled the last line handled
+     */
+    public void done(FeedLine handled) {
+        doneOffset = handled.getEnd();
+        doneLine = handled.getLine();
+    }
+
+    /**
+     * Records that the Activity of a line was applied, and that every line before it has been handled.
+     *
+     * @param handled the line whose Activity was applied
+     */
+    public void applied(FeedLine handled) {
+        applied++;
+        done(handled);
+    }
+
+    /**
+     * Records that the Activity of a line was skipped because its key had already been applied,
+     * and that every line before it has been handled.
+     *
+     * @param handled the line whose Activity was skipped
+     */
+    public void skipped(FeedLine handled) {
+        skipped++;
+        done(handled);
+    }
+
+    /**
+     * Returns the number of lines between checkpoints.
+     *
+     * @return the checkpoint interval
+     */
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * Writes a line that cannot be applied to the dead-letter file with its reason,
+     * and records that it, and every line before it, has been handled.
+     *
+     * @param handled the line rejected
+     * @param reason  the reason it cannot be applied
+     * @throws IOException if the dead-letter file cannot be written
+     */
+    public void reject(FeedLine handled, ValidationResult reason) throws IOException {
+        if (rejects == null) {
+            openRejects(0);
+        }
+        rejects.write(handled.getLine() + "," + reason.name() + "," + handled.getText());
+        rejects.newLine();
+        rejected++;
+        rejectedBy[reason.ordinal()]++;
+        done(handled);
+    }
+
+    /**
+     * Returns the number of lines rejected with each reason since the feed was opened, for the reasons with any.
+     *
+     * @return the counts, as "reason count" separated by commas; empty if no line was rejected
+     */
+    public String rejections() {
+        String counts = "";
+        for (ValidationResult reason : ValidationResult.values()) {
+            if (rejectedBy[reason.ordinal()] > 0) {
+                counts += (counts.isEmpty() ? "" : ", ") + reason + " " + rejectedBy[reason.ordinal()];
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Saves the position after the last line handled, replacing the previous checkpoint atomically.
+     * Blank lines after it are read again when the run resumes.
+     * The rejected lines are written out first, and the length of the dead-letter file is saved with the position.
+     *
+     * @param complete true if the whole feed has been handled
+     * @throws IOException if the checkpoint or the dead-letter file cannot be written
+     */
+    public void checkpoint(boolean complete) throws IOException {
+        long rejectsLength = 0;
+        if (rejects != null) {
+            rejects.flush();
+            rejectsChannel.force(false);
+            rejectsLength = rejectsChannel.position();
+        }
+        File temp = new File(checkpointFile.getPath() + ".tmp");
+        Files.writeString(temp.toPath(), run + "," + doneOffset + "," + doneLine + "," + applied + "," + skipped + ","
+                + rejected + "," + rejectsLength + "," + complete + System.lineSeparator(), StandardCharsets.UTF_8);
+        Files.move(temp.toPath(), checkpointFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Returns the progress of the run: the line reached, the Activities applied and skipped, the lines rejected,
+     * and the throughput.
+     *
+     * @return the progress report
+     */
+    public String report() {
+        double seconds = Math.max(System.nanoTime() - started, 1) / NANOS_PER_SECOND;
+        return "\"" + file.getName() + "\" line " + doneLine + ": " + applied + " applied, " + skipped + " skipped, "
+                + rejected + " rejected ("
+                + String.format("%.0f", (doneLine - firstLine + 1) / seconds) + " lines/sec).";
+    }
+
+    /**
+     * Closes the feed.
+     *
+     * @throws IOException if the feed cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        if (rejects != null) {
+            rejects.close();
+        }
+    }
+
+    /**
+     * Returns the id of the run the checkpoint of a feed was saved by.
+     *
+     * @param file the activities file
+     * @return the run id, 0 if the feed has no checkpoint
+     * @throws IOException if the checkpoint cannot be read
+     */
+    static long checkpointedRun(File file) throws IOException {
+        long[] saved = readCheckpoint(checkpointFile(file));
+        return saved == null ? 0 : saved[0];
+    }
+
+    /**
+     * Reads a saved checkpoint.
+     *
+     * @param checkpointFile the checkpoint file
+     * @return the run id, offset, line, applied, and skipped counts, null if there is no checkpoint
+     * @throws IOException if the checkpoint cannot be read
+     */
+    private static long[] readCheckpoint(File checkpointFile) throws IOException {
+        if (!checkpointFile.exists()) {
+            return null;
+        }
+        try (Scanner scanner = new Scanner(checkpointFile, StandardCharsets.UTF_8)) {
+            if (!scanner.hasNextLine()) {
+                return null;
+            }
+            String[] parts = scanner.nextLine().split(",");
+            long[] saved = new long[parts.length - 1];
+            for (int i = 0; i < saved.length; i++) {
+                saved[i] = Long.parseLong(parts[i]);
+            }
+            return saved;
+        }
+    }
+
+    /**
+     * Opens the dead-letter file for appending, cutting it back to a length first.
+     *
+     * @param length the length of the file to keep
+     * @throws IOException if the dead-letter file cannot be opened
+     */
+    private void openRejects(long length) throws IOException {
+        rejectsChannel = FileChannel.open(rejectsFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        rejectsChannel.truncate(length);
+        rejectsChannel.position(rejectsChannel.size());
+        rejects = new BufferedWriter(Channels.newWriter(rejectsChannel, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads the next line, advancing the offset past its line terminator.
+     * A last line without a terminator is returned at the end of the feed unless the feed is being followed,
+     * in which case it is kept until its terminator arrives.
+     *
+     * @return the line without its terminator, null at the end of the feed
+     * @throws IOException if the feed cannot be read
+     */
+    private String readLine() throws IOException {
+        while (true) {
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                pendingLength++;
+                if (b == '\n') {
+                    return takePending();
+                }
+                if (b != '\r') {
+                    pending.write(b);
+                }
+            }
+            buffer.clear();
+            int read = channel.read(buffer);
+            buffer.flip();
+            if (read <= 0) {
+                return follow || pendingLength == 0 ? null : takePending();
+            }
+        }
+    }
+
+    /**
+     * Ends the line being read, advancing the offset past it.
+     *
+     * @return the line without its terminator
+     */
+    private String takePending() {
+        String text = pending.toString(StandardCharsets.UTF_8);
+        offset += pendingLength;
+        line++;
+        pending.reset();
+        pendingLength = 0;
+        return text;
+    }
+
+    /**
+     * Parses an activity line: type, account number, date, branch, and amount, separated by commas.
+     *
+     * @param line the line number
+     * @param end  the byte offset after the line
+     * @param text the line
+     * @return the parsed line, with the reason it is invalid if it is
+     */
+    static FeedLine parse(long line, long end, String text) {
+        String[] parts = text.split(",");
+        if (parts.length < ACTIVITY_TOKENS) {
+            return new FeedLine(line, end, text, ValidationResult.MISSING_TOKENS);
+        }
+        if (!parts[0].equals("D") && !parts[0].equals("W")) {
+            return new FeedLine(line, end, text, ValidationResult.INVALID_ACTIVITY_TYPE);
+        }
+        if (!Validator.checkAccountNumber(parts[1]).isValid()) {
+            return new FeedLine(line, end, text, ValidationResult.INVALID_ACCOUNT_NUMBER);
+        }
+        if (!Validator.checkDate(parts[2]).isValid()) {
+            return new FeedLine(line, end, text, ValidationResult.INVALID_DATE);
+        }
+        Date date = TransactionManager.createDate(parts[2]);
+        if (!date.isValid()) {
+            return new FeedLine(line, end, text, ValidationResult.INVALID_DATE);
+        }
+        Branch branch = Validator.toBranch(parts[3]);
+        if (branch == null) {
+            return new FeedLine(line, end, text, ValidationResult.INVALID_BRANCH);
+        }
+        ValidationResult amount = Validator.checkAmount(parts[4]);
+        if (!amount.isValid()) {
+            return new FeedLine(line, end, text, amount);
+        }
+        Activity activity = new Activity(date, branch, parts[0].charAt(0),
+                Double.parseDouble(parts[4]), true);
+        return new FeedLine(line, end, text, new AccountNumber(parts[1]), activity);
+    }
+}
@@ -0,0 +1,151 @@
+package banking;
+
+import java.text.DecimalFormat;
+
+/**
+ * Summarizes the Activities of one Account in one day or month after they have been compacted:
+ * how many there were, the total credited and debited, and how many took place at the ATM of each Branch.
+ * Deposits and posted interest are credits; withdrawals and posted fees are debits.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class ActivityRollup {
+
+    /**
+     * Formatting numbers for easy readability.
+     * Kept per thread, like the one of Activity.
+     */
+    private static final ThreadLocal<DecimalFormat> df = ThreadLocal.withInitial(() -> new DecimalFormat("#,##0.00"));
+
+    /**
+     * The length of the period summarized.
+     */
+    private final RollupPeriod period;
+
+    /**
+     * The key of the period summarized.
+     */
+    private final int key;
+
+    /**
+     * Number of Activities summarized.
+     */
+    private int count;
+
+    /**
+     * Total of the deposits and posted interest summarized.
+     */
+    private double deposits;
+
+    /**
+     * Total of the withdrawals and posted fees summarized.
+     */
+    private double withdrawals;
+
+    /**
+     * Number of ATM Activities summarized at each Branch, indexed by ordinal; null if there were none.
+     */
+    private int[] atm;
+
+    /**
+     * Creates an empty summary of a period.
+     *
+     * @param period the length of the period
+     * @param key    the key of the period
+     */
+    public ActivityRollup(RollupPeriod period, int key) {
+        this.period = period;
+        this.key = key;
+    }
+
+    /**
+     * Checks if the summary is of the period an Activity falls in.
+     *
+     * @param period   the length of the period
+     * @param activity the Activity
+     * @return true if the Activity belongs in the summary
+     * false otherwise
+     */
+    public boolean covers(RollupPeriod period, Activity activity) {
+        return this.period == period && this.key == period.key(activity.getDate());
+    }
+
+    /**
+     * Adds an Activity to the summary.
+     *
+     * @param activity the Activity being summarized
+     */
+    public void add(Activity activity) {
+        count++;
+        if (activity.getType() == 'W' || activity.getType() == 'F' || activity.getType() == 'S') {
+            withdrawals += activity.getAmount();
+        } else {
+            deposits += activity.getAmount();
+        }
+        if (activity.isAtm()) {
+            if (atm == null) {
+                atm = new int[Branch.values().length];
+            }
+            atm[activity.getLocation().ordinal()]++;
+        }
+    }
+
+    /**
+     * Returns the number of Activities summarized.
+     *
+     * @return the number of Activities
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the total of the deposits and posted interest summarized.
+     *
+     * @return the total credited
+     */
+    public double getDeposits() {
+        return deposits;
+    }
+
+    /**
+     * Returns the total of the withdrawals and posted fees summarized.
+     *
+     * @return the total debited
+     */
+    public double getWithdrawals() {
+        return withdrawals;
+    }
+
+    /**
+     * Returns the number of ATM Activities summarized at a Branch.
+     *
+     * @param branch the Branch of the ATM
+     * @return the number of ATM Activities
+     */
+    public int getAtmCount(Branch branch) {
+        return atm == null ? 0 : atm[branch.ordinal()];
+    }
+
+    /**
+     * Converts the summary into a formatted string: the period, the number of Activities,
+     * the totals credited and debited, and the ATM count of each Branch with any.
+     *
+     * @return a formatted string representing the summary
+     */
+    @Override
+    public String toString() {
+        String text = period.label(key) + "::" + count + (count == 1 ? " activity" : " activities")
+                + "::deposits::$" + df.get().format(deposits) + "::withdrawals::$" + df.get().format(withdrawals);
+        if (atm != null) {
+            String atms = "";
+            for (Branch branch : Branch.values()) {
+                if (atm[branch.ordinal()] > 0) {
+                    atms += (atms.isEmpty() ? "" : ", ") + branch + " " + atm[branch.ordinal()];
+                }
+            }
+            text += "::ATM[" + atms + "]";
+        }
+        return text;
+    }
+}
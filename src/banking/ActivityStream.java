@@ -0,0 +1,229 @@
+package banking;
+
+import util.List;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * The ActivityStream class follows an activities file, or a named pipe, that is still being written,
+ * applying the lines that arrive to an AccountDatabase in small batches on a thread of its own.
+ * A batch ends when it is full or when no complete line is waiting, so a line is applied within one poll
+ * of arriving; each batch is applied and checkpointed while holding the lock of the AccountDatabase,
+ * which commands hold while they run, so a command never sees half a batch.
+ * Lines that cannot be applied go to the dead-letter file of the feed, as they do when the whole file is processed.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class ActivityStream implements Runnable {
+
+    /**
+     * Most lines applied in one batch, unless the "banking.batch" system property sets another.
+     */
+    public static final int BATCH_LINES = 500;
+
+    /**
+     * Milliseconds to wait for more lines once the feed has been read to its end,
+     * unless the "banking.poll" system property sets another.
+     */
+    public static final int POLL_MILLIS = 100;
+
+    /**
+     * Number of polls to wait for the thread to stop before interrupting it.
+     */
+    private static final int STOP_POLLS = 10;
+
+    /**
+     * Nanoseconds in one millisecond, for the latency of the report.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * The AccountDatabase the lines are applied to.
+     */
+    private final AccountDatabase database;
+
+    /**
+     * The feed being followed.
+     */
+    private final ActivityFeed feed;
+
+    /**
+     * Most lines applied in one batch.
+     */
+    private final int batchLines;
+
+    /**
+     * Milliseconds to wait for more lines at the end of the feed.
+     */
+    private final int pollMillis;
+
+    /**
+     * The thread following the feed.
+     */
+    private final Thread thread;
+
+    /**
+     * False once the stream has been asked to stop.
+     */
+    private volatile boolean running;
+
+    /**
+     * The error that ended the stream; null if it did not fail.
+     */
+    private volatile IOException failure;
+
+    /**
+     * Number of batches applied.
+     */
+    private long batches;
+
+    /**
+     * Total nanoseconds from reading the first line of a batch to its checkpoint.
+     */
+    private long totalLatency;
+
+    /**
+     * Most nanoseconds from reading the first line of a batch to its checkpoint.
+     */
+    private long maxLatency;
+
+    /**
+     * Opens a feed to follow, without starting to read it.
+     *
+     * @param database the AccountDatabase the lines are applied to
+     * @param file     the activities file or named pipe
+     * @param resume   true to continue the last run from its checkpoint, false to start a new run
+     * @throws IOException if the feed or its checkpoint cannot be read
+     */
+    public ActivityStream(AccountDatabase database, File file, boolean resume) throws IOException {
+        this.database = database;
+        this.feed = new ActivityFeed(file, resume, true);
+        database.applying(feed);
+        this.batchLines = Math.max(1, Integer.getInteger("banking.batch", BATCH_LINES));
+        this.pollMillis = Math.max(1, Integer.getInteger("banking.poll", POLL_MILLIS));
+        this.thread = new Thread(this, "activity-stream");
+    }
+
+    /**
+     * Starts following the feed.
+     */
+    public void start() {
+        running = true;
+        thread.start();
+    }
+
+    /**
+     * Stops following the feed once the batch being applied is checkpointed, and closes the feed.
+     * May be called while holding the lock of the AccountDatabase, which is released while waiting for the batch.
+     *
+     * @throws IOException if the feed failed or cannot be closed
+     */
+    public void stop() throws IOException {
+        running = false;
+        try {
+            for (int polls = 0; thread.isAlive(); polls++) {
+                if (polls == STOP_POLLS) { // blocked reading a named pipe with no writer
+                    thread.interrupt();
+                }
+                if (Thread.holdsLock(database)) {
+                    database.wait(pollMillis);
+                } else {
+                    thread.join(pollMillis);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        feed.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Checks if the stream is still following the feed.
+     *
+     * @return true if the thread is running
+     * false once it has stopped or failed
+     */
+    public boolean isRunning() {
+        return thread.isAlive();
+    }
+
+    /**
+     * Returns the feed being followed, for its counts.
+     *
+     * @return the ActivityFeed
+     */
+    public ActivityFeed getFeed() {
+        return feed;
+    }
+
+    /**
+     * Reads the feed in batches until the stream is stopped or reading fails.
+     */
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                List<FeedLine> batch = new List<>();
+                long first = System.nanoTime();
+                FeedLine line;
+                while (batch.size() < batchLines && (line = feed.next()) != null) {
+                    if (batch.isEmpty()) {
+                        first = System.nanoTime();
+                    }
+                    batch.add(line);
+                }
+                if (!batch.isEmpty()) {
+                    apply(batch, first);
+                }
+                if (batch.size() < batchLines) {
+                    Thread.sleep(pollMillis);
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the lag of the stream: how far behind the end of the feed it is, and the latency of its batches.
+     *
+     * @return the lag report
+     */
+    public String lag() {
+        synchronized (database) {
+            String latency = batches == 0 ? "no batches" : batches + " batches, "
+                    + String.format("%.1f", totalLatency / NANOS_PER_MILLI / batches) + " ms average, "
+                    + String.format("%.1f", maxLatency / NANOS_PER_MILLI) + " ms max";
+            return (isRunning() ? "Following" : "Stopped following") + " \"" + feed.getFileName() + "\" at line "
+                    + feed.getDoneLine() + ": " + feed.getBytesBehind() + " bytes, ~" + feed.getLinesBehind()
+                    + " lines behind (" + latency + ").";
+        }
+    }
+
+    /**
+     * Applies a batch to the AccountDatabase and checkpoints it, while holding the lock of the AccountDatabase.
+     *
+     * @param batch the lines of the batch
+     * @param first when the first line of the batch was read, from System.nanoTime()
+     * @throws IOException if the checkpoint cannot be written
+     */
+    private void apply(List<FeedLine> batch, long first) throws IOException {
+        synchronized (database) {
+            database.applySegment(feed, batch);
+            database.rollPast(batch);
+            database.force();
+            feed.checkpoint(false);
+            database.getDetector().flush();
+            long latency = System.nanoTime() - first;
+            batches++;
+            totalLatency += latency;
+            maxLatency = Math.max(maxLatency, latency);
+        }
+    }
+}
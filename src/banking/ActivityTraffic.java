@@ -0,0 +1,112 @@
+package banking;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The ActivityTraffic class counts the deposits and withdrawals made at each Branch on each day,
+ * through an ATM or a teller, with their totals, as they are applied to the Accounts of one AccountDatabase.
+ * Each AccountDatabase owns one, handed to every Account it holds; a database restored from storage
+ * counts the Activities in its activity log again, so the counts cover the Accounts it holds.
+ * The counters of a day are one array of longs, two per Branch and kind, so a report over a range of days
+ * reads branches times days counters instead of the activities of every Account,
+ * and the counts are kept when old activities are compacted into ActivityRollups.
+ * Amounts are summed in cents so the totals do not drift, and the counters are atomic,
+ * so shards applying activities in parallel can record traffic at the same Branch.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class ActivityTraffic {
+
+    /**
+     * Kinds of traffic counted at a Branch: ATM deposits, ATM withdrawals, teller deposits, teller withdrawals.
+     */
+    public static final int KINDS = 4;
+
+    /**
+     * Number of cents in a dollar.
+     */
+    private static final double CENTS = 100;
+
+    /**
+     * Counters of each day with traffic, by day counted from 1/1/1970: a count and a total in cents
+     * for each Branch and kind.
+     */
+    private final ConcurrentSkipListMap<Integer, AtomicLongArray> byDay;
+
+    /**
+     * Creates an ActivityTraffic with no traffic counted.
+     */
+    public ActivityTraffic() {
+        this.byDay = new ConcurrentSkipListMap<>();
+    }
+
+    /**
+     * Counts a deposit or withdrawal just applied to an Account. Other Activities are not traffic,
+     * including both halves of a transfer, which move money between Accounts without a visit to a Branch.
+     *
+     * @param activity the deposit or withdrawal
+     */
+    public void record(Activity activity) {
+        if (activity.getType() != 'D' && activity.getType() != 'W') {
+            return;
+        }
+        AtomicLongArray counters = byDay.computeIfAbsent(activity.getDate().toEpochDay(),
+                day -> new AtomicLongArray(Branch.values().length * KINDS * 2));
+        int slot = slot(activity.getLocation(), activity.isAtm(), activity.getType() == 'D');
+        counters.incrementAndGet(slot);
+        counters.addAndGet(slot + 1, Math.round(activity.getAmount() * CENTS));
+    }
+
+    /**
+     * Returns the days with traffic in a range, in order.
+     *
+     * @param from first day of the range, counted from 1/1/1970
+     * @param to   last day of the range, counted from 1/1/1970
+     * @return the days with at least one deposit or withdrawal
+     */
+    public Set<Integer> days(int from, int to) {
+        return from > to ? Set.of() : byDay.subMap(from, true, to, true).keySet();
+    }
+
+    /**
+     * Returns the number of deposits or withdrawals made at a Branch on a day.
+     *
+     * @param day     the day, counted from 1/1/1970
+     * @param branch  the Branch
+     * @param atm     true for ATM traffic, false for teller traffic
+     * @param deposit true for deposits, false for withdrawals
+     * @return the count
+     */
+    public long count(int day, Branch branch, boolean atm, boolean deposit) {
+        AtomicLongArray counters = byDay.get(day);
+        return counters == null ? 0 : counters.get(slot(branch, atm, deposit));
+    }
+
+    /**
+     * Returns the total of the deposits or withdrawals made at a Branch on a day.
+     *
+     * @param day     the day, counted from 1/1/1970
+     * @param branch  the Branch
+     * @param atm     true for ATM traffic, false for teller traffic
+     * @param deposit true for deposits, false for withdrawals
+     * @return the total in dollars
+     */
+    public double total(int day, Branch branch, boolean atm, boolean deposit) {
+        AtomicLongArray counters = byDay.get(day);
+        return counters == null ? 0 : counters.get(slot(branch, atm, deposit) + 1) / CENTS;
+    }
+
+    /**
+     * Returns the index of the count of a Branch and kind in the counters of a day; its total follows it.
+     *
+     * @param branch  the Branch
+     * @param atm     true for ATM traffic, false for teller traffic
+     * @param deposit true for deposits, false for withdrawals
+     * @return the index of the count
+     */
+    private static int slot(Branch branch, boolean atm, boolean deposit) {
+        return (branch.ordinal() * KINDS + (atm ? 0 : 2) + (deposit ? 0 : 1)) * 2;
+    }
+}
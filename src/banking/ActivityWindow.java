@@ -0,0 +1,129 @@
+package banking;
+
+import java.util.Arrays;
+
+/**
+ * The ActivityWindow class holds what the AnomalyDetector remembers about the recent deposits and withdrawals
+ * of one Account: the last day of an ATM withdrawal at each Branch, and the last large deposit
+ * with the amount withdrawn since. It is a few primitives, created the first time the Account is observed,
+ * so each Activity is evaluated in constant time without looking back through the activities of the Account.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class ActivityWindow {
+
+    /**
+     * Day given to a Branch, or to the large deposit, before anything is observed there.
+     */
+    private static final int NEVER = Integer.MIN_VALUE / 2;
+
+    /**
+     * Last day, counted from 1/1/1970, of an ATM withdrawal at each Branch, by ordinal; null until the first one.
+     */
+    private int[] atmDays;
+
+    /**
+     * Day, counted from 1/1/1970, of the last large deposit.
+     */
+    private int depositDay = NEVER;
+
+    /**
+     * Amount of the last large deposit.
+     */
+    private double deposit;
+
+    /**
+     * Amount withdrawn since the last large deposit, within the window.
+     */
+    private double withdrawn;
+
+    /**
+     * Records an ATM withdrawal at a Branch, and checks if it brings the number of Branches
+     * with an ATM withdrawal within a window of days up to a limit.
+     * A Branch only adds one to the count, so the count reaches the limit once per burst.
+     *
+     * @param day    day of the withdrawal, counted from 1/1/1970
+     * @param branch the Branch of the ATM
+     * @param window number of days in the window
+     * @param limit  number of Branches that is a burst
+     * @return true if the count was below the limit before the withdrawal and is at the limit after it
+     * false otherwise
+     */
+    public boolean atmWithdrawal(int day, Branch branch, int window, int limit) {
+        if (atmDays == null) {
+            atmDays = new int[Branch.values().length];
+            Arrays.fill(atmDays, NEVER);
+        }
+        boolean counted = Math.abs(day - atmDays[branch.ordinal()]) < window;
+        atmDays[branch.ordinal()] = Math.max(atmDays[branch.ordinal()], day);
+        return !counted && branches(day, window) == limit;
+    }
+
+    /**
+     * Records a large deposit, which starts a new window for the withdrawals after it.
+     *
+     * @param day    day of the deposit, counted from 1/1/1970
+     * @param amount amount of the deposit
+     */
+    public void largeDeposit(int day, double amount) {
+        depositDay = day;
+        deposit = amount;
+        withdrawn = 0;
+    }
+
+    /**
+     * Records a withdrawal, and checks if it brings the amount withdrawn within a window of days after
+     * the last large deposit up to a share of that deposit.
+     *
+     * @param day    day of the withdrawal, counted from 1/1/1970
+     * @param amount amount of the withdrawal
+     * @param window number of days in the window
+     * @param share  share of the deposit that is passed through
+     * @return true if the amount withdrawn was below the share before the withdrawal and is at or above it after it
+     * false otherwise
+     */
+    public boolean withdrawal(int day, double amount, int window, double share) {
+        if (day < depositDay || day - depositDay >= window) {
+            return false;
+        }
+        double limit = deposit * share;
+        boolean below = withdrawn < limit;
+        withdrawn += amount;
+        return below && withdrawn >= limit;
+    }
+
+    /**
+     * Returns the day of the last large deposit.
+     *
+     * @return the day, counted from 1/1/1970
+     */
+    public int getDepositDay() {
+        return depositDay;
+    }
+
+    /**
+     * Returns the amount of the last large deposit.
+     *
+     * @return the amount
+     */
+    public double getDeposit() {
+        return deposit;
+    }
+
+    /**
+     * Counts the Branches whose last ATM withdrawal is within a window of days of a day, on either side.
+     *
+     * @param day    the day, counted from 1/1/1970
+     * @param window number of days in the window
+     * @return the number of Branches
+     */
+    private int branches(int day, int window) {
+        int count = 0;
+        for (int last : atmDays) {
+            if (Math.abs(day - last) < window) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
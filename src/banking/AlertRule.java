@@ -0,0 +1,19 @@
+package banking;
+
+/**
+ * The AlertRule enum class represents the patterns of deposits and withdrawals the AnomalyDetector raises an alert on.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public enum AlertRule {
+
+    /**
+     * ATM withdrawals from one Account at several Branches within a few days.
+     */
+    ATM_VELOCITY,
+
+    /**
+     * A large deposit followed within a few days by withdrawals of a large share of it.
+     */
+    DEPOSIT_WITHDRAWAL
+}
@@ -0,0 +1,251 @@
+package banking;
+
+import util.Date;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The AnomalyDetector class watches deposits and withdrawals as they are applied, from the teller commands
+ * and from "activities.txt", and raises an alert when an Account follows one of the AlertRules:
+ * ATM withdrawals at several Branches within a few days, or a large deposit mostly withdrawn within a few days.
+ * What it remembers of each Account is kept in a small ActivityWindow, so each Activity is evaluated in constant time.
+ * Each AccountDatabase owns one, which watches the Accounts it holds.
+ * Alerts are appended to a sink file, one line per alert, "date,account,RULE,amount,detail",
+ * through a buffer flushed at every checkpoint of the feed; nothing is detected until a sink is opened.
+ * A thread applying Activities in parallel with others can hold its alerts and hand them back,
+ * so they are written in the order of the lines of the feed rather than the order the threads ran in.
+ * The window, the number of Branches, and the size of a large deposit are read from the
+ * "banking.alert.window", "banking.alert.branches", and "banking.alert.deposit" system properties.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class AnomalyDetector {
+
+    /**
+     * Number of days, counting the day of an Activity, the rules look back over.
+     */
+    public static final int WINDOW_DAYS = Integer.getInteger("banking.alert.window", 2);
+
+    /**
+     * Number of Branches with ATM withdrawals from one Account within the window that raises an alert.
+     */
+    public static final int BRANCHES = Integer.getInteger("banking.alert.branches", 3);
+
+    /**
+     * Smallest deposit watched for withdrawals after it.
+     */
+    public static final double LARGE_DEPOSIT = Double.parseDouble(System.getProperty("banking.alert.deposit", "1000"));
+
+    /**
+     * Share of a large deposit withdrawn within the window that raises an alert.
+     */
+    public static final double PASS_THROUGH = 0.5;
+
+    /**
+     * The file alerts are appended to; null if detection is off.
+     */
+    private volatile File file;
+
+    /**
+     * Buffered writer of the sink file; null if detection is off.
+     */
+    private BufferedWriter sink;
+
+    /**
+     * Number of alerts raised since the sink was opened, by AlertRule ordinal.
+     */
+    private final long[] counts;
+
+    /**
+     * Alerts raised on each thread that is holding them, in the order they were raised; unset if it is not holding.
+     */
+    private final ThreadLocal<ArrayList<String>> held;
+
+    /**
+     * Creates an AnomalyDetector with detection off.
+     */
+    public AnomalyDetector() {
+        this.counts = new long[AlertRule.values().length];
+        this.held = new ThreadLocal<>();
+    }
+
+    /**
+     * Opens the sink, appending to the file, and starts detecting. A sink already open is closed first.
+     *
+     * @param alerts the file alerts are appended to
+     * @throws IOException if the file cannot be opened
+     */
+    public synchronized void open(File alerts) throws IOException {
+        close();
+        sink = Files.newBufferedWriter(alerts.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        Arrays.fill(counts, 0);
+        file = alerts;
+    }
+
+    /**
+     * Returns the sink file of a Transaction Manager: "alerts.txt",
+     * with the Branches of the shard in between when the "banking.shard" system property names them.
+     *
+     * @return the sink file
+     */
+    public static File defaultFile() {
+        String shard = System.getProperty("banking.shard", "");
+        return new File("alerts" + (shard.isEmpty() ? "" : "." + shard) + ".txt");
+    }
+
+    /**
+     * Evaluates a deposit or withdrawal just added to an Account against every AlertRule,
+     * writing an alert to the sink for each rule it follows. Does nothing if detection is off.
+     * The halves of a transfer are skipped, so money moved between the holder's own Accounts is not taken
+     * for cash passing through either of them.
+     * Called through the AccountDatabase holding the Account, while the caller holds whatever lock guards the Account.
+     *
+     * @param account  the Account the Activity was applied to
+     * @param activity the deposit or withdrawal
+     */
+    public void observe(Account account, Activity activity) {
+        if (file == null || activity.isTransfer()) {
+            return;
+        }
+        ActivityWindow window = account.getWindow();
+        int day = activity.getDate().toEpochDay();
+        if (activity.getType() == 'D') {
+            if (activity.getAmount() >= LARGE_DEPOSIT) {
+                window.largeDeposit(day, activity.getAmount());
+            }
+            return;
+        }
+        if (window.withdrawal(day, activity.getAmount(), WINDOW_DAYS, PASS_THROUGH)) {
+            alert(account, activity, AlertRule.DEPOSIT_WITHDRAWAL, String.format("%,.2f deposited %s",
+                    window.getDeposit(), Date.ofEpochDay(window.getDepositDay())));
+        }
+        if (activity.isAtm() && window.atmWithdrawal(day, activity.getLocation(), WINDOW_DAYS, BRANCHES)) {
+            alert(account, activity, AlertRule.ATM_VELOCITY,
+                    BRANCHES + " branches within " + WINDOW_DAYS + " days");
+        }
+    }
+
+    /**
+     * Counts an alert, and writes it to the sink, or keeps it if the current thread is holding its alerts.
+     *
+     * @param account  the Account the alert is about
+     * @param activity the Activity that raised it
+     * @param rule     the AlertRule followed
+     * @param detail   what the rule saw
+     */
+    private void alert(Account account, Activity activity, AlertRule rule, String detail) {
+        String line = activity.getDate() + "," + account.getAccountNumber() + "," + rule.name() + ","
+                + String.format("%.2f", activity.getAmount()) + "," + detail;
+        ArrayList<String> holding = held.get();
+        synchronized (this) {
+            if (sink == null) {
+                return;
+            }
+            counts[rule.ordinal()]++;
+            if (holding == null) {
+                write(line);
+            }
+        }
+        if (holding != null) {
+            holding.add(line);
+        }
+    }
+
+    /**
+     * Starts holding the alerts raised on the current thread instead of writing them.
+     */
+    public void hold() {
+        held.set(new ArrayList<>());
+    }
+
+    /**
+     * Stops holding the alerts raised on the current thread, and returns them.
+     *
+     * @return the alerts raised since the thread started holding them, in the order they were raised
+     */
+    public ArrayList<String> release() {
+        ArrayList<String> alerts = held.get();
+        held.remove();
+        return alerts == null ? new ArrayList<>() : alerts;
+    }
+
+    /**
+     * Writes alerts that were held, already counted, to the sink.
+     *
+     * @param alerts the alerts handed back by release
+     */
+    public synchronized void write(ArrayList<String> alerts) {
+        if (sink == null) {
+            return;
+        }
+        for (String line : alerts) {
+            write(line);
+        }
+    }
+
+    /**
+     * Writes one alert line to the sink, which is open.
+     *
+     * @param line the alert
+     */
+    private void write(String line) {
+        try {
+            sink.write(line);
+            sink.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the buffered alerts to the sink file. Called at every checkpoint of the feed.
+     *
+     * @throws IOException if the sink file cannot be written
+     */
+    public synchronized void flush() throws IOException {
+        if (sink != null) {
+            sink.flush();
+        }
+    }
+
+    /**
+     * Flushes and closes the sink, and stops detecting. Does nothing if detection is off.
+     *
+     * @throws IOException if the sink file cannot be written
+     */
+    public synchronized void close() throws IOException {
+        file = null;
+        if (sink != null) {
+            BufferedWriter closing = sink;
+            sink = null;
+            closing.close();
+        }
+    }
+
+    /**
+     * Returns the alerts raised since the sink was opened, in total and by AlertRule, and the sink file.
+     *
+     * @return the report, or a note that detection is off
+     */
+    public synchronized String report() {
+        if (file == null) {
+            return "Anomaly detection is off.";
+        }
+        long total = 0;
+        StringBuilder byRule = new StringBuilder();
+        for (AlertRule rule : AlertRule.values()) {
+            total += counts[rule.ordinal()];
+            byRule.append(byRule.length() == 0 ? "" : ", ").append(counts[rule.ordinal()]).append(' ').append(rule.name());
+        }
+        return total + " alerts written to \"" + file + "\" (" + byRule + ").";
+    }
+}
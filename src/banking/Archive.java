@@ -24,11 +24,14 @@ public class Archive {
 
     /**
      * Adds an AccountNode object to the front of the linked list instance variable, first.
+     * The serial number of the Account can be reclaimed by its SerialAllocator once the serials run out.
      *
      * @param account object that will be used to create a AccountNode and will be added to the front of the linked list instance variable, first
      * @param close Date object that represents the Date at which the Account was closed
      */
     public void add(Account account, Date close) {
+        AccountNumber number = account.getAccountNumber();
+        SerialAllocator.of(number.getBranch(), number.getType()).archive(number.getSerial());
         AccountNode newNode = new AccountNode(account, close);
         if (first != null) {
             newNode.setNext(first);
@@ -49,4 +52,19 @@ public class Archive {
         }
         System.out.println("*end of list.\n");
     }
+
+    /**
+     * Compacts the activities of every closed Account dated before a horizon into summaries.
+     *
+     * @param horizon the earliest date kept in detail
+     * @param period  the length of the period each summary covers
+     * @return the number of activities compacted
+     */
+    public int compact(Date horizon, RollupPeriod period) {
+        int compacted = 0;
+        for (AccountNode current = first; current != null; current = current.getNext()) {
+            compacted += current.compact(horizon, period);
+        }
+        return compacted;
+    }
 }
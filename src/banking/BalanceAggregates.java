@@ -0,0 +1,379 @@
+package banking;
+
+import util.List;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
+
+/**
+ * The BalanceAggregates class keeps running totals and counts of balances for every Branch and AccountType,
+ * and an index of Accounts ordered by balance.
+ * It is updated by the AccountDatabase whenever an Account is added, removed, or changed,
+ * so totals by Branch, county, or AccountType are answered without scanning the book,
+ * and range and top-N queries only visit the Accounts they return.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class BalanceAggregates {
+
+    /**
+     * Every Branch, indexed by ordinal.
+     */
+    private static final Branch[] BRANCHES = Branch.values();
+
+    /**
+     * Every AccountType, indexed by ordinal.
+     */
+    private static final AccountType[] TYPES = AccountType.values();
+
+    /**
+     * Total balance of the Accounts of each Branch and AccountType, indexed by ordinals.
+     */
+    private final double[][] sums;
+
+    /**
+     * Number of Accounts of each Branch and AccountType, indexed by ordinals.
+     */
+    private final int[][] counts;
+
+    /**
+     * Index entries of every Account, ordered by balance then account number.
+     */
+    private final TreeSet<Entry> byBalance;
+
+    /**
+     * Index entries of the Accounts of each AccountType, ordered by balance then account number.
+     */
+    private final ArrayList<TreeSet<Entry>> byTypeBalance;
+
+    /**
+     * Index entry of each Account, by packed account number, holding the balance it was last recorded with.
+     */
+    private final HashMap<Integer, Entry> entries;
+
+    /**
+     * Looks up an Account by packed account number for range and top-N queries; null while entries hold their Accounts.
+     */
+    private IntFunction<Account> resolver;
+
+    /**
+     * Creates empty BalanceAggregates.
+     */
+    public BalanceAggregates() {
+        this.sums = new double[BRANCHES.length][TYPES.length];
+        this.counts = new int[BRANCHES.length][TYPES.length];
+        this.byBalance = new TreeSet<>();
+        this.byTypeBalance = new ArrayList<>(TYPES.length);
+        for (int i = 0; i < TYPES.length; i++) {
+            this.byTypeBalance.add(new TreeSet<>());
+        }
+        this.entries = new HashMap<>();
+    }
+
+    /**
+     * Stops entries from holding their Accounts, so the index does not keep every Account in memory.
+     * Range and top-N queries look each Account up by number instead.
+     * Must be called before any Account is recorded.
+     *
+     * @param resolver looks up an Account by packed account number
+     */
+    void resolveBy(IntFunction<Account> resolver) {
+        this.resolver = resolver;
+    }
+
+    /**
+     * Records an Account that has been added to the AccountDatabase.
+     *
+     * @param account the Account that was added
+     */
+    public void add(Account account) {
+        Entry entry = new Entry(resolver == null ? account : null, account, account.getBalance());
+        if (entries.putIfAbsent(entry.number, entry) != null) {
+            return;
+        }
+        insert(entry);
+    }
+
+    /**
+     * Removes an Account that has been removed from the AccountDatabase.
+     *
+     * @param account the Account that was removed
+     */
+    public void remove(Account account) {
+        Entry entry = entries.remove(account.getAccountNumber().toInt());
+        if (entry != null) {
+            delete(entry);
+        }
+    }
+
+    /**
+     * Applies the change in balance of an Account since it was last recorded.
+     *
+     * @param account the Account that was changed
+     */
+    public void update(Account account) {
+        Entry entry = entries.get(account.getAccountNumber().toInt());
+        if (entry == null || entry.balance == account.getBalance()) {
+            return;
+        }
+        delete(entry);
+        Entry updated = new Entry(resolver == null ? account : null, account, account.getBalance());
+        entries.put(updated.number, updated);
+        insert(updated);
+    }
+
+    /**
+     * Returns the total balance of the Accounts at a Branch.
+     *
+     * @param branch the Branch being totalled
+     * @return the total balance
+     */
+    public double total(Branch branch) {
+        double total = 0;
+        for (int t = 0; t < TYPES.length; t++) {
+            total += sums[branch.ordinal()][t];
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of Accounts at a Branch.
+     *
+     * @param branch the Branch being counted
+     * @return the number of Accounts
+     */
+    public int count(Branch branch) {
+        int count = 0;
+        for (int t = 0; t < TYPES.length; t++) {
+            count += counts[branch.ordinal()][t];
+        }
+        return count;
+    }
+
+    /**
+     * Returns the total balance of the Accounts of an AccountType.
+     *
+     * @param type the AccountType being totalled
+     * @return the total balance
+     */
+    public double total(AccountType type) {
+        double total = 0;
+        for (int b = 0; b < BRANCHES.length; b++) {
+            total += sums[b][type.ordinal()];
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of Accounts of an AccountType.
+     *
+     * @param type the AccountType being counted
+     * @return the number of Accounts
+     */
+    public int count(AccountType type) {
+        return byTypeBalance.get(type.ordinal()).size();
+    }
+
+    /**
+     * Returns the total balance of the Accounts at the Branches of a county. Comparison is case-insensitive.
+     *
+     * @param county the county being totalled
+     * @return the total balance
+     */
+    public double total(String county) {
+        double total = 0;
+        for (Branch branch : BRANCHES) {
+            if (branch.getCounty().equalsIgnoreCase(county)) {
+                total += total(branch);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of Accounts at the Branches of a county. Comparison is case-insensitive.
+     *
+     * @param county the county being counted
+     * @return the number of Accounts
+     */
+    public int count(String county) {
+        int count = 0;
+        for (Branch branch : BRANCHES) {
+            if (branch.getCounty().equalsIgnoreCase(county)) {
+                count += count(branch);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the Accounts of an AccountType with a balance at least min and less than max, lowest balance first.
+     *
+     * @param type the AccountType of the Accounts
+     * @param min  the lowest balance included
+     * @param max  the balance above the highest balance included
+     * @return the Accounts in the range
+     */
+    public List<Account> range(AccountType type, double min, double max) {
+        List<Account> accounts = new List<>();
+        if (min >= max) {
+            return accounts;
+        }
+        for (Entry entry : byTypeBalance.get(type.ordinal()).subSet(Entry.bound(min), Entry.bound(max))) {
+            accounts.add(account(entry));
+        }
+        return accounts;
+    }
+
+    /**
+     * Returns the Accounts of every AccountType with a balance at least min and less than max, lowest balance first.
+     *
+     * @param min the lowest balance included
+     * @param max the balance above the highest balance included
+     * @return the Accounts in the range
+     */
+    public List<Account> range(double min, double max) {
+        List<Account> accounts = new List<>();
+        if (min >= max) {
+            return accounts;
+        }
+        for (Entry entry : byBalance.subSet(Entry.bound(min), Entry.bound(max))) {
+            accounts.add(account(entry));
+        }
+        return accounts;
+    }
+
+    /**
+     * Returns the Accounts with the highest balances, highest first.
+     *
+     * @param n the number of Accounts to return
+     * @return up to n Accounts
+     */
+    public List<Account> top(int n) {
+        List<Account> accounts = new List<>();
+        Iterator<Entry> iterator = byBalance.descendingIterator();
+        while (accounts.size() < n && iterator.hasNext()) {
+            accounts.add(account(iterator.next()));
+        }
+        return accounts;
+    }
+
+    /**
+     * Returns the Account of an entry, looking it up if the entry does not hold it.
+     *
+     * @param entry an entry of the index
+     * @return the indexed Account
+     */
+    private Account account(Entry entry) {
+        return entry.account != null ? entry.account : resolver.apply(entry.number);
+    }
+
+    /**
+     * Adds an entry to the totals, counts, and indexes.
+     *
+     * @param entry the entry being added
+     */
+    private void insert(Entry entry) {
+        sums[entry.branch][entry.type] += entry.balance;
+        counts[entry.branch][entry.type]++;
+        byBalance.add(entry);
+        byTypeBalance.get(entry.type).add(entry);
+    }
+
+    /**
+     * Removes an entry from the totals, counts, and indexes.
+     *
+     * @param entry the entry being removed
+     */
+    private void delete(Entry entry) {
+        sums[entry.branch][entry.type] -= entry.balance;
+        counts[entry.branch][entry.type]--;
+        byBalance.remove(entry);
+        byTypeBalance.get(entry.type).remove(entry);
+    }
+
+    /**
+     * An index entry: an Account with the balance it was recorded with.
+     * Entries are ordered by balance, then by account number, so no two Accounts are equal.
+     */
+    private static class Entry implements Comparable<Entry> {
+
+        /**
+         * The indexed Account; null for an entry that is only a bound of a range, or when Accounts are looked up by number.
+         */
+        private final Account account;
+
+        /**
+         * The balance of the Account when it was recorded.
+         */
+        private final double balance;
+
+        /**
+         * The packed account number.
+         */
+        private final int number;
+
+        /**
+         * Ordinal of the Branch of the Account.
+         */
+        private final int branch;
+
+        /**
+         * Ordinal of the AccountType of the Account.
+         */
+        private final int type;
+
+        /**
+         * Creates an entry for an Account.
+         *
+         * @param held    the Account held by the entry, null if it is looked up by number
+         * @param account the indexed Account
+         * @param balance the balance of the Account
+         */
+        private Entry(Account held, Account account, double balance) {
+            this.account = held;
+            this.balance = balance;
+            this.number = account.getAccountNumber().toInt();
+            this.branch = account.getAccountNumber().getBranch().ordinal();
+            this.type = account.getType().ordinal();
+        }
+
+        /**
+         * Creates an entry that sorts before every Account with the given balance.
+         *
+         * @param balance the balance of the bound
+         */
+        private Entry(double balance) {
+            this.account = null;
+            this.balance = balance;
+            this.number = Integer.MIN_VALUE;
+            this.branch = -1;
+            this.type = -1;
+        }
+
+        /**
+         * Creates an entry used as a bound of a range.
+         *
+         * @param balance the balance of the bound
+         * @return an entry that sorts before every Account with the balance
+         */
+        private static Entry bound(double balance) {
+            return new Entry(balance);
+        }
+
+        /**
+         * Compares two entries by balance, then by account number.
+         *
+         * @param other the entry being compared to
+         * @return a negative integer, zero, or a positive integer as this entry is before, the same as, or after other
+         */
+        @Override
+        public int compareTo(Entry other) {
+            int cmp = Double.compare(this.balance, other.balance);
+            return cmp != 0 ? cmp : Integer.compare(this.number, other.number);
+        }
+    }
+}
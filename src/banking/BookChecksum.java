@@ -0,0 +1,321 @@
+package banking;
+
+import util.List;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+
+/**
+ * The BookChecksum class keeps a checksum of the state of every Account in the AccountDatabase:
+ * its number, holder, balance, and the loyalty, withdrawal count, campus, or term of its kind of Account.
+ * The checksum of the book is the sum of the hashes of its Accounts, so it does not depend on their order,
+ * and each Branch keeps a Merkle tree over ranges of its account numbers, one leaf per AccountType and range of serials.
+ * A leaf is the sum of the hashes of the Accounts in its range, and a node is a hash of its two children,
+ * so a change to an Account updates its leaf and the nodes above it, a fixed number of steps.
+ * Two checksums are compared from the root of each Branch down, only following the children that differ,
+ * which finds the ranges of account numbers that differ without comparing the Accounts.
+ * It is updated by the AccountDatabase whenever an Account is added, removed, or changed, as the BalanceAggregates are.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class BookChecksum {
+
+    /**
+     * Every Branch, indexed by ordinal.
+     */
+    private static final Branch[] BRANCHES = Branch.values();
+
+    /**
+     * Every AccountType, indexed by ordinal.
+     */
+    private static final AccountType[] TYPES = AccountType.values();
+
+    /**
+     * Number of leaves, each a range of serials, for each AccountType of a Branch.
+     */
+    public static final int LEAVES_PER_TYPE = 16;
+
+    /**
+     * Number of serials in the range of a leaf.
+     */
+    private static final int LEAF_SERIALS = (SerialAllocator.SERIALS + LEAVES_PER_TYPE - 1) / LEAVES_PER_TYPE;
+
+    /**
+     * Number of leaves of the tree of a Branch: the leaves of every AccountType, rounded up to a power of two.
+     */
+    private static final int LEAVES = Integer.highestOneBit(TYPES.length * LEAVES_PER_TYPE * 2 - 1);
+
+    /**
+     * Multiplier of the golden ratio, for mixing fields and children into a hash.
+     */
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Number of cents in a dollar.
+     */
+    private static final double CENTS = 100;
+
+    /**
+     * Merkle tree of each Branch, by ordinal: node 1 is the root, the children of node i are 2i and 2i + 1,
+     * and the leaves are nodes LEAVES to 2 * LEAVES - 1.
+     */
+    private final long[][] trees;
+
+    /**
+     * Hash of each Account, by packed account number, as it was last recorded.
+     */
+    private final HashMap<Integer, Long> hashes;
+
+    /**
+     * Sum of the hashes of every Account.
+     */
+    private long total;
+
+    /**
+     * Number of Accounts recorded.
+     */
+    private int count;
+
+    /**
+     * Creates an empty BookChecksum.
+     */
+    public BookChecksum() {
+        this.trees = new long[BRANCHES.length][2 * LEAVES];
+        this.hashes = new HashMap<>();
+    }
+
+    /**
+     * Records an Account that has been added to the AccountDatabase.
+     *
+     * @param account the Account that was added
+     */
+    public void add(Account account) {
+        long hash = hash(account);
+        if (hashes.putIfAbsent(account.getAccountNumber().toInt(), hash) != null) {
+            return;
+        }
+        count++;
+        apply(account.getAccountNumber(), hash);
+    }
+
+    /**
+     * Removes an Account that has been removed from the AccountDatabase.
+     *
+     * @param account the Account that was removed
+     */
+    public void remove(Account account) {
+        Long hash = hashes.remove(account.getAccountNumber().toInt());
+        if (hash != null) {
+            count--;
+            apply(account.getAccountNumber(), -hash);
+        }
+    }
+
+    /**
+     * Applies the change in state of an Account since it was last recorded.
+     *
+     * @param account the Account that was changed
+     */
+    public void update(Account account) {
+        Long old = hashes.get(account.getAccountNumber().toInt());
+        long hash = hash(account);
+        if (old == null || old == hash) {
+            return;
+        }
+        hashes.put(account.getAccountNumber().toInt(), hash);
+        apply(account.getAccountNumber(), hash - old);
+    }
+
+    /**
+     * Returns the checksum of the book, the same for the same Accounts in any order.
+     *
+     * @return the sum of the hashes of every Account
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Returns the number of Accounts in the checksum.
+     *
+     * @return the number of Accounts
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Returns the root of the Merkle tree of a Branch.
+     *
+     * @param branch the Branch
+     * @return the root hash; 0 if the Branch has no Accounts
+     */
+    public long root(Branch branch) {
+        return trees[branch.ordinal()][1];
+    }
+
+    /**
+     * Returns the ranges of account numbers whose Accounts differ between two checksums,
+     * following only the nodes of each Branch that differ from its root down to its leaves.
+     *
+     * @param other the checksum compared with
+     * @return each range that differs, as the Branch, AccountType, and first and last serial, in tree order
+     */
+    public List<String> diff(BookChecksum other) {
+        List<String> ranges = new List<>();
+        for (Branch branch : BRANCHES) {
+            diff(branch, trees[branch.ordinal()], other.trees[branch.ordinal()], 1, ranges);
+        }
+        return ranges;
+    }
+
+    /**
+     * Writes the checksum to a file: the total and the count, then the leaves of the tree of each Branch.
+     * The file can be read back with load() and compared with the checksum of another book.
+     *
+     * @param file the file written, replacing what it held
+     * @throws IOException if the file cannot be written
+     */
+    public void save(File file) throws IOException {
+        StringBuilder text = new StringBuilder();
+        String newLine = System.lineSeparator();
+        text.append(Long.toHexString(total)).append(',').append(count).append(newLine);
+        for (Branch branch : BRANCHES) {
+            text.append(branch.name());
+            for (int leaf = LEAVES; leaf < 2 * LEAVES; leaf++) {
+                text.append(',').append(Long.toHexString(trees[branch.ordinal()][leaf]));
+            }
+            text.append(newLine);
+        }
+        Files.writeString(file.toPath(), text, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a checksum written by save(), rebuilding the Merkle tree of each Branch from its leaves.
+     * The checksum read can be compared, but not updated, since the hashes of its Accounts are not saved.
+     *
+     * @param file the file read
+     * @return the checksum in the file
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a saved checksum
+     */
+    public static BookChecksum load(File file) throws IOException {
+        java.util.List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        BookChecksum checksum = new BookChecksum();
+        try {
+            String[] head = lines.get(0).split(",");
+            checksum.total = Long.parseUnsignedLong(head[0], 16);
+            checksum.count = Integer.parseInt(head[1]);
+            for (int i = 1; i < lines.size(); i++) {
+                String[] parts = lines.get(i).split(",");
+                long[] tree = checksum.trees[Branch.valueOf(parts[0]).ordinal()];
+                for (int leaf = LEAVES; leaf < 2 * LEAVES; leaf++) {
+                    tree[leaf] = Long.parseUnsignedLong(parts[leaf - LEAVES + 1], 16);
+                }
+                for (int node = LEAVES - 1; node >= 1; node--) {
+                    tree[node] = combine(tree[2 * node], tree[2 * node + 1]);
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(file + " is not a saved checksum.", e);
+        }
+        return checksum;
+    }
+
+    /**
+     * Adds a change in hash to the book, to the leaf of an account number, and to every node above the leaf.
+     *
+     * @param number the account number of the Account that changed
+     * @param delta  the new hash less the old hash of the Account
+     */
+    private void apply(AccountNumber number, long delta) {
+        total += delta;
+        long[] tree = trees[number.getBranch().ordinal()];
+        int node = LEAVES + number.getType().ordinal() * LEAVES_PER_TYPE + number.getSerial() / LEAF_SERIALS;
+        tree[node] += delta;
+        for (node >>= 1; node >= 1; node >>= 1) {
+            tree[node] = combine(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Follows the nodes of a Branch that differ between two trees down to the leaves, collecting their ranges.
+     *
+     * @param branch the Branch of the trees
+     * @param tree   the tree of the Branch in this checksum
+     * @param other  the tree of the Branch in the other checksum
+     * @param node   the node being compared
+     * @param ranges the ranges that differ, added to
+     */
+    private static void diff(Branch branch, long[] tree, long[] other, int node, List<String> ranges) {
+        if (tree[node] == other[node]) {
+            return;
+        }
+        if (node < LEAVES) {
+            diff(branch, tree, other, 2 * node, ranges);
+            diff(branch, tree, other, 2 * node + 1, ranges);
+            return;
+        }
+        int leaf = node - LEAVES;
+        int first = leaf % LEAVES_PER_TYPE * LEAF_SERIALS;
+        int last = Math.min(first + LEAF_SERIALS, SerialAllocator.SERIALS) - 1;
+        ranges.add(branch + " " + TYPES[leaf / LEAVES_PER_TYPE] + " " + String.format("%04d-%04d", first, last));
+    }
+
+    /**
+     * Returns the hash of the state of an Account.
+     * The same state hashes the same in any run, since only the hashes of Strings, which are fixed, are used.
+     *
+     * @param account the Account
+     * @return the hash
+     */
+    private static long hash(Account account) {
+        Profile holder = account.getHolder();
+        long hash = mix(account.getAccountNumber().toInt(), holder.getFirstName().hashCode());
+        hash = mix(hash, holder.getLastName().hashCode());
+        hash = mix(hash, holder.getDateOfBirth().toEpochDay());
+        hash = mix(hash, Math.round(account.getBalance() * CENTS));
+        if (account instanceof Savings savings) {
+            hash = mix(hash, savings.isLoyal() ? 1 : 0);
+        }
+        if (account instanceof MoneyMarket moneyMarket) {
+            hash = mix(hash, moneyMarket.getWithdrawals());
+        }
+        if (account instanceof CollegeChecking college) {
+            hash = mix(hash, college.getCampus().ordinal());
+        }
+        if (account instanceof CertificateDeposit cd) {
+            hash = mix(hash, cd.getTerm());
+            hash = mix(hash, cd.getOpen().toEpochDay());
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the hash of the two children of a node, in order; two empty children hash to 0.
+     *
+     * @param left  the hash of the left child
+     * @param right the hash of the right child
+     * @return the hash of the node
+     */
+    private static long combine(long left, long right) {
+        return left == 0 && right == 0 ? 0 : mix(left, right);
+    }
+
+    /**
+     * Mixes a value into a hash with the finalizer of SplitMix64, so every bit of both affects every bit of the result.
+     *
+     * @param hash  the hash so far
+     * @param value the value mixed in
+     * @return the new hash
+     */
+    private static long mix(long hash, long value) {
+        long z = hash * GOLDEN + value;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,112 @@
+package banking;
+
+import java.util.Collection;
+import java.util.TreeMap;
+
+/**
+ * The BranchShard class holds the Accounts of one Branch in a PartitionedAccountDatabase.
+ * Accounts are kept in order of their packed account number, which orders them by AccountType and then serial,
+ * so reports read a shard in order without sorting it.
+ * A shard is also the lock for its Accounts: bulk jobs and single-account changes synchronize on the shard,
+ * so jobs on different Branches run at the same time.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class BranchShard {
+
+    /**
+     * Number of packed account numbers covered by one AccountType of a Branch: the 4-digit serials.
+     */
+    private static final int TYPE_RANGE = SerialAllocator.SERIALS;
+
+    /**
+     * Number of packed account numbers covered by one Branch: 2-digit type codes followed by 4-digit serials.
+     */
+    private static final int BRANCH_RANGE = 100 * TYPE_RANGE;
+
+    /**
+     * The Branch whose Accounts are held.
+     */
+    private final Branch branch;
+
+    /**
+     * The Accounts of the Branch, by packed account number.
+     */
+    private final TreeMap<Integer, Account> accounts;
+
+    /**
+     * Creates an empty BranchShard.
+     *
+     * @param branch the Branch whose Accounts are held
+     */
+    public BranchShard(Branch branch) {
+        this.branch = branch;
+        this.accounts = new TreeMap<>();
+    }
+
+    /**
+     * Returns the Branch whose Accounts are held.
+     *
+     * @return the Branch of the shard
+     */
+    public Branch getBranch() {
+        return branch;
+    }
+
+    /**
+     * Adds an Account to the shard.
+     *
+     * @param account the Account to be added
+     */
+    public void add(Account account) {
+        accounts.put(account.getAccountNumber().toInt(), account);
+    }
+
+    /**
+     * Removes an Account from the shard.
+     *
+     * @param account the Account to be removed
+     */
+    public void remove(Account account) {
+        accounts.remove(account.getAccountNumber().toInt());
+    }
+
+    /**
+     * Returns the Account with a packed account number.
+     *
+     * @param packed the packed account number
+     * @return the Account, null if it is not in the shard
+     */
+    public Account get(int packed) {
+        return accounts.get(packed);
+    }
+
+    /**
+     * Returns the number of Accounts in the shard.
+     *
+     * @return the number of Accounts
+     */
+    public int size() {
+        return accounts.size();
+    }
+
+    /**
+     * Returns every Account in the shard in order of account number.
+     *
+     * @return a read-only view of the Accounts
+     */
+    public Collection<Account> accounts() {
+        return accounts.values();
+    }
+
+    /**
+     * Returns the Accounts of an AccountType in order of account number.
+     *
+     * @param type the AccountType of the Accounts
+     * @return a read-only view of the Accounts of the type
+     */
+    public Collection<Account> accounts(AccountType type) {
+        int from = Integer.parseInt(branch.getBranchCode()) * BRANCH_RANGE + Integer.parseInt(type.getCode()) * TYPE_RANGE;
+        return accounts.subMap(from, from + TYPE_RANGE).values();
+    }
+}
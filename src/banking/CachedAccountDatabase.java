@@ -0,0 +1,466 @@
+package banking;
+
+import util.Date;
+import util.List;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * The CachedAccountDatabase class is an AccountDatabase whose Accounts live in a MappedAccountStore,
+ * with only the most used ones, and the Activities they hold, kept in memory by an AccountCache.
+ * The list holds the slot of each Account; looking an Account up by index reads it through the cache,
+ * and every change the AccountDatabase makes marks the cached Account as changed,
+ * so it is written back when it is evicted or when the program exits.
+ * The aggregates look Accounts up by number instead of holding them, so they do not keep the book in memory.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class CachedAccountDatabase extends AccountDatabase {
+
+    /**
+     * Number of slots the list starts with; it doubles whenever it is full.
+     */
+    private static final int STARTING_SIZE = 64;
+
+    /**
+     * The store holding the records of the Accounts.
+     */
+    private final MappedAccountStore store;
+
+    /**
+     * The Accounts of the store that are kept in memory.
+     */
+    private final AccountCache cache;
+
+    /**
+     * Slot of the Account at each index of the list.
+     */
+    private int[] slots;
+
+    /**
+     * Packed account number of the Account at each index of the list.
+     */
+    private int[] numbers;
+
+    /**
+     * Number of Accounts in the list.
+     */
+    private int count;
+
+    /**
+     * Index of each Account in the list, by packed account number.
+     */
+    private final HashMap<Integer, Integer> positions;
+
+    /**
+     * Slot of each Account in the store, by packed account number.
+     */
+    private final HashMap<Integer, Integer> slotOf;
+
+    /**
+     * Number of Accounts of each AccountType held by each holder, indexed by AccountType ordinal,
+     * so opening an Account checks the holder's other Accounts without reading them.
+     */
+    private final HashMap<Profile, int[]> holdings;
+
+    /**
+     * Constructs a CachedAccountDatabase over the store at a path.
+     * Changed Accounts still in the cache are written back when the program exits.
+     *
+     * @param file     the record file of the store
+     * @param capacity the most bytes the cached Accounts may take
+     * @throws UncheckedIOException if the store cannot be opened
+     */
+    public CachedAccountDatabase(File file, long capacity) {
+        super();
+        try {
+            this.store = new MappedAccountStore(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.store.setDatabase(this);
+        this.cache = new AccountCache(store, capacity);
+        this.slots = new int[STARTING_SIZE];
+        this.numbers = new int[STARTING_SIZE];
+        this.positions = new HashMap<>();
+        this.slotOf = new HashMap<>();
+        this.holdings = new HashMap<>();
+        getAggregates().resolveBy(number -> {
+            Integer index = positions.get(number);
+            return index == null ? null : get(index);
+        });
+        Runtime.getRuntime().addShutdownHook(new Thread(this::force));
+    }
+
+    /**
+     * Returns the cache of the AccountDatabase, for its metrics.
+     *
+     * @return the AccountCache
+     */
+    public AccountCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Returns the number of Accounts in the AccountDatabase.
+     *
+     * @return the number of Accounts
+     */
+    @Override
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Checks if the AccountDatabase has no Accounts.
+     *
+     * @return true if there are no Accounts
+     * false otherwise
+     */
+    @Override
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Returns the Account at an index, reading it through the cache.
+     *
+     * @param index the index of the Account
+     * @return the Account at the index
+     */
+    @Override
+    public Account get(int index) {
+        return cache.get(slots[index]);
+    }
+
+    /**
+     * Places an Account of the AccountDatabase at an index, as when the list is sorted.
+     *
+     * @param index   the index the Account is placed at
+     * @param account an Account of the AccountDatabase
+     */
+    @Override
+    public void set(int index, Account account) {
+        int number = account.getAccountNumber().toInt();
+        slots[index] = slotOf.get(number);
+        numbers[index] = number;
+        positions.put(number, index);
+    }
+
+    /**
+     * Appends an Account's record to the store and adds its slot to the end of the list.
+     * It is prepared as AccountDatabase.add prepares it, starting to accrue on the book day and counting its traffic.
+     *
+     * @param account the Account to be added
+     */
+    @Override
+    public void add(Account account) {
+        int number = account.getAccountNumber().toInt();
+        if (positions.containsKey(number)) {
+            return;
+        }
+        adopt(account);
+        int slot;
+        try {
+            slot = store.append(account);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        cache.put(slot, account);
+        append(number, slot);
+        hold(account, 1);
+        getAggregates().add(account);
+        getChecksum().add(account);
+    }
+
+    /**
+     * Removes an Account from the list, moving the last Account into its place, and marks its record as removed.
+     *
+     * @param account the Account to be removed
+     */
+    @Override
+    public void remove(Account account) {
+        int number = account.getAccountNumber().toInt();
+        Integer index = positions.remove(number);
+        if (index == null) {
+            return;
+        }
+        int slot = slotOf.remove(number);
+        count--;
+        if (index < count) {
+            slots[index] = slots[count];
+            numbers[index] = numbers[count];
+            positions.put(numbers[index], index);
+        }
+        cache.remove(slot);
+        store.delete(slot);
+        hold(account, -1);
+        getAggregates().remove(account);
+        getChecksum().remove(account);
+    }
+
+    /**
+     * Moves a closed Account to the Archive and marks its record as closed, so it is read back into the Archive.
+     *
+     * @param account   the closed Account
+     * @param closeDate the Date on which the account is closed
+     */
+    @Override
+    protected void moveToArchive(Account account, Date closeDate) {
+        Integer slot = slotOf.get(account.getAccountNumber().toInt());
+        super.moveToArchive(account, closeDate);
+        if (slot == null) {
+            return;
+        }
+        try {
+            store.close(slot, account, closeDate);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Checks if an Account is in the AccountDatabase.
+     *
+     * @param account the Account being searched for
+     * @return true if an Account with the same number is in the AccountDatabase
+     * false otherwise
+     */
+    @Override
+    public boolean contains(Account account) {
+        return positions.containsKey(account.getAccountNumber().toInt());
+    }
+
+    /**
+     * Returns the index of an Account in the AccountDatabase.
+     *
+     * @param account the Account being searched for
+     * @return the index of the Account, -1 if it is not in the AccountDatabase
+     */
+    @Override
+    public int indexOf(Account account) {
+        return find(account.getAccountNumber());
+    }
+
+    /**
+     * Returns an iterator that reads each Account through the cache.
+     *
+     * @return an iterator over the Accounts in list order
+     */
+    @Override
+    public Iterator<Account> iterator() {
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public Account next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(next++);
+            }
+        };
+    }
+
+    /**
+     * Finds the index of an Account without reading any Account.
+     *
+     * @param accountNumber that is being searched for
+     * @return index of the Account in the AccountDatabase when found,
+     * -1 otherwise
+     */
+    @Override
+    public int find(AccountNumber accountNumber) {
+        Integer index = positions.get(accountNumber.toInt());
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Checks if an Account is in the AccountDatabase without reading any Account.
+     *
+     * @param accountNumber that is being searched for
+     * @return true if Account is found in AccountDatabase
+     * false otherwise
+     */
+    @Override
+    public boolean contains(AccountNumber accountNumber) {
+        return positions.containsKey(accountNumber.toInt());
+    }
+
+    /**
+     * Checks if a holder has an Account of a type without reading any Account.
+     *
+     * @param holder Profile object representing the account holder to search for
+     * @param type   AccountType object representing the type of account to search for
+     * @return true if the holder has an Account of the type,
+     * false otherwise
+     */
+    @Override
+    public boolean contains(Profile holder, AccountType type) {
+        int[] counts = holdings.get(holder);
+        return counts != null && counts[type.ordinal()] > 0;
+    }
+
+    /**
+     * Marks the Account at an index as changed in the cache.
+     *
+     * @param index index of the changed Account
+     */
+    @Override
+    protected void changed(int index) {
+        super.changed(index);
+        cache.update(slots[index], get(index));
+    }
+
+    /**
+     * Accrues interest on every Account, marking each as changed so the accrual is not lost on eviction.
+     *
+     * @param date the date through which interest is accrued
+     */
+    @Override
+    public void accrueInterest(Date date) {
+        for (int i = 0; i < count; i++) {
+            get(i).accrue(date);
+            changed(i);
+        }
+    }
+
+    /**
+     * Starts a new statement cycle for every Account, marking each as changed so the reset is not lost on eviction.
+     */
+    @Override
+    public void startCycle() {
+        for (int i = 0; i < count; i++) {
+            get(i).startCycle();
+            changed(i);
+        }
+    }
+
+    /**
+     * Posts interest and fees to every Account one at a time, since the cache is shared by every lookup.
+     *
+     * @param date the date of the posting
+     * @return the number of Accounts posted
+     */
+    @Override
+    public int postInterest(Date date) {
+        int posted = 0;
+        for (int i = 0; i < count; i++) {
+            if (get(i).post(date)) {
+                posted++;
+            }
+            changed(i);
+        }
+        return posted;
+    }
+
+    /**
+     * Returns the Accounts that pass a test, scanning one at a time, since the cache is shared by every lookup.
+     *
+     * @param test the test an Account must pass
+     * @return the Accounts that pass the test, in list order
+     */
+    @Override
+    public List<Account> select(Predicate<Account> test) {
+        List<Account> selected = new List<>();
+        for (int i = 0; i < count; i++) {
+            Account account = get(i);
+            if (test.test(account)) {
+                selected.add(account);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Reads the Accounts back from the store through the cache, and the closed ones into the Archive,
+     * counting their stored deposits and withdrawals in the traffic again,
+     * or loads them from the text file if the store is empty.
+     * Only the Accounts that fit in the cache stay in memory.
+     *
+     * @param file the File object containing account information to load
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    @Override
+    public void loadAccounts(File file) throws IOException {
+        if (store.slots() == 0) {
+            super.loadAccounts(file);
+            store.force();
+            return;
+        }
+        for (int slot = 0; slot < store.slots(); slot++) {
+            if (store.isLive(slot)) {
+                Account account = cache.get(slot);
+                append(account.getAccountNumber().toInt(), slot);
+                hold(account, 1);
+                getAggregates().add(account);
+                getChecksum().add(account);
+            }
+        }
+        for (int slot : store.closedSlots()) {
+            restoreToArchive(store.read(slot), store.closeDate(slot));
+        }
+        store.countTraffic(getTraffic());
+    }
+
+    /**
+     * Checks if the Accounts outlive the Transaction Manager; they are kept in the store.
+     *
+     * @return true
+     */
+    @Override
+    public boolean isPersistent() {
+        return true;
+    }
+
+    /**
+     * Writes every changed Account in the cache back to the store and forces the store to the storage device.
+     */
+    @Override
+    public void force() {
+        cache.flush();
+        store.force();
+    }
+
+    /**
+     * Counts an Account in or out of its holder's holdings, and in or out of the name index.
+     *
+     * @param account the Account added or removed
+     * @param delta   1 when the Account is added, -1 when it is removed
+     */
+    private void hold(Account account, int delta) {
+        int[] counts = holdings.computeIfAbsent(account.getHolder(), holder -> new int[AccountType.values().length]);
+        counts[account.getAccountNumber().getType().ordinal()] += delta;
+        indexHolder(account.getHolder(), counts, delta);
+    }
+
+    /**
+     * Adds a slot to the end of the list, doubling it when it is full.
+     *
+     * @param number the packed account number of the Account
+     * @param slot   the slot of the Account
+     */
+    private void append(int number, int slot) {
+        if (count == slots.length) {
+            slots = Arrays.copyOf(slots, count * 2);
+            numbers = Arrays.copyOf(numbers, count * 2);
+        }
+        slots[count] = slot;
+        numbers[count] = number;
+        positions.put(number, count);
+        slotOf.put(number, slot);
+        count++;
+    }
+}
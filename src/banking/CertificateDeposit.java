@@ -85,6 +85,21 @@ public class CertificateDeposit extends Savings {
         this.isLoyal = false;
     }
 
+    /**
+     * Constructs a CertificateDeposit read back from storage, with its stored account number.
+     *
+     * @param number  the stored account number
+     * @param holder  the profile of the account holder
+     * @param term    the term duration of the certificate deposit in months
+     * @param open    the date when the certificate deposit account was opened
+     * @param balance the stored balance of the certificate deposit
+     */
+    CertificateDeposit(AccountNumber number, Profile holder, int term, Date open, double balance) {
+        super(number, holder, balance);
+        this.term = term;
+        this.open = open;
+    }
+
     /**
      * Retrieves the opening date of the certificate deposit account.
      *
@@ -125,6 +140,28 @@ public class CertificateDeposit extends Savings {
         }
     }
 
+    /**
+     * Returns the day a Certificate Deposit that has never accrued starts accruing from: the day it was opened.
+     *
+     * @param date the first date it is accrued through
+     * @return the open day, counted from 1/1/1970
+     */
+    @Override
+    protected int cycleStart(Date date) {
+        return this.open.toEpochDay();
+    }
+
+    /**
+     * Starts accruing from the day the Certificate Deposit was opened, even when it is opened into a book
+     * already rolled forward.
+     *
+     * @param day the day, counted from 1/1/1970, the book was rolled to
+     */
+    @Override
+    void startAccruing(int day) {
+        super.startAccruing(this.open.toEpochDay());
+    }
+
     /**
      * Determines the interest rate applicable for the certificate deposit based on the term duration.
      *
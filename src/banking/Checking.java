@@ -39,6 +39,17 @@ public class Checking extends Account {
         super(branch, type, holder, balance);
     }
 
+    /**
+     * Constructs a Checking account read back from storage, with its stored account number.
+     *
+     * @param number  The stored account number.
+     * @param holder  The profile of the account holder.
+     * @param balance The stored balance of the account.
+     */
+    Checking(AccountNumber number, Profile holder, double balance) {
+        super(number, holder, balance);
+    }
+
     /**
      * Retrieves the annual interest rate applicable to the Checking account type.
      *
@@ -32,6 +32,28 @@ public class CollegeChecking extends Checking {
         this.campus = campus;
     }
 
+    /**
+     * Constructs a CollegeChecking account read back from storage, with its stored account number.
+     *
+     * @param number  the stored account number
+     * @param holder  the profile of the account holder
+     * @param campus  the campus associated with the account
+     * @param balance the stored balance of the account
+     */
+    CollegeChecking(AccountNumber number, Profile holder, Campus campus, double balance) {
+        super(number, holder, balance);
+        this.campus = campus;
+    }
+
+    /**
+     * Returns the campus associated with the account.
+     *
+     * @return the Campus of the account
+     */
+    public Campus getCampus() {
+        return campus;
+    }
+
     /**
      * Overrides the fee method to calculate the account's monthly fee.
      * For the CollegeChecking account, no fee is applied.
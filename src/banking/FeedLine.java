@@ -0,0 +1,139 @@
+package banking;
+
+/**
+ * The FeedLine class is one line of an ActivityFeed: its line number, the byte offset after it, its text,
+ * and either the AccountNumber and Activity it holds or the reason it could not be parsed.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class FeedLine {
+
+    /**
+     * The line number, counting from 1.
+     */
+    private final long line;
+
+    /**
+     * The byte offset after the line and its terminator.
+     */
+    private final long end;
+
+    /**
+     * The text of the line.
+     */
+    private final String text;
+
+    /**
+     * The account number of the Activity; null if the line is invalid.
+     */
+    private final AccountNumber number;
+
+    /**
+     * The Activity on the line; null if the line is invalid.
+     */
+    private final Activity activity;
+
+    /**
+     * VALID, or the reason the line could not be parsed.
+     */
+    private final ValidationResult reason;
+
+    /**
+     * Creates a line holding an Activity.
+     *
+     * @param line     the line number
+     * @param end      the byte offset after the line
+     * @param text     the text of the line
+     * @param number   the account number of the Activity
+     * @param activity the Activity
+     */
+    public FeedLine(long line, long end, String text, AccountNumber number, Activity activity) {
+        this.line = line;
+        this.end = end;
+        this.text = text;
+        this.number = number;
+        this.activity = activity;
+        this.reason = ValidationResult.VALID;
+    }
+
+    /**
+     * Creates a line that could not be parsed.
+     *
+     * @param line   the line number
+     * @param end    the byte offset after the line
+     * @param text   the text of the line
+     * @param reason the reason the line is invalid
+     */
+    public FeedLine(long line, long end, String text, ValidationResult reason) {
+        this.line = line;
+        this.end = end;
+        this.text = text;
+        this.number = null;
+        this.activity = null;
+        this.reason = reason;
+    }
+
+    /**
+     * Returns the line number.
+     *
+     * @return the line number, counting from 1
+     */
+    public long getLine() {
+        return line;
+    }
+
+    /**
+     * Returns the byte offset after the line.
+     *
+     * @return the offset of the next line
+     */
+    public long getEnd() {
+        return end;
+    }
+
+    /**
+     * Returns the text of the line.
+     *
+     * @return the line as read
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Returns the account number of the Activity.
+     *
+     * @return the AccountNumber, null if the line is invalid
+     */
+    public AccountNumber getNumber() {
+        return number;
+    }
+
+    /**
+     * Returns the Activity on the line.
+     *
+     * @return the Activity, null if the line is invalid
+     */
+    public Activity getActivity() {
+        return activity;
+    }
+
+    /**
+     * Returns VALID, or the reason the line could not be parsed.
+     *
+     * @return the ValidationResult of the line
+     */
+    public ValidationResult getReason() {
+        return reason;
+    }
+
+    /**
+     * Checks if the line holds an Activity.
+     *
+     * @return true if the line was parsed
+     * false otherwise
+     */
+    public boolean isValid() {
+        return reason.isValid();
+    }
+}
@@ -0,0 +1,515 @@
+package banking;
+
+import util.List;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+
+/**
+ * The HolderIndex class finds account holders by a part of their last name, or by a misspelling of it.
+ * Holders are kept in a trie over their last names folded to lower case, so a prefix is answered by walking
+ * to its node and listing the holders below it in name order, stopping after the number asked for.
+ * Every folded last name is also indexed by its trigrams, padded with '$' at both ends,
+ * so a misspelled name is answered by counting the trigrams each last name shares with it,
+ * and measuring the edit distance of only the names that share enough of them to be close;
+ * a name too short for its trigrams to find every close name is answered by a bounded walk of the trie instead.
+ * The AccountDatabase adds a holder when their first Account is opened and removes them when their last one is closed.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class HolderIndex {
+
+    /**
+     * Length of the n-grams of the fuzzy index.
+     */
+    private static final int GRAM = 3;
+
+    /**
+     * Character padding both ends of a name before it is split into trigrams.
+     */
+    private static final char PAD = '$';
+
+    /**
+     * Longest name, in letters, searched with one edit; longer names are searched with two.
+     */
+    private static final int SHORT_NAME = 5;
+
+    /**
+     * Name id of a node where no holder's last name ends.
+     */
+    private static final int NO_NAME = -1;
+
+    /**
+     * Number of name ids the index starts with; it doubles whenever they run out.
+     */
+    private static final int STARTING_NAMES = 64;
+
+    /**
+     * A node of the trie: the holders whose last name ends here, and the nodes of the next letters.
+     */
+    private static class Node {
+
+        /**
+         * The next letters, in order.
+         */
+        private char[] letters = new char[0];
+
+        /**
+         * The node of each next letter.
+         */
+        private Node[] children = new Node[0];
+
+        /**
+         * The holders whose folded last name ends at this node, ordered by Profile; null if there are none.
+         */
+        private ArrayList<Profile> holders;
+
+        /**
+         * Id of the folded last name ending at this node in the trigram index; NO_NAME if no holder ends here.
+         */
+        private int name = NO_NAME;
+
+        /**
+         * Returns the node of a next letter.
+         *
+         * @param letter the next letter
+         * @return the node, null if no indexed name continues with the letter
+         */
+        private Node child(char letter) {
+            int at = Arrays.binarySearch(letters, letter);
+            return at < 0 ? null : children[at];
+        }
+
+        /**
+         * Returns the node of a next letter, adding it in order if it is missing.
+         *
+         * @param letter the next letter
+         * @return the node
+         */
+        private Node addChild(char letter) {
+            int at = Arrays.binarySearch(letters, letter);
+            if (at >= 0) {
+                return children[at];
+            }
+            at = -at - 1;
+            char[] moreLetters = new char[letters.length + 1];
+            Node[] moreChildren = new Node[children.length + 1];
+            System.arraycopy(letters, 0, moreLetters, 0, at);
+            System.arraycopy(children, 0, moreChildren, 0, at);
+            moreLetters[at] = letter;
+            moreChildren[at] = new Node();
+            System.arraycopy(letters, at, moreLetters, at + 1, letters.length - at);
+            System.arraycopy(children, at, moreChildren, at + 1, children.length - at);
+            letters = moreLetters;
+            children = moreChildren;
+            return moreChildren[at];
+        }
+
+        /**
+         * Removes the node of a next letter.
+         *
+         * @param letter the next letter
+         */
+        private void removeChild(char letter) {
+            int at = Arrays.binarySearch(letters, letter);
+            if (at < 0) {
+                return;
+            }
+            char[] fewerLetters = new char[letters.length - 1];
+            Node[] fewerChildren = new Node[children.length - 1];
+            System.arraycopy(letters, 0, fewerLetters, 0, at);
+            System.arraycopy(children, 0, fewerChildren, 0, at);
+            System.arraycopy(letters, at + 1, fewerLetters, at, letters.length - at - 1);
+            System.arraycopy(children, at + 1, fewerChildren, at, children.length - at - 1);
+            letters = fewerLetters;
+            children = fewerChildren;
+        }
+
+        /**
+         * Checks if the node can be pruned from the trie.
+         *
+         * @return true if no holder ends here and no name continues from here
+         * false otherwise
+         */
+        private boolean isEmpty() {
+            return (holders == null || holders.isEmpty()) && letters.length == 0;
+        }
+    }
+
+    /**
+     * The root of the trie, for the empty prefix.
+     */
+    private final Node root;
+
+    /**
+     * Ids of the folded last names containing each trigram; the first element is the number of ids that follow.
+     */
+    private final HashMap<String, int[]> grams;
+
+    /**
+     * The trie node of each name id; null for an id that is free.
+     */
+    private Node[] names;
+
+    /**
+     * Folded last name of each name id.
+     */
+    private String[] spellings;
+
+    /**
+     * Number of name ids given out, free or not.
+     */
+    private int nameCount;
+
+    /**
+     * Name ids freed by removed names, to be given out again.
+     */
+    private final ArrayDeque<Integer> freeNames;
+
+    /**
+     * Trigrams each name id shares with the name being searched for; only ids listed in touched are non-zero.
+     */
+    private int[] shared;
+
+    /**
+     * Name ids counted in shared by the search in progress.
+     */
+    private int[] touched;
+
+    /**
+     * Number of holders indexed.
+     */
+    private int size;
+
+    /**
+     * Creates an empty HolderIndex.
+     */
+    public HolderIndex() {
+        this.root = new Node();
+        this.grams = new HashMap<>();
+        this.names = new Node[STARTING_NAMES];
+        this.spellings = new String[STARTING_NAMES];
+        this.freeNames = new ArrayDeque<>();
+        this.shared = new int[STARTING_NAMES];
+        this.touched = new int[STARTING_NAMES];
+    }
+
+    /**
+     * Returns the number of holders indexed.
+     *
+     * @return the number of holders
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a holder to the index, unless they are already in it.
+     *
+     * @param holder the Profile of the holder
+     */
+    public void add(Profile holder) {
+        String name = holder.getFoldedLastName();
+        Node node = root;
+        for (int i = 0; i < name.length(); i++) {
+            node = node.addChild(name.charAt(i));
+        }
+        if (node.holders == null) {
+            node.holders = new ArrayList<>();
+        }
+        if (node.holders.contains(holder)) {
+            return;
+        }
+        if (node.holders.isEmpty()) {
+            node.name = nameId(node, name);
+            for (String gram : trigrams(name)) {
+                grams.put(gram, append(grams.get(gram), node.name));
+            }
+        }
+        int at = Collections.binarySearch(node.holders, holder);
+        node.holders.add(at < 0 ? -at - 1 : at, holder);
+        size++;
+    }
+
+    /**
+     * Removes a holder from the index, pruning the nodes and trigrams no other holder needs.
+     *
+     * @param holder the Profile of the holder
+     */
+    public void remove(Profile holder) {
+        String name = holder.getFoldedLastName();
+        Node[] path = new Node[name.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < name.length(); i++) {
+            path[i + 1] = path[i].child(name.charAt(i));
+            if (path[i + 1] == null) {
+                return;
+            }
+        }
+        Node node = path[name.length()];
+        if (node.holders == null || !node.holders.contains(holder)) {
+            return;
+        }
+        node.holders.remove(holder);
+        size--;
+        if (!node.holders.isEmpty()) {
+            return;
+        }
+        for (String gram : trigrams(name)) {
+            int[] ids = grams.get(gram);
+            for (int i = 1; i <= ids[0]; i++) {
+                if (ids[i] == node.name) {
+                    ids[i] = ids[ids[0]--];
+                    break;
+                }
+            }
+            if (ids[0] == 0) {
+                grams.remove(gram);
+            }
+        }
+        names[node.name] = null;
+        spellings[node.name] = null;
+        freeNames.push(node.name);
+        node.name = NO_NAME;
+        for (int i = name.length(); i > 0 && path[i].isEmpty(); i--) {
+            path[i - 1].removeChild(name.charAt(i - 1));
+        }
+    }
+
+    /**
+     * Returns the holders whose last name starts with a prefix, ignoring case, in order of last name.
+     *
+     * @param prefix the start of the last name
+     * @param k      the most holders returned
+     * @return up to k holders
+     */
+    public List<Profile> prefix(String prefix, int k) {
+        List<Profile> found = new List<>();
+        Node node = root;
+        String folded = prefix.toLowerCase();
+        for (int i = 0; i < folded.length() && node != null; i++) {
+            node = node.child(folded.charAt(i));
+        }
+        if (node != null) {
+            collect(node, k, found);
+        }
+        return found;
+    }
+
+    /**
+     * Returns the holders whose last name is within a few edits of a name, ignoring case, closest first:
+     * one edit for names of up to five letters, two for longer ones.
+     * Each edit changes at most three trigrams, so only names sharing all but three trigrams per edit are measured.
+     * A name too short to be sure of sharing a trigram with every close name is instead searched by walking the trie,
+     * keeping the edit distance of each prefix and leaving a branch once every alignment needs too many edits.
+     *
+     * @param name the last name, possibly misspelled
+     * @param k    the most holders returned
+     * @return up to k holders
+     */
+    public List<Profile> fuzzy(String name, int k) {
+        String folded = name.toLowerCase();
+        int maxEdits = folded.length() <= SHORT_NAME ? 1 : 2;
+        ArrayList<ArrayList<Integer>> byDistance = new ArrayList<>(maxEdits + 1);
+        for (int d = 0; d <= maxEdits; d++) {
+            byDistance.add(new ArrayList<>());
+        }
+        ArrayList<String> queryGrams = trigrams(folded);
+        int needed = queryGrams.size() - GRAM * maxEdits;
+        if (needed < 1) {
+            int[] row = new int[folded.length() + 1];
+            for (int j = 0; j <= folded.length(); j++) {
+                row[j] = j;
+            }
+            walk(root, folded, row, maxEdits, byDistance);
+        } else {
+            int touchedCount = 0;
+            for (String gram : queryGrams) {
+                int[] ids = grams.get(gram);
+                if (ids != null) {
+                    for (int i = 1; i <= ids[0]; i++) {
+                        if (shared[ids[i]]++ == 0) {
+                            touched[touchedCount++] = ids[i];
+                        }
+                    }
+                }
+            }
+            for (int t = 0; t < touchedCount; t++) {
+                int id = touched[t];
+                String candidate = spellings[id];
+                if (shared[id] >= needed && Math.abs(candidate.length() - folded.length()) <= maxEdits) {
+                    int distance = distance(folded, candidate, maxEdits);
+                    if (distance <= maxEdits) {
+                        byDistance.get(distance).add(id);
+                    }
+                }
+                shared[id] = 0;
+            }
+        }
+        List<Profile> found = new List<>();
+        for (ArrayList<Integer> candidates : byDistance) {
+            candidates.sort(Comparator.comparing(id -> spellings[id]));
+            for (int i = 0; i < candidates.size() && found.size() < k; i++) {
+                addHolders(names[candidates.get(i)], k, found);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Walks the trie below a node, adding the name id of every last name within a bound of edits of a name
+     * to the list of its distance. Each child extends the row of edit distances of its parent by one letter,
+     * and is only entered if some prefix of the name is still within the bound of it.
+     *
+     * @param node       the node
+     * @param name       the folded name searched for
+     * @param row        edit distance from each prefix of the name to the letters of the path to the node
+     * @param bound      the most edits of interest
+     * @param byDistance the name ids found, by distance
+     */
+    private void walk(Node node, String name, int[] row, int bound, ArrayList<ArrayList<Integer>> byDistance) {
+        if (node.name != NO_NAME && row[name.length()] <= bound) {
+            byDistance.get(row[name.length()]).add(node.name);
+        }
+        for (int c = 0; c < node.letters.length; c++) {
+            int[] next = new int[row.length];
+            next[0] = row[0] + 1;
+            int best = next[0];
+            for (int j = 1; j < row.length; j++) {
+                int substitution = row[j - 1] + (name.charAt(j - 1) == node.letters[c] ? 0 : 1);
+                next[j] = Math.min(substitution, Math.min(row[j], next[j - 1]) + 1);
+                best = Math.min(best, next[j]);
+            }
+            if (best <= bound) {
+                walk(node.children[c], name, next, bound, byDistance);
+            }
+        }
+    }
+
+    /**
+     * Adds the holders of a node and of the nodes below it, in order of last name, until k have been found.
+     *
+     * @param node  the node
+     * @param k     the most holders found
+     * @param found the holders found so far
+     */
+    private static void collect(Node node, int k, List<Profile> found) {
+        addHolders(node, k, found);
+        for (int i = 0; i < node.children.length && found.size() < k; i++) {
+            collect(node.children[i], k, found);
+        }
+    }
+
+    /**
+     * Adds the holders whose last name ends at a node, ordered by Profile, until k have been found.
+     *
+     * @param node  the node
+     * @param k     the most holders found
+     * @param found the holders found so far
+     */
+    private static void addHolders(Node node, int k, List<Profile> found) {
+        if (node.holders == null) {
+            return;
+        }
+        for (int i = 0; i < node.holders.size() && found.size() < k; i++) {
+            found.add(node.holders.get(i));
+        }
+    }
+
+    /**
+     * Gives a name id to the node where a folded last name ends, growing the ids when they run out.
+     *
+     * @param node the node
+     * @param name the folded last name
+     * @return the name id
+     */
+    private int nameId(Node node, String name) {
+        int id;
+        if (!freeNames.isEmpty()) {
+            id = freeNames.pop();
+        } else {
+            if (nameCount == names.length) {
+                names = Arrays.copyOf(names, nameCount * 2);
+                spellings = Arrays.copyOf(spellings, nameCount * 2);
+                shared = Arrays.copyOf(shared, nameCount * 2);
+                touched = Arrays.copyOf(touched, nameCount * 2);
+            }
+            id = nameCount++;
+        }
+        names[id] = node;
+        spellings[id] = name;
+        return id;
+    }
+
+    /**
+     * Adds a name id to a posting list, growing the list when it is full.
+     *
+     * @param ids the posting list, its length first; null for a new list
+     * @param id  the name id
+     * @return the posting list holding the id
+     */
+    private static int[] append(int[] ids, int id) {
+        if (ids == null) {
+            ids = new int[2];
+        } else if (ids[0] == ids.length - 1) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+        ids[++ids[0]] = id;
+        return ids;
+    }
+
+    /**
+     * Splits a folded name into its trigrams, after padding both ends with '$'.
+     *
+     * @param name the folded name
+     * @return the distinct trigrams of the name
+     */
+    private static ArrayList<String> trigrams(String name) {
+        String padded = PAD + name + PAD;
+        ArrayList<String> trigrams = new ArrayList<>();
+        for (int i = 0; i + GRAM <= padded.length(); i++) {
+            String gram = padded.substring(i, i + GRAM);
+            if (!trigrams.contains(gram)) {
+                trigrams.add(gram);
+            }
+        }
+        return trigrams;
+    }
+
+    /**
+     * Returns the edit distance between two names, giving up once every alignment needs more than a bound.
+     *
+     * @param a     the first name
+     * @param b     the second name
+     * @param bound the most edits of interest
+     * @return the number of insertions, deletions, and substitutions turning a into b,
+     * or bound + 1 if it is more than bound
+     */
+    private static int distance(String a, String b, int bound) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int best = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                best = Math.min(best, current[j]);
+            }
+            if (best > bound) {
+                return bound + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], bound + 1);
+    }
+}
@@ -0,0 +1,84 @@
+package banking;
+
+import util.Date;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * InterestPosting is a fork-join task that posts interest and fees to a range of Accounts in the AccountDatabase.
+ * The range is split in half until it is small enough to post in one task,
+ * so the whole book is posted across every worker of the pool.
+ * Each Account belongs to exactly one task, so no locking is needed.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class InterestPosting extends RecursiveTask<Integer> {
+
+    /**
+     * Version of the serialized form; a task is never serialized, but every ForkJoinTask is Serializable.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Largest number of Accounts posted by one task without splitting.
+     */
+    private static final int THRESHOLD = 1024;
+
+    /**
+     * The AccountDatabase whose Accounts are posted.
+     */
+    private final AccountDatabase database;
+
+    /**
+     * The date of the posting.
+     */
+    private final Date date;
+
+    /**
+     * Index of the first Account in the range.
+     */
+    private final int start;
+
+    /**
+     * Index after the last Account in the range.
+     */
+    private final int end;
+
+    /**
+     * Creates an InterestPosting task for a range of Accounts.
+     *
+     * @param database the AccountDatabase whose Accounts are posted
+     * @param date     the date of the posting
+     * @param start    index of the first Account in the range
+     * @param end      index after the last Account in the range
+     */
+    public InterestPosting(AccountDatabase database, Date date, int start, int end) {
+        this.database = database;
+        this.date = date;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Posts interest and fees to the range, splitting it into two tasks if it is larger than the threshold.
+     *
+     * @return the number of Accounts posted in the range
+     */
+    @Override
+    protected Integer compute() {
+        if (end - start <= THRESHOLD) {
+            int posted = 0;
+            for (int i = start; i < end; i++) {
+                if (database.get(i).post(date)) {
+                    posted++;
+                }
+            }
+            return posted;
+        }
+        int middle = (start + end) >>> 1;
+        InterestPosting left = new InterestPosting(database, date, start, middle);
+        left.fork();
+        int right = new InterestPosting(database, date, middle, end).compute();
+        return left.join() + right;
+    }
+}
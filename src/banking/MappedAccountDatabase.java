@@ -0,0 +1,161 @@
+package banking;
+
+import util.Date;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+
+/**
+ * The MappedAccountDatabase class is an AccountDatabase that keeps every Account in a MappedAccountStore.
+ * Adding an Account appends its record, every change the AccountDatabase makes to an Account rewrites its record
+ * in place, removing an Account marks its record as removed, and closing one marks its record as closed.
+ * On start-up the Accounts are read back from the store instead of from the text file,
+ * which is only loaded the first time, when the store is empty.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class MappedAccountDatabase extends AccountDatabase {
+
+    /**
+     * The store holding the records of the Accounts.
+     */
+    private final MappedAccountStore store;
+
+    /**
+     * Slot of each Account in the store, by packed account number.
+     */
+    private final HashMap<Integer, Integer> slots;
+
+    /**
+     * Constructs a MappedAccountDatabase over the store at a path.
+     *
+     * @param file the record file of the store
+     * @throws UncheckedIOException if the store cannot be opened
+     */
+    public MappedAccountDatabase(File file) {
+        super();
+        try {
+            this.store = new MappedAccountStore(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.slots = new HashMap<>();
+    }
+
+    /**
+     * Adds an Account to the end of the list and appends its record to the store.
+     *
+     * @param account the Account to be added
+     */
+    @Override
+    public void add(Account account) {
+        super.add(account);
+        try {
+            slots.put(account.getAccountNumber().toInt(), store.append(account));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Removes an Account from the list and marks its record as removed.
+     *
+     * @param account the Account to be removed
+     */
+    @Override
+    public void remove(Account account) {
+        super.remove(account);
+        Integer slot = slots.remove(account.getAccountNumber().toInt());
+        if (slot != null) {
+            store.delete(slot);
+        }
+    }
+
+    /**
+     * Moves a closed Account to the Archive and marks its record as closed, so it is read back into the Archive.
+     *
+     * @param account   the closed Account
+     * @param closeDate the Date on which the account is closed
+     */
+    @Override
+    protected void moveToArchive(Account account, Date closeDate) {
+        Integer slot = slots.get(account.getAccountNumber().toInt());
+        super.moveToArchive(account, closeDate);
+        if (slot == null) {
+            return;
+        }
+        try {
+            store.close(slot, account, closeDate);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Rewrites the record of an Account after it has been changed.
+     *
+     * @param index index of the changed Account
+     */
+    @Override
+    protected void changed(int index) {
+        super.changed(index);
+        Account account = this.get(index);
+        Integer slot = slots.get(account.getAccountNumber().toInt());
+        if (slot == null) {
+            return;
+        }
+        try {
+            store.write(slot, account);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the Accounts back from the store, and the closed ones into the Archive,
+     * counting their stored deposits and withdrawals in the traffic again,
+     * or loads them from the text file if the store is empty.
+     *
+     * @param file the File object containing account information to load
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    @Override
+    public void loadAccounts(File file) throws IOException {
+        if (store.slots() == 0) {
+            super.loadAccounts(file);
+            store.force();
+            return;
+        }
+        for (int slot = 0; slot < store.slots(); slot++) {
+            if (store.isLive(slot)) {
+                Account account = store.read(slot);
+                super.add(account);
+                slots.put(account.getAccountNumber().toInt(), slot);
+            }
+        }
+        for (int slot : store.closedSlots()) {
+            restoreToArchive(store.read(slot), store.closeDate(slot));
+        }
+        store.countTraffic(getTraffic());
+    }
+
+    /**
+     * Checks if the Accounts outlive the Transaction Manager; they are kept in the store.
+     *
+     * @return true
+     */
+    @Override
+    public boolean isPersistent() {
+        return true;
+    }
+
+    /**
+     * Forces every change to the store to the storage device.
+     */
+    @Override
+    public void force() {
+        store.force();
+    }
+}
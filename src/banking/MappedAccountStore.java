@@ -0,0 +1,853 @@
+package banking;
+
+import util.Date;
+import util.List;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.zip.CRC32;
+
+/**
+ * The MappedAccountStore class keeps Accounts in a memory-mapped file of fixed-width records,
+ * with the names and dates of birth of holders in a side segment file
+ * and the Activities of each Account chained newest-first in an append-only activity log.
+ * Each record slot holds two copies of the record, each with a sequence number and a checksum.
+ * An update is written to the older copy, so a write torn by a crash leaves the newer copy intact,
+ * and the copy with the highest sequence number and a good checksum is the one read back.
+ * The files grow by doubling and are remapped when they do.
+ * Closed Accounts keep their records, marked closed with their close date, so the Archive is read back with the book.
+ * The header records the format of the records; a store written in an older format is migrated
+ * to the current one when it is opened, and a store written in a newer format is refused.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class MappedAccountStore {
+
+    /**
+     * Identifies a record file.
+     */
+    private static final int MAGIC = 0x42414e4b;
+
+    /**
+     * Bytes before the first slot of the record file, and before the first profile in the side segment.
+     */
+    private static final int HEADER = 64;
+
+    /**
+     * Offset in the header of the number of slots in use.
+     */
+    private static final int SLOTS_OFFSET = 4;
+
+    /**
+     * Offset in the header of the record format; 0 in stores written before the format was recorded, which use format 1.
+     */
+    private static final int VERSION_OFFSET = 8;
+
+    /**
+     * The record format written: format 1 had no feed key, format 2 added it, format 3 added the accrued fees,
+     * and format 4 added the close date.
+     */
+    private static final int VERSION = 4;
+
+    /**
+     * Bytes in one copy of a record in each format, starting with format 1.
+     * Each format keeps the fields of the one before at the same offsets and adds its own before the checksum.
+     */
+    private static final int[] COPIES = {72, 88, 96, 104};
+
+    /**
+     * Offset in the side segment header of the number of bytes in use.
+     */
+    private static final int USED_OFFSET = 0;
+
+    /**
+     * Bytes in one copy of a record.
+     */
+    private static final int COPY = COPIES[VERSION - 1];
+
+    /**
+     * Bytes in one slot: two copies of a record.
+     */
+    private static final int SLOT = 2 * COPY;
+
+    /**
+     * Bytes of a copy covered by its checksum: all but the checksum and its padding.
+     */
+    private static final int CHECKED = COPY - Long.BYTES;
+
+    /**
+     * Starting size of each file in bytes.
+     */
+    private static final int STARTING_SIZE = 64 * 1024;
+
+    /**
+     * Offset in a copy of its sequence number; 0 means the copy has never been written.
+     */
+    private static final int SEQ = 0;
+
+    /**
+     * Offset in a copy of the packed account number.
+     */
+    private static final int NUMBER = 8;
+
+    /**
+     * Offset in a copy of the state of the Account: REMOVED, OPEN, or CLOSED.
+     */
+    private static final int LIVE = 12;
+
+    /**
+     * State of a removed Account.
+     */
+    private static final byte REMOVED = 0;
+
+    /**
+     * State of an open Account.
+     */
+    private static final byte OPEN = 1;
+
+    /**
+     * State of a closed Account kept for the Archive.
+     */
+    private static final byte CLOSED = 2;
+
+    /**
+     * Offset in a copy of the loyal status of a Savings or Money Market account.
+     */
+    private static final int LOYAL = 13;
+
+    /**
+     * Offset in a copy of the campus ordinal of a College Checking account or the term of a Certificate Deposit.
+     */
+    private static final int EXTRA = 14;
+
+    /**
+     * Offset in a copy of the balance.
+     */
+    private static final int BALANCE = 16;
+
+    /**
+     * Offset in a copy of the interest accrued in the statement cycle.
+     */
+    private static final int ACCRUED = 24;
+
+    /**
+     * Offset in a copy of the last day interest was accrued through.
+     */
+    private static final int ACCRUED_THROUGH = 32;
+
+    /**
+     * Offset in a copy of the day interest and fees were last posted.
+     */
+    private static final int POSTED_ON = 36;
+
+    /**
+     * Offset in a copy of the withdrawal count of a Money Market account.
+     */
+    private static final int WITHDRAWALS = 40;
+
+    /**
+     * Offset in a copy of the open day of a Certificate Deposit, counted from 1/1/1970.
+     */
+    private static final int OPEN_DAY = 44;
+
+    /**
+     * Offset in a copy of the offset of the holder's profile in the side segment.
+     */
+    private static final int PROFILE = 48;
+
+    /**
+     * Offset in a copy of the length of the holder's profile.
+     */
+    private static final int PROFILE_LENGTH = 52;
+
+    /**
+     * Offset in a copy of the offset of the newest Activity of the Account in the activity log, 0 if it has none.
+     */
+    private static final int ACTIVITY_HEAD = 56;
+
+    /**
+     * Offset in a copy of the number of Activities of the Account in the activity log.
+     */
+    private static final int ACTIVITY_COUNT = 60;
+
+    /**
+     * Offset in a copy of the run id of the last feed Activity applied to the Account.
+     */
+    private static final int FEED_RUN = 64;
+
+    /**
+     * Offset in a copy of the line number of the last feed Activity applied to the Account.
+     */
+    private static final int FEED_LINE = 72;
+
+    /**
+     * Offset in a copy of the fees accrued in the statement cycle.
+     */
+    private static final int ACCRUED_FEE = 80;
+
+    /**
+     * Offset in a copy of the day a closed Account was closed, counted from 1/1/1970.
+     */
+    private static final int CLOSE_DAY = 88;
+
+    /**
+     * Offset in a copy of the checksum of the bytes before it.
+     */
+    private static final int CRC = CHECKED;
+
+    /**
+     * Bytes in one entry of the activity log.
+     */
+    private static final int ENTRY = 20;
+
+    /**
+     * Offset in an activity log entry of the offset of the previous Activity of the same Account, 0 if it is the first.
+     */
+    private static final int PREVIOUS = 0;
+
+    /**
+     * Offset in an activity log entry of the day of the Activity, counted from 1/1/1970.
+     */
+    private static final int DAY = 4;
+
+    /**
+     * Offset in an activity log entry of the ordinal of the Branch where the Activity took place.
+     */
+    private static final int LOCATION = 8;
+
+    /**
+     * Offset in an activity log entry of the type character of the Activity.
+     */
+    private static final int KIND = 9;
+
+    /**
+     * Offset in an activity log entry of the ATM flag of the Activity.
+     */
+    private static final int ATM = 10;
+
+    /**
+     * Offset in an activity log entry of the amount of the Activity.
+     */
+    private static final int AMOUNT = 12;
+
+    /**
+     * Separates the fields of a profile in the side segment.
+     */
+    private static final char PROFILE_SEPARATOR = ',';
+
+    /**
+     * The record file.
+     */
+    private final RandomAccessFile records;
+
+    /**
+     * The side segment file.
+     */
+    private final RandomAccessFile profiles;
+
+    /**
+     * The activity log file.
+     */
+    private final RandomAccessFile log;
+
+    /**
+     * The mapped record file.
+     */
+    private MappedByteBuffer recordMap;
+
+    /**
+     * The mapped side segment file.
+     */
+    private MappedByteBuffer profileMap;
+
+    /**
+     * The mapped activity log file.
+     */
+    private MappedByteBuffer logMap;
+
+    /**
+     * Offset in the side segment of each profile already written, so a holder with several Accounts is stored once.
+     */
+    private final HashMap<String, Integer> profileOffsets;
+
+    /**
+     * The AccountDatabase over the store, which observes every Account read from it; null if there is none.
+     */
+    private AccountDatabase database;
+
+    /**
+     * Opens the store at a path, creating its files if they do not exist.
+     * The side segment is the same path with ".profiles" appended, and the activity log the same path with ".activities".
+     *
+     * @param file the record file
+     * @throws IOException if the files cannot be opened or mapped, or the record file is not a store
+     *                     or was written in a newer format
+     */
+    public MappedAccountStore(File file) throws IOException {
+        boolean created = !file.exists() || file.length() == 0;
+        if (!created) {
+            migrate(file);
+        }
+        this.records = new RandomAccessFile(file, "rw");
+        this.profiles = new RandomAccessFile(new File(file.getPath() + ".profiles"), "rw");
+        this.recordMap = map(records, Math.max(records.length(), STARTING_SIZE));
+        this.log = new RandomAccessFile(new File(file.getPath() + ".activities"), "rw");
+        this.profileMap = map(profiles, Math.max(profiles.length(), STARTING_SIZE));
+        this.logMap = map(log, Math.max(log.length(), STARTING_SIZE));
+        if (created) {
+            recordMap.putInt(0, MAGIC);
+            recordMap.putInt(SLOTS_OFFSET, 0);
+            recordMap.putInt(VERSION_OFFSET, VERSION);
+            profileMap.putInt(USED_OFFSET, HEADER);
+            logMap.putInt(USED_OFFSET, HEADER);
+        } else if (recordMap.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not an account store.");
+        }
+        this.profileOffsets = new HashMap<>();
+    }
+
+    /**
+     * Rewrites a record file written in an older format into the current one.
+     * The newest good copy of each slot is kept with the fields added since its format left at 0,
+     * which is what a new Account holds: no feed Activity applied, no fees accrued, and not closed.
+     * The new file is written beside the old one and moved over it, so a crash during the migration
+     * leaves the old file as it was. The side segment and the activity log have not changed format.
+     *
+     * @param file the record file
+     * @throws IOException if the file cannot be rewritten, or was written in a newer format
+     */
+    private static void migrate(File file) throws IOException {
+        File migrated = new File(file.getPath() + ".migrating");
+        try (RandomAccessFile old = new RandomAccessFile(file, "r")) {
+            if (old.length() < HEADER || old.readInt() != MAGIC) {
+                return;
+            }
+            old.seek(VERSION_OFFSET);
+            int version = Math.max(old.readInt(), 1);
+            if (version > VERSION) {
+                throw new IOException(file + " was written in record format " + version
+                        + ", newer than format " + VERSION + " read by this version.");
+            }
+            if (version == VERSION) {
+                return;
+            }
+            ByteBuffer from = old.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, old.length());
+            int copySize = COPIES[version - 1];
+            int checked = copySize - Long.BYTES;
+            int slots = from.getInt(SLOTS_OFFSET);
+            try (RandomAccessFile target = new RandomAccessFile(migrated, "rw")) {
+                MappedByteBuffer to = map(target, Math.max(HEADER + (long) slots * SLOT, STARTING_SIZE));
+                to.putInt(0, MAGIC);
+                to.putInt(SLOTS_OFFSET, slots);
+                to.putInt(VERSION_OFFSET, VERSION);
+                for (int slot = 0; slot < slots; slot++) {
+                    int first = HEADER + slot * 2 * copySize;
+                    int copy = newest(from, first, first + copySize, checked);
+                    if (copy == -1) {
+                        continue;
+                    }
+                    int into = HEADER + slot * SLOT;
+                    for (int i = 0; i < checked; i++) {
+                        to.put(into + i, from.get(copy + i));
+                    }
+                    to.putInt(into + CRC, checksum(to, into, CHECKED));
+                }
+                to.force();
+            }
+        }
+        Files.move(migrated.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps a whole file, growing it to the given size first.
+     *
+     * @param file the file being mapped
+     * @param size the size of the file in bytes
+     * @return the mapped file
+     * @throws IOException if the file cannot be mapped
+     */
+    private static MappedByteBuffer map(RandomAccessFile file, long size) throws IOException {
+        file.setLength(size);
+        return file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    /**
+     * Returns the number of slots in use, including those of removed Accounts.
+     *
+     * @return the number of slots
+     */
+    public int slots() {
+        return recordMap.getInt(SLOTS_OFFSET);
+    }
+
+    /**
+     * Checks if the slot holds an Account that has not been removed.
+     *
+     * @param slot the slot being checked
+     * @return true if the newest copy of the slot is live
+     * false otherwise
+     */
+    public boolean isLive(int slot) {
+        return state(slot) == OPEN;
+    }
+
+    /**
+     * Checks if the slot holds an Account that has been closed and moved to the Archive.
+     *
+     * @param slot the slot being checked
+     * @return true if the newest copy of the slot is closed
+     * false otherwise
+     */
+    public boolean isClosed(int slot) {
+        return state(slot) == CLOSED;
+    }
+
+    /**
+     * Returns the state of the newest copy of a slot.
+     *
+     * @param slot the slot
+     * @return OPEN, CLOSED, or REMOVED, which is also returned when neither copy is good
+     */
+    private byte state(int slot) {
+        int copy = newest(slot);
+        return copy == -1 ? REMOVED : recordMap.get(copy + LIVE);
+    }
+
+    /**
+     * Returns the date the Account in a closed slot was closed.
+     *
+     * @param slot a closed slot
+     * @return the close date
+     */
+    public Date closeDate(int slot) {
+        return Date.ofEpochDay(closeDay(slot));
+    }
+
+    /**
+     * Returns the day the Account in a closed slot was closed.
+     *
+     * @param slot a closed slot
+     * @return the close day, counted from 1/1/1970
+     */
+    private int closeDay(int slot) {
+        return recordMap.getInt(newest(slot) + CLOSE_DAY);
+    }
+
+    /**
+     * Returns the closed slots, in the order their Accounts were closed in.
+     *
+     * @return the closed slots, earliest closed first
+     */
+    public int[] closedSlots() {
+        ArrayList<Integer> closed = new ArrayList<>();
+        for (int slot = 0; slot < slots(); slot++) {
+            if (isClosed(slot)) {
+                closed.add(slot);
+            }
+        }
+        closed.sort(Comparator.comparingInt(this::closeDay));
+        int[] ordered = new int[closed.size()];
+        for (int i = 0; i < ordered.length; i++) {
+            ordered[i] = closed.get(i);
+        }
+        return ordered;
+    }
+
+    /**
+     * Records the AccountDatabase over the store, handed to every Account read from it
+     * so the deposits and withdrawals made to them are counted and watched.
+     *
+     * @param database the AccountDatabase over the store
+     */
+    public void setDatabase(AccountDatabase database) {
+        this.database = database;
+    }
+
+    /**
+     * Counts the deposits and withdrawals of every live and closed Account in an ActivityTraffic,
+     * reading them from the activity log without loading them into the Accounts.
+     *
+     * @param traffic the ActivityTraffic being rebuilt
+     */
+    public void countTraffic(ActivityTraffic traffic) {
+        for (int slot = 0; slot < slots(); slot++) {
+            if (isLive(slot) || isClosed(slot)) {
+                int copy = newest(slot);
+                for (Activity activity : activities(recordMap.getInt(copy + ACTIVITY_HEAD), recordMap.getInt(copy + ACTIVITY_COUNT))) {
+                    traffic.record(activity);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes an Account to a new slot.
+     *
+     * @param account the Account being stored
+     * @return the slot of the Account
+     * @throws IOException if the record file cannot grow
+     */
+    public int append(Account account) throws IOException {
+        int slot = slots();
+        long end = HEADER + (long) (slot + 1) * SLOT;
+        if (end > recordMap.capacity()) {
+            recordMap = map(records, recordMap.capacity() * 2L);
+        }
+        recordMap.put(HEADER + slot * SLOT + LIVE, REMOVED);
+        recordMap.putLong(HEADER + slot * SLOT + SEQ, 0);
+        recordMap.putLong(HEADER + slot * SLOT + COPY + SEQ, 0);
+        write(slot, account);
+        recordMap.putInt(SLOTS_OFFSET, slot + 1);
+        return slot;
+    }
+
+    /**
+     * Writes the current state of an Account over the older copy of its slot.
+     * Activities recorded since the last write are appended to the activity log first.
+     *
+     * @param slot    the slot of the Account
+     * @param account the Account being stored
+     * @throws IOException if the side segment or the activity log cannot grow
+     */
+    public void write(int slot, Account account) throws IOException {
+        write(slot, account, OPEN, 0);
+    }
+
+    /**
+     * Writes the final state of an Account that has been closed over the older copy of its slot,
+     * marking it closed on a date, so it is read back into the Archive.
+     *
+     * @param slot      the slot of the Account
+     * @param account   the closed Account
+     * @param closeDate the date the Account was closed
+     * @throws IOException if the side segment or the activity log cannot grow
+     */
+    public void close(int slot, Account account, Date closeDate) throws IOException {
+        write(slot, account, CLOSED, closeDate.toEpochDay());
+    }
+
+    /**
+     * Writes the current state of an Account over the older copy of its slot, with its state and close day.
+     *
+     * @param slot     the slot of the Account
+     * @param account  the Account being stored
+     * @param state    OPEN or CLOSED
+     * @param closeDay the day the Account was closed, 0 if it is open
+     * @throws IOException if the side segment or the activity log cannot grow
+     */
+    private void write(int slot, Account account, byte state, int closeDay) throws IOException {
+        int profile = profileOffset(account.getHolder());
+        int current = newest(slot);
+        int head = current == -1 ? 0 : recordMap.getInt(current + ACTIVITY_HEAD);
+        int count = current == -1 ? 0 : recordMap.getInt(current + ACTIVITY_COUNT);
+        int activities = account.getActivityCount();
+        for (int i = count; i < activities; i++) {
+            head = appendActivity(head, account.getActivity(i));
+        }
+        int copy = older(slot);
+        long seq = sequence(slot) + 1;
+        recordMap.putInt(copy + NUMBER, account.getAccountNumber().toInt());
+        recordMap.put(copy + LIVE, state);
+        recordMap.put(copy + LOYAL, (byte) (account instanceof Savings && ((Savings) account).isLoyal() ? 1 : 0));
+        recordMap.put(copy + EXTRA, extra(account));
+        recordMap.putDouble(copy + BALANCE, account.getBalance());
+        recordMap.putDouble(copy + ACCRUED, account.getAccruedInterest());
+        recordMap.putInt(copy + ACCRUED_THROUGH, account.getAccruedThrough());
+        recordMap.putInt(copy + POSTED_ON, account.getPostedOn());
+        recordMap.putInt(copy + WITHDRAWALS, account instanceof MoneyMarket ? ((MoneyMarket) account).getWithdrawals() : 0);
+        recordMap.putInt(copy + OPEN_DAY, account instanceof CertificateDeposit ? ((CertificateDeposit) account).getOpen().toEpochDay() : 0);
+        recordMap.putInt(copy + PROFILE, profile);
+        recordMap.putInt(copy + PROFILE_LENGTH, profileLength(profile));
+        recordMap.putInt(copy + ACTIVITY_HEAD, head);
+        recordMap.putInt(copy + ACTIVITY_COUNT, Math.max(count, activities));
+        recordMap.putLong(copy + FEED_RUN, account.getFeedRun());
+        recordMap.putLong(copy + FEED_LINE, account.getFeedLine());
+        recordMap.putDouble(copy + ACCRUED_FEE, account.getAccruedFee());
+        recordMap.putInt(copy + CLOSE_DAY, closeDay);
+        recordMap.putLong(copy + SEQ, seq);
+        recordMap.putInt(copy + CRC, checksum(copy));
+        account.setLoggedActivities(Math.max(count, activities));
+    }
+
+    /**
+     * Marks the Account in a slot as removed.
+     *
+     * @param slot the slot of the removed Account
+     */
+    public void delete(int slot) {
+        int current = newest(slot);
+        if (current == -1) {
+            return;
+        }
+        int copy = older(slot);
+        for (int i = 0; i < CHECKED; i++) {
+            recordMap.put(copy + i, recordMap.get(current + i));
+        }
+        recordMap.put(copy + LIVE, REMOVED);
+        recordMap.putLong(copy + SEQ, sequence(slot) + 1);
+        recordMap.putInt(copy + CRC, checksum(copy));
+    }
+
+    /**
+     * Creates the Account stored in a slot.
+     * Its balance and counters are read at once; its Activities are read from the activity log when first retrieved.
+     *
+     * @param slot a live or closed slot
+     * @return the stored Account
+     */
+    public Account read(int slot) {
+        int copy = newest(slot);
+        AccountNumber number = new AccountNumber(String.format("%09d", recordMap.getInt(copy + NUMBER)));
+        Profile holder = profile(recordMap.getInt(copy + PROFILE), recordMap.getInt(copy + PROFILE_LENGTH));
+        double balance = recordMap.getDouble(copy + BALANCE);
+        boolean loyal = recordMap.get(copy + LOYAL) == 1;
+        byte extra = recordMap.get(copy + EXTRA);
+        Account account = switch (number.getType()) {
+            case CHECKING -> new Checking(number, holder, balance);
+            case COLLEGE_CHECKING -> new CollegeChecking(number, holder, Campus.values()[extra], balance);
+            case SAVINGS -> new Savings(number, holder, balance);
+            case MONEY_MARKET -> new MoneyMarket(number, holder, balance);
+            case CD -> new CertificateDeposit(number, holder, extra, Date.ofEpochDay(recordMap.getInt(copy + OPEN_DAY)), balance);
+        };
+        if (account instanceof Savings) {
+            ((Savings) account).setIsLoyal(loyal);
+        }
+        if (account instanceof MoneyMarket) {
+            ((MoneyMarket) account).setWithdrawals(recordMap.getInt(copy + WITHDRAWALS));
+        }
+        account.restore(recordMap.getDouble(copy + ACCRUED), recordMap.getDouble(copy + ACCRUED_FEE),
+                recordMap.getInt(copy + ACCRUED_THROUGH), recordMap.getInt(copy + POSTED_ON));
+        int head = recordMap.getInt(copy + ACTIVITY_HEAD);
+        int count = recordMap.getInt(copy + ACTIVITY_COUNT);
+        account.deferActivities(count, () -> activities(head, count));
+        account.setLoggedActivities(count);
+        account.markApplied(recordMap.getLong(copy + FEED_RUN), recordMap.getLong(copy + FEED_LINE));
+        account.setDatabase(database);
+        return account;
+    }
+
+    /**
+     * Reads the Activities of an Account from the activity log.
+     *
+     * @param head  offset of the newest Activity of the Account
+     * @param count number of Activities of the Account
+     * @return the Activities, earliest first
+     */
+    private List<Activity> activities(int head, int count) {
+        Activity[] chain = new Activity[count];
+        int entry = head;
+        for (int i = count - 1; i >= 0; i--) {
+            chain[i] = new Activity(Date.ofEpochDay(logMap.getInt(entry + DAY)), Branch.values()[logMap.get(entry + LOCATION)],
+                    (char) logMap.get(entry + KIND), logMap.getDouble(entry + AMOUNT), logMap.get(entry + ATM) == 1);
+            entry = logMap.getInt(entry + PREVIOUS);
+        }
+        List<Activity> activities = new List<>();
+        for (Activity activity : chain) {
+            activities.add(activity);
+        }
+        return activities;
+    }
+
+    /**
+     * Appends an Activity to the activity log, chained to the previous Activity of the same Account.
+     * The entry is written before the length in use is advanced, and the record pointing to it after,
+     * so a crash never leaves a record pointing to a partial entry.
+     *
+     * @param previous offset of the previous Activity of the Account, 0 if it has none
+     * @param activity the Activity being stored
+     * @return the offset of the new entry
+     * @throws IOException if the activity log cannot grow
+     */
+    private int appendActivity(int previous, Activity activity) throws IOException {
+        int used = logMap.getInt(USED_OFFSET);
+        while (used + ENTRY > logMap.capacity()) {
+            logMap = map(log, logMap.capacity() * 2L);
+        }
+        logMap.putInt(used + PREVIOUS, previous);
+        logMap.putInt(used + DAY, activity.getDate().toEpochDay());
+        logMap.put(used + LOCATION, (byte) activity.getLocation().ordinal());
+        logMap.put(used + KIND, (byte) activity.getType());
+        logMap.put(used + ATM, (byte) (activity.isAtm() ? 1 : 0));
+        logMap.putDouble(used + AMOUNT, activity.getAmount());
+        logMap.putInt(USED_OFFSET, used + ENTRY);
+        return used;
+    }
+
+    /**
+     * Forces every change to the files to the storage device.
+     */
+    public void force() {
+        recordMap.force();
+        profileMap.force();
+        logMap.force();
+    }
+
+    /**
+     * Returns the type-specific byte of a record: the campus of a College Checking account
+     * or the term of a Certificate Deposit.
+     *
+     * @param account the Account being stored
+     * @return the campus ordinal, the term, or 0
+     */
+    private static byte extra(Account account) {
+        if (account instanceof CollegeChecking) {
+            return (byte) ((CollegeChecking) account).getCampus().ordinal();
+        }
+        if (account instanceof CertificateDeposit) {
+            return (byte) ((CertificateDeposit) account).getTerm();
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the offset of the copy of a slot with the highest sequence number and a good checksum.
+     *
+     * @param slot the slot
+     * @return the offset of the newest good copy, -1 if neither copy is good
+     */
+    private int newest(int slot) {
+        int first = HEADER + slot * SLOT;
+        return newest(recordMap, first, first + COPY, CHECKED);
+    }
+
+    /**
+     * Returns the offset of whichever of two copies has the highest sequence number and a good checksum.
+     *
+     * @param map     the mapped record file
+     * @param first   offset of the first copy
+     * @param second  offset of the second copy
+     * @param checked bytes of a copy covered by its checksum
+     * @return the offset of the newest good copy, -1 if neither copy is good
+     */
+    private static int newest(ByteBuffer map, int first, int second, int checked) {
+        boolean firstGood = isGood(map, first, checked);
+        boolean secondGood = isGood(map, second, checked);
+        if (firstGood && secondGood) {
+            return map.getLong(first + SEQ) >= map.getLong(second + SEQ) ? first : second;
+        }
+        return firstGood ? first : secondGood ? second : -1;
+    }
+
+    /**
+     * Returns the offset of the copy of a slot that is written next: the one that is not the newest good copy.
+     *
+     * @param slot the slot
+     * @return the offset of the copy to overwrite
+     */
+    private int older(int slot) {
+        int first = HEADER + slot * SLOT;
+        return newest(slot) == first ? first + COPY : first;
+    }
+
+    /**
+     * Returns the sequence number of the newest good copy of a slot.
+     *
+     * @param slot the slot
+     * @return the sequence number, 0 if the slot has no good copy
+     */
+    private long sequence(int slot) {
+        int copy = newest(slot);
+        return copy == -1 ? 0 : recordMap.getLong(copy + SEQ);
+    }
+
+    /**
+     * Checks if a copy has been written and its checksum matches its contents.
+     *
+     * @param map     the mapped record file
+     * @param copy    offset of the copy
+     * @param checked bytes of the copy covered by its checksum
+     * @return true if the copy is good
+     * false otherwise
+     */
+    private static boolean isGood(ByteBuffer map, int copy, int checked) {
+        return map.getLong(copy + SEQ) > 0 && map.getInt(copy + checked) == checksum(map, copy, checked);
+    }
+
+    /**
+     * Computes the checksum of the fields of a copy.
+     *
+     * @param copy offset of the copy
+     * @return the CRC-32 of the checked bytes
+     */
+    private int checksum(int copy) {
+        return checksum(recordMap, copy, CHECKED);
+    }
+
+    /**
+     * Computes the checksum of the first bytes of a copy.
+     *
+     * @param map     the mapped record file
+     * @param copy    offset of the copy
+     * @param checked bytes of the copy covered by its checksum
+     * @return the CRC-32 of the checked bytes
+     */
+    private static int checksum(ByteBuffer map, int copy, int checked) {
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < checked; i++) {
+            crc.update(map.get(copy + i));
+        }
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Returns the offset of a holder's profile in the side segment, appending it the first time it is stored.
+     * A profile is written before the length in use is advanced, so a crash never leaves a partial profile in use.
+     *
+     * @param holder the holder
+     * @return the offset of the profile
+     * @throws IOException if the side segment cannot grow
+     */
+    private int profileOffset(Profile holder) throws IOException {
+        String text = holder.getFirstName() + PROFILE_SEPARATOR + holder.getLastName() + PROFILE_SEPARATOR + holder.getDateOfBirth();
+        Integer offset = profileOffsets.get(text);
+        if (offset != null) {
+            return offset;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int used = profileMap.getInt(USED_OFFSET);
+        while (used + Integer.BYTES + bytes.length > profileMap.capacity()) {
+            profileMap = map(profiles, profileMap.capacity() * 2L);
+        }
+        profileMap.putInt(used, bytes.length);
+        profileMap.put(used + Integer.BYTES, bytes);
+        profileMap.putInt(USED_OFFSET, used + Integer.BYTES + bytes.length);
+        profileOffsets.put(text, used);
+        return used;
+    }
+
+    /**
+     * Returns the length in bytes of the profile at an offset of the side segment.
+     *
+     * @param offset the offset of the profile
+     * @return the length of the profile text
+     */
+    private int profileLength(int offset) {
+        return profileMap.getInt(offset);
+    }
+
+    /**
+     * Creates the interned Profile stored at an offset of the side segment.
+     *
+     * @param offset the offset of the profile
+     * @param length the length of the profile text
+     * @return the Profile of the holder
+     */
+    private Profile profile(int offset, int length) {
+        byte[] bytes = new byte[length];
+        profileMap.get(offset + Integer.BYTES, bytes);
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        String[] parts = text.split(String.valueOf(PROFILE_SEPARATOR));
+        profileOffsets.putIfAbsent(text, offset);
+        return ProfileRegistry.intern(parts[0], parts[1], TransactionManager.createDate(parts[2]));
+    }
+}
@@ -76,6 +76,35 @@ public class MoneyMarket extends Savings {
         }
     }
 
+    /**
+     * Constructs a MoneyMarket account read back from storage, with its stored account number.
+     *
+     * @param number  the stored account number
+     * @param holder  the profile of the account holder
+     * @param balance the stored balance of the account
+     */
+    MoneyMarket(AccountNumber number, Profile holder, double balance) {
+        super(number, holder, balance);
+    }
+
+    /**
+     * Returns the number of withdrawals made in the current statement cycle.
+     *
+     * @return the withdrawal count
+     */
+    public int getWithdrawals() {
+        return withdrawal;
+    }
+
+    /**
+     * Restores the number of withdrawals made in the current statement cycle, for an Account read back from storage.
+     *
+     * @param withdrawals the stored withdrawal count
+     */
+    void setWithdrawals(int withdrawals) {
+        this.withdrawal = withdrawals;
+    }
+
     /**
      * Calculates the interest rate for the MoneyMarket account based on loyalty status.
      *
@@ -100,16 +129,49 @@ public class MoneyMarket extends Savings {
         return (this.balance >= FEE_THRESHOLD ? NO_FEE : ACCOUNT_FEE) + (this.withdrawal > WITHDRAWAL_THRESHOLD ? WITHDRAWAL_FEE : NO_FEE);
     }
 
+    /**
+     * Calculates the maintenance fee charged for one day at the current balance.
+     * The withdrawal fee depends on the withdrawals of the whole cycle, so it is charged by cycleFee() instead.
+     *
+     * @return the daily fee amount
+     */
+    @Override
+    public double dailyFee() {
+        return (this.balance >= FEE_THRESHOLD ? NO_FEE : ACCOUNT_FEE) * MONTHS_IN_YEAR / DAYS_IN_YEAR;
+    }
+
+    /**
+     * Returns the withdrawal fee for the statement cycle, charged once when the withdrawals exceed the threshold.
+     *
+     * @return the withdrawal fee, or NO_FEE
+     */
+    @Override
+    protected double cycleFee() {
+        return this.withdrawal > WITHDRAWAL_THRESHOLD ? WITHDRAWAL_FEE : NO_FEE;
+    }
+
+    /**
+     * Starts a new statement cycle by clearing the accrued interest and fees and the withdrawal count,
+     * so the withdrawal fee is only charged for withdrawals made within one cycle.
+     */
+    @Override
+    public void startCycle() {
+        super.startCycle();
+        this.withdrawal = 0;
+    }
+
     /**
      * Deducts the specified amount from the account balance and updates the loyalty status
      * if the balance falls below the defined loyalty threshold. Additionally, increments
-     * the withdrawal count for the account.
+     * the withdrawal count for the account. Money sent by a transfer counts as a withdrawal.
      *
+     * @param date   the date recorded with the Activity
      * @param amount the amount to be withdrawn from the account
+     * @param type   'W' for a withdrawal, 'S' for money sent by a transfer
      */
     @Override
-    public boolean withdraw(double amount) {
-        boolean success = super.withdraw(amount);
+    protected boolean withdraw(Date date, double amount, char type) {
+        boolean success = super.withdraw(date, amount, type);
 
         if (success) {
             withdrawal++;
@@ -140,11 +202,13 @@ public class MoneyMarket extends Savings {
      * Deposits a specified amount into the MoneyMarket account and updates the loyalty status
      * if the account balance meets or exceeds the loyalty threshold.
      *
+     * @param date   the date recorded with the Activity
      * @param amount the amount of money to be deposited into the account
+     * @param type   'D' for a deposit, 'R' for money received by a transfer
      */
     @Override
-    public void deposit(double amount) {
-        super.deposit(amount);
+    protected void deposit(Date date, double amount, char type) {
+        super.deposit(date, amount, type);
         if (this.getBalance() >= LOYALTY_THRESHOLD) {
             this.setIsLoyal(true);
         }
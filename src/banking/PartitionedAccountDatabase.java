@@ -0,0 +1,453 @@
+package banking;
+
+import util.Date;
+import util.List;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * The PartitionedAccountDatabase class is an AccountDatabase that also files every Account in the BranchShard
+ * of the Branch encoded in its account number.
+ * Lookups by AccountNumber use an index of list positions instead of scanning the book.
+ * Reports by Branch, county, or AccountType read the shards in order and never sort the book,
+ * and bulk jobs such as activity processing and interest posting run one shard per core,
+ * each job holding the lock of its shard.
+ * Deposits, withdrawals, and transfers find their Accounts in the shards under the shard locks and never read
+ * the list, so they can run on different shards at once. Adding and removing Accounts stay on the calling thread
+ * and hold the lock of the Account's shard; removing moves the last Account of the list into the gap,
+ * which only changes the list positions used by find. The aggregates and the checksum are kept for the whole book,
+ * so they are updated under one book lock, which is always taken after any shard lock.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class PartitionedAccountDatabase extends AccountDatabase {
+
+    /**
+     * Every Branch ordered by county, then city, which is the order of the branch report.
+     */
+    private static final Branch[] REPORT_ORDER = reportOrder();
+
+    /**
+     * Outcome of an activity line whose Account is not in the book, or that is invalid.
+     */
+    private static final byte MISSING = 0;
+
+    /**
+     * Outcome of an activity line whose Activity was applied.
+     */
+    private static final byte APPLIED = 1;
+
+    /**
+     * Outcome of an activity line whose Activity had already been applied.
+     */
+    private static final byte SKIPPED = 2;
+
+    /**
+     * The shard of each Branch, indexed by Branch ordinal.
+     */
+    private final BranchShard[] shards;
+
+    /**
+     * Index of each Account in the list, by packed account number, used by find and contains.
+     * Concurrent, so find and contains can be called from any thread while an Account is added or removed.
+     */
+    private final ConcurrentHashMap<Integer, Integer> positions;
+
+    /**
+     * Lock held while the aggregates and the checksum of the whole book are updated.
+     */
+    private final Object bookLock;
+
+    /**
+     * Constructs an empty PartitionedAccountDatabase object with an empty shard for every Branch.
+     */
+    public PartitionedAccountDatabase() {
+        super();
+        this.shards = new BranchShard[Branch.values().length];
+        for (Branch branch : Branch.values()) {
+            this.shards[branch.ordinal()] = new BranchShard(branch);
+        }
+        this.positions = new ConcurrentHashMap<>();
+        this.bookLock = new Object();
+    }
+
+    /**
+     * Orders the Branches by county, then city, the same way Account.compareByBranch does.
+     *
+     * @return every Branch in report order
+     */
+    private static Branch[] reportOrder() {
+        Branch[] order = Branch.values();
+        Arrays.sort(order, Comparator.comparing(Branch::getCounty, String.CASE_INSENSITIVE_ORDER)
+                .thenComparing(Branch::name, String.CASE_INSENSITIVE_ORDER));
+        return order;
+    }
+
+    /**
+     * Returns the shard of a Branch.
+     *
+     * @param branch the Branch of the shard
+     * @return the shard holding the Accounts of the Branch
+     */
+    public BranchShard shard(Branch branch) {
+        return shards[branch.ordinal()];
+    }
+
+    /**
+     * Adds an Account to the end of the list and to the shard of its Branch.
+     *
+     * @param account the Account to be added
+     */
+    @Override
+    public void add(Account account) {
+        BranchShard shard = shard(account.getAccountNumber().getBranch());
+        synchronized (shard) {
+            super.add(account);
+            positions.put(account.getAccountNumber().toInt(), this.size() - 1);
+            shard.add(account);
+        }
+    }
+
+    /**
+     * Removes an Account from the list and from its shard, holding the lock of its shard.
+     * The last Account is moved into its place in the list, so its position is updated.
+     *
+     * @param account the Account to be removed
+     */
+    @Override
+    public void remove(Account account) {
+        BranchShard shard = shard(account.getAccountNumber().getBranch());
+        synchronized (shard) {
+            int index = find(account.getAccountNumber());
+            if (index == -1) {
+                return;
+            }
+            super.remove(account);
+            positions.remove(account.getAccountNumber().toInt());
+            if (index < this.size()) {
+                positions.put(this.get(index).getAccountNumber().toInt(), index);
+            }
+            shard.remove(account);
+        }
+    }
+
+    /**
+     * Replaces the Account at an index and records its new position. Used by Sort to swap Accounts.
+     *
+     * @param index   the index of the Account to be replaced
+     * @param account the Account to be stored at the index
+     */
+    @Override
+    public void set(int index, Account account) {
+        super.set(index, account);
+        positions.put(account.getAccountNumber().toInt(), index);
+    }
+
+    /**
+     * Finds the index of an Account from the index of list positions.
+     *
+     * @param accountNumber that is being searched for
+     * @return index of the Account in the AccountDatabase when found,
+     * -1 otherwise
+     */
+    @Override
+    public int find(AccountNumber accountNumber) {
+        Integer index = positions.get(accountNumber.toInt());
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Checks if an Account is in the AccountDatabase from the index of list positions.
+     *
+     * @param accountNumber that is being searched for
+     * @return true if Account is found in AccountDatabase
+     * false otherwise
+     */
+    @Override
+    public boolean contains(AccountNumber accountNumber) {
+        return positions.containsKey(accountNumber.toInt());
+    }
+
+    /**
+     * Deposits money into an Account found in its shard, while holding the lock of the shard.
+     *
+     * @param number AccountNumber that identifies the account
+     * @param amount value of money that will be deposited
+     */
+    @Override
+    public void deposit(AccountNumber number, double amount) {
+        if (number.getBranch() == null) {
+            return;
+        }
+        BranchShard shard = shard(number.getBranch());
+        synchronized (shard) {
+            Account account = shard.get(number.toInt());
+            if (account == null) {
+                return;
+            }
+            accrueToBookDay(account);
+            account.deposit(amount);
+            refresh(account);
+        }
+    }
+
+    /**
+     * Withdraws money from an Account found in its shard, while holding the lock of the shard.
+     *
+     * @param number AccountNumber that identifies the Account
+     * @param amount value of money that will be withdrawn
+     * @return true if the amount can be withdrawn
+     * false otherwise
+     */
+    @Override
+    public boolean withdraw(AccountNumber number, double amount) {
+        if (number.getBranch() == null) {
+            return false;
+        }
+        BranchShard shard = shard(number.getBranch());
+        synchronized (shard) {
+            Account account = shard.get(number.toInt());
+            if (account == null) {
+                return false;
+            }
+            accrueToBookDay(account);
+            boolean withdrawn = account.withdraw(amount);
+            refresh(account);
+            return withdrawn;
+        }
+    }
+
+    /**
+     * Moves money between two Accounts found in their shards, while holding the locks of both shards.
+     * Either the withdrawal and the deposit are both made, or neither is.
+     * The locks are taken in account number order; an account number starts with its Branch code,
+     * so every transfer takes the shards in the same order and two transfers cannot deadlock.
+     * Transfers between different shards run together, but each still waits on the book lock
+     * while it updates the aggregates and the checksum.
+     *
+     * @param from   AccountNumber of the Account the money is taken from
+     * @param to     AccountNumber of the Account the money is added to
+     * @param amount value of money that will be moved
+     * @param date   the date of the transfer
+     * @return true if the money was moved
+     * false otherwise
+     */
+    @Override
+    public boolean transfer(AccountNumber from, AccountNumber to, double amount, Date date) {
+        if (from.getBranch() == null || to.getBranch() == null) {
+            return false;
+        }
+        AccountNumber first = from.compareTo(to) <= 0 ? from : to;
+        AccountNumber second = first == from ? to : from;
+        synchronized (shard(first.getBranch())) {
+            synchronized (shard(second.getBranch())) {
+                Account source = shard(from.getBranch()).get(from.toInt());
+                Account destination = shard(to.getBranch()).get(to.toInt());
+                if (source == null || destination == null || source == destination) {
+                    return false;
+                }
+                accrueToBookDay(source);
+                if (!source.send(date, amount)) {
+                    return false;
+                }
+                refresh(source);
+                accrueToBookDay(destination);
+                destination.receive(date, amount);
+                refresh(destination);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Updates the aggregates and the checksum of the whole book under the book lock,
+     * since deposits, withdrawals, and transfers on different shards change Accounts at the same time.
+     *
+     * @param account the Account that changed
+     */
+    @Override
+    protected void refresh(Account account) {
+        synchronized (bookLock) {
+            super.refresh(account);
+        }
+    }
+
+    /**
+     * Prints the Accounts by county, then city, by reading the shards in report order.
+     * The list is not sorted.
+     */
+    @Override
+    public void printByBranch() {
+        String currentCounty = null;
+        for (Branch branch : REPORT_ORDER) {
+            BranchShard shard = shard(branch);
+            if (shard.size() == 0) {
+                continue;
+            }
+            if (currentCounty == null || !currentCounty.equals(branch.getCounty())) {
+                System.out.println("County: " + branch.getCounty());
+                currentCounty = branch.getCounty();
+            }
+            for (Account account : shard.accounts()) {
+                System.out.println(account);
+            }
+        }
+        System.out.println("*end of list.\n");
+    }
+
+    /**
+     * Prints the Accounts by AccountType, then account number, by reading the Accounts of each type
+     * from the shards in order of branch code. The list is not sorted.
+     */
+    @Override
+    public void printByType() {
+        for (AccountType type : AccountType.values()) {
+            boolean header = false;
+            for (BranchShard shard : shards) {
+                for (Account account : shard.accounts(type)) {
+                    if (!header) {
+                        System.out.println("Account Type: " + type);
+                        header = true;
+                    }
+                    System.out.println(account);
+                }
+            }
+        }
+        System.out.println("*end of list.\n");
+    }
+
+    /**
+     * Posts interest and fees to every Account with one job per shard.
+     *
+     * @param date the date of the posting
+     * @return the number of Accounts posted
+     */
+    @Override
+    public int postInterest(Date date) {
+        ArrayList<Callable<Integer>> jobs = new ArrayList<>();
+        for (BranchShard shard : shards) {
+            jobs.add(() -> {
+                synchronized (shard) {
+                    int posted = 0;
+                    for (Account account : shard.accounts()) {
+                        if (account.post(date)) {
+                            posted++;
+                        }
+                    }
+                    return posted;
+                }
+            });
+        }
+        int posted = 0;
+        for (int count : runAll(jobs)) {
+            posted += count;
+        }
+        for (int i = 0; i < this.size(); i++) {
+            changed(i);
+        }
+        return posted;
+    }
+
+    /**
+     * Applies a segment of activity lines with one job per shard.
+     * Lines are routed to the shard of their account number on the calling thread,
+     * each shard applies its lines in file order, and the applied activities are printed in file order.
+     * The alerts each line raises are held by its shard and written in file order too, so the alert file
+     * does not depend on which shard finished first.
+     * Invalid lines are not routed, and are rejected in file order with the lines whose Account is missing.
+     *
+     * @param feed    the feed the lines were read from
+     * @param segment the lines of the segment
+     * @throws IOException if a rejected line cannot be written
+     */
+    @Override
+    protected void applySegment(ActivityFeed feed, List<FeedLine> segment) throws IOException {
+        ArrayList<ArrayList<Integer>> routed = new ArrayList<>();
+        for (int i = 0; i < shards.length; i++) {
+            routed.add(new ArrayList<>());
+        }
+        for (int i = 0; i < segment.size(); i++) {
+            if (segment.get(i).isValid()) {
+                routed.get(segment.get(i).getNumber().getBranch().ordinal()).add(i);
+            }
+        }
+        byte[] outcome = new byte[segment.size()];
+        ArrayList<ArrayList<String>> alerts = new ArrayList<>();
+        for (int i = 0; i < segment.size(); i++) {
+            alerts.add(null);
+        }
+        AnomalyDetector detector = getDetector();
+        ArrayList<Callable<Integer>> jobs = new ArrayList<>();
+        for (BranchShard shard : shards) {
+            ArrayList<Integer> shardLines = routed.get(shard.getBranch().ordinal());
+            jobs.add(() -> {
+                synchronized (shard) {
+                    for (int i : shardLines) {
+                        FeedLine line = segment.get(i);
+                        Account account = shard.get(line.getNumber().toInt());
+                        if (account == null) {
+                            outcome[i] = MISSING;
+                        } else if (account.isApplied(feed.getRun(), line.getLine())) {
+                            outcome[i] = SKIPPED;
+                        } else {
+                            detector.hold();
+                            try {
+                                line.getActivity().applyTo(account);
+                            } finally {
+                                alerts.set(i, detector.release());
+                            }
+                            account.markApplied(feed.getRun(), line.getLine());
+                            outcome[i] = APPLIED;
+                        }
+                    }
+                    return shardLines.size();
+                }
+            });
+        }
+        runAll(jobs);
+        for (int i = 0; i < segment.size(); i++) {
+            FeedLine line = segment.get(i);
+            switch (outcome[i]) {
+                case APPLIED -> {
+                    changed(find(line.getNumber()));
+                    detector.write(alerts.get(i));
+                    System.out.println(line.getNumber() + "::" + line.getActivity());
+                    feed.applied(line);
+                }
+                case SKIPPED -> feed.skipped(line);
+                default -> {
+                    if (line.isValid()) {
+                        reject(feed, line);
+                    } else {
+                        feed.reject(line, line.getReason());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs jobs on the common fork-join pool and waits for all of them.
+     *
+     * @param jobs the jobs to run
+     * @return the result of each job, in the order of the jobs
+     */
+    private static ArrayList<Integer> runAll(ArrayList<Callable<Integer>> jobs) {
+        ArrayList<Integer> results = new ArrayList<>();
+        for (Future<Integer> future : ForkJoinPool.commonPool().invokeAll(jobs)) {
+            try {
+                results.add(future.get());
+            } catch (Exception e) {
+                throw new IllegalStateException("Shard job failed.", e);
+            }
+        }
+        return results;
+    }
+}
@@ -25,6 +25,32 @@ public class Profile implements Comparable<Profile> {
      */
     private Date dateOfBirth;
 
+    /**
+     * Lower case first name, so case-insensitive comparisons do not fold case again.
+     */
+    private final String foldedFirstName;
+
+    /**
+     * Lower case last name, so case-insensitive comparisons do not fold case again.
+     */
+    private final String foldedLastName;
+
+    /**
+     * Hash of the folded names and date of birth, computed once.
+     */
+    private final int hash;
+
+    /**
+     * Holder id given by a ProfileRegistry; every spelling of the same holder shares one id.
+     * Is NOT_REGISTERED for a Profile that was created directly.
+     */
+    private int id = NOT_REGISTERED;
+
+    /**
+     * Id of a Profile that has not been given an id by a ProfileRegistry.
+     */
+    static final int NOT_REGISTERED = 0;
+
     /**
      * Creates a Profile object.
      *
@@ -36,6 +62,9 @@ public class Profile implements Comparable<Profile> {
         this.firstName = firstName;
         this.lastName = lastName;
         this.dateOfBirth = dateOfBirth;
+        this.foldedFirstName = firstName.toLowerCase();
+        this.foldedLastName = lastName.toLowerCase();
+        this.hash = 31 * (31 * foldedFirstName.hashCode() + foldedLastName.hashCode()) + dateOfBirth.toEpochDay();
     }
 
     /**
@@ -228,6 +257,42 @@ public class Profile implements Comparable<Profile> {
         return dateOfBirth;
     }
 
+    /**
+     * Gets the holder id given by a ProfileRegistry.
+     *
+     * @return the holder id, NOT_REGISTERED if the Profile was created directly
+     */
+    int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the holder id. Called only by a ProfileRegistry.
+     *
+     * @param id the holder id shared by every spelling of the same holder
+     */
+    void setId(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets the last name folded to lower case, for case-insensitive name searches.
+     *
+     * @return the folded last name
+     */
+    String getFoldedLastName() {
+        return foldedLastName;
+    }
+
+    /**
+     * Gets the key that identifies the holder regardless of the case of the names.
+     *
+     * @return the folded first name, folded last name, and date of birth
+     */
+    String getFoldedKey() {
+        return foldedFirstName + "," + foldedLastName + "," + dateOfBirth;
+    }
+
     /**
      * Compares two Profile objects
      * Concatenates last name to first name of each Profile object before comparing
@@ -240,6 +305,9 @@ public class Profile implements Comparable<Profile> {
      */
     @Override
     public int compareTo(Profile other) {
+        if (this == other) {
+            return 0;
+        }
         String name = this.firstName + this.lastName;
         String otherName = other.firstName + other.lastName;
         int nameComparison = name.compareTo(otherName); //String compareTo() method
@@ -261,19 +329,39 @@ public class Profile implements Comparable<Profile> {
 
     /**
      * Compares two Profile objects for equality
+     * Profiles from the same ProfileRegistry are compared by holder id;
+     * otherwise the precomputed hash and folded names are compared.
      *
      * @param obj other Profile being checked for equality
-     * @return true if they are the same object: first name and last name are the same
+     * @return true if they are the same object: first name and last name are the same, ignoring case,
+     * and the date of birth is the same
      * false otherwise
      */
     @Override
     public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
         if (obj instanceof Profile) {
             Profile other = (Profile) obj;
-            return this.firstName.equalsIgnoreCase(other.firstName)
-                    && this.lastName.equalsIgnoreCase(other.lastName)
+            if (this.id != NOT_REGISTERED && other.id != NOT_REGISTERED) {
+                return this.id == other.id;
+            }
+            return this.hash == other.hash
+                    && this.foldedFirstName.equals(other.foldedFirstName)
+                    && this.foldedLastName.equals(other.foldedLastName)
                     && this.dateOfBirth.equals(other.dateOfBirth);
         }
         return false;
     }
+
+    /**
+     * Returns a hash code for the Profile that is consistent with equals.
+     *
+     * @return the hash of the folded names and date of birth
+     */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
 }
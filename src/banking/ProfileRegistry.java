@@ -0,0 +1,151 @@
+package banking;
+
+import util.Date;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+
+/**
+ * The ProfileRegistry class interns the Profiles of account holders.
+ * A holder who owns several Accounts gets one shared Profile for each spelling of their name,
+ * so the names and date of birth are stored once instead of once per Account.
+ * Every spelling of the same holder, ignoring case, is given the same holder id,
+ * so Profile.equals compares two ints instead of folding the case of both names.
+ * Profiles are held weakly: once no Account, open or archived, refers to a Profile it is collected
+ * and dropped from the registry, and a holder id is dropped with the last spelling that had it,
+ * so a long-running Transaction Manager does not keep every holder it has ever seen.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class ProfileRegistry {
+
+    /**
+     * Interned Profiles by exact first name, last name, and date of birth.
+     */
+    private static final HashMap<String, Interned> PROFILES = new HashMap<>();
+
+    /**
+     * Holder ids by folded first name, last name, and date of birth.
+     */
+    private static final HashMap<String, HolderId> IDS = new HashMap<>();
+
+    /**
+     * Interned Profiles that have been collected, to be dropped from the registry.
+     */
+    private static final ReferenceQueue<Profile> COLLECTED = new ReferenceQueue<>();
+
+    /**
+     * The holder id given to the next holder; ids are never given out twice.
+     */
+    private static int nextId = 1;
+
+    /**
+     * A weak reference to an interned Profile, with the keys it is registered under.
+     */
+    private static class Interned extends WeakReference<Profile> {
+
+        /**
+         * The exact first name, last name, and date of birth of the Profile.
+         */
+        private final String key;
+
+        /**
+         * The folded first name, last name, and date of birth of the Profile.
+         */
+        private final String foldedKey;
+
+        /**
+         * Creates a weak reference to a newly interned Profile.
+         *
+         * @param profile the Profile
+         * @param key     the exact key of the Profile
+         */
+        private Interned(Profile profile, String key) {
+            super(profile, COLLECTED);
+            this.key = key;
+            this.foldedKey = profile.getFoldedKey();
+        }
+    }
+
+    /**
+     * A holder id with the number of interned spellings of the holder's name sharing it.
+     */
+    private static class HolderId {
+
+        /**
+         * The holder id.
+         */
+        private final int id;
+
+        /**
+         * Number of interned Profiles with this holder id that have not been collected.
+         */
+        private int spellings;
+
+        /**
+         * Creates a holder id with no spellings yet.
+         *
+         * @param id the holder id
+         */
+        private HolderId(int id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * Returns the interned Profile for a holder, creating it the first time the holder is seen.
+     *
+     * @param firstName   String representation of the holder's first name
+     * @param lastName    String representation of the holder's last name
+     * @param dateOfBirth Date object that holds the month, date, and year of holder's birthday
+     * @return the shared Profile for the holder with this spelling of their name
+     */
+    public static synchronized Profile intern(String firstName, String lastName, Date dateOfBirth) {
+        dropCollected();
+        String key = firstName + "," + lastName + "," + dateOfBirth;
+        Interned interned = PROFILES.get(key);
+        Profile profile = interned == null ? null : interned.get();
+        if (profile == null) {
+            profile = new Profile(firstName, lastName, dateOfBirth);
+            HolderId holderId = IDS.get(profile.getFoldedKey());
+            if (holderId == null) {
+                holderId = new HolderId(nextId++);
+                IDS.put(profile.getFoldedKey(), holderId);
+            }
+            holderId.spellings++;
+            profile.setId(holderId.id);
+            PROFILES.put(key, new Interned(profile, key));
+        }
+        return profile;
+    }
+
+    /**
+     * Returns the number of distinct holders, ignoring the case of their names, whose Profiles are still in use.
+     *
+     * @return the number of holder ids held
+     */
+    public static synchronized int holders() {
+        dropCollected();
+        return IDS.size();
+    }
+
+    /**
+     * Drops the Profiles that have been collected, and the holder ids no remaining Profile has.
+     * A Profile interned again under the same key after its reference was cleared is kept.
+     */
+    private static void dropCollected() {
+        Reference<? extends Profile> reference;
+        while ((reference = COLLECTED.poll()) != null) {
+            Interned interned = (Interned) reference;
+            if (PROFILES.get(interned.key) == interned) {
+                PROFILES.remove(interned.key);
+            }
+            HolderId holderId = IDS.get(interned.foldedKey);
+            if (holderId != null && --holderId.spellings == 0) {
+                IDS.remove(interned.foldedKey);
+            }
+        }
+    }
+}
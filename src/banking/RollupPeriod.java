@@ -0,0 +1,67 @@
+package banking;
+
+import util.Date;
+
+/**
+ * The RollupPeriod enum class represents the length of the period old Activities are summarized over
+ * when they are compacted into ActivityRollups.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public enum RollupPeriod {
+
+    /**
+     * One summary per Account per day.
+     */
+    DAY,
+
+    /**
+     * One summary per Account per calendar month.
+     */
+    MONTH;
+
+    /**
+     * Number of months in a year, for numbering months across years.
+     */
+    private static final int MONTHS_IN_YEAR = 12;
+
+    /**
+     * Returns the number of the period a date falls in: its day counted from 1/1/1970,
+     * or its month counted from the start of year 0.
+     *
+     * @param date the date
+     * @return the key of the period
+     */
+    public int key(Date date) {
+        return this == DAY ? date.toEpochDay() : date.getYear() * MONTHS_IN_YEAR + date.getMonth() - Date.MONTH_OFFSET;
+    }
+
+    /**
+     * Returns the period with a key as text: a date for a day, month/year for a month.
+     *
+     * @param key the key of the period
+     * @return the period as text
+     */
+    public String label(int key) {
+        if (this == DAY) {
+            return Date.ofEpochDay(key).toString();
+        }
+        return (key % MONTHS_IN_YEAR + Date.MONTH_OFFSET) + "/" + key / MONTHS_IN_YEAR;
+    }
+
+    /**
+     * Converts a command token to a RollupPeriod: "D" for DAY, "M" for MONTH, ignoring case.
+     *
+     * @param code the command token
+     * @return the RollupPeriod, null if the token names neither
+     */
+    public static RollupPeriod fromCode(String code) {
+        if (code.equalsIgnoreCase("D")) {
+            return DAY;
+        }
+        if (code.equalsIgnoreCase("M")) {
+            return MONTH;
+        }
+        return null;
+    }
+}
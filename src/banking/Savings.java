@@ -46,6 +46,18 @@ public class Savings extends Account {
         isLoyal = TransactionManager.accountDatabase.contains(holder, AccountType.CHECKING);
     }
 
+    /**
+     * Constructs a Savings account read back from storage, with its stored account number.
+     * The loyal status is stored with the account, so it is restored afterwards rather than looked up.
+     *
+     * @param number  The stored account number.
+     * @param holder  The profile of the account holder.
+     * @param balance The stored balance in the savings account.
+     */
+    Savings(AccountNumber number, Profile holder, double balance) {
+        super(number, holder, balance);
+    }
+
     /**
      * Updates the loyalty status of the savings account holder.
      * A loyal customer is eligible for a higher interest rate.
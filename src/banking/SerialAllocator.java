@@ -0,0 +1,315 @@
+package banking;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The SerialAllocator class hands out the 4-digit serial numbers of AccountNumbers for one Branch and AccountType.
+ * Used serials are kept in a bitmap, so a serial is never given to two open Accounts.
+ * A serial is first drawn from a seeded random sequence; if it is taken, the next free serial after it is used.
+ * Every serial is drawn from one shared sequence, so the account numbers are the ones given before the allocators
+ * were added, and "accounts.txt" and "activities.txt" keep matching. The draws are counted, so processes that
+ * each open some of the Accounts can skip the draws made by the others and give the same numbers.
+ * Setting the "banking.serials" system property to "independent" gives each Branch and AccountType its own sequence,
+ * so allocators never contend for a generator and the account numbers of one Branch and AccountType do not depend
+ * on those opened elsewhere; the numbers then differ from those in the bundled files.
+ * Bits are claimed with compare-and-set on the words of the bitmap, so Accounts can be opened from several
+ * threads without a lock.
+ * Serials of Accounts moved to the Archive are remembered, and when every serial is in use they are reclaimed.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class SerialAllocator {
+
+    /**
+     * Number of serials available to each Branch and AccountType: 0000 to 9999.
+     */
+    public static final int SERIALS = 10000;
+
+    /**
+     * Returned by allocate when every serial is in use and none can be reclaimed.
+     */
+    public static final int NONE = -1;
+
+    /**
+     * for a fix sequence of random numbers
+     */
+    private static final int SEED = 9999;
+
+    /**
+     * The single sequence every allocator draws from, unless "banking.serials" is "independent"; null then.
+     */
+    private static final Random SHARED = "independent".equalsIgnoreCase(System.getProperty("banking.serials", ""))
+            ? null : new Random(SEED);
+
+    /**
+     * Number of serials drawn from the shared sequence, including the draws skipped.
+     */
+    private static final AtomicLong DRAWS = new AtomicLong();
+
+    /**
+     * Number of bits in each word of the bitmap.
+     */
+    private static final int BITS_PER_WORD = 64;
+
+    /**
+     * Shift that turns a serial into the index of its word.
+     */
+    private static final int WORD_SHIFT = 6;
+
+    /**
+     * Number of words in the bitmap.
+     */
+    private static final int WORDS = (SERIALS + BITS_PER_WORD - 1) / BITS_PER_WORD;
+
+    /**
+     * The allocators, indexed by Branch ordinal then AccountType ordinal.
+     */
+    private static final SerialAllocator[][] ALLOCATORS = createAllocators();
+
+    /**
+     * Whether serials of archived Accounts are reclaimed when every serial is in use.
+     */
+    private static volatile boolean reclaimArchived = true;
+
+    /**
+     * Bitmap of the serials in use.
+     */
+    private final AtomicLongArray used;
+
+    /**
+     * Bitmap of the serials of Accounts that have been moved to the Archive.
+     */
+    private final AtomicLongArray archived;
+
+    /**
+     * Draws the random 4 digit serial number tried before looking for a free one when each allocator has its own sequence;
+     * null when every allocator draws from the shared sequence.
+     */
+    private final Random random;
+
+    /**
+     * Creates an empty SerialAllocator, with its own random sequence unless the shared sequence is used.
+     *
+     * @param seed the seed of its own random sequence
+     */
+    private SerialAllocator(long seed) {
+        this.used = new AtomicLongArray(WORDS);
+        this.archived = new AtomicLongArray(WORDS);
+        this.random = SHARED != null ? null : new Random(seed);
+    }
+
+    /**
+     * Creates an allocator for every Branch and AccountType.
+     *
+     * @return the allocators, indexed by Branch ordinal then AccountType ordinal
+     */
+    private static SerialAllocator[][] createAllocators() {
+        SerialAllocator[][] allocators = new SerialAllocator[Branch.values().length][AccountType.values().length];
+        for (int i = 0; i < allocators.length; i++) {
+            for (int j = 0; j < allocators[i].length; j++) {
+                allocators[i][j] = new SerialAllocator((long) SEED * (i * allocators[i].length + j + 1));
+            }
+        }
+        return allocators;
+    }
+
+    /**
+     * Returns the allocator for a Branch and AccountType.
+     *
+     * @param branch the Branch of the AccountNumber
+     * @param type   the AccountType of the AccountNumber
+     * @return the allocator shared by every AccountNumber with this Branch and AccountType
+     */
+    public static SerialAllocator of(Branch branch, AccountType type) {
+        return ALLOCATORS[branch.ordinal()][type.ordinal()];
+    }
+
+    /**
+     * Sets whether serials of archived Accounts are reclaimed when every serial is in use.
+     *
+     * @param reclaim true to reuse archived serials once the serials run out,
+     * false to never reuse a serial
+     */
+    public static void setReclaimArchived(boolean reclaim) {
+        reclaimArchived = reclaim;
+    }
+
+    /**
+     * Returns the number of serials drawn from the shared sequence so far, counting the draws skipped.
+     *
+     * @return the number of draws, 0 if each allocator has its own sequence
+     */
+    public static long draws() {
+        return DRAWS.get();
+    }
+
+    /**
+     * Skips draws of the shared sequence until as many have been made as in another process,
+     * so the next serial drawn is the one that process would draw next.
+     * Does nothing if each allocator has its own sequence.
+     *
+     * @param count the number of draws made by the other process
+     */
+    public static void skipTo(long count) {
+        if (SHARED == null) {
+            return;
+        }
+        synchronized (SHARED) {
+            while (DRAWS.get() < count) {
+                SHARED.nextInt(SEED);
+                DRAWS.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Skips one draw of the shared sequence, for an Account opened by another process.
+     * Does nothing if each allocator has its own sequence.
+     */
+    public static void skip() {
+        skipTo(DRAWS.get() + 1);
+    }
+
+    /**
+     * Claims a serial that is not used by any open Account.
+     * A serial is drawn even if none is left, so the shared sequence stays the same in every process.
+     *
+     * @return the claimed serial, from 0 to 9999; NONE if every serial is in use and none can be reclaimed
+     */
+    public int allocate() {
+        int start;
+        if (SHARED != null) {
+            synchronized (SHARED) {
+                start = SHARED.nextInt(SEED);
+                DRAWS.incrementAndGet();
+            }
+        } else {
+            start = random.nextInt(SERIALS);
+        }
+        int serial = claimFrom(start);
+        while (serial == -1 && reclaimArchived && reclaim()) {
+            serial = claimFrom(start);
+        }
+        return serial == -1 ? NONE : serial;
+    }
+
+    /**
+     * Claims a specific serial, for an Account whose AccountNumber is read back from storage.
+     *
+     * @param serial the stored serial
+     */
+    public void reserve(int serial) {
+        setBit(used, serial);
+    }
+
+    /**
+     * Frees a serial that was claimed but is not used by any Account.
+     *
+     * @param serial the serial being freed
+     */
+    public void release(int serial) {
+        int word = serial >>> WORD_SHIFT;
+        long current;
+        do {
+            current = used.get(word);
+        } while (!used.compareAndSet(word, current, current & ~(1L << serial)));
+    }
+
+    /**
+     * Marks a serial as belonging to an Account that has been moved to the Archive.
+     * The serial stays in use until it is reclaimed.
+     *
+     * @param serial the serial of the archived Account
+     */
+    public void archive(int serial) {
+        setBit(archived, serial);
+    }
+
+    /**
+     * Checks if a serial is in use.
+     *
+     * @param serial the serial being checked
+     * @return true if the serial has been claimed and not reclaimed
+     * false otherwise
+     */
+    public boolean isUsed(int serial) {
+        return (used.get(serial >>> WORD_SHIFT) & (1L << serial)) != 0;
+    }
+
+    /**
+     * Claims the first free serial at or after the start, wrapping around to 0.
+     *
+     * @param start the serial to try first
+     * @return the claimed serial, -1 if every serial is in use
+     */
+    private int claimFrom(int start) {
+        int startWord = start >>> WORD_SHIFT;
+        long fromStart = -1L << start;
+        for (int n = 0; n <= WORDS; n++) {
+            int word = (startWord + n) % WORDS;
+            long mask = n == 0 ? fromStart : n == WORDS ? ~fromStart : -1L;
+            if (word == WORDS - 1) {
+                mask &= lastWordMask();
+            }
+            while (true) {
+                long bits = used.get(word);
+                long free = ~bits & mask;
+                if (free == 0) {
+                    break;
+                }
+                long bit = Long.lowestOneBit(free);
+                if (used.compareAndSet(word, bits, bits | bit)) {
+                    return word * BITS_PER_WORD + Long.numberOfTrailingZeros(bit);
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Frees every serial that belongs to an archived Account.
+     *
+     * @return true if at least one serial was freed
+     * false otherwise
+     */
+    private boolean reclaim() {
+        boolean reclaimed = false;
+        for (int word = 0; word < WORDS; word++) {
+            long bits = archived.getAndSet(word, 0);
+            if (bits != 0) {
+                reclaimed = true;
+                long current;
+                do {
+                    current = used.get(word);
+                } while (!used.compareAndSet(word, current, current & ~bits));
+            }
+        }
+        return reclaimed;
+    }
+
+    /**
+     * Sets the bit of a serial in a bitmap.
+     *
+     * @param bitmap the bitmap being changed
+     * @param serial the serial whose bit is set
+     */
+    private static void setBit(AtomicLongArray bitmap, int serial) {
+        int word = serial >>> WORD_SHIFT;
+        long current;
+        do {
+            current = bitmap.get(word);
+        } while (!bitmap.compareAndSet(word, current, current | (1L << serial)));
+    }
+
+    /**
+     * Returns the mask of the bits in the last word that are serials.
+     *
+     * @return a mask with one bit set for each serial in the last word
+     */
+    private static long lastWordMask() {
+        int bits = SERIALS - (WORDS - 1) * BITS_PER_WORD;
+        return bits == BITS_PER_WORD ? -1L : (1L << bits) - 1;
+    }
+}
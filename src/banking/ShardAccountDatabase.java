@@ -0,0 +1,279 @@
+package banking;
+
+import util.Date;
+import util.List;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Scanner;
+
+/**
+ * The ShardAccountDatabase class is the AccountDatabase of a ShardWorker, which holds the Accounts of some Branches.
+ * A holder may own Accounts in other shards, so before an Account is opened the ShardCoordinator tells the shard
+ * which AccountTypes the holder owns elsewhere, and the duplicate account check counts them too.
+ * A transfer to an Account in another shard is made in two halves: the ShardCoordinator names the remote Account
+ * to the shard of the source, which makes the withdrawal and holds the amount as pending until the coordinator
+ * has deposited it in the shard of the destination; the pending amount is then settled, or redeposited
+ * in the source if the destination could not be credited.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class ShardAccountDatabase extends AccountDatabase {
+
+    /**
+     * The holder whose Accounts in other shards are known, null if none are.
+     */
+    private Profile remoteHolder;
+
+    /**
+     * AccountTypes of the Accounts the remote holder owns in other shards.
+     */
+    private List<AccountType> remoteTypes;
+
+    /**
+     * Number of the Account in another shard that a transfer may be made to, null if there is none.
+     */
+    private AccountNumber remoteAccount;
+
+    /**
+     * Amount withdrawn by a transfer to the remote Account and not yet settled or reversed.
+     */
+    private double outgoing;
+
+    /**
+     * Number of the Account the pending amount was withdrawn from, null if nothing is pending.
+     */
+    private AccountNumber outgoingFrom;
+
+    /**
+     * Date of the transfer whose amount is pending, null if nothing is pending.
+     */
+    private Date outgoingOn;
+
+    /**
+     * Whether the shard holds the Accounts of each Branch, indexed by ordinal; null until the Branches are set.
+     */
+    private boolean[] owned;
+
+    /**
+     * Constructs an empty ShardAccountDatabase object.
+     */
+    public ShardAccountDatabase() {
+        super();
+        this.remoteTypes = new List<>();
+    }
+
+    /**
+     * Records the Branches whose Accounts the shard holds.
+     *
+     * @param owned whether the shard holds the Accounts of each Branch, indexed by ordinal
+     */
+    public void setOwned(boolean[] owned) {
+        this.owned = owned;
+    }
+
+    /**
+     * Loads the Accounts of the Branches this shard holds from the text file.
+     * The lines of other Branches are skipped by their branch field, before any Account is created for them,
+     * so the shard never claims their serials; the draw of the shared serial sequence each would have made is skipped,
+     * so the serials of the shard's own lines are those a single process gives them. A Savings account is loyal when its holder's Checking account
+     * was listed before it in any Branch, so the holders of the Checking lines of other Branches are remembered.
+     *
+     * @param file the File object containing account information to load
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    @Override
+    public void loadAccounts(File file) throws IOException {
+        HashSet<Profile> checkingHolders = new HashSet<>();
+        List<AccountType> checking = new List<>();
+        checking.add(AccountType.CHECKING);
+        try (Scanner scanner = new Scanner(file)) {
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine();
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                String[] parts = line.split(",");
+                Branch branch = Validator.toBranch(parts[1]);
+                if (branch != null && owned != null && !owned[branch.ordinal()]) {
+                    if (parts[0].equalsIgnoreCase("checking")) {
+                        checkingHolders.add(ProfileRegistry.intern(parts[2], parts[3], TransactionManager.createDate(parts[4])));
+                    }
+                    SerialAllocator.skip();
+                    continue;
+                }
+                if (parts[0].equalsIgnoreCase("savings")) {
+                    Profile holder = ProfileRegistry.intern(parts[2], parts[3], TransactionManager.createDate(parts[4]));
+                    if (checkingHolders.contains(holder)) {
+                        setRemoteHoldings(holder, checking);
+                    }
+                }
+                Account account = TransactionManager.createAccount(parts);
+                if (account.getAccountNumber().isAssigned()) {
+                    this.add(account);
+                }
+                clearRemoteHoldings();
+            }
+        }
+    }
+
+    /**
+     * Checks if an Account with a number belongs to a Branch of this shard,
+     * so activity lines for the Accounts of other shards are not rejected as missing.
+     *
+     * @param accountNumber the number of the Account
+     * @return true if the Account's Branch belongs to this shard, or the Branches have not been set
+     * false otherwise
+     */
+    @Override
+    protected boolean owns(AccountNumber accountNumber) {
+        return owned == null || owned[accountNumber.getBranch().ordinal()];
+    }
+
+    /**
+     * Records that an Account exists in another shard, so it can be the destination of a transfer.
+     *
+     * @param number the number of the Account in another shard, null to forget it
+     */
+    public void setRemoteAccount(AccountNumber number) {
+        this.remoteAccount = number;
+    }
+
+    /**
+     * Returns the amount withdrawn by a transfer to the remote Account that is still pending.
+     * The amount stays pending until it is settled or reversed.
+     *
+     * @return the amount to deposit in the other shard, 0 if no transfer is pending
+     */
+    public double getOutgoing() {
+        return outgoing;
+    }
+
+    /**
+     * Returns the date of the transfer whose amount is pending, so the other shard records its half on the same day.
+     *
+     * @return the date of the pending transfer, null if no transfer is pending
+     */
+    public Date getOutgoingDate() {
+        return outgoingOn;
+    }
+
+    /**
+     * Forgets the pending amount once the other shard has deposited it.
+     */
+    public void settleOutgoing() {
+        outgoing = 0;
+        outgoingFrom = null;
+        outgoingOn = null;
+    }
+
+    /**
+     * Redeposits the pending amount in the Account it was withdrawn from, when the other shard could not deposit it.
+     * The redeposit is recorded as money received by the transfer, so a Money Market source still counts the withdrawal.
+     */
+    public void reverseOutgoing() {
+        if (outgoingFrom != null && outgoing > 0) {
+            receive(outgoingFrom, outgoing, outgoingOn);
+        }
+        settleOutgoing();
+    }
+
+    /**
+     * Deposits the amount of a transfer made in another shard, recorded as money received on the date of the transfer.
+     *
+     * @param number AccountNumber of the Account the money is added to
+     * @param amount value of money received
+     * @param date   the date of the transfer
+     * @return true if the Account is in this shard and was credited
+     * false otherwise
+     */
+    public boolean receive(AccountNumber number, double amount, Date date) {
+        int index = find(number);
+        if (index == -1) {
+            return false;
+        }
+        accrueToBookDay(this.get(index));
+        this.get(index).receive(date, amount);
+        changed(index);
+        return true;
+    }
+
+    /**
+     * Checks if an Account is in this shard or is the recorded remote Account.
+     *
+     * @param accountNumber that is being searched for
+     * @return true if the Account is in this shard or is the remote Account
+     * false otherwise
+     */
+    @Override
+    public boolean contains(AccountNumber accountNumber) {
+        return accountNumber.equals(remoteAccount) || super.contains(accountNumber);
+    }
+
+    /**
+     * Moves money between two Accounts of this shard, or makes the withdrawal half of a transfer
+     * to the remote Account and holds the amount as pending for the coordinator.
+     *
+     * @param from   AccountNumber of the Account the money is taken from
+     * @param to     AccountNumber of the Account the money is added to
+     * @param amount value of money that will be moved
+     * @param date   the date of the transfer
+     * @return true if the money was moved, or withdrawn for the remote Account
+     * false otherwise
+     */
+    @Override
+    public boolean transfer(AccountNumber from, AccountNumber to, double amount, Date date) {
+        if (!to.equals(remoteAccount)) {
+            return super.transfer(from, to, amount, date);
+        }
+        int source = find(from);
+        if (source == -1) {
+            return false;
+        }
+        accrueToBookDay(this.get(source));
+        if (!this.get(source).send(date, amount)) {
+            return false;
+        }
+        changed(source);
+        outgoing += amount;
+        outgoingFrom = from;
+        outgoingOn = date;
+        return true;
+    }
+
+    /**
+     * Records the AccountTypes a holder owns in other shards.
+     *
+     * @param holder Profile of the holder
+     * @param types  AccountTypes of the holder's Accounts in other shards
+     */
+    public void setRemoteHoldings(Profile holder, List<AccountType> types) {
+        this.remoteHolder = holder;
+        this.remoteTypes = types;
+    }
+
+    /**
+     * Forgets the Accounts of the holder in other shards.
+     */
+    public void clearRemoteHoldings() {
+        this.remoteHolder = null;
+        this.remoteTypes = new List<>();
+    }
+
+    /**
+     * Checks if a holder owns an Account of a type in this shard or, as recorded, in another shard.
+     *
+     * @param holder Profile object representing the account holder to search for
+     * @param type   AccountType object representing the type of account to search for
+     * @return true if the holder owns an Account of the type in any shard,
+     * false otherwise
+     */
+    @Override
+    public boolean contains(Profile holder, AccountType type) {
+        if (remoteHolder != null && remoteHolder.equals(holder) && remoteTypes.contains(type)) {
+            return true;
+        }
+        return super.contains(holder, type);
+    }
+}
@@ -0,0 +1,549 @@
+package banking;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Scanner;
+
+/**
+ * The ShardCoordinator class runs the Transaction Manager over several ShardWorker processes on the same machine.
+ * The Branches are dealt out to the workers, so each worker holds the Accounts of its Branches in its own heap.
+ * Commands on one Account are routed to the worker of the Branch in its AccountNumber, and opening an Account
+ * to the worker of its Branch. Holder queries (C by name, PH, PS) are scattered to every worker and the replies are
+ * gathered in holder order. Other reports are printed shard by shard.
+ * Workers are reached over loopback sockets.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class ShardCoordinator {
+
+    /**
+     * Number of workers started when none is given.
+     */
+    private static final int DEFAULT_WORKERS = 2;
+
+    /**
+     * Printed by the TransactionManager after a command when its database is empty.
+     */
+    private static final String EMPTY = "Account database is empty!";
+
+    /**
+     * The workers, in the order their shards are printed.
+     */
+    private final Worker[] workers;
+
+    /**
+     * The worker that owns each Branch, indexed by Branch ordinal.
+     */
+    private final Worker[] owners;
+
+    /**
+     * Whether a worker reported an empty database while the current command was executed.
+     */
+    private boolean sawEmpty;
+
+    /**
+     * Starts the workers and deals the Branches out to them by ordinal.
+     *
+     * @param count number of workers
+     * @throws IOException if a worker cannot be started or reached
+     */
+    private ShardCoordinator(int count) throws IOException {
+        this.workers = new Worker[count];
+        this.owners = new Worker[Branch.values().length];
+        for (int k = 0; k < count; k++) {
+            ArrayList<String> branches = new ArrayList<>();
+            for (Branch branch : Branch.values()) {
+                if (branch.ordinal() % count == k) {
+                    branches.add(branch.name());
+                }
+            }
+            workers[k] = new Worker(branches);
+            for (Branch branch : Branch.values()) {
+                if (branch.ordinal() % count == k) {
+                    owners[branch.ordinal()] = workers[k];
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the sharded Transaction Manager.
+     *
+     * @param args the number of worker processes, 2 by default and at most one per Branch
+     * @throws IOException if an I/O error occurs while talking to a worker
+     */
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_WORKERS;
+        new ShardCoordinator(Math.max(1, Math.min(count, Branch.values().length))).run();
+    }
+
+    /**
+     * Reads commands until "Q" is read, then stops every worker.
+     *
+     * @throws IOException if an I/O error occurs while talking to a worker
+     */
+    private void run() throws IOException {
+        System.out.println("Accounts in \"accounts.txt\" loaded to the database.");
+        System.out.println("Transaction Manager is running.");
+        Scanner scanner = new Scanner(System.in);
+        while (true) { // loop only ends when a "Q" is read
+            String command = scanner.nextLine();
+            if (command.trim().isEmpty()) {
+                continue;
+            }
+            String[] commandArray = command.split("\\s+");
+            if (commandArray[0].equals("Q")) {
+                for (Worker worker : workers) {
+                    worker.stop();
+                }
+                System.out.println("Transaction Manager is terminated. ");
+                return;
+            }
+            sawEmpty = false;
+            dispatch(command, commandArray);
+            if (sawEmpty && size() == 0) {
+                System.out.println(EMPTY);
+            }
+        }
+    }
+
+    /**
+     * Sends a command to the workers that need it and prints the gathered reply.
+     *
+     * @param command      the command line as typed
+     * @param commandArray the command split into tokens
+     * @throws IOException if an I/O error occurs while talking to a worker
+     */
+    private void dispatch(String command, String[] commandArray) throws IOException {
+        switch (commandArray[0]) {
+            case "O" -> {
+                open(command, commandArray);
+                syncDraws();
+            }
+            case "D", "W", "PD" -> print(ownerOf(commandArray.length > 1 ? commandArray[1] : "").send(command));
+            case "T" -> transfer(command, commandArray);
+            case "OB", "CB" -> replay(commandArray);
+            case "C" -> {
+                if (commandArray.length == 3) {
+                    closeOne(command, commandArray[2]);
+                } else if (commandArray.length == 5) {
+                    closeByName(command);
+                } else {
+                    print(workers[0].send(command));
+                }
+            }
+            case "PH" -> printByHolder();
+            case "PS" -> printStatements();
+            case "PB", "PT", "PA", "PG", "PR", "PN", "PQ", "PF", "PV", "PK", "KS", "PL", "AL", "EB", "EC", "A", "AR", "AF", "AX", "I", "R" -> {
+                for (int k = 0; k < workers.length; k++) {
+                    String reply = strip(workers[k].send(command));
+                    if (!reply.isEmpty()) {
+                        System.out.println("*Shard " + (k + 1) + " " + workers[k].branches);
+                        System.out.print(reply);
+                    }
+                }
+            }
+            default -> print(workers[0].send(command));
+        }
+    }
+
+    /**
+     * Opens an Account on the worker of its Branch. The AccountTypes the holder owns on other workers
+     * are sent first, so the duplicate account check covers every shard.
+     *
+     * @param command      the command line as typed
+     * @param commandArray the command split into tokens
+     * @throws IOException if an I/O error occurs while talking to a worker
+     */
+    private void open(String command, String[] commandArray) throws IOException {
+        if (commandArray.length < 6 || !Validator.checkDate(commandArray[5]).isValid()) {
+            print(workers[0].send(command));
+            return;
+        }
+        Branch branch = Validator.toBranch(commandArray[2]);
+        Worker owner = branch == null ? workers[0] : owners[branch.ordinal()];
+        String holder = commandArray[3] + " " + commandArray[4] + " " + commandArray[5];
+        String types = "";
+        for (Worker worker : workers) {
+            if (worker != owner) {
+                types += worker.send("#types " + holder);
+            }
+        }
+        if (!types.isEmpty()) {
+            owner.send("#remote " + holder + " " + types.trim());
+        }
+        print(owner.send(command));
+        if (!types.isEmpty()) {
+            owner.send("#remote");
+        }
+    }
+
+    /**
+     * Brings every worker to the same number of draws from the shared serial sequence, after an open made some
+     * on one worker only, so the next Account opened on any worker gets the number a single process would give it.
+     *
+     * @throws IOException if an I/O error occurs while talking to a worker
+     */
+    private void syncDraws() throws IOException {
+        long[] draws = new long[workers.length];
+        long most = 0;
+        for (int k = 0; k < workers.length; k++) {
+            draws[k] = Long.parseLong(workers[k].send("#draws").trim());
+            most = Math.max(most, draws[k]);
+        }
+        for (int k = 0; k < workers.length; k++) {
+            if (draws[k] < most) {
+                workers[k].send("#draws " + most);
+            }
+        }
+    }
+
+    /**
+     * Moves money between two Accounts. When they are on different workers, the worker of the source is told
+     * the destination exists and makes the withdrawal, holding the amount as pending; the amount is then deposited
+     * on the worker of the destination, dated the day the source recorded for the transfer, and the source settles it once the destination replies that it was credited,
+     * or redeposits it in the source Account if it was not. The coordinator runs one command at a time,
+     * so no other command sees the halves apart.
+     * The two workers do not commit together: if the destination deposits the amount but its reply is lost,
+     * the source redeposits it too, and if the source worker stops while an amount is pending, the withdrawal
+     * is kept by a persistent store but the amount is not deposited anywhere.
+     *
+     * @param command      the command line as typed
+     * @param commandArray the command split into tokens
+     * @throws IOException if an I/O error occurs while talking to a worker; a pending amount is redeposited first
+     */
+    private void transfer(String command, String[] commandArray) throws IOException {
+        Worker source = ownerOf(commandArray.length > 1 ? commandArray[1] : "");
+        Worker destination = ownerOf(commandArray.length > 2 ? commandArray[2] : "");
+        if (source == destination || commandArray.length < 4 || !Validator.checkAccountNumber(commandArray[2]).isValid()) {
+            print(source.send(command));
+            return;
+        }
+        if (destination.send("#holder " + commandArray[2]).isEmpty()) {
+            print(source.send(command));
+            return;
+        }
+        source.send("#account " + commandArray[2]);
+        String reply = source.send(command);
+        source.send("#account");
+        String[] outgoing = source.send("#outgoing").split(" ");
+        double amount = Double.parseDouble(outgoing[0]);
+        if (amount <= 0) {
+            print(reply);
+            return;
+        }
+        boolean credited;
+        try {
+            credited = destination.send("#credit " + commandArray[2] + " " + amount + " " + outgoing[1])
+                    .equals(ShardWorker.CREDITED);
+        } catch (IOException e) {
+            source.send("#reverse");
+            throw e;
+        }
+        if (credited) {
+            source.send("#settle");
+            print(reply);
+        } else {
+            source.send("#reverse");
+            System.out.println(commandArray[2] + " could not be credited; the transfer from " + commandArray[1] + " was reversed.");
+        }
+    }
+
+    /**
+     * Opens or closes the Accounts listed in a file by sending each line as its own "O" or "C" command,
+     * since the Accounts of one file belong to different workers and each open checks every shard for duplicates.
+     *
+     * @param commandArray the bulk command split into tokens
+     * @throws IOException if the file cannot be read or an I/O error occurs while talking to a worker
+     */
+    private void replay(String[] commandArray) throws IOException {
+        boolean open = commandArray[0].equals("OB");
+        File file = commandArray.length > (open ? 1 : 2) ? new File(commandArray[open ? 1 : 2]) : null;
+        if (file == null || !file.isFile()) {
+            print(workers[0].send(String.join(" ", commandArray)));
+            return;
+        }
+        try (Scanner scanner = new Scanner(file)) {
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine().trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String command = (open ? "O " : "C " + commandArray[1] + " ") + String.join(" ", line.split("[,\\s]+"));
+                dispatch(command, command.split("\\s+"));
+            }
+        }
+    }
+
+    /**
+     * Closes one Account on the worker of its Branch. When a Checking account is closed,
+     * the holder's Savings accounts on the other workers lose their loyal status.
+     *
+     * @param command the command line as typed
+     * @param number  the account number token
+     * @throws IOException if an I/O error occurs while talking to a worker
+     */
+    private void closeOne(String command, String number) throws IOException {
+        Worker owner = ownerOf(number);
+        boolean checking = Validator.checkAccountNumber(number).isValid()
+                && new AccountNumber(number).getType() == AccountType.CHECKING;
+        String holder = checking ? owner.send("#holder " + number) : "";
+        print(owner.send(command));
+        if (!holder.isEmpty() && owner.send("#holder " + number).isEmpty()) {
+            for (Worker worker : workers) {
+                if (worker != owner) {
+                    worker.send("#unloyal " + holder);
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes every Account of a holder on every worker, printing one header, the closed Accounts
+     * of every worker, and one footer.
+     *
+     * @param command the command line as typed
+     * @throws IOException if an I/O error occurs while talking to a worker
+     */
+    private void closeByName(String command) throws IOException {
+        String[] replies = new String[workers.length];
+        String header = null;
+        String footer = null;
+        for (int k = 0; k < workers.length; k++) {
+            replies[k] = strip(workers[k].send(command));
+            for (String line : replies[k].split("\n")) {
+                if (line.startsWith("Closing accounts for")) {
+                    header = line;
+                } else if (line.startsWith("All accounts for")) {
+                    footer = line;
+                }
+            }
+        }
+        if (header == null) {
+            System.out.print(replies[0]);
+            return;
+        }
+        System.out.println(header);
+        for (String reply : replies) {
+            for (String line : reply.split("\n")) {
+                if (line.startsWith("--")) {
+                    System.out.println(line);
+                }
+            }
+        }
+        System.out.println(footer);
+    }
+
+    /**
+     * Prints the Accounts of every worker ordered by holder, then account number.
+     *
+     * @throws IOException if an I/O error occurs while talking to a worker
+     */
+    private void printByHolder() throws IOException {
+        ArrayList<String[]> records = gather("#PH");
+        if (records.isEmpty()) {
+            System.out.println(EMPTY);
+            return;
+        }
+        System.out.println("\n*List of accounts ordered by account holder and number.");
+        for (String[] record : records) {
+            System.out.println(record[1]);
+        }
+        System.out.println("*end of list.\n");
+    }
+
+    /**
+     * Prints the statements of every worker grouped by holder.
+     *
+     * @throws IOException if an I/O error occurs while talking to a worker
+     */
+    private void printStatements() throws IOException {
+        ArrayList<String[]> records = gather("#PS");
+        if (records.isEmpty()) {
+            System.out.println(EMPTY);
+            return;
+        }
+        System.out.println("*Account statements by account holder.");
+        int holderCount = 0;
+        String currentHolder = null;
+        for (String[] record : records) {
+            String holder = record[0].substring(0, record[0].lastIndexOf('\u0000'));
+            if (!holder.equals(currentHolder)) {
+                holderCount++;
+                currentHolder = holder;
+                System.out.println(holderCount + "." + record[1]);
+            }
+            System.out.println("\t[Account#] " + record[2]);
+            System.out.print(record[3]);
+            System.out.println();
+        }
+        System.out.println("*end of statements.\n");
+    }
+
+    /**
+     * Sends a request for keyed records to every worker and merges the records by key.
+     *
+     * @param request the request for records
+     * @return the records of every worker ordered by key
+     * @throws IOException if an I/O error occurs while talking to a worker
+     */
+    private ArrayList<String[]> gather(String request) throws IOException {
+        ArrayList<String[]> records = new ArrayList<>();
+        for (Worker worker : workers) {
+            for (String record : worker.send(request).split(String.valueOf(ShardWorker.RECORD))) {
+                if (!record.isEmpty()) {
+                    records.add(record.split(String.valueOf(ShardWorker.FIELD), -1));
+                }
+            }
+        }
+        records.sort((a, b) -> a[0].compareTo(b[0]));
+        return records;
+    }
+
+    /**
+     * Returns the number of Accounts on every worker.
+     *
+     * @return the total number of Accounts
+     * @throws IOException if an I/O error occurs while talking to a worker
+     */
+    private int size() throws IOException {
+        int size = 0;
+        for (Worker worker : workers) {
+            size += Integer.parseInt(worker.send("#size"));
+        }
+        return size;
+    }
+
+    /**
+     * Returns the worker of the Branch in an account number, or the first worker if there is none,
+     * which then reports the invalid account number.
+     *
+     * @param number the account number token
+     * @return the worker the command is routed to
+     */
+    private Worker ownerOf(String number) {
+        if (!Validator.checkAccountNumber(number).isValid()) {
+            return workers[0];
+        }
+        Branch branch = new AccountNumber(number).getBranch();
+        return branch == null ? workers[0] : owners[branch.ordinal()];
+    }
+
+    /**
+     * Prints the reply of a worker without its empty database message.
+     *
+     * @param reply what the worker printed
+     */
+    private void print(String reply) {
+        System.out.print(strip(reply));
+    }
+
+    /**
+     * Removes the empty database message from the reply of a worker, remembering that it was there.
+     * The coordinator prints the message once, when every shard is empty.
+     *
+     * @param reply what the worker printed
+     * @return the reply without the message
+     */
+    private String strip(String reply) {
+        if (!reply.contains(EMPTY + "\n")) {
+            return reply;
+        }
+        sawEmpty = true;
+        return reply.replace(EMPTY + "\n", "");
+    }
+
+    /**
+     * A ShardWorker process and the connection to it.
+     */
+    private static class Worker {
+
+        /**
+         * Names of the Branches owned by the worker.
+         */
+        private final ArrayList<String> branches;
+
+        /**
+         * The worker process.
+         */
+        private final Process process;
+
+        /**
+         * The connection to the worker.
+         */
+        private final Socket socket;
+
+        /**
+         * Reads replies from the worker.
+         */
+        private final DataInputStream in;
+
+        /**
+         * Writes commands to the worker.
+         */
+        private final DataOutputStream out;
+
+        /**
+         * Starts a ShardWorker for some Branches and connects to the port it prints.
+         *
+         * @param branches names of the Branches owned by the worker
+         * @throws IOException if the worker cannot be started or reached
+         */
+        private Worker(ArrayList<String> branches) throws IOException {
+            this.branches = branches;
+            ArrayList<String> command = new ArrayList<>();
+            command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(ShardWorker.class.getName());
+            command.addAll(branches);
+            this.process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+            String port = new BufferedReader(new InputStreamReader(process.getInputStream())).readLine();
+            if (port == null) {
+                throw new IOException("Shard worker for " + branches + " did not start.");
+            }
+            this.socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(port.trim()));
+            this.in = new DataInputStream(socket.getInputStream());
+            this.out = new DataOutputStream(socket.getOutputStream());
+        }
+
+        /**
+         * Sends a command to the worker and waits for its reply.
+         *
+         * @param command the command line or request
+         * @return what the worker printed while executing the command
+         * @throws IOException if an I/O error occurs on the connection
+         */
+        private String send(String command) throws IOException {
+            out.writeUTF(command);
+            out.flush();
+            byte[] reply = new byte[in.readInt()];
+            in.readFully(reply);
+            return new String(reply, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Tells the worker to stop and waits for it to exit.
+         *
+         * @throws IOException if an I/O error occurs on the connection
+         */
+        private void stop() throws IOException {
+            out.writeUTF("Q");
+            out.flush();
+            try {
+                process.waitFor();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            socket.close();
+        }
+    }
+}
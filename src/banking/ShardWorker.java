@@ -0,0 +1,235 @@
+package banking;
+
+import util.Date;
+import util.List;
+import util.Sort;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The ShardWorker class is one process of a sharded deployment started by a ShardCoordinator.
+ * It loads the Accounts of the Branches named on its command line, listens on a loopback port,
+ * and executes the commands sent by the coordinator, replying with what the TransactionManager printed.
+ * Commands starting with '#' are requests from the coordinator itself: holder lookups across shards,
+ * and keyed records of the holder reports, which the coordinator merges in order.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class ShardWorker {
+
+    /**
+     * Separates the fields of a record in a reply.
+     */
+    static final char FIELD = '\u001f';
+
+    /**
+     * Ends each record in a reply.
+     */
+    static final char RECORD = '\u001e';
+
+    /**
+     * Reply to a credit request when the amount was deposited.
+     */
+    static final String CREDITED = "credited";
+
+    /**
+     * Added to an epoch day so every date of birth has a non-negative key of the same width.
+     */
+    private static final int EPOCH_DAY_OFFSET = 10000000;
+
+    /**
+     * The database of the shard.
+     */
+    private final ShardAccountDatabase database;
+
+    /**
+     * Creates a ShardWorker over the accountDatabase of the TransactionManager.
+     *
+     * @param database the database of the shard
+     */
+    private ShardWorker(ShardAccountDatabase database) {
+        this.database = database;
+    }
+
+    /**
+     * Starts a ShardWorker for the named Branches.
+     * The port it listens on is printed as the first line of standard output.
+     * Its activity checkpoints, dead-letter files, and alerts are named after its Branches, so workers sharing a directory keep separate ones.
+     *
+     * @param args names of the Branches owned by the shard
+     * @throws IOException if an I/O error occurs while loading Accounts or talking to the coordinator
+     */
+    public static void main(String[] args) throws IOException {
+        System.setProperty("banking.storage", "shard");
+        System.setProperty("banking.shard", String.join("-", args).toLowerCase());
+        boolean[] owned = new boolean[Branch.values().length];
+        for (String name : args) {
+            owned[Validator.toBranch(name).ordinal()] = true;
+        }
+        ShardAccountDatabase database = (ShardAccountDatabase) TransactionManager.accountDatabase;
+        database.setOwned(owned);
+        database.loadAccounts(new File("accounts.txt"));
+        database.getDetector().open(AnomalyDetector.defaultFile());
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            System.out.println(server.getLocalPort());
+            System.out.flush();
+            try (Socket socket = server.accept()) {
+                new ShardWorker(database).serve(socket);
+            }
+        }
+    }
+
+    /**
+     * Executes commands from the coordinator until "Q" is received.
+     * Each command is a UTF string; each reply is a length followed by UTF-8 bytes.
+     *
+     * @param socket the connection to the coordinator
+     * @throws IOException if an I/O error occurs on the connection
+     */
+    private void serve(Socket socket) throws IOException {
+        DataInputStream in = new DataInputStream(socket.getInputStream());
+        DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+        PrintStream console = System.out;
+        while (true) {
+            String command = in.readUTF();
+            if (command.equals("Q")) {
+                TransactionManager.stopFollowing();
+                database.getDetector().close();
+                return;
+            }
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            System.setOut(new PrintStream(buffer, true, StandardCharsets.UTF_8));
+            try {
+                if (command.startsWith("#")) {
+                    request(command.substring(1).split("\\s+"));
+                } else {
+                    TransactionManager.execute(command);
+                }
+            } finally {
+                System.out.flush();
+                System.setOut(console);
+            }
+            byte[] reply = buffer.toByteArray();
+            out.writeInt(reply.length);
+            out.write(reply);
+            out.flush();
+        }
+    }
+
+    /**
+     * Answers a request from the coordinator, printing the reply.
+     * #size --> number of Accounts in the shard
+     * #types first last dob --> AccountTypes the holder owns in the shard
+     * #remote [first last dob type...] --> records or clears the holder's AccountTypes in other shards
+     * #holder number --> holder of an Account, empty if it is not in the shard
+     * #unloyal first last dob --> clears the loyal status of the holder's Savings accounts
+     * #account [number] --> records or clears an Account of another shard that a transfer may be made to
+     * #outgoing --> amount withdrawn by a transfer to that Account that is still pending, and the date of the transfer
+     * #settle --> forgets the pending amount, once the other shard has deposited it
+     * #reverse --> redeposits the pending amount in the Account it was withdrawn from
+     * #credit number amount date --> deposits the amount withdrawn in another shard by a transfer on the date, replying "credited"
+     * #draws [count] --> number of serials drawn from the shared sequence; with a count, first skips draws up to it
+     * #PH --> records of the Accounts ordered by holder
+     * #PS --> records of the statements ordered by holder
+     *
+     * @param request the request split into tokens, without the '#'
+     */
+    private void request(String[] request) {
+        switch (request[0]) {
+            case "size" -> System.out.print(database.size());
+            case "types" -> {
+                Profile holder = holder(request, 1);
+                for (AccountType type : AccountType.values()) {
+                    if (database.contains(holder, type)) {
+                        System.out.print(type.name() + " ");
+                    }
+                }
+            }
+            case "remote" -> {
+                if (request.length < 4) {
+                    database.clearRemoteHoldings();
+                    return;
+                }
+                List<AccountType> types = new List<>();
+                for (int i = 4; i < request.length; i++) {
+                    types.add(AccountType.valueOf(request[i]));
+                }
+                database.setRemoteHoldings(holder(request, 1), types);
+            }
+            case "holder" -> {
+                int index = database.find(new AccountNumber(request[1]));
+                if (index != -1) {
+                    Profile holder = database.get(index).getHolder();
+                    System.out.print(holder.getFirstName() + " " + holder.getLastName() + " " + holder.getDateOfBirth());
+                }
+            }
+            case "unloyal" -> database.clearLoyalty(holder(request, 1));
+            case "account" -> database.setRemoteAccount(request.length < 2 ? null : new AccountNumber(request[1]));
+            case "outgoing" -> System.out.print(database.getOutgoing()
+                    + (database.getOutgoingDate() == null ? "" : " " + database.getOutgoingDate()));
+            case "settle" -> database.settleOutgoing();
+            case "reverse" -> database.reverseOutgoing();
+            case "credit" -> {
+                if (database.receive(new AccountNumber(request[1]), Double.parseDouble(request[2]),
+                        TransactionManager.createDate(request[3]))) {
+                    System.out.print(CREDITED);
+                }
+            }
+            case "draws" -> {
+                if (request.length > 1) {
+                    SerialAllocator.skipTo(Long.parseLong(request[1]));
+                }
+                System.out.print(SerialAllocator.draws());
+            }
+            case "PH" -> {
+                Sort.account(database, 'H');
+                for (Account account : database) {
+                    System.out.print(key(account) + FIELD + account + RECORD);
+                }
+            }
+            case "PS" -> {
+                Sort.account(database, 'H');
+                for (Account account : database) {
+                    System.out.print(key(account) + FIELD + account.getHolder() + FIELD + account.getAccountNumber() + FIELD);
+                    account.statement();
+                    System.out.print(RECORD);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the Profile named by three tokens of a request.
+     *
+     * @param request the request split into tokens
+     * @param start   index of the first name; the last name and date of birth follow it
+     * @return the Profile of the holder
+     */
+    private static Profile holder(String[] request, int start) {
+        return new Profile(request[start], request[start + 1], TransactionManager.createDate(request[start + 2]));
+    }
+
+    /**
+     * Returns a key that orders Accounts the same way Account.compareTo does:
+     * by last name and first name ignoring case, then date of birth, then account number.
+     * The key before the last separator identifies the holder.
+     *
+     * @param account the Account being keyed
+     * @return the key of the Account
+     */
+    static String key(Account account) {
+        Date dob = account.getDateOfBirth();
+        return account.getLastName().toLowerCase() + '\u0000' + account.getFirstName().toLowerCase() + '\u0000'
+                + String.format("%08d", dob.toEpochDay() + EPOCH_DAY_OFFSET) + '\u0000'
+                + String.format("%09d", account.getAccountNumber().toInt());
+    }
+}
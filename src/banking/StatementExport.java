@@ -0,0 +1,148 @@
+package banking;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+
+/**
+ * StatementExport is a task that writes the Accounts of one Branch or county to a file of their own:
+ * the list of the Accounts, then their statements by holder, in the text the PH and PS commands print.
+ * The text of each Account is encoded as it is produced into a large direct buffer,
+ * which is written through a FileChannel each time it fills, so neither the text nor the bytes of a file
+ * are ever all held in memory at once.
+ * Each task owns its Accounts and its file, so the tasks of an export run on a fixed thread pool without locking,
+ * and the export takes as long as its largest Branch or county.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class StatementExport implements Callable<Integer> {
+
+    /**
+     * Size in bytes of the direct buffer each file is written through.
+     */
+    public static final int BUFFER_SIZE = 1 << 20;
+
+    /**
+     * The file the Accounts are written to.
+     */
+    private final File file;
+
+    /**
+     * Name of the Branch or county, for the headers of the file.
+     */
+    private final String name;
+
+    /**
+     * The Accounts of the Branch or county, ordered by holder and number when the file is written.
+     */
+    private final ArrayList<Account> accounts;
+
+    /**
+     * Creates a StatementExport task for the Accounts of one Branch or county.
+     *
+     * @param file     the file the Accounts are written to
+     * @param name     name of the Branch or county
+     * @param accounts the Accounts, in any order
+     */
+    public StatementExport(File file, String name, ArrayList<Account> accounts) {
+        this.file = file;
+        this.name = name;
+        this.accounts = accounts;
+    }
+
+    /**
+     * Writes the list and the statements of the Accounts to the file, replacing what it held.
+     * The text of each Account is encoded as soon as it is produced, so only one Account's text is held at a time.
+     *
+     * @return the number of Accounts written
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public Integer call() throws IOException {
+        accounts.sort(null);
+        String newLine = System.lineSeparator();
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            StringBuilder text = new StringBuilder();
+            text.append("*List of accounts in ").append(name).append(" ordered by account holder and number.").append(newLine);
+            for (Account account : accounts) {
+                text.append(account).append(newLine);
+                text = encode(text, encoder, buffer, channel);
+            }
+            text.append("*end of list.").append(newLine).append(newLine);
+            text.append("*Account statements by account holder.").append(newLine);
+            int holderCount = 0;
+            for (int i = 0; i < accounts.size(); i++) {
+                if (i == 0 || !accounts.get(i).getHolder().equals(accounts.get(i - 1).getHolder())) {
+                    holderCount++;
+                    text.append(holderCount).append('.').append(accounts.get(i).getHolder()).append(newLine);
+                }
+                text.append("\t[Account#] ").append(accounts.get(i).getAccountNumber()).append(newLine);
+                text.append(accounts.get(i).getStatement()).append(newLine);
+                text = encode(text, encoder, buffer, channel);
+            }
+            text.append("*end of statements.").append(newLine);
+            encode(text, encoder, buffer, channel);
+            CoderResult result;
+            do {
+                result = encoder.encode(CharBuffer.allocate(0), buffer, true);
+                drain(channel, buffer);
+            } while (result.isOverflow());
+            do {
+                result = encoder.flush(buffer);
+                drain(channel, buffer);
+            } while (result.isOverflow());
+        }
+        return accounts.size();
+    }
+
+    /**
+     * Encodes text into the direct buffer, writing the buffer to the file each time it fills,
+     * and leaves the bytes that did not fill it in the buffer for the text after it.
+     *
+     * @param text    the text produced since the last call
+     * @param encoder the encoder of the file
+     * @param buffer  the direct buffer, being filled
+     * @param channel the channel of the file
+     * @return the builder, holding only what could not be encoded yet, for the text after it
+     * @throws IOException if the file cannot be written
+     */
+    private static StringBuilder encode(StringBuilder text, CharsetEncoder encoder, ByteBuffer buffer,
+                                        FileChannel channel) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        CoderResult result;
+        while ((result = encoder.encode(chars, buffer, false)).isOverflow()) {
+            drain(channel, buffer);
+        }
+        if (result.isError()) {
+            result.throwException();
+        }
+        text.delete(0, chars.position());
+        return text;
+    }
+
+    /**
+     * Writes everything in the buffer to the file and empties the buffer.
+     *
+     * @param channel the channel of the file
+     * @param buffer  the buffer, being filled
+     * @throws IOException if the file cannot be written
+     */
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
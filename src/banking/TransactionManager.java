@@ -6,7 +6,10 @@ import util.List;
 import java.io.File;
 import java.io.IOException;
 import java.text.DecimalFormat;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Scanner;
+import java.util.function.BiPredicate;
 
 /**
  * Transaction Manager class that reads in transactions from the command line.
@@ -19,7 +22,7 @@ public class TransactionManager {
     /**
      * The Account Database holds all the Accounts.
      */
-    public static final AccountDatabase accountDatabase = new AccountDatabase();
+    public static final AccountDatabase accountDatabase = AccountDatabase.create();
 
     /**
      * Formats numbers for easy readability.
@@ -37,19 +40,32 @@ public class TransactionManager {
      */
     private static final double CD_MINIMUM = 1000;
 
-    /**
-     * Represents the number of days in a year, typically used for calculations
-     * involving annual durations. This value is based on a standard year with
-     * 365 days.
-     */
-    private static final double DAYS_IN_YEAR = 365;
-
     /**
      * Represents the decimal value for ten percent, used to calculate a percentage or ratio.
      * Typically employed in financial calculations or percentage adjustments throughout the system.
      */
     private static final double TEN_PERCENT = 0.1;
 
+    /**
+     * Number of nanoseconds in one second, used to report throughput.
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * Number of holders a holder search prints unless it is given a count.
+     */
+    private static final int HOLDER_SEARCH_SIZE = 10;
+
+    /**
+     * Number of nanoseconds in one millisecond, used to report how long an export took.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * The stream following "activities.txt"; null if it has never been followed.
+     */
+    private static ActivityStream stream;
+
     /**
      * Executes the transaction manager process.
      * This method loads account data from an external file, initializes the system,
@@ -57,6 +73,7 @@ public class TransactionManager {
      * The system continuously listens for user input and processes commands
      * until a termination command ("Q") is received. Commands are interpreted and
      * executed in real-time.
+     * Alerts on deposits and withdrawals are appended to "alerts.txt" while it runs.
      *
      * @throws IOException if there is an issue accessing or reading the account file.
      */
@@ -64,34 +81,66 @@ public class TransactionManager {
         accountDatabase.loadAccounts(new File("accounts.txt"));
         System.out.println("Accounts in \"accounts.txt\" loaded to the database.");
         System.out.println("Transaction Manager is running.");
+        accountDatabase.getDetector().open(AnomalyDetector.defaultFile());
 
         Scanner scanner = new Scanner(System.in);
         while (true) { // loop only ends when a "Q" is read
             String command = scanner.nextLine();
-            String[] commandArray = command.split("\\s+");
             if (command.trim().isEmpty()) {
                 continue;
             }
-            if (commandArray[0].equals("Q")) {
+            if (command.split("\\s+")[0].equals("Q")) {
+                stopFollowing();
+                accountDatabase.getDetector().close();
                 System.out.println("Transaction Manager is terminated. ");
                 return;
             }
-            processCommand(commandArray);
+            execute(command);
+        }
+    }
+
+    /**
+     * Executes one command line other than "Q" against the accountDatabase.
+     * Used by run() and by a ShardWorker executing the commands sent by its ShardCoordinator.
+     * Holds the lock of the accountDatabase, so a batch of a followed feed is never applied during a command.
+     *
+     * @param command the command line as typed
+     * @throws IOException if an I/O error occurs during command processing
+     */
+    public static void execute(String command) throws IOException {
+        if (command.trim().isEmpty()) {
+            return;
+        }
+        synchronized (accountDatabase) {
+            processCommand(command.split("\\s+"));
+        }
+    }
+
+    /**
+     * Stops following "activities.txt", if it is being followed, once the batch being applied is checkpointed.
+     * Used by run() and by a ShardWorker when "Q" is received.
+     *
+     * @throws IOException if the stream failed or the feed cannot be closed
+     */
+    public static void stopFollowing() throws IOException {
+        if (stream != null) {
+            ActivityStream stopping = stream;
+            stream = null;
+            stopping.stop();
         }
     }
 
     /**
      * Creates a Branch object from a provided String representation of the branch.
-     * Throws exception if the Branch name provided is invalid.
+     * Prints a message and returns null if the Branch name provided is invalid.
      *
      * @param branchName String representation of the Branch where the Account was opened
-     * @return Branch of the Account
+     * @return Branch of the Account,
+     * null if the Branch name is invalid
      */
     public static Branch createBranch(String branchName) {
-        Branch branch = null;
-        try {
-            branch = Branch.valueOf(branchName.toUpperCase());
-        } catch (IllegalArgumentException e) {
+        Branch branch = Validator.toBranch(branchName);
+        if (branch == null) {
             System.out.println(branchName + " - invalid branch.");
         }
         return branch;
@@ -153,28 +202,575 @@ public class TransactionManager {
 
     /**
      * Processes account activities from the file "activities.txt".
-     * <p>
      * This method reads the account activity data contained in the "activities.txt"
      * file and processes it using the accountDatabase's processActivities method.
      * It outputs log messages to the console indicating the start and completion
      * of activity processing.
+     * "A" starts a new run over the file; "AR" resumes the last run from its checkpoint and reports its progress.
+     * Accounts kept only in memory are reloaded from "accounts.txt" at startup, so "AR" is refused when the checkpoint
+     * was saved by an earlier process; only a mapped or cached store keeps the lines applied before it.
+     * Lines that cannot be applied are counted by reason and written to the dead-letter file of the feed.
      *
+     * @param resume true to resume the last run, false to start a new one
      * @throws IOException if an I/O error occurs while processing the file.
      */
-    private static void processActivities() throws IOException {
-        System.out.println("Processing \"activities.txt\"...");
-        accountDatabase.processActivities(new File("activities.txt"));
+    private static void processActivities(boolean resume) throws IOException {
+        if (resume && !accountDatabase.canResume(new File("activities.txt"))) {
+            System.out.println("Cannot resume \"activities.txt\": its checkpoint was saved by an earlier run "
+                    + "and the accounts are kept in memory only; use A to start a new run.");
+            return;
+        }
+        System.out.println((resume ? "Resuming" : "Processing") + " \"activities.txt\"...");
+        ActivityFeed feed = accountDatabase.processActivities(new File("activities.txt"), resume);
+        if (resume) {
+            System.out.println(feed.report());
+        }
         System.out.println("Account activities in \"activities.txt\" processed.");
+        printRejections(feed);
+    }
+
+    /**
+     * Follows "activities.txt" as it is written when the first command is "AF",
+     * resuming from the last checkpoint if there is one that the accounts held can resume, and stops following it when the first command is "AX".
+     * The lines are applied in the background; "PL" reports how far behind the stream is.
+     *
+     * @param follow true to start following, false to stop
+     * @throws IOException if the feed cannot be opened or the stream failed
+     */
+    private static void followActivities(boolean follow) throws IOException {
+        if (follow) {
+            if (stream != null && stream.isRunning()) {
+                System.out.println("Already following \"activities.txt\".");
+                return;
+            }
+            File file = new File("activities.txt");
+            stream = new ActivityStream(accountDatabase, file,
+                    ActivityFeed.checkpointFile(file).exists() && accountDatabase.canResume(file));
+            stream.start();
+            System.out.println("Following \"activities.txt\"...");
+            return;
+        }
+        if (stream == null) {
+            System.out.println("Not following \"activities.txt\".");
+            return;
+        }
+        ActivityStream stopped = stream;
+        stopFollowing();
+        System.out.println(stopped.lag());
+        System.out.println(stopped.getFeed().report());
+        printRejections(stopped.getFeed());
+    }
+
+    /**
+     * Prints how far the stream following "activities.txt" is behind, and the lines it has rejected.
+     * Formatting of input:
+     * PL
+     */
+    private static void printLag() {
+        if (stream == null) {
+            System.out.println("Not following \"activities.txt\".");
+            return;
+        }
+        System.out.println(stream.lag());
+        printRejections(stream.getFeed());
+    }
+
+    /**
+     * Exports the list and the statements of every Account to one file per Branch, or per county,
+     * written in parallel, and prints how long the export took.
+     * Formatting of input:
+     * EB [directory]
+     * EC [directory]
+     *
+     * @param commandArray Holds the input that has been extracted and put into a String array
+     * @throws IOException if the directory or a file cannot be written
+     */
+    private static void exportStatements(String[] commandArray) throws IOException {
+        File directory = new File(commandArray.length > 1 ? commandArray[1] : "statements");
+        long start = System.nanoTime();
+        int files = accountDatabase.exportStatements(directory, commandArray[0].equals("EC"));
+        long elapsed = System.nanoTime() - start;
+        System.out.println(accountDatabase.size() + " accounts exported to " + files + " files in \"" + directory
+                + "\" (" + df.format(elapsed / NANOS_PER_MILLI) + " ms).");
+    }
+
+    /**
+     * Prints the number of lines of a feed rejected with each reason, if any were.
+     *
+     * @param feed the feed of "activities.txt"
+     */
+    private static void printRejections(ActivityFeed feed) {
+        String rejections = feed.rejections();
+        if (!rejections.isEmpty()) {
+            System.out.println("Lines rejected to \"" + feed.getRejectsName() + "\": " + rejections + ".");
+        }
+    }
+
+    /**
+     * Executed to move money from one Account to another when the first command is "T".
+     * Checks for valid inputs, that both Accounts exist and differ, and that the source has the funds.
+     * The accountDatabase makes the withdrawal and the deposit in one step, so the money is never in neither Account;
+     * a Money Market source follows the same rules as a withdrawal.
+     * Both halves are recorded as a transfer on the transfer date, or, without one, on the day the book has been
+     * rolled to; the book itself is not rolled, so the Accounts accrue through the book day as for D and W.
+     * Formatting of input:
+     * T fromAccountNumber toAccountNumber amount [transferDate]
+     *
+     * @param commandArray Holds the input that has been extracted and put into a String array
+     */
+    private static void transferMoney(String[] commandArray) {
+        if (!Validator.checkTokens(commandArray, 4).isValid()) {
+            System.out.println("Missing data tokens for the transfer.");
+            return;
+        }
+        ValidationResult result = Validator.checkAmount(commandArray[3]);
+        if (result == ValidationResult.INVALID_AMOUNT) {
+            System.out.println("For input string: \"" + commandArray[3] + "\" - not a valid amount.");
+            return;
+        }
+        double transferAmount = Double.parseDouble(commandArray[3]);
+        if (result == ValidationResult.NON_POSITIVE_AMOUNT) {
+            System.out.println(transferAmount + " transfer amount cannot be 0 or negative.");
+            return;
+        }
+        for (int i = 1; i <= 2; i++) {
+            if (!Validator.checkAccountNumber(commandArray[i]).isValid() || !accountDatabase.contains(new AccountNumber(commandArray[i]))) {
+                System.out.println(commandArray[i] + " does not exist.");
+                return;
+            }
+        }
+        if (commandArray.length > 4 && !(Validator.checkDate(commandArray[4]).isValid() && createDate(commandArray[4]).isValid())) {
+            System.out.println(commandArray[4] + " - invalid date.");
+            return;
+        }
+        Date date = commandArray.length > 4 ? createDate(commandArray[4]) : accountDatabase.getBookDate();
+        AccountNumber from = new AccountNumber(commandArray[1]);
+        AccountNumber to = new AccountNumber(commandArray[2]);
+        if (from.equals(to)) {
+            System.out.println(from + " - cannot transfer to the same account.");
+            return;
+        }
+        Account source = accountDatabase.get(accountDatabase.find(from));
+        String warning = source.getType() == AccountType.MONEY_MARKET && source.getBalance() - transferAmount < MONEY_MARKET_MINIMUM
+                ? from + " balance below $2,000 - " : "";
+        if (!accountDatabase.transfer(from, to, transferAmount, date)) {
+            System.out.println(warning + "$" + df.format(transferAmount) + " - insufficient funds.");
+            return;
+        }
+        System.out.println(warning + "$" + df.format(transferAmount) + " transferred from " + from + " to " + to);
+    }
+
+    /**
+     * Executed to post interest and fees to every Account when the first command is "I".
+     * Formatting of input:
+     * I postingDate
+     * Accounts already posted on or after the date are skipped, so the command can be repeated safely.
+     *
+     * @param commandArray Holds the input that has been extracted and put into a String array
+     */
+    private static void postInterest(String[] commandArray) {
+        if (!Validator.checkTokens(commandArray, 2).isValid()) {
+            System.out.println("Missing data tokens for posting interest.");
+            return;
+        }
+        if (!Validator.checkDate(commandArray[1]).isValid() || !createDate(commandArray[1]).isValid()) {
+            System.out.println(commandArray[1] + " - invalid date.");
+            return;
+        }
+        Date date = createDate(commandArray[1]);
+        accountDatabase.rollTo(date);
+        long start = System.nanoTime();
+        int posted = accountDatabase.postInterest(date);
+        long elapsed = Math.max(System.nanoTime() - start, 1);
+        System.out.println("Interest and fees posted to " + posted + " of " + accountDatabase.size()
+                + " accounts on " + date + " (" + df.format(posted * NANOS_PER_SECOND / elapsed) + " accounts/sec).");
+    }
+
+    /**
+     * Executed to compact old activities into summaries when the first command is "R".
+     * Formatting of input:
+     * R horizonDate [D|M]
+     * Activities dated before the horizon are summarized per Account per day (D) or per month (M, the default).
+     *
+     * @param commandArray Holds the input that has been extracted and put into a String array
+     */
+    private static void compactActivities(String[] commandArray) {
+        if (!Validator.checkTokens(commandArray, 2).isValid()) {
+            System.out.println("Missing data tokens for compacting activities.");
+            return;
+        }
+        if (!Validator.checkDate(commandArray[1]).isValid() || !createDate(commandArray[1]).isValid()) {
+            System.out.println(commandArray[1] + " - invalid date.");
+            return;
+        }
+        RollupPeriod period = commandArray.length > 2 ? RollupPeriod.fromCode(commandArray[2]) : RollupPeriod.MONTH;
+        if (period == null) {
+            System.out.println(commandArray[2] + " - invalid period.");
+            return;
+        }
+        Date horizon = createDate(commandArray[1]);
+        int compacted = accountDatabase.compactActivities(horizon, period);
+        System.out.println(compacted + " activities before " + horizon + " compacted by " + period.name().toLowerCase() + ".");
+    }
+
+    /**
+     * Executed to print the Activities of an Account dated in a range when the first command is "PD".
+     * Formatting of input:
+     * PD accountNumber fromDate toDate
+     * Activities dated from the first date through the second are printed in date order.
+     *
+     * @param commandArray Holds the input that has been extracted and put into a String array
+     */
+    private static void printActivityRange(String[] commandArray) {
+        if (!Validator.checkTokens(commandArray, 4).isValid()) {
+            System.out.println("Missing data tokens for the activity range.");
+            return;
+        }
+        int index = Validator.checkAccountNumber(commandArray[1]).isValid()
+                ? accountDatabase.find(new AccountNumber(commandArray[1])) : -1;
+        if (index == -1) {
+            System.out.println(commandArray[1] + " does not exist.");
+            return;
+        }
+        for (int i = 2; i < 4; i++) {
+            if (!Validator.checkDate(commandArray[i]).isValid() || !createDate(commandArray[i]).isValid()) {
+                System.out.println(commandArray[i] + " - invalid date.");
+                return;
+            }
+        }
+        Date from = createDate(commandArray[2]);
+        Date to = createDate(commandArray[3]);
+        List<Activity> activities = accountDatabase.get(index).getActivities(from, to);
+        System.out.println("\n*" + activities.size() + " activities of " + commandArray[1] + " from " + from + " to " + to + ".");
+        for (Activity activity : activities) {
+            System.out.println(activity);
+        }
+        System.out.println("*end of list.\n");
+    }
+
+    /**
+     * Executed to print the deposits and withdrawals made at each Branch on each day of a range,
+     * through an ATM or a teller, then their totals by Branch, when the first command is "PV".
+     * Formatting of input:
+     * PV fromDate toDate
+     * Reads the counters of the ActivityTraffic of the accountDatabase, so it takes time in the number of Branches and days, not Activities.
+     *
+     * @param commandArray Holds the input that has been extracted and put into a String array
+     */
+    private static void printTraffic(String[] commandArray) {
+        if (!Validator.checkTokens(commandArray, 3).isValid()) {
+            System.out.println("Missing data tokens for the activity traffic.");
+            return;
+        }
+        for (int i = 1; i < 3; i++) {
+            if (!Validator.checkDate(commandArray[i]).isValid() || !createDate(commandArray[i]).isValid()) {
+                System.out.println(commandArray[i] + " - invalid date.");
+                return;
+            }
+        }
+        Date from = createDate(commandArray[1]);
+        Date to = createDate(commandArray[2]);
+        ActivityTraffic traffic = accountDatabase.getTraffic();
+        int branches = Branch.values().length;
+        long[] counts = new long[branches * ActivityTraffic.KINDS];
+        double[] totals = new double[branches * ActivityTraffic.KINDS];
+        long[] dayCounts = new long[branches * ActivityTraffic.KINDS];
+        double[] dayTotals = new double[branches * ActivityTraffic.KINDS];
+        System.out.println("\n*Activity traffic by branch from " + from + " to " + to + ".");
+        for (int day : traffic.days(from.toEpochDay(), to.toEpochDay())) {
+            for (Branch branch : Branch.values()) {
+                int at = branch.ordinal() * ActivityTraffic.KINDS;
+                long dayCount = 0;
+                for (int kind = 0; kind < ActivityTraffic.KINDS; kind++) { // ATM first, deposits before withdrawals
+                    dayCounts[at + kind] = traffic.count(day, branch, kind < 2, kind % 2 == 0);
+                    dayTotals[at + kind] = traffic.total(day, branch, kind < 2, kind % 2 == 0);
+                    counts[at + kind] += dayCounts[at + kind];
+                    totals[at + kind] += dayTotals[at + kind];
+                    dayCount += dayCounts[at + kind];
+                }
+                if (dayCount > 0) {
+                    System.out.println(Date.ofEpochDay(day) + " " + branch + ": " + traffic(dayCounts, dayTotals, at));
+                }
+            }
+        }
+        System.out.println("*Totals by branch.");
+        for (Branch branch : Branch.values()) {
+            System.out.println(branch + ": " + traffic(counts, totals, branch.ordinal() * ActivityTraffic.KINDS));
+        }
+        System.out.println("*end of list.\n");
+    }
+
+    /**
+     * Returns the ATM and teller deposits and withdrawals of a Branch as text.
+     *
+     * @param counts the counts, by Branch and kind
+     * @param totals the totals, by Branch and kind
+     * @param at     index of the ATM deposits of the Branch
+     * @return the counts and totals, ATM first
+     */
+    private static String traffic(long[] counts, double[] totals, int at) {
+        return "ATM " + counts[at] + " deposits $" + df.format(totals[at]) + ", " + counts[at + 1] + " withdrawals $"
+                + df.format(totals[at + 1]) + "; teller " + counts[at + 2] + " deposits $" + df.format(totals[at + 2])
+                + ", " + counts[at + 3] + " withdrawals $" + df.format(totals[at + 3]);
+    }
+
+    /**
+     * Executed to print the checksum of the book and the root of the Merkle tree of each Branch when the first command is "PK".
+     * Formatting of input:
+     * PK [file]
+     * Given a file written by "KS", also prints the ranges of account numbers whose Accounts differ from the checksum in it.
+     *
+     * @param commandArray Holds the input that has been extracted and put into a String array
+     * @throws IOException if the file cannot be read
+     */
+    private static void printChecksum(String[] commandArray) throws IOException {
+        BookChecksum saved = null;
+        File file = null;
+        if (commandArray.length > 1) {
+            file = checksumFile(commandArray[1]);
+            if (!file.isFile()) {
+                System.out.println("\"" + file + "\" does not exist.");
+                return;
+            }
+            try {
+                saved = BookChecksum.load(file);
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
+                return;
+            }
+        }
+        BookChecksum checksum = accountDatabase.getChecksum();
+        System.out.println("\n*Book checksum " + String.format("%016x", checksum.total()) + " over " + checksum.count() + " accounts.");
+        for (Branch branch : Branch.values()) {
+            System.out.println(branch + ": " + String.format("%016x", checksum.root(branch)));
+        }
+        if (saved != null) {
+            List<String> ranges = checksum.diff(saved);
+            System.out.println("*" + ranges.size() + " ranges differ from \"" + file + "\" ("
+                    + String.format("%016x", saved.total()) + " over " + saved.count() + " accounts).");
+            for (String range : ranges) {
+                System.out.println(range);
+            }
+        }
+        System.out.println("*end of list.\n");
+    }
+
+    /**
+     * Executed to save the checksum of the book, with the leaves of the Merkle tree of each Branch, when the first command is "KS".
+     * Formatting of input:
+     * KS [file]
+     * The file, "checksum.txt" by default, can be compared with the book of this or another Transaction Manager by "PK".
+     *
+     * @param commandArray Holds the input that has been extracted and put into a String array
+     * @throws IOException if the file cannot be written
+     */
+    private static void saveChecksum(String[] commandArray) throws IOException {
+        File file = checksumFile(commandArray.length > 1 ? commandArray[1] : "checksum.txt");
+        accountDatabase.getChecksum().save(file);
+        System.out.println("Checksum of " + accountDatabase.getChecksum().count() + " accounts saved to \"" + file + "\".");
+    }
+
+    /**
+     * Returns a checksum file, with the Branches of the shard before its extension
+     * when the "banking.shard" system property names them, so each shard compares its own part of the book.
+     *
+     * @param name the name of the file
+     * @return the checksum file
+     */
+    private static File checksumFile(String name) {
+        String shard = System.getProperty("banking.shard", "");
+        if (shard.isEmpty()) {
+            return new File(name);
+        }
+        int dot = name.lastIndexOf('.');
+        return dot > name.lastIndexOf(File.separatorChar) + 1
+                ? new File(name.substring(0, dot) + "." + shard + name.substring(dot))
+                : new File(name + "." + shard);
+    }
+
+    /**
+     * Executed to print the Accounts of an AccountType in a balance range when the first command is "PR".
+     * Formatting of input:
+     * PR accountType minimum maximum
+     * Accounts with a balance at least the minimum and less than the maximum are printed, lowest balance first.
+     *
+     * @param commandArray Holds the input that has been extracted and put into a String array
+     */
+    private static void printRange(String[] commandArray) {
+        if (!Validator.checkTokens(commandArray, 4).isValid()) {
+            System.out.println("Missing data tokens for the balance range.");
+            return;
+        }
+        AccountType type = Validator.toAccountType(commandArray[1]);
+        if (type == null) {
+            System.out.println(commandArray[1] + " - invalid account type.");
+            return;
+        }
+        for (int i = 2; i < 4; i++) {
+            if (Validator.checkAmount(commandArray[i]) == ValidationResult.INVALID_AMOUNT) {
+                System.out.println("Not a valid amount.");
+                return;
+            }
+        }
+        double min = Double.parseDouble(commandArray[2]);
+        double max = Double.parseDouble(commandArray[3]);
+        List<Account> accounts = accountDatabase.getAggregates().range(type, min, max);
+        System.out.println("\n*" + accounts.size() + " " + type + " accounts with a balance from $"
+                + df.format(min) + " up to $" + df.format(max) + ".");
+        for (Account account : accounts) {
+            System.out.println(account);
+        }
+        System.out.println("*end of list.\n");
+    }
+
+    /**
+     * Executed to print the Accounts that meet every term of a query when the first command is "PQ".
+     * Formatting of input:
+     * PQ term [term ...]
+     * Each term is a field, a comparison, and a value, such as "type=savings", "branch=princeton", "county=somerset",
+     * "balance<500", "loyal=true", "campus=1", "withdrawals>3", "term=12", or "maturity<=3/1/2026".
+     * Accounts are printed lowest balance first.
+     *
+     * @param commandArray Holds the input that has been extracted and put into a String array
+     */
+    private static void printQuery(String[] commandArray) {
+        if (!Validator.checkTokens(commandArray, 2).isValid()) {
+            System.out.println("Missing data tokens for the query.");
+            return;
+        }
+        AccountQuery query;
+        try {
+            query = new AccountQuery(commandArray, 1);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+        List<Account> accounts = query.run(accountDatabase);
+        System.out.println("\n*" + accounts.size() + " accounts where " + query.getText() + ".");
+        for (Account account : accounts) {
+            System.out.println(account);
+        }
+        System.out.println("*end of list.\n");
+    }
+
+    /**
+     * Executed to print the holders whose last name starts with, or is a close misspelling of, a name
+     * when the first command is "PF". Holders found by prefix are printed first, then the closest misspellings,
+     * each with the AccountTypes they hold.
+     * Formatting of input:
+     * PF lastName [count]
+     * Up to 10 holders are printed unless a count is given.
+     *
+     * @param commandArray Holds the input that has been extracted and put into a String array
+     */
+    private static void printHolders(String[] commandArray) {
+        if (!Validator.checkTokens(commandArray, 2).isValid()) {
+            System.out.println("Missing data tokens for the holder search.");
+            return;
+        }
+        if (commandArray.length > 2 && (!isDigits(commandArray[2]) || Integer.parseInt(commandArray[2]) == 0)) {
+            System.out.println(commandArray[2] + " - invalid number of holders.");
+            return;
+        }
+        int count = commandArray.length > 2 ? Integer.parseInt(commandArray[2]) : HOLDER_SEARCH_SIZE;
+        HolderIndex index = accountDatabase.getHolders();
+        List<Profile> holders = index.prefix(commandArray[1], count);
+        for (Profile holder : index.fuzzy(commandArray[1], count)) {
+            if (holders.size() < count && !holders.contains(holder)) {
+                holders.add(holder);
+            }
+        }
+        System.out.println("\n*" + holders.size() + " holders matching \"" + commandArray[1] + "\".");
+        for (Profile holder : holders) {
+            String types = "";
+            for (AccountType type : AccountType.values()) {
+                if (accountDatabase.contains(holder, type)) {
+                    types += (types.isEmpty() ? "" : ", ") + type;
+                }
+            }
+            System.out.println(holder + " [" + types + "]");
+        }
+        System.out.println("*end of list.\n");
+    }
+
+    /**
+     * Executed to print the Accounts with the highest balances when the first command is "PN".
+     * Formatting of input:
+     * PN n
+     *
+     * @param commandArray Holds the input that has been extracted and put into a String array
+     */
+    private static void printTop(String[] commandArray) {
+        if (!Validator.checkTokens(commandArray, 2).isValid()) {
+            System.out.println("Missing data tokens for the number of accounts.");
+            return;
+        }
+        if (!isDigits(commandArray[1])) {
+            System.out.println(commandArray[1] + " - invalid number of accounts.");
+            return;
+        }
+        List<Account> accounts = accountDatabase.getAggregates().top(Integer.parseInt(commandArray[1]));
+        System.out.println("\n*Top " + accounts.size() + " accounts by balance.");
+        for (Account account : accounts) {
+            System.out.println(account);
+        }
+        System.out.println("*end of list.\n");
+    }
+
+    /**
+     * Prints the total balance and number of Accounts for every Branch, county, and AccountType.
+     * The totals are kept up to date by the AccountDatabase, so no Account is visited.
+     */
+    private static void printAggregates() {
+        BalanceAggregates aggregates = accountDatabase.getAggregates();
+        System.out.println("\n*Balance totals by branch.");
+        for (Branch branch : Branch.values()) {
+            System.out.println(branch + ": " + aggregates.count(branch) + " accounts, $" + df.format(aggregates.total(branch)));
+        }
+        System.out.println("*Balance totals by county.");
+        List<String> counties = new List<>();
+        for (Branch branch : Branch.values()) {
+            String county = branch.getCounty();
+            if (!counties.contains(county)) {
+                counties.add(county);
+                System.out.println(county + ": " + aggregates.count(county) + " accounts, $" + df.format(aggregates.total(county)));
+            }
+        }
+        System.out.println("*Balance totals by account type.");
+        for (AccountType type : AccountType.values()) {
+            System.out.println(type + ": " + aggregates.count(type) + " accounts, $" + df.format(aggregates.total(type)));
+        }
+        System.out.println("*end of list.\n");
+    }
+
+    /**
+     * Checks if a token is made up of 1 to 9 digits.
+     *
+     * @param token the token being checked
+     * @return true if the token is a non-negative int
+     * false otherwise
+     */
+    private static boolean isDigits(String token) {
+        if (token.isEmpty() || token.length() > 9) {
+            return false;
+        }
+        for (int i = 0; i < token.length(); i++) {
+            if (!Character.isDigit(token.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
      * Determines which type of print command is needed and prints the Accounts in a certain order.
-     * VALID COMMANDS: P, PA ,PB, PH, PT.
+     * VALID COMMANDS: P, PA ,PB, PH, PT, PG.
      * P --> prints the AccountDatabase
      * PA --> prints the Archive
      * PB --> prints ordered by Branch (county, then city)
      * PH --> prints by holder then AccountNumber
      * PT --> prints by AccountType then AccountNumber
+     * PG --> prints balance totals and counts by Branch, county, and AccountType
      *
      * @param command 1-2 letter String command to determine what action to take
      */
@@ -197,12 +793,13 @@ public class TransactionManager {
                 System.out.println("*Account statements by account holder.");
                 accountDatabase.printStatements();
             }
+            case "PG" -> printAggregates();
         }
     }
 
     /**
      * Determines if the command provided is valid.
-     * VALID COMMANDS: O, C, D, W, P, PA, PB, PH, PT.
+     * VALID COMMANDS: O, OB, C, CB, D, W, T, P, PA, PB, PH, PT, PS, PG, PR, PN, PQ, PF, PD, PV, PK, KS, PL, AL, EB, EC, A, AR, AF, AX, I, R.
      * Otherwise, will identify that the command was invalid.
      *
      * @param command 1-2 letter String command to determine what action to take
@@ -211,7 +808,7 @@ public class TransactionManager {
      */
     private static boolean isValidCommand(String command) {
         return switch (command) {
-            case "O", "C", "D", "W", "PA", "PB", "PH", "PT", "PS", "A" -> true;
+            case "O", "OB", "C", "CB", "D", "W", "T", "PA", "PB", "PH", "PT", "PS", "PG", "PR", "PN", "PQ", "PF", "PD", "PV", "PK", "KS", "PL", "AL", "EB", "EC", "A", "AR", "AF", "AX", "I", "R" -> true;
             case "P" -> {
                 System.out.println("P command is deprecated!");
                 yield false;
@@ -226,48 +823,200 @@ public class TransactionManager {
     /**
      * Executed to open a new Account when the first command is "O".
      * Checks for valid inputs including a valid AccountType, Branch, Date, and balance.
+     * Tokens are checked by the Validator before they are parsed, so invalid input never throws.
      * Checks for duplicate account, minimum balance, and money market specifications.
      * Adds the opened account to the database.
      *
      * @param commandArray Holds the input that has been extracted and put into a String array
      */
     private static void openAccount(String[] commandArray) {
+        Account account = checkOpen(commandArray, accountDatabase::contains);
+        if (account == null) { return; }
+        accountDatabase.add(account); //adds the Account to the database
+        System.out.println(account.getAccountNumber().getType() + " account " + account.getAccountNumber() + " has been opened.");
+    }
+
+    /**
+     * Checks the tokens of an open command and creates the Account they describe, printing why if they are invalid.
+     * The Account is only created, and its account number only taken, once every check has passed.
+     * It is refused if every account number of its Branch and AccountType is in use.
+     *
+     * @param commandArray Holds the input that has been extracted and put into a String array
+     * @param duplicate    tells if a holder already has an Account of an AccountType other than CD
+     * @return the new Account, not yet added to the database; null if the command is invalid
+     */
+    private static Account checkOpen(String[] commandArray, BiPredicate<Profile, AccountType> duplicate) {
+        if (!Validator.checkTokens(commandArray, 2).isValid()) {
+            System.out.println("Missing data tokens for opening an account.");
+            return null;
+        }
         AccountType acctType = createAccountType(commandArray[1]); //first input is the AccountType
-        if (acctType == null) { return; }
-        if ((acctType == AccountType.COLLEGE_CHECKING && commandArray.length != 8) ||
-                (acctType == AccountType.CD && commandArray.length != 9) ||
-                (acctType != AccountType.COLLEGE_CHECKING && acctType != AccountType.CD && commandArray.length != 7)) {
+        if (acctType == null) { return null; }
+        if (!Validator.checkOpenTokens(commandArray, acctType).isValid()) {
             System.out.println("Missing data tokens for opening an account.");
-            return;
+            return null;
         }
         Branch branch = createBranch(commandArray[2]); //second input is the Branch
-        if (branch == null) { return; }
+        if (branch == null) { return null; }
+        if (!Validator.checkDate(commandArray[5]).isValid()) {
+            System.out.println("DOB invalid: " + commandArray[5] + " not a valid calendar date!");
+            return null;
+        }
         Date dob = createDate(commandArray[5]); //fifth input is the Date of Birth of the holder
-        if (!checkDateOfBirth(acctType, dob)) { return; }
+        if (!checkDateOfBirth(acctType, dob)) { return null; }
         String firstName = commandArray[3]; //third input is the first name of the holder
         String lastName = commandArray[4]; //fourth input is the last name of the holder
-        double balance;
-        try {
-            balance = Double.parseDouble(commandArray[6]); //sixth input is the balance of the holder when opening
-        } catch (NumberFormatException e) {
+        if (Validator.checkAmount(commandArray[6]) == ValidationResult.INVALID_AMOUNT) {
             System.out.println("For input string: \"" + commandArray[6] + "\" - not a valid amount.");
-            return;
+            return null;
         }
-        if (acctType != AccountType.CD && accountDatabase.contains(firstName, lastName, dob, acctType)) { //checking for a duplicate account
+        double balance = Double.parseDouble(commandArray[6]); //sixth input is the balance of the holder when opening
+        if (acctType != AccountType.CD && duplicate.test(new Profile(firstName, lastName, dob), acctType)) { //checking for a duplicate account
             System.out.println(firstName + " " + lastName + " already has a " + acctType + " account.");
+            return null;
+        }
+        if (!checkBalance(balance, acctType)) { return null; }
+        if (acctType == AccountType.CD && !checkCertificateDeposit(commandArray[7], commandArray[8])) { return null; }
+        if (acctType == AccountType.COLLEGE_CHECKING && !Validator.checkCampus(commandArray[7]).isValid()) {
+            System.out.println(commandArray[7] + " - invalid campus code.");
+            return null;
+        }
+        Account account = createAccount(commandArray, firstName, lastName, dob, branch, balance);
+        if (!account.getAccountNumber().isAssigned()) {
+            System.out.println("No " + acctType + " account numbers left at " + branch + ".");
+            return null;
+        }
+        return account;
+    }
+
+    /**
+     * Executed to open every Account listed in a file when the first command is "OB".
+     * Each line holds the tokens of an open command without the "O", separated by commas or spaces,
+     * as in "accounts.txt". Every line is checked first, with duplicates looked up in the holdings of the
+     * accountDatabase and of the lines before it, and the valid Accounts are then opened as one batch.
+     * Formatting of input:
+     * OB fileName
+     *
+     * @param commandArray Holds the input that has been extracted and put into a String array
+     * @throws IOException if the file cannot be read
+     */
+    private static void openAccounts(String[] commandArray) throws IOException {
+        if (!Validator.checkTokens(commandArray, 2).isValid()) {
+            System.out.println("Missing data tokens for opening accounts.");
             return;
         }
-        if (!checkBalance(balance, acctType)) { return; }
-        if (acctType == AccountType.CD) {
-            int value = Integer.parseInt(commandArray[7]);
-            if (value != CertificateDeposit.THREE_MONTH_TERM && value != CertificateDeposit.SIX_MONTH_TERM && value != CertificateDeposit.NINE_MONTH_TERM && value != CertificateDeposit.TWELVE_MONTH_TERM) {
-                System.out.println(commandArray[7] + " is not a valid term.");
-                return;
+        File file = new File(commandArray[1]);
+        if (!file.isFile()) {
+            System.out.println("\"" + commandArray[1] + "\" does not exist.");
+            return;
+        }
+        List<Account> batch = new List<>();
+        HashMap<Profile, int[]> pending = new HashMap<>();
+        int rejected = 0;
+        try (Scanner scanner = new Scanner(file)) {
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine().trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                Account account = checkOpen(("O " + line).split("[,\\s]+"), (holder, type) ->
+                        accountDatabase.contains(holder, type) || pending.containsKey(holder) && pending.get(holder)[type.ordinal()] > 0);
+                if (account == null) {
+                    rejected++;
+                    continue;
+                }
+                pending.computeIfAbsent(account.getHolder(), holder -> new int[AccountType.values().length])
+                        [account.getAccountNumber().getType().ordinal()]++;
+                batch.add(account);
             }
         }
-        Account account = createAccount(commandArray, firstName, lastName, dob, branch, balance);
-        accountDatabase.add(account); //adds the Account to the database
-        System.out.println(account.getAccountNumber().getType() + " account " + account.getAccountNumber() + " has been opened.");
+        accountDatabase.openAccounts(batch);
+        System.out.println(batch.size() + " accounts in \"" + file.getName() + "\" opened, " + rejected + " rejected.");
+    }
+
+    /**
+     * Executed to close every Account listed in a file when the first command is "CB".
+     * Each line holds either an account number, or the first name, last name, and date of birth of a holder
+     * whose Accounts are all closed. The file is read and checked first, then the Accounts to close are found
+     * in one pass over the accountDatabase, so an Account listed twice is closed once, and they are closed as one batch.
+     * Formatting of input:
+     * CB closeDate fileName
+     *
+     * @param commandArray Holds the input that has been extracted and put into a String array
+     * @throws IOException if the file cannot be read
+     */
+    private static void closeAccounts(String[] commandArray) throws IOException {
+        if (!Validator.checkTokens(commandArray, 3).isValid()) {
+            System.out.println("Missing data for closing accounts.");
+            return;
+        }
+        if (!Validator.checkDate(commandArray[1]).isValid() || !createDate(commandArray[1]).isValid()) {
+            System.out.println(commandArray[1] + " - invalid date.");
+            return;
+        }
+        Date closeDate = createDate(commandArray[1]);
+        File file = new File(commandArray[2]);
+        if (!file.isFile()) {
+            System.out.println("\"" + commandArray[2] + "\" does not exist.");
+            return;
+        }
+        HashSet<AccountNumber> numbers = new HashSet<>();
+        HashSet<Profile> holders = new HashSet<>();
+        try (Scanner scanner = new Scanner(file)) {
+            while (scanner.hasNextLine()) {
+                String[] tokens = scanner.nextLine().trim().split("[,\\s]+");
+                if (tokens.length == 1 && !tokens[0].isEmpty()) {
+                    if (!Validator.checkAccountNumber(tokens[0]).isValid() || !accountDatabase.contains(new AccountNumber(tokens[0]))) {
+                        System.out.println(tokens[0] + " account does not exist.");
+                    } else {
+                        numbers.add(new AccountNumber(tokens[0]));
+                    }
+                } else if (tokens.length == 3) {
+                    if (!Validator.checkDate(tokens[2]).isValid()) {
+                        System.out.println("DOB invalid: " + tokens[2] + " not a valid calendar date!");
+                    } else {
+                        holders.add(new Profile(tokens[0], tokens[1], createDate(tokens[2])));
+                    }
+                } else if (tokens.length > 1) {
+                    System.out.println("Missing data for closing an account: " + String.join(" ", tokens));
+                }
+            }
+        }
+        List<Account> batch = new List<>();
+        for (Account account : accountDatabase) {
+            if (numbers.contains(account.getAccountNumber()) || holders.contains(account.getHolder())) {
+                batch.add(account);
+            }
+        }
+        if (!batch.isEmpty()) {
+            accountDatabase.rollTo(closeDate);
+        }
+        for (Account account : batch) {
+            System.out.print("--" + account.getAccountNumber() + " ");
+            printInterest(account, closeDate);
+        }
+        accountDatabase.closeAccounts(batch, closeDate);
+        System.out.println(batch.size() + " accounts in \"" + file.getName() + "\" closed and moved to archive.");
+    }
+
+    /**
+     * Checks the term and open date tokens of a Certificate Deposit being opened.
+     *
+     * @param term String representation of the term in months
+     * @param open String representation of the date the Certificate Deposit is opened
+     * @return true if the term is 3, 6, 9, or 12 and the open date is a valid calendar date
+     * false otherwise
+     */
+    private static boolean checkCertificateDeposit(String term, String open) {
+        if (!Validator.checkTerm(term).isValid()) {
+            System.out.println(term + " is not a valid term.");
+            return false;
+        }
+        if (!Validator.checkDate(open).isValid() || !createDate(open).isValid()) {
+            System.out.println("Date opened invalid: " + open + " not a valid calendar date!");
+            return false;
+        }
+        return true;
     }
 
     /**
@@ -332,16 +1081,30 @@ public class TransactionManager {
      * @param commandArray Holds the input that has been extracted and put into a String array
      */
     private static void closeAccount(String[] commandArray) {
+        if (commandArray.length != 3 && commandArray.length != 5) {
+            System.out.println("Missing data for closing an account.");
+            return;
+        }
+        if (!Validator.checkDate(commandArray[1]).isValid() || !createDate(commandArray[1]).isValid()) {
+            System.out.println(commandArray[1] + " - invalid date.");
+            return;
+        }
         Date closeDate = createDate(commandArray[1]);
         if (commandArray.length == 3) {
+            if (!Validator.checkAccountNumber(commandArray[2]).isValid()) {
+                System.out.println(commandArray[2] + " account does not exist.");
+                return;
+            }
             closeSingleAccount(new AccountNumber(commandArray[2]), closeDate);
-        } else if (commandArray.length == 5) {
+        } else {
+            if (!Validator.checkDate(commandArray[4]).isValid()) {
+                System.out.println("DOB invalid: " + commandArray[4] + " not a valid calendar date!");
+                return;
+            }
             String firstName = commandArray[2];
             String lastName = commandArray[3];
             Date dateOfBirth = createDate(commandArray[4]);
             closeMultipleAccounts(firstName, lastName, dateOfBirth, closeDate);
-        } else {
-            System.out.println("Missing data for closing an account.");
         }
     }
 
@@ -356,6 +1119,7 @@ public class TransactionManager {
             System.out.println(accountNumber + " account does not exist.");
             return;
         }
+        accountDatabase.rollTo(closeDate);
         System.out.println("Closing account " + accountNumber);
         int index = accountDatabase.find(accountNumber);
         System.out.print("--");
@@ -378,6 +1142,7 @@ public class TransactionManager {
         if (accounts.isEmpty()) {
             System.out.println(firstName + " " + lastName + " " + dateOfBirth + " does not have any accounts in the database.");
         } else {
+            accountDatabase.rollTo(closeDate);
             System.out.println("Closing accounts for " + firstName + " " + lastName + " " + dateOfBirth);
             for (Account account : accounts) {
                 System.out.print("--" + account.getAccountNumber() + " ");
@@ -409,70 +1174,68 @@ public class TransactionManager {
     }
 
     /**
-     * Prints the interest earned on the given account based on its type, interest rate, balance,
-     * and the provided close date. It handles penalties for certificates of deposit if closed early.
+     * Prints the interest earned on the given account: the interest accrued in its statement cycle through the close date.
+     * A certificate of deposit closed before maturity earns it at the rate for the time held, and pays a penalty.
      *
      * @param account   The account for which the interest is to be calculated and printed.
      * @param closeDate The date on which the account is being evaluated or closed.
      */
     private static void printInterest(Account account, Date closeDate) {
-        double interestRate;
+        account.accrue(closeDate);
+        double interest = account.getAccruedInterest();
         System.out.print("interest earned: $");
 
         if (account.getType() == AccountType.CD) {
             CertificateDeposit cd = (CertificateDeposit) account;
-            Date openDate = cd.getOpen();
-            int daysHeld = closeDate.daysFrom(openDate);
-            double interest;
-            if (closeDate.isAfter(openDate.addMonths(cd.getTerm()))) {
-                interestRate = account.interestRate();
-                interest = account.getBalance() * interestRate / DAYS_IN_YEAR * daysHeld;
-                System.out.println(df.format(interest));
-            } else {
-                interestRate = cd.interestRate(closeDate);
-                interest = account.getBalance() * interestRate / DAYS_IN_YEAR * daysHeld;
+            if (!closeDate.isAfter(cd.getOpen().addMonths(cd.getTerm()))) {
+                interest = interest * cd.interestRate(closeDate) / cd.interestRate();
                 System.out.println(df.format(interest));
                 System.out.println("  [penalty] $" + df.format(TEN_PERCENT * interest));
+                return;
             }
-        } else {
-            interestRate = account.interestRate();
-            double interest = account.getBalance() * interestRate / DAYS_IN_YEAR * closeDate.getDay();
-            System.out.println(df.format(interest));
         }
+        System.out.println(df.format(interest));
     }
 
     /**
      * Executed to deposit money to an existing Account when the first command is "D".
-     * Checks for a deposit amount less than or equal to 0.
+     * Checks for missing tokens, an invalid amount, and a deposit amount less than or equal to 0.
      * Formatting of input:
      * D accountNumber, depositAmount
      *
      * @param commandArray Holds the input that has been extracted and put into a String array
      */
     private static void depositMoney(String[] commandArray) {
-        try {
-            double depositAmount = Double.parseDouble(commandArray[2]);
-            if (depositAmount <= 0) {
-                System.out.println(depositAmount + " - deposit amount cannot be 0 or negative.");
-                return;
-            }
-            AccountNumber accountNumber = new AccountNumber(commandArray[1]);
-            if (!accountDatabase.contains(accountNumber)) {
-                System.out.println(accountNumber + " does not exist.");
-                return;
-            }
-            accountDatabase.deposit(accountNumber, depositAmount);
-            System.out.println("$" + df.format(depositAmount) + " deposited to " + accountNumber);
-        } catch (NumberFormatException e) {
-            System.out.println("For input string: \"" + commandArray[2] + "\" - not a valid amount.");
-        } catch (ArrayIndexOutOfBoundsException e) {
+        if (!Validator.checkTokens(commandArray, 3).isValid()) {
             System.out.println("Missing data tokens for the deposit.");
+            return;
+        }
+        ValidationResult result = Validator.checkAmount(commandArray[2]);
+        if (result == ValidationResult.INVALID_AMOUNT) {
+            System.out.println("For input string: \"" + commandArray[2] + "\" - not a valid amount.");
+            return;
+        }
+        double depositAmount = Double.parseDouble(commandArray[2]);
+        if (result == ValidationResult.NON_POSITIVE_AMOUNT) {
+            System.out.println(depositAmount + " - deposit amount cannot be 0 or negative.");
+            return;
+        }
+        if (!Validator.checkAccountNumber(commandArray[1]).isValid()) {
+            System.out.println(commandArray[1] + " does not exist.");
+            return;
+        }
+        AccountNumber accountNumber = new AccountNumber(commandArray[1]);
+        if (!accountDatabase.contains(accountNumber)) {
+            System.out.println(accountNumber + " does not exist.");
+            return;
         }
+        accountDatabase.deposit(accountNumber, depositAmount);
+        System.out.println("$" + df.format(depositAmount) + " deposited to " + accountNumber);
     }
 
     /**
      * Executed to deposit money to an existing Account when the first command is "W".
-     * Checks for a withdrawal amount less than or equal to 0.
+     * Checks for missing tokens, an invalid amount, and a withdrawal amount less than or equal to 0.
      * Additionally, checks if the Account has sufficient funds or needs to be downgraded from
      * a money market account to a savings account.
      * Formatting of input:
@@ -481,41 +1244,47 @@ public class TransactionManager {
      * @param commandArray Holds the input that has been extracted and put into a String array
      */
     private static void withdrawMoney(String[] commandArray) {
-        try {
-            double withdrawalAmount = Double.parseDouble(commandArray[2]);
-            if (withdrawalAmount <= 0) {
-                System.out.println(withdrawalAmount + " withdrawal amount cannot be 0 or negative.");
-                return;
-            }
-            AccountNumber accountNumber = new AccountNumber(commandArray[1]);
-            int index = accountDatabase.find(accountNumber);
-            if (index == -1) {
-                System.out.println(accountNumber + " does not exist.");
-                return;
+        if (!Validator.checkTokens(commandArray, 3).isValid()) {
+            System.out.println("Missing data tokens for the withdrawal.");
+            return;
+        }
+        ValidationResult result = Validator.checkAmount(commandArray[2]);
+        if (result == ValidationResult.INVALID_AMOUNT) {
+            System.out.println("For input string: \"" + commandArray[2] + "\" - not a valid amount.");
+            return;
+        }
+        double withdrawalAmount = Double.parseDouble(commandArray[2]);
+        if (result == ValidationResult.NON_POSITIVE_AMOUNT) {
+            System.out.println(withdrawalAmount + " withdrawal amount cannot be 0 or negative.");
+            return;
+        }
+        if (!Validator.checkAccountNumber(commandArray[1]).isValid()) {
+            System.out.println(commandArray[1] + " does not exist.");
+            return;
+        }
+        AccountNumber accountNumber = new AccountNumber(commandArray[1]);
+        int index = accountDatabase.find(accountNumber);
+        if (index == -1) {
+            System.out.println(accountNumber + " does not exist.");
+            return;
+        }
+        boolean sufficientFunds = accountDatabase.get(index).getBalance() >= withdrawalAmount;
+        if (accountDatabase.get(index).getBalance() - withdrawalAmount < MONEY_MARKET_MINIMUM && accountDatabase.get(index).getType() == AccountType.MONEY_MARKET) {
+            if (sufficientFunds) {
+                System.out.println(accountNumber + " balance below $2,000 - $"
+                        + df.format(withdrawalAmount) + " withdrawn from " + accountNumber);
+                accountDatabase.withdraw(accountNumber, withdrawalAmount);
+            } else {
+                System.out.println(accountNumber + " balance below $2,000 - withdrawing $"
+                        + df.format(withdrawalAmount) + " - insufficient funds.");
             }
-            boolean sufficientFunds = accountDatabase.get(index).getBalance() >= withdrawalAmount;
-            if (accountDatabase.get(index).getBalance() - withdrawalAmount < MONEY_MARKET_MINIMUM && accountDatabase.get(index).getType() == AccountType.MONEY_MARKET) {
-                if (sufficientFunds) {
-                    System.out.println(accountNumber + " balance below $2,000 - $"
-                            + df.format(withdrawalAmount) + " withdrawn from " + accountNumber);
-                    accountDatabase.withdraw(accountNumber, withdrawalAmount);
-                } else {
-                    System.out.println(accountNumber + " balance below $2,000 - withdrawing $"
-                            + df.format(withdrawalAmount) + " - insufficient funds.");
-                }
+        } else {
+            if (sufficientFunds) {
+                System.out.println("$" + df.format(withdrawalAmount) + " withdrawn from " + accountNumber);
+                accountDatabase.withdraw(accountNumber, withdrawalAmount);
             } else {
-                if (sufficientFunds) {
-                    System.out.println("$" + df.format(withdrawalAmount) + " withdrawn from " + accountNumber);
-                    accountDatabase.withdraw(accountNumber, withdrawalAmount);
-                } else {
-                    System.out.println("$" + df.format(withdrawalAmount) + " - insufficient funds.");
-                }
+                System.out.println("$" + df.format(withdrawalAmount) + " - insufficient funds.");
             }
-
-        } catch (NumberFormatException e) {
-            System.out.println("For input string: \"" + commandArray[2] + "\" - not a valid amount.");
-        } catch (ArrayIndexOutOfBoundsException e) {
-            System.out.println("Missing data tokens for the withdrawal.");
         }
     }
 
@@ -527,23 +1296,16 @@ public class TransactionManager {
      * @return AccountType of the Account
      */
     private static AccountType createAccountType(String type) {
-        String typeToken = type.toLowerCase(); //AccountType is case-insensitive
-        return switch (typeToken) {
-            case "checking" -> AccountType.CHECKING;
-            case "savings" -> AccountType.SAVINGS;
-            case "moneymarket" -> AccountType.MONEY_MARKET;
-            case "college" -> AccountType.COLLEGE_CHECKING;
-            case "certificate" -> AccountType.CD;
-            default -> {
-                System.out.println(typeToken + " - invalid account type.");
-                yield null;
-            }
-        };
+        AccountType accountType = Validator.toAccountType(type); //AccountType is case-insensitive
+        if (accountType == null) {
+            System.out.println(type.toLowerCase() + " - invalid account type.");
+        }
+        return accountType;
     }
 
     /**
      * Creates a Profile object based on first name, last name, and dateOfBirth.
-     * Creates a new Profile object.
+     * Returns the interned Profile from the ProfileRegistry, so a holder with several Accounts shares one Profile.
      *
      * @param firstName   String representation of first name of Account holder
      * @param lastName    String representation of last name of Account holder
@@ -551,7 +1313,7 @@ public class TransactionManager {
      * @return Profile for the Account
      */
     private static Profile createProfile(String firstName, String lastName, Date dateOfBirth) {
-        return new Profile(firstName, lastName, dateOfBirth);
+        return ProfileRegistry.intern(firstName, lastName, dateOfBirth);
     }
 
     /**
@@ -591,14 +1353,37 @@ public class TransactionManager {
      * VALID COMMANDS: O, C, D, W, P, PA, PB, PH, PT
      * Otherwise, will identify that the command was invalid.
      * O --> opens a new Account, if not already there
+     * OB --> opens every Account listed in a file as one batch
      * C --> closes an Account, if in the database
+     * CB --> closes every Account, or every Account of a holder, listed in a file as one batch
      * D --> deposits money into an Account, if in the database
      * W --> withdraws money from an Account, if in the database and money available
+     * T --> transfers money between two Accounts, if both are in the database and money available
+     * A --> processes the activities in "activities.txt"
+     * AR --> resumes processing "activities.txt" from its last checkpoint; needs mapped or cached storage
+     *        when the checkpoint was saved by an earlier run
+     * AF --> follows "activities.txt" as it is written, applying new lines in the background
+     * AX --> stops following "activities.txt"
+     * I --> posts interest and fees to every Account
+     * R --> compacts activities before a date into daily or monthly summaries
      * P --> prints the AccountDatabase
      * PA --> prints the Archive
      * PB --> prints ordered by Branch (county, then city)
      * PH --> prints by holder then AccountNumber
      * PT --> prints by AccountType then AccountNumber
+     * PG --> prints balance totals and counts by Branch, county, and AccountType
+     * PR --> prints the Accounts of an AccountType in a balance range
+     * PN --> prints the Accounts with the highest balances
+     * PQ --> prints the Accounts that meet every term of a query
+     * PD --> prints the Activities of an Account in a date range
+     * PV --> prints the ATM and teller deposits and withdrawals at each Branch by day in a date range
+     * PK --> prints the checksum of the book by Branch, and the ranges that differ from a saved checksum
+     * KS --> saves the checksum of the book to a file
+     * PF --> prints the holders whose last name starts with or is close to a name
+     * PL --> prints how far behind following "activities.txt" is
+     * AL --> prints the alerts raised on deposits and withdrawals since the Transaction Manager started
+     * EB --> exports the statements of each Branch to a file of its own
+     * EC --> exports the statements of each county to a file of its own
      *
      * @param commandArray Holds the input that has been extracted and put into a String array
      * @throws IOException if an I/O error occurs during command processing
@@ -607,15 +1392,36 @@ public class TransactionManager {
         if (isValidCommand(commandArray[0])) {
             switch (commandArray[0]) {
                 case "O" -> openAccount(commandArray);
+                case "OB" -> openAccounts(commandArray);
                 case "C" -> closeAccount(commandArray);
+                case "CB" -> closeAccounts(commandArray);
                 case "D" -> depositMoney(commandArray);
                 case "W" -> withdrawMoney(commandArray);
-                case "A" -> processActivities();
+                case "T" -> transferMoney(commandArray);
+                case "A" -> processActivities(false);
+                case "AR" -> processActivities(true);
+                case "AF" -> followActivities(true);
+                case "AX" -> followActivities(false);
+                case "I" -> postInterest(commandArray);
+                case "R" -> compactActivities(commandArray);
             }
             if (accountDatabase.isEmpty()) {
                 System.out.println("Account database is empty!");
             } else {
-                printAccounts(commandArray[0]);
+                switch (commandArray[0]) {
+                    case "PR" -> printRange(commandArray);
+                    case "PN" -> printTop(commandArray);
+                    case "PQ" -> printQuery(commandArray);
+                    case "PD" -> printActivityRange(commandArray);
+                    case "PV" -> printTraffic(commandArray);
+                    case "PK" -> printChecksum(commandArray);
+                    case "KS" -> saveChecksum(commandArray);
+                    case "PF" -> printHolders(commandArray);
+                    case "PL" -> printLag();
+                    case "AL" -> System.out.println(accountDatabase.getDetector().report());
+                    case "EB", "EC" -> exportStatements(commandArray);
+                    default -> printAccounts(commandArray[0]);
+                }
             }
         }
     }
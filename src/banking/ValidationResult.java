@@ -0,0 +1,105 @@
+package banking;
+
+/**
+ * The ValidationResult enum class holds the typed result codes returned by the Validator.
+ * Every rejection reason for a command token has its own code, so invalid input can be reported
+ * without throwing and catching exceptions.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public enum ValidationResult {
+
+    /**
+     * The token or command line is valid.
+     */
+    VALID("valid"),
+
+    /**
+     * The command line does not have the number of tokens required by the command.
+     */
+    MISSING_TOKENS("missing data tokens"),
+
+    /**
+     * The account type token does not name one of the AccountTypes.
+     */
+    INVALID_ACCOUNT_TYPE("invalid account type"),
+
+    /**
+     * The branch token does not name one of the Branches.
+     */
+    INVALID_BRANCH("invalid branch"),
+
+    /**
+     * The date token is not formatted as ##/##/####.
+     */
+    INVALID_DATE("invalid date"),
+
+    /**
+     * The amount token is not a number.
+     */
+    INVALID_AMOUNT("not a valid amount"),
+
+    /**
+     * The amount token is a number that is 0 or negative.
+     */
+    NON_POSITIVE_AMOUNT("amount cannot be 0 or negative"),
+
+    /**
+     * The term token is not one of the Certificate Deposit terms.
+     */
+    INVALID_TERM("not a valid term"),
+
+    /**
+     * The campus token is not one of the Campus codes.
+     */
+    INVALID_CAMPUS("invalid campus code"),
+
+    /**
+     * The account number token is not a 9-digit number with a known branch code and account type code.
+     */
+    INVALID_ACCOUNT_NUMBER("invalid account number"),
+
+    /**
+     * The activity type token is neither D for a deposit nor W for a withdrawal.
+     */
+    INVALID_ACTIVITY_TYPE("invalid activity type"),
+
+    /**
+     * The account number is well formed, but no Account in the database has it.
+     */
+    ACCOUNT_NOT_FOUND("account not found");
+
+    /**
+     * Short description of the rejection reason.
+     */
+    private final String description;
+
+    /**
+     * Creates a ValidationResult object.
+     *
+     * @param description short description of the rejection reason
+     */
+    ValidationResult(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Checks if the result is the VALID code.
+     *
+     * @return true if the token or command line is valid
+     * false otherwise
+     */
+    public boolean isValid() {
+        return this == VALID;
+    }
+
+    /**
+     * Converts ValidationResult to a string that can be printed.
+     *
+     * @return the short description of the rejection reason
+     */
+    @Override
+    public String toString() {
+        return description;
+    }
+}
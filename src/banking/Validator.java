@@ -0,0 +1,317 @@
+package banking;
+
+/**
+ * The Validator class checks the tokens of a command line before they are parsed.
+ * Each check returns a ValidationResult code instead of throwing, so the command handlers
+ * can reject invalid input without relying on NumberFormatException,
+ * ArrayIndexOutOfBoundsException, or IllegalArgumentException for control flow.
+ *
+ * @author Vishal Saravanan, Yining Chen
+ */
+public class Validator {
+
+    /**
+     * Number of tokens in an open command for a Checking, Savings, or Money Market account.
+     */
+    public static final int OPEN_TOKENS = 7;
+
+    /**
+     * Number of tokens in an open command for a College Checking account.
+     */
+    public static final int OPEN_COLLEGE_TOKENS = 8;
+
+    /**
+     * Number of tokens in an open command for a Certificate Deposit account.
+     */
+    public static final int OPEN_CD_TOKENS = 9;
+
+    /**
+     * Number of digits in an AccountNumber.
+     */
+    private static final int ACCOUNT_NUMBER_LENGTH = 9;
+
+    /**
+     * Number of digits in the branch code of an AccountNumber.
+     */
+    private static final int BRANCH_CODE_LENGTH = 3;
+
+    /**
+     * Number of digits in the type code of an AccountNumber.
+     */
+    private static final int TYPE_CODE_LENGTH = 2;
+
+    /**
+     * Most digits allowed in an integer token so that it always fits in an int.
+     */
+    private static final int MAX_INT_DIGITS = 9;
+
+    /**
+     * Most digits allowed in the month and day parts of a date token.
+     */
+    private static final int MAX_MONTH_DAY_DIGITS = 2;
+
+    /**
+     * Most digits allowed in the year part of a date token.
+     */
+    private static final int MAX_YEAR_DIGITS = 4;
+
+    /**
+     * Checks if the command line has at least the number of tokens provided.
+     *
+     * @param commandArray Holds the input that has been extracted and put into a String array
+     * @param tokens       the number of tokens required
+     * @return VALID if there are enough tokens,
+     * MISSING_TOKENS otherwise
+     */
+    public static ValidationResult checkTokens(String[] commandArray, int tokens) {
+        return commandArray.length >= tokens ? ValidationResult.VALID : ValidationResult.MISSING_TOKENS;
+    }
+
+    /**
+     * Checks if an open command has the exact number of tokens for its AccountType.
+     * College Checking needs a campus code and Certificate Deposit needs a term and an open date.
+     *
+     * @param commandArray Holds the input that has been extracted and put into a String array
+     * @param type         the AccountType being opened
+     * @return VALID if the number of tokens matches the AccountType,
+     * MISSING_TOKENS otherwise
+     */
+    public static ValidationResult checkOpenTokens(String[] commandArray, AccountType type) {
+        int expected = switch (type) {
+            case COLLEGE_CHECKING -> OPEN_COLLEGE_TOKENS;
+            case CD -> OPEN_CD_TOKENS;
+            default -> OPEN_TOKENS;
+        };
+        return commandArray.length == expected ? ValidationResult.VALID : ValidationResult.MISSING_TOKENS;
+    }
+
+    /**
+     * Checks if a token names one of the AccountTypes accepted by the open command.
+     *
+     * @param token String representation of the type of Account
+     * @return VALID if the token is checking, savings, moneymarket, college, or certificate,
+     * INVALID_ACCOUNT_TYPE otherwise
+     */
+    public static ValidationResult checkAccountType(String token) {
+        return toAccountType(token) != null ? ValidationResult.VALID : ValidationResult.INVALID_ACCOUNT_TYPE;
+    }
+
+    /**
+     * Checks if a token names one of the Branches. Comparison is case-insensitive.
+     *
+     * @param token String representation of the Branch
+     * @return VALID if the token is a Branch name,
+     * INVALID_BRANCH otherwise
+     */
+    public static ValidationResult checkBranch(String token) {
+        return toBranch(token) != null ? ValidationResult.VALID : ValidationResult.INVALID_BRANCH;
+    }
+
+    /**
+     * Checks if a token is formatted as a date: month/day/year with only digits in each part.
+     * Does not check if the date is on the calendar; Date.isValid() does that once it is created.
+     *
+     * @param token String representation of the date
+     * @return VALID if the token can be split into a month, day, and year,
+     * INVALID_DATE otherwise
+     */
+    public static ValidationResult checkDate(String token) {
+        int first = token.indexOf('/');
+        int second = token.indexOf('/', first + 1);
+        if (first == -1 || second == -1 || token.indexOf('/', second + 1) != -1) {
+            return ValidationResult.INVALID_DATE;
+        }
+        if (isDigits(token, 0, first, MAX_MONTH_DAY_DIGITS)
+                && isDigits(token, first + 1, second, MAX_MONTH_DAY_DIGITS)
+                && isDigits(token, second + 1, token.length(), MAX_YEAR_DIGITS)) {
+            return ValidationResult.VALID;
+        }
+        return ValidationResult.INVALID_DATE;
+    }
+
+    /**
+     * Checks if a token is a decimal amount: an optional sign, digits, an optional fraction,
+     * and an optional exponent such as "1e3" or "2.5E-1", as Double.parseDouble reads them.
+     * Other forms Double.parseDouble reads, such as "NaN", "Infinity", hexadecimal, or a trailing 'd' or 'f',
+     * are not amounts.
+     *
+     * @param token String representation of the amount
+     * @return VALID if the token is a number greater than 0,
+     * NON_POSITIVE_AMOUNT if the token is a number that is 0 or negative,
+     * INVALID_AMOUNT if the token is not a number
+     */
+    public static ValidationResult checkAmount(String token) {
+        int i = 0;
+        boolean negative = false;
+        if (i < token.length() && (token.charAt(i) == '+' || token.charAt(i) == '-')) {
+            negative = token.charAt(i) == '-';
+            i++;
+        }
+        boolean hasDigit = false;
+        boolean hasNonZero = false;
+        boolean hasPoint = false;
+        for (; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c == '.' && !hasPoint) {
+                hasPoint = true;
+            } else if (c >= '0' && c <= '9') {
+                hasDigit = true;
+                hasNonZero |= c != '0';
+            } else if ((c == 'e' || c == 'E') && hasDigit) {
+                return checkExponent(token, i + 1);
+            } else {
+                return ValidationResult.INVALID_AMOUNT;
+            }
+        }
+        if (!hasDigit) {
+            return ValidationResult.INVALID_AMOUNT;
+        }
+        return negative || !hasNonZero ? ValidationResult.NON_POSITIVE_AMOUNT : ValidationResult.VALID;
+    }
+
+    /**
+     * Checks the exponent of an amount: an optional sign and digits running to the end of the token.
+     * A valid amount with an exponent is then parsed, since the exponent can round it to 0.
+     *
+     * @param token String representation of the amount
+     * @param start index of the first character after the 'e' or 'E'
+     * @return VALID if the amount is greater than 0,
+     * NON_POSITIVE_AMOUNT if it is 0 or negative,
+     * INVALID_AMOUNT if the exponent is not a signed integer
+     */
+    private static ValidationResult checkExponent(String token, int start) {
+        if (start < token.length() && (token.charAt(start) == '+' || token.charAt(start) == '-')) {
+            start++;
+        }
+        if (!isDigits(token, start, token.length(), token.length())) {
+            return ValidationResult.INVALID_AMOUNT;
+        }
+        return Double.parseDouble(token) > 0 ? ValidationResult.VALID : ValidationResult.NON_POSITIVE_AMOUNT;
+    }
+
+    /**
+     * Checks if a token is one of the Certificate Deposit terms: 3, 6, 9, or 12 months.
+     *
+     * @param token String representation of the term
+     * @return VALID if the token is a term,
+     * INVALID_TERM otherwise
+     */
+    public static ValidationResult checkTerm(String token) {
+        if (!isDigits(token, 0, token.length(), MAX_INT_DIGITS)) {
+            return ValidationResult.INVALID_TERM;
+        }
+        return switch (Integer.parseInt(token)) {
+            case CertificateDeposit.THREE_MONTH_TERM, CertificateDeposit.SIX_MONTH_TERM,
+                 CertificateDeposit.NINE_MONTH_TERM, CertificateDeposit.TWELVE_MONTH_TERM -> ValidationResult.VALID;
+            default -> ValidationResult.INVALID_TERM;
+        };
+    }
+
+    /**
+     * Checks if a token is one of the Campus codes.
+     *
+     * @param token String representation of the campus code
+     * @return VALID if the token is a Campus code,
+     * INVALID_CAMPUS otherwise
+     */
+    public static ValidationResult checkCampus(String token) {
+        return toCampus(token) != null ? ValidationResult.VALID : ValidationResult.INVALID_CAMPUS;
+    }
+
+    /**
+     * Checks if a token is a 9-digit AccountNumber with a known branch code and account type code.
+     *
+     * @param token String representation of the AccountNumber
+     * @return VALID if an AccountNumber can be created from the token,
+     * INVALID_ACCOUNT_NUMBER otherwise
+     */
+    public static ValidationResult checkAccountNumber(String token) {
+        if (token.length() != ACCOUNT_NUMBER_LENGTH || !isDigits(token, 0, token.length(), ACCOUNT_NUMBER_LENGTH)) {
+            return ValidationResult.INVALID_ACCOUNT_NUMBER;
+        }
+        String branchCode = token.substring(0, BRANCH_CODE_LENGTH);
+        String typeCode = token.substring(BRANCH_CODE_LENGTH, BRANCH_CODE_LENGTH + TYPE_CODE_LENGTH);
+        boolean knownBranch = false;
+        for (Branch branch : Branch.values()) {
+            knownBranch |= branch.getBranchCode().equals(branchCode);
+        }
+        boolean knownType = false;
+        for (AccountType type : AccountType.values()) {
+            knownType |= type.getCode().equals(typeCode);
+        }
+        return knownBranch && knownType ? ValidationResult.VALID : ValidationResult.INVALID_ACCOUNT_NUMBER;
+    }
+
+    /**
+     * Finds the Branch named by a token without throwing. Comparison is case-insensitive.
+     *
+     * @param token String representation of the Branch
+     * @return the Branch named by the token,
+     * null if there is no such Branch
+     */
+    public static Branch toBranch(String token) {
+        for (Branch branch : Branch.values()) {
+            if (branch.name().equalsIgnoreCase(token)) {
+                return branch;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the Campus for a code without throwing.
+     *
+     * @param token String representation of the campus code
+     * @return the Campus for the code,
+     * null if there is no such Campus
+     */
+    public static Campus toCampus(String token) {
+        for (Campus campus : Campus.values()) {
+            if (campus.name().equals("_" + token)) {
+                return campus;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the AccountType named by an open command token. Comparison is case-insensitive.
+     *
+     * @param token String representation of the type of Account
+     * @return the AccountType named by the token,
+     * null if there is no such AccountType
+     */
+    public static AccountType toAccountType(String token) {
+        return switch (token.toLowerCase()) {
+            case "checking" -> AccountType.CHECKING;
+            case "savings" -> AccountType.SAVINGS;
+            case "moneymarket" -> AccountType.MONEY_MARKET;
+            case "college" -> AccountType.COLLEGE_CHECKING;
+            case "certificate" -> AccountType.CD;
+            default -> null;
+        };
+    }
+
+    /**
+     * Checks if a part of a token is only digits.
+     *
+     * @param token     the token being checked
+     * @param start     index of the first character of the part
+     * @param end       index after the last character of the part
+     * @param maxDigits most digits allowed in the part
+     * @return true if the part has between 1 and maxDigits digits and nothing else
+     * false otherwise
+     */
+    private static boolean isDigits(String token, int start, int end, int maxDigits) {
+        if (end <= start || end - start > maxDigits) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            char c = token.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
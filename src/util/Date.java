@@ -78,6 +78,51 @@ public class Date implements Comparable<Date> {
      */
     public static final int DAYS_IN_FEBRUARY_LEAP = 29;
 
+    /**
+     * Number of days in a non-leap year (365 days).
+     */
+    public static final int DAYS_IN_YEAR = 365;
+
+    /**
+     * Number of months in a year.
+     */
+    private static final int MONTHS_IN_YEAR = 12;
+
+    /**
+     * Month number of March; days of the year are counted from March so February is the last month.
+     */
+    private static final int MARCH = 3;
+
+    /**
+     * Number of months in each repeating 31-30-31-30-31 group of months counted from March.
+     */
+    private static final int FIVE_MONTHS = 5;
+
+    /**
+     * Number of days in each repeating 31-30-31-30-31 group of months counted from March.
+     */
+    private static final int DAYS_IN_FIVE_MONTHS_FROM_MARCH = 153;
+
+    /**
+     * Number of days in four years that include one leap day.
+     */
+    private static final int DAYS_IN_QUADRENNIAL = 1461;
+
+    /**
+     * Number of days in a century without a leap day in its last year.
+     */
+    private static final int DAYS_IN_CENTENNIAL = 36524;
+
+    /**
+     * Number of days in a period of 400 years.
+     */
+    private static final int DAYS_IN_QUARTERCENTENNIAL = 146097;
+
+    /**
+     * Number of days from 3/1/0000 to 1/1/1970.
+     */
+    private static final int DAYS_FROM_YEAR_ZERO_TO_EPOCH = 719468;
+
     /**
      * Creates a Date object.
      *
@@ -223,11 +268,43 @@ public class Date implements Comparable<Date> {
      * @return true if this date occurs after the provided date, false otherwise
      */
     public boolean isAfter(Date other) {
-        Calendar otherDate = Calendar.getInstance();
-        otherDate.set(other.getYear(), other.getMonth() - MONTH_OFFSET, other.getDay());
-        Calendar thisDate = Calendar.getInstance();
-        thisDate.set(this.year, this.month - MONTH_OFFSET, this.day);
-        return thisDate.after(otherDate);
+        return this.compareTo(other) > 0;
+    }
+
+    /**
+     * Converts the date to the number of days since 1/1/1970.
+     * Lets day counts between two dates be found by subtraction instead of stepping a Calendar one day at a time.
+     *
+     * @return the number of days since 1/1/1970, negative for earlier dates
+     */
+    public int toEpochDay() {
+        int y = this.month < MARCH ? this.year - 1 : this.year;
+        int era = Math.floorDiv(y, QUARTERCENTENNIAL);
+        int yearOfEra = y - era * QUARTERCENTENNIAL;
+        int monthFromMarch = (this.month + MONTHS_IN_YEAR - MARCH) % MONTHS_IN_YEAR;
+        int dayOfYear = (DAYS_IN_FIVE_MONTHS_FROM_MARCH * monthFromMarch + 2) / FIVE_MONTHS + this.day - 1;
+        int dayOfEra = yearOfEra * DAYS_IN_YEAR + yearOfEra / QUADRENNIAL - yearOfEra / CENTENNIAL + dayOfYear;
+        return era * DAYS_IN_QUARTERCENTENNIAL + dayOfEra - DAYS_FROM_YEAR_ZERO_TO_EPOCH;
+    }
+
+    /**
+     * Creates the Date of a day counted from 1/1/1970; the inverse of toEpochDay().
+     *
+     * @param epochDay number of days since 1/1/1970
+     * @return the Date of the day
+     */
+    public static Date ofEpochDay(int epochDay) {
+        int z = epochDay + DAYS_FROM_YEAR_ZERO_TO_EPOCH;
+        int era = Math.floorDiv(z, DAYS_IN_QUARTERCENTENNIAL);
+        int dayOfEra = z - era * DAYS_IN_QUARTERCENTENNIAL;
+        int yearOfEra = (dayOfEra - dayOfEra / (DAYS_IN_QUADRENNIAL - 1) + dayOfEra / DAYS_IN_CENTENNIAL
+                - dayOfEra / (DAYS_IN_QUARTERCENTENNIAL - 1)) / DAYS_IN_YEAR;
+        int dayOfYear = dayOfEra - (DAYS_IN_YEAR * yearOfEra + yearOfEra / QUADRENNIAL - yearOfEra / CENTENNIAL);
+        int monthFromMarch = (FIVE_MONTHS * dayOfYear + 2) / DAYS_IN_FIVE_MONTHS_FROM_MARCH;
+        int day = dayOfYear - (DAYS_IN_FIVE_MONTHS_FROM_MARCH * monthFromMarch + 2) / FIVE_MONTHS + 1;
+        int month = (monthFromMarch + MARCH - 1) % MONTHS_IN_YEAR + 1;
+        int year = yearOfEra + era * QUARTERCENTENNIAL + (month < MARCH ? 1 : 0);
+        return new Date(month, day, year);
     }
 
     /**
@@ -257,37 +334,15 @@ public class Date implements Comparable<Date> {
         return year % CENTENNIAL != 0 || year % QUARTERCENTENNIAL == 0;
     }
 
-    /**
-     * Resets the time fields (hour, minute, second, millisecond) of the given Calendar object to 0.
-     *
-     * @param cal the Calendar object whose time fields are to be cleared
-     */
-    private static void clearTime(Calendar cal) {
-        cal.set(Calendar.HOUR_OF_DAY, 0);
-        cal.set(Calendar.MINUTE, 0);
-        cal.set(Calendar.SECOND, 0);
-        cal.set(Calendar.MILLISECOND, 0);
-    }
-
     /**
      * Calculates the number of days from the given date to the current date.
+     * Both days are counted, so the result is 1 when the dates are the same or the given date is later.
      *
      * @param other the Date object to compare with the current date
      * @return the number of days from the specified date to the current one
      */
     public int daysFrom(Date other) {
-        Calendar calThis = Calendar.getInstance();
-        Calendar calOther = Calendar.getInstance();
-        calThis.set(this.year, this.month - MONTH_OFFSET, this.day);
-        calOther.set(other.year, other.month - MONTH_OFFSET, other.day);
-        clearTime(calThis);
-        clearTime(calOther);
-        int days = 1;
-        while (calOther.before(calThis)) {
-            calOther.add(Calendar.DAY_OF_MONTH, 1);
-            days++;
-        }
-        return days;
+        return Math.max(this.toEpochDay() - other.toEpochDay(), 0) + 1;
     }
 
     /**
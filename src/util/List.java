@@ -77,6 +77,23 @@ public class List<E> implements Iterable<E> {
         this.objects = newObjects;
     }
 
+    /**
+     * Increases the capacity of the internal storage array once, so a batch of elements
+     * can be added without growing it again for every few elements.
+     *
+     * @param capacity the number of elements the list must hold without growing
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity < this.objects.length) {
+            return;
+        }
+        E[] newObjects = (E[]) new Object[capacity + GROW_SIZE];
+        for (int i = 0; i < this.size; i++) {
+            newObjects[i] = this.objects[i];
+        }
+        this.objects = newObjects;
+    }
+
     /**
      * Determines whether the specified element is present in the list.
      *